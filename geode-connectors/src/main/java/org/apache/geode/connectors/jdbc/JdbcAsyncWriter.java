@@ -15,7 +15,10 @@
 package org.apache.geode.connectors.jdbc;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.LongAdder;
 
 import org.apache.logging.log4j.Logger;
@@ -25,6 +28,7 @@ import org.apache.geode.annotations.Experimental;
 import org.apache.geode.cache.asyncqueue.AsyncEvent;
 import org.apache.geode.cache.asyncqueue.AsyncEventListener;
 import org.apache.geode.connectors.jdbc.internal.AbstractJdbcCallback;
+import org.apache.geode.connectors.jdbc.internal.PendingWrite;
 import org.apache.geode.connectors.jdbc.internal.SqlHandler;
 import org.apache.geode.internal.cache.InternalCache;
 import org.apache.geode.internal.logging.LogService;
@@ -32,6 +36,8 @@ import org.apache.geode.pdx.PdxInstance;
 
 /**
  * This class provides write behind cache semantics for a JDBC data source using AsyncEventListener.
+ * Each batch of events is reduced to the last event of every key and written with JDBC batches in
+ * one transaction.
  *
  * @since Geode 1.4
  */
@@ -71,19 +77,17 @@ public class JdbcAsyncWriter extends AbstractJdbcCallback implements AsyncEventL
     Boolean initialPdxReadSerialized = cache.getPdxReadSerializedOverride();
     cache.setPdxReadSerializedOverride(true);
     try {
+      // only the last event of a key needs to be written, earlier ones share its outcome
+      Map<Object, List<AsyncEvent>> eventsByKey = new LinkedHashMap<>();
       for (AsyncEvent event : events) {
         if (eventCanBeIgnored(event.getOperation())) {
           changeIgnoredEvents(1);
           continue;
         }
-        try {
-          getSqlHandler().write(event.getRegion(), event.getOperation(), event.getKey(),
-              getPdxInstance(event));
-          changeSuccessfulEvents(1);
-        } catch (SQLException | RuntimeException ex) {
-          changeFailedEvents(1);
-          logger.error("Exception processing event {}", event, ex);
-        }
+        eventsByKey.computeIfAbsent(event.getKey(), k -> new ArrayList<>()).add(event);
+      }
+      if (!eventsByKey.isEmpty()) {
+        writeEvents(eventsByKey);
       }
     } finally {
       cache.setPdxReadSerializedOverride(initialPdxReadSerialized);
@@ -91,6 +95,57 @@ public class JdbcAsyncWriter extends AbstractJdbcCallback implements AsyncEventL
     return true;
   }
 
+  /**
+   * precondition: DefaultQuery.setPdxReadSerialized(true)
+   */
+  private void writeEvents(Map<Object, List<AsyncEvent>> eventsByKey) {
+    List<PendingWrite<Object>> writes = new ArrayList<>(eventsByKey.size());
+    List<List<AsyncEvent>> writtenEvents = new ArrayList<>(eventsByKey.size());
+    for (List<AsyncEvent> keyEvents : eventsByKey.values()) {
+      AsyncEvent event = keyEvents.get(keyEvents.size() - 1);
+      try {
+        writes.add(new PendingWrite<>(event.getOperation(), event.getKey(),
+            getPdxInstance(event)));
+        writtenEvents.add(keyEvents);
+      } catch (RuntimeException ex) {
+        changeFailedEvents(keyEvents.size());
+        logger.error("Exception processing event {}", event, ex);
+      }
+    }
+    if (writes.isEmpty()) {
+      return;
+    }
+
+    try {
+      getSqlHandler().writeAll(writtenEvents.get(0).get(0).getRegion(), writes);
+    } catch (SQLException | RuntimeException ex) {
+      long failedEvents = countEvents(writtenEvents);
+      changeFailedEvents(failedEvents);
+      logger.error("Exception processing {} events", failedEvents, ex);
+      return;
+    }
+
+    for (int i = 0; i < writes.size(); i++) {
+      List<AsyncEvent> keyEvents = writtenEvents.get(i);
+      Exception failure = writes.get(i).getFailure();
+      if (failure == null) {
+        changeSuccessfulEvents(keyEvents.size());
+      } else {
+        changeFailedEvents(keyEvents.size());
+        logger.error("Exception processing event {}", keyEvents.get(keyEvents.size() - 1),
+            failure);
+      }
+    }
+  }
+
+  private static long countEvents(List<List<AsyncEvent>> eventLists) {
+    long count = 0;
+    for (List<AsyncEvent> events : eventLists) {
+      count += events.size();
+    }
+    return count;
+  }
+
   long getTotalEvents() {
     return totalEvents.longValue();
   }
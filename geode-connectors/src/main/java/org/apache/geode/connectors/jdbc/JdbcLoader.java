@@ -15,23 +15,62 @@
 package org.apache.geode.connectors.jdbc;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
 
 import org.apache.geode.annotations.Experimental;
 import org.apache.geode.cache.CacheLoader;
 import org.apache.geode.cache.CacheLoaderException;
 import org.apache.geode.cache.LoaderHelper;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.partition.PartitionRegionHelper;
 import org.apache.geode.connectors.jdbc.internal.AbstractJdbcCallback;
 import org.apache.geode.connectors.jdbc.internal.SqlHandler;
 import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.internal.logging.LoggingThreadFactory;
+import org.apache.geode.pdx.PdxInstance;
 
 /**
  * This class provides loading from a data source using JDBC.
+ * <p>
+ * Besides loading one key at a time, {@link #loadAll} reads many keys with a few multi-key queries
+ * and {@link #warmUp} streams the whole mapped table into a region. Both hand the rows they read to
+ * {@link #load} through {@link Region#getAll}, so entries are created exactly as any other load
+ * and are not written back to the data source. Rows are only handed over within this member, so
+ * both are limited to replicated and local regions: the keys of a partitioned region are loaded
+ * by the member hosting their primary bucket.
  *
  * @since Geode 1.4
  */
 @Experimental
 public class JdbcLoader<K, V> extends AbstractJdbcCallback implements CacheLoader<K, V> {
 
+  /**
+   * Number of rows fetched from the data source at a time and loaded by one getAll during a warm-up
+   */
+  static final int WARM_UP_BATCH_SIZE = 1000;
+
+  /**
+   * Marks a key that was read in bulk and has no row
+   */
+  private static final Object NO_ROW = new Object();
+
+  /**
+   * Rows read in bulk that are waiting for their load. Cleared by the bulk operation that read them
+   * once its getAll is done.
+   */
+  private final Map<Object, Object> prefetchedRows = new ConcurrentHashMap<>();
+
   @SuppressWarnings("unused")
   public JdbcLoader() {
     super();
@@ -49,6 +88,13 @@ public class JdbcLoader<K, V> extends AbstractJdbcCallback implements CacheLoade
   @Override
   public V load(LoaderHelper<K, V> helper) throws CacheLoaderException {
     checkInitialized(helper.getRegion());
+    Object prefetched = null;
+    if (!prefetchedRows.isEmpty() && helper.getKey() != null) {
+      prefetched = prefetchedRows.remove(helper.getKey());
+    }
+    if (prefetched != null) {
+      return prefetched == NO_ROW ? null : (V) prefetched;
+    }
     try {
       // The following cast to V is to keep the compiler happy
       // but is erased at runtime and no actual cast happens.
@@ -57,4 +103,138 @@ public class JdbcLoader<K, V> extends AbstractJdbcCallback implements CacheLoade
       throw JdbcConnectorException.createException(e);
     }
   }
+
+  /**
+   * Loads all the given keys that are not in the region yet, reading them from the data source with
+   * as few queries as possible.
+   *
+   * @return the values of all the given keys, null for keys without a row
+   * @throws UnsupportedOperationException if the region is partitioned
+   */
+  public Map<K, V> loadAll(Region<K, V> region, Collection<K> keys) throws CacheLoaderException {
+    checkNotPartitioned(region);
+    checkInitialized(region);
+    List<K> missingKeys = new ArrayList<>();
+    for (K key : keys) {
+      if (!region.containsKey(key)) {
+        missingKeys.add(key);
+      }
+    }
+    if (!missingKeys.isEmpty()) {
+      Map<K, PdxInstance> rows;
+      try {
+        rows = getSqlHandler().readAll(region, missingKeys);
+      } catch (SQLException e) {
+        throw JdbcConnectorException.createException(e);
+      }
+      for (K key : missingKeys) {
+        PdxInstance row = rows.get(key);
+        prefetchedRows.put(key, row == null ? NO_ROW : row);
+      }
+    }
+    try {
+      return region.getAll(keys);
+    } finally {
+      for (K key : missingKeys) {
+        prefetchedRows.remove(key);
+      }
+    }
+  }
+
+  /**
+   * Streams every row of the mapped table into the region. Rows are fetched
+   * {@value #WARM_UP_BATCH_SIZE} at a time and each batch is loaded with a getAll by one of
+   * {@code threads} threads, while the next batch is read. The mapped table must have a single key
+   * column whose pdx field has the type of the region's keys.
+   *
+   * @return the number of rows read from the data source
+   * @throws UnsupportedOperationException if the region is partitioned
+   */
+  public long warmUp(Region<K, V> region, int threads) throws CacheLoaderException {
+    if (threads < 1) {
+      throw new IllegalArgumentException("threads must be at least 1 but was " + threads);
+    }
+    checkNotPartitioned(region);
+    checkInitialized(region);
+    // the reading thread loads a batch itself whenever all loading threads are busy
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L,
+        TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(threads),
+        new LoggingThreadFactory("JdbcLoader warm-up " + region.getName() + " "),
+        new ThreadPoolExecutor.CallerRunsPolicy());
+    WarmUp warmUp = new WarmUp(region, executor);
+    try {
+      getSqlHandler().readTable(WARM_UP_BATCH_SIZE, warmUp);
+      warmUp.finish();
+    } catch (SQLException e) {
+      throw JdbcConnectorException.createException(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new CacheLoaderException("Interrupted while warming up region " + region.getName(), e);
+    } catch (ExecutionException e) {
+      throw new CacheLoaderException("Could not warm up region " + region.getName(), e.getCause());
+    } finally {
+      executor.shutdownNow();
+      prefetchedRows.clear();
+    }
+    return warmUp.rowCount;
+  }
+
+  private void checkNotPartitioned(Region<K, V> region) {
+    if (PartitionRegionHelper.isPartitionedRegion(region)) {
+      throw new UnsupportedOperationException(
+          "Bulk loading is not supported for partitioned region " + region.getName());
+    }
+  }
+
+  /**
+   * Collects the streamed rows into batches and hands each full batch to the loading threads
+   */
+  private class WarmUp implements BiConsumer<Object, PdxInstance> {
+    private final Region<K, V> region;
+    private final ExecutorService executor;
+    private final List<Future<?>> loadedBatches = new ArrayList<>();
+    private List<K> batch = new ArrayList<>(WARM_UP_BATCH_SIZE);
+    private long rowCount;
+
+    WarmUp(Region<K, V> region, ExecutorService executor) {
+      this.region = region;
+      this.executor = executor;
+    }
+
+    @Override
+    public void accept(Object key, PdxInstance row) {
+      prefetchedRows.put(key, row);
+      batch.add((K) key);
+      rowCount++;
+      if (batch.size() == WARM_UP_BATCH_SIZE) {
+        submitBatch();
+      }
+    }
+
+    private void submitBatch() {
+      loadedBatches.add(executor.submit(loadBatch(region, batch)));
+      batch = new ArrayList<>(WARM_UP_BATCH_SIZE);
+    }
+
+    void finish() throws InterruptedException, ExecutionException {
+      if (!batch.isEmpty()) {
+        submitBatch();
+      }
+      for (Future<?> loadedBatch : loadedBatches) {
+        loadedBatch.get();
+      }
+    }
+  }
+
+  private Runnable loadBatch(Region<K, V> region, List<K> keys) {
+    return () -> {
+      try {
+        region.getAll(keys);
+      } finally {
+        for (K key : keys) {
+          prefetchedRows.remove(key);
+        }
+      }
+    };
+  }
 }
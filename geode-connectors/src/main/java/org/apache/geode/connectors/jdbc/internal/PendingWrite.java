@@ -0,0 +1,61 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.connectors.jdbc.internal;
+
+import org.apache.geode.annotations.Experimental;
+import org.apache.geode.cache.Operation;
+import org.apache.geode.pdx.PdxInstance;
+
+/**
+ * An entry operation waiting to be written to the database by
+ * {@link SqlHandler#writeAll(org.apache.geode.cache.Region, java.util.List)}. Once the batch has
+ * been written, {@link #getFailure()} tells whether this particular entry made it.
+ */
+@Experimental
+public class PendingWrite<K> {
+  private final Operation operation;
+  private final K key;
+  private final PdxInstance value;
+  private Exception failure;
+
+  public PendingWrite(Operation operation, K key, PdxInstance value) {
+    this.operation = operation;
+    this.key = key;
+    this.value = value;
+  }
+
+  public Operation getOperation() {
+    return operation;
+  }
+
+  public K getKey() {
+    return key;
+  }
+
+  public PdxInstance getValue() {
+    return value;
+  }
+
+  /**
+   * @return the exception that prevented this entry from being written, or null if it was written
+   */
+  public Exception getFailure() {
+    return failure;
+  }
+
+  void setFailure(Exception failure) {
+    this.failure = failure;
+  }
+}
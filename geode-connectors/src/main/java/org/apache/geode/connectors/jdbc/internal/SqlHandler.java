@@ -14,18 +14,26 @@
  */
 package org.apache.geode.connectors.jdbc.internal;
 
+import java.math.BigDecimal;
 import java.sql.Connection;
+import java.sql.JDBCType;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.BiConsumer;
 
 import javax.sql.DataSource;
 
+import org.apache.logging.log4j.Logger;
+
 import org.apache.geode.InternalGemFireException;
 import org.apache.geode.annotations.Experimental;
 import org.apache.geode.cache.Operation;
@@ -35,10 +43,19 @@ import org.apache.geode.connectors.jdbc.internal.configuration.FieldMapping;
 import org.apache.geode.connectors.jdbc.internal.configuration.RegionMapping;
 import org.apache.geode.internal.cache.InternalCache;
 import org.apache.geode.internal.jndi.JNDIInvoker;
+import org.apache.geode.internal.logging.LogService;
 import org.apache.geode.pdx.PdxInstance;
 
 @Experimental
 public class SqlHandler {
+  private static final Logger logger = LogService.getLogger();
+
+  /**
+   * Maximum number of keys bound to one SELECT ... IN (...) statement, kept below the 1000
+   * expressions some databases allow in an IN list
+   */
+  static final int MAX_KEYS_PER_READ = 500;
+
   private final InternalCache cache;
   private final RegionMapping regionMapping;
   private final DataSource dataSource;
@@ -130,6 +147,131 @@ public class SqlHandler {
     return result;
   }
 
+  /**
+   * Reads the rows of all the given keys. When the table has a single key column the keys are
+   * read with one {@code SELECT ... WHERE key IN (...)} per {@value #MAX_KEYS_PER_READ} keys,
+   * otherwise each key is read on its own as {@link #read} would.
+   *
+   * @return the PdxInstance of every key that has a row, keys without a row are left out
+   */
+  public <K, V> Map<K, PdxInstance> readAll(Region<K, V> region, Collection<K> keys)
+      throws SQLException {
+    Map<K, PdxInstance> result = new HashMap<>();
+    List<String> keyColumnNames = tableMetaData.getKeyColumnNames();
+    if (keyColumnNames.size() != 1) {
+      for (K key : keys) {
+        PdxInstance value = read(region, key);
+        if (value != null) {
+          result.put(key, value);
+        }
+      }
+      return result;
+    }
+
+    String keyColumnName = keyColumnNames.get(0);
+    String keyFieldName = getFieldNameForColumn(keyColumnName);
+    List<K> keyList = new ArrayList<>(keys);
+    try (Connection connection = getConnection()) {
+      for (int start = 0; start < keyList.size(); start += MAX_KEYS_PER_READ) {
+        List<K> chunk = keyList.subList(start, Math.min(start + MAX_KEYS_PER_READ, keyList.size()));
+        readChunk(connection, keyColumnName, keyFieldName, chunk, result);
+      }
+    }
+    return result;
+  }
+
+  private <K> void readChunk(Connection connection, String keyColumnName, String keyFieldName,
+      List<K> keys, Map<K, PdxInstance> result) throws SQLException {
+    Map<Object, K> requestedKeys = new HashMap<>();
+    for (K key : keys) {
+      if (key == null) {
+        throw new IllegalArgumentException("Key for query cannot be null");
+      }
+      requestedKeys.put(normalizeKey(key), key);
+    }
+    SqlStatementFactory statementFactory =
+        new SqlStatementFactory(tableMetaData.getIdentifierQuoteString());
+    String sqlStr = statementFactory.createSelectInQueryString(
+        tableMetaData.getQuotedTablePath(), keyColumnName, keys.size());
+    JDBCType keyDataType = tableMetaData.getColumnDataType(keyColumnName);
+    try (PreparedStatement statement = connection.prepareStatement(sqlStr)) {
+      int index = 0;
+      for (K key : keys) {
+        setValueOnStatement(statement, ++index, new ColumnData(keyColumnName, key, keyDataType));
+      }
+      try (ResultSet resultSet = statement.executeQuery()) {
+        while (resultSet.next()) {
+          PdxInstance value = getSqlToPdxInstance().createFromCurrentRow(resultSet);
+          K key = requestedKeys.get(normalizeKey(value.getField(keyFieldName)));
+          if (key != null) {
+            result.put(key, value);
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Streams every row of the mapped table to the given consumer along with the value of its key
+   * column. The table must have a single key column. Rows are fetched {@code fetchSize} at a time
+   * so the whole table never has to fit in memory.
+   */
+  public void readTable(int fetchSize, BiConsumer<Object, PdxInstance> consumer)
+      throws SQLException {
+    List<String> keyColumnNames = tableMetaData.getKeyColumnNames();
+    if (keyColumnNames.size() != 1) {
+      throw new JdbcConnectorException("The table " + tableMetaData.getQuotedTablePath()
+          + " can only be read as a whole if it has a single key column but it has "
+          + keyColumnNames);
+    }
+    String keyFieldName = getFieldNameForColumn(keyColumnNames.get(0));
+    SqlStatementFactory statementFactory =
+        new SqlStatementFactory(tableMetaData.getIdentifierQuoteString());
+    String sqlStr = statementFactory.createSelectAllQueryString(tableMetaData.getQuotedTablePath());
+    try (Connection connection = getConnection()) {
+      // some drivers, e.g. PostgreSQL, only honor the fetch size inside a transaction
+      boolean autoCommit = connection.getAutoCommit();
+      connection.setAutoCommit(false);
+      try (PreparedStatement statement = connection.prepareStatement(sqlStr,
+          ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+        statement.setFetchSize(fetchSize);
+        try (ResultSet resultSet = statement.executeQuery()) {
+          while (resultSet.next()) {
+            PdxInstance value = getSqlToPdxInstance().createFromCurrentRow(resultSet);
+            consumer.accept(value.getField(keyFieldName), value);
+          }
+        }
+        connection.commit();
+      } finally {
+        connection.setAutoCommit(autoCommit);
+      }
+    }
+  }
+
+  private String getFieldNameForColumn(String columnName) {
+    for (FieldMapping fieldMapping : regionMapping.getFieldMappings()) {
+      if (fieldMapping.getJdbcName().equals(columnName)) {
+        return fieldMapping.getPdxName();
+      }
+    }
+    throw new JdbcConnectorException(
+        "The jdbc-mapping does not contain the key column name \"" + columnName + "\".");
+  }
+
+  /**
+   * Keys read back from the table may have another type than the ones the region uses, e.g. a
+   * Long column for Integer keys, so they are compared by value.
+   */
+  private static Object normalizeKey(Object key) {
+    if (key instanceof Number) {
+      return new BigDecimal(key.toString()).stripTrailingZeros();
+    }
+    if (key instanceof Character) {
+      return key.toString();
+    }
+    return key;
+  }
+
   private SqlToPdxInstance getSqlToPdxInstance() {
     SqlToPdxInstance result = this.sqlToPdxInstance;
     if (result == null) {
@@ -240,6 +382,153 @@ public class SqlHandler {
     }
   }
 
+  /**
+   * Writes all the given entries using one JDBC batch per distinct statement, committing them
+   * together in a single transaction. Destroys are executed first, then puts are executed as
+   * updates and the rows that did not exist yet are inserted. The caller must pass at most one
+   * write per key, since the statements of different operations are not executed in the order of
+   * the list.
+   * <p>
+   * If the batched transaction fails, it is rolled back and each entry is written on its own as
+   * {@link #write} would, so only the entries that cannot be written end up with a
+   * {@link PendingWrite#getFailure() failure}.
+   */
+  public <K, V> void writeAll(Region<K, V> region, List<PendingWrite<K>> writes)
+      throws SQLException {
+    Map<PendingWrite<K>, EntryColumnData> batchable = new LinkedHashMap<>();
+    List<PendingWrite<K>> singles = new ArrayList<>();
+    for (PendingWrite<K> pendingWrite : writes) {
+      Operation operation = pendingWrite.getOperation();
+      if (pendingWrite.getValue() == null && !operation.isDestroy()) {
+        pendingWrite.setFailure(new IllegalArgumentException(
+            "PdxInstance cannot be null for non-destroy operations"));
+        continue;
+      }
+      EntryColumnData entryColumnData;
+      try {
+        entryColumnData = getEntryColumnData(tableMetaData, pendingWrite.getKey(),
+            pendingWrite.getValue(), operation);
+      } catch (RuntimeException ex) {
+        pendingWrite.setFailure(ex);
+        continue;
+      }
+      if (operation.isDestroy() || !entryColumnData.getEntryValueColumnData().isEmpty()) {
+        batchable.put(pendingWrite, entryColumnData);
+      } else {
+        // an update without any value column is not valid SQL so let write insert it
+        singles.add(pendingWrite);
+      }
+    }
+
+    if (!batchable.isEmpty() && !writeBatched(batchable)) {
+      singles.addAll(batchable.keySet());
+    }
+
+    for (PendingWrite<K> pendingWrite : singles) {
+      try {
+        write(region, pendingWrite.getOperation(), pendingWrite.getKey(),
+            pendingWrite.getValue());
+      } catch (SQLException | RuntimeException ex) {
+        pendingWrite.setFailure(ex);
+      }
+    }
+  }
+
+  /**
+   * @return true if all the entries were written and committed, false if the transaction was rolled
+   *         back
+   */
+  private <K> boolean writeBatched(Map<PendingWrite<K>, EntryColumnData> entries)
+      throws SQLException {
+    try (Connection connection = getConnection()) {
+      boolean autoCommit = connection.getAutoCommit();
+      connection.setAutoCommit(false);
+      try {
+        Map<String, List<EntryColumnData>> destroys = new LinkedHashMap<>();
+        Map<String, List<EntryColumnData>> updates = new LinkedHashMap<>();
+        for (Map.Entry<PendingWrite<K>, EntryColumnData> entry : entries.entrySet()) {
+          EntryColumnData entryColumnData = entry.getValue();
+          if (entry.getKey().getOperation().isDestroy()) {
+            addToBatch(destroys, entryColumnData, Operation.DESTROY);
+          } else {
+            addToBatch(updates, entryColumnData, Operation.UPDATE);
+          }
+        }
+
+        for (Map.Entry<String, List<EntryColumnData>> batch : destroys.entrySet()) {
+          executeBatch(connection, batch.getKey(), batch.getValue(), Operation.DESTROY);
+        }
+
+        Map<String, List<EntryColumnData>> inserts = new LinkedHashMap<>();
+        for (Map.Entry<String, List<EntryColumnData>> batch : updates.entrySet()) {
+          List<EntryColumnData> rows = batch.getValue();
+          int[] updateCounts =
+              executeBatch(connection, batch.getKey(), rows, Operation.UPDATE);
+          for (int i = 0; i < rows.size(); i++) {
+            int updateCount = updateCounts[i];
+            if (updateCount == Statement.SUCCESS_NO_INFO) {
+              updateCount = executeSingleUpdate(connection, batch.getKey(), rows.get(i));
+            }
+            if (updateCount <= 0) {
+              addToBatch(inserts, rows.get(i), Operation.CREATE);
+            }
+          }
+        }
+
+        for (Map.Entry<String, List<EntryColumnData>> batch : inserts.entrySet()) {
+          executeBatch(connection, batch.getKey(), batch.getValue(), Operation.CREATE);
+        }
+
+        connection.commit();
+        return true;
+      } catch (SQLException | RuntimeException ex) {
+        logger.debug("Batched write of {} entries failed, writing them one at a time",
+            entries.size(), ex);
+        connection.rollback();
+        return false;
+      } finally {
+        connection.setAutoCommit(autoCommit);
+      }
+    }
+  }
+
+  private void addToBatch(Map<String, List<EntryColumnData>> batches,
+      EntryColumnData entryColumnData, Operation operation) {
+    String sqlStr = getSqlString(tableMetaData, entryColumnData, operation);
+    batches.computeIfAbsent(sqlStr, k -> new ArrayList<>()).add(entryColumnData);
+  }
+
+  private int[] executeBatch(Connection connection, String sqlStr, List<EntryColumnData> rows,
+      Operation operation) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(sqlStr)) {
+      for (EntryColumnData entryColumnData : rows) {
+        setValuesInStatement(statement, entryColumnData, operation);
+        statement.addBatch();
+      }
+      int[] updateCounts = statement.executeBatch();
+      if (updateCounts.length != rows.size()) {
+        throw new SQLException("expected " + rows.size() + " update counts but got "
+            + updateCounts.length);
+      }
+      for (int updateCount : updateCounts) {
+        if (updateCount == Statement.EXECUTE_FAILED) {
+          throw new SQLException("batched " + operation + " failed for at least one row");
+        }
+      }
+      return updateCounts;
+    }
+  }
+
+  /**
+   * Redoes an update of a batch for which the driver did not report the number of updated rows
+   */
+  private int executeSingleUpdate(Connection connection, String sqlStr,
+      EntryColumnData entryColumnData) throws SQLException {
+    try (PreparedStatement statement = connection.prepareStatement(sqlStr)) {
+      return executeWriteStatement(statement, entryColumnData, Operation.UPDATE);
+    }
+  }
+
   private Operation getOppositeOperation(Operation operation) {
     return operation.isUpdate() ? Operation.CREATE : Operation.UPDATE;
   }
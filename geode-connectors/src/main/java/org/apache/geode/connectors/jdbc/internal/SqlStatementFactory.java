@@ -29,6 +29,22 @@ class SqlStatementFactory {
         new StringBuilder("SELECT * FROM ").append(quotedTablePath));
   }
 
+  String createSelectAllQueryString(String quotedTablePath) {
+    return "SELECT * FROM " + quotedTablePath;
+  }
+
+  String createSelectInQueryString(String quotedTablePath, String keyColumnName, int keyCount) {
+    StringBuilder queryBuilder = new StringBuilder("SELECT * FROM ").append(quotedTablePath)
+        .append(" WHERE ").append(quote).append(keyColumnName).append(quote).append(" IN (");
+    for (int i = 0; i < keyCount; i++) {
+      if (i > 0) {
+        queryBuilder.append(',');
+      }
+      queryBuilder.append('?');
+    }
+    return queryBuilder.append(')').toString();
+  }
+
   String createDestroySqlString(String quotedTablePath, EntryColumnData entryColumnData) {
     return addKeyColumnsToQuery(entryColumnData,
         new StringBuilder("DELETE FROM ").append(quotedTablePath));
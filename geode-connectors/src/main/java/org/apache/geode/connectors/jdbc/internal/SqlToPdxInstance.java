@@ -73,6 +73,19 @@ public class SqlToPdxInstance {
     if (!resultSet.next()) {
       return null;
     }
+    PdxInstance result = createFromCurrentRow(resultSet);
+    if (resultSet.next()) {
+      throw new JdbcConnectorException(
+          "Multiple rows returned for query: " + resultSet.getStatement());
+    }
+    return result;
+  }
+
+  /**
+   * Creates a PdxInstance from the row the result set is currently positioned on without moving
+   * the cursor.
+   */
+  public PdxInstance createFromCurrentRow(ResultSet resultSet) throws SQLException {
     WritablePdxInstance result = pdxTemplate.createWriter();
     ResultSetMetaData metaData = resultSet.getMetaData();
     final int columnCount = metaData.getColumnCount();
@@ -87,10 +100,6 @@ public class SqlToPdxInstance {
       Object fieldValue = getFieldValue(resultSet, i, fieldInfo.getType(), metaData);
       result.setField(fieldInfo.getName(), fieldValue);
     }
-    if (resultSet.next()) {
-      throw new JdbcConnectorException(
-          "Multiple rows returned for query: " + resultSet.getStatement());
-    }
     return result;
   }
 
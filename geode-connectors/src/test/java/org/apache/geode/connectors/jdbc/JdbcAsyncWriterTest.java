@@ -17,21 +17,27 @@ package org.apache.geode.connectors.jdbc;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyZeroInteractions;
 import static org.mockito.Mockito.when;
 
+import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 import org.apache.geode.cache.Operation;
 import org.apache.geode.cache.asyncqueue.AsyncEvent;
+import org.apache.geode.connectors.jdbc.internal.PendingWrite;
 import org.apache.geode.connectors.jdbc.internal.SqlHandler;
 import org.apache.geode.internal.cache.InternalCache;
 import org.apache.geode.internal.cache.InternalRegion;
@@ -74,7 +80,7 @@ public class JdbcAsyncWriterTest {
   public void writesAProvidedEvent() throws Exception {
     writer.processEvents(Collections.singletonList(createMockEvent()));
 
-    verify(sqlHandler, times(1)).write(any(), any(), any(), any());
+    verify(sqlHandler, times(1)).writeAll(any(), anyList());
     assertThat(writer.getSuccessfulEvents()).isEqualTo(1);
     assertThat(writer.getTotalEvents()).isEqualTo(1);
   }
@@ -83,33 +89,74 @@ public class JdbcAsyncWriterTest {
   public void ignoresLoadEvent() throws Exception {
     writer.processEvents(Collections.singletonList(createMockEvent(Operation.LOCAL_LOAD_CREATE)));
 
-    verify(sqlHandler, times(0)).write(any(), any(), any(), any());
+    verify(sqlHandler, times(0)).writeAll(any(), anyList());
     assertThat(writer.getIgnoredEvents()).isEqualTo(1);
     assertThat(writer.getTotalEvents()).isEqualTo(1);
     assertThat(writer.getFailedEvents()).isEqualTo(0);
   }
 
   @Test
-  public void writesMultipleProvidedEvents() throws Exception {
+  public void writesMultipleProvidedEventsInOneBatch() throws Exception {
     List<AsyncEvent> events = new ArrayList<>();
-    events.add(createMockEvent());
-    events.add(createMockEvent());
-    events.add(createMockEvent());
+    events.add(createMockEvent(Operation.CREATE, "key1"));
+    events.add(createMockEvent(Operation.CREATE, "key2"));
+    events.add(createMockEvent(Operation.CREATE, "key3"));
 
     writer.processEvents(events);
 
-    verify(sqlHandler, times(3)).write(any(), any(), any(), any());
+    ArrayList<PendingWrite<Object>> writes = captureWrites();
+    assertThat(writes).extracting(PendingWrite::getKey).containsExactly("key1", "key2", "key3");
     assertThat(writer.getSuccessfulEvents()).isEqualTo(3);
     assertThat(writer.getTotalEvents()).isEqualTo(3);
   }
 
-  private AsyncEvent createMockEvent(Operation op) {
+  @Test
+  public void writesOnlyLastEventOfAKey() throws Exception {
+    List<AsyncEvent> events = new ArrayList<>();
+    events.add(createMockEvent(Operation.CREATE, "key1"));
+    events.add(createMockEvent(Operation.CREATE, "key2"));
+    events.add(createMockEvent(Operation.DESTROY, "key1"));
+
+    writer.processEvents(events);
+
+    ArrayList<PendingWrite<Object>> writes = captureWrites();
+    assertThat(writes).extracting(PendingWrite::getKey).containsExactly("key1", "key2");
+    assertThat(writes.get(0).getOperation()).isEqualTo(Operation.DESTROY);
+    assertThat(writer.getSuccessfulEvents()).isEqualTo(3);
+  }
+
+  @Test
+  public void countsFailedWritesOfABatch() throws Exception {
+    doThrow(new SQLException("down")).when(sqlHandler).writeAll(eq(region), anyList());
+    List<AsyncEvent> events = new ArrayList<>();
+    events.add(createMockEvent(Operation.CREATE, "key1"));
+    events.add(createMockEvent(Operation.CREATE, "key2"));
+
+    writer.processEvents(events);
+
+    assertThat(writer.getFailedEvents()).isEqualTo(2);
+    assertThat(writer.getSuccessfulEvents()).isZero();
+  }
+
+  @SuppressWarnings("unchecked")
+  private ArrayList<PendingWrite<Object>> captureWrites() throws Exception {
+    ArgumentCaptor<ArrayList> writes = ArgumentCaptor.forClass(ArrayList.class);
+    verify(sqlHandler, times(1)).writeAll(eq(region), writes.capture());
+    return writes.getValue();
+  }
+
+  private AsyncEvent createMockEvent(Operation op, Object key) {
     AsyncEvent event = mock(AsyncEvent.class);
     when(event.getOperation()).thenReturn(op);
     when(event.getRegion()).thenReturn(region);
+    when(event.getKey()).thenReturn(key);
     return event;
   }
 
+  private AsyncEvent createMockEvent(Operation op) {
+    return createMockEvent(op, null);
+  }
+
   private AsyncEvent createMockEvent() {
     return createMockEvent(Operation.CREATE);
   }
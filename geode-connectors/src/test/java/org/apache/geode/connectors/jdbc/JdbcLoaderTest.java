@@ -14,19 +14,34 @@
  */
 package org.apache.geode.connectors.jdbc;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
 import org.junit.Before;
 import org.junit.Test;
 
 import org.apache.geode.cache.LoaderHelper;
+import org.apache.geode.cache.Region;
 import org.apache.geode.connectors.jdbc.internal.SqlHandler;
 import org.apache.geode.internal.cache.InternalCache;
 import org.apache.geode.internal.cache.InternalRegion;
+import org.apache.geode.internal.cache.PartitionedRegion;
+import org.apache.geode.pdx.PdxInstance;
 import org.apache.geode.test.fake.Fakes;
 
 public class JdbcLoaderTest {
@@ -55,4 +70,77 @@ public class JdbcLoaderTest {
 
     verify(sqlHandler, times(1)).read(any(), any());
   }
+
+  @Test
+  public void loadAllReadsMissingKeysInOneCallAndLoadsThem() throws Exception {
+    Region<Object, Object> region = createRegionLoadingWith(loader);
+    when(region.containsKey("present")).thenReturn(true);
+    PdxInstance row = mock(PdxInstance.class);
+    when(sqlHandler.readAll(any(), anyCollection()))
+        .thenReturn(Collections.singletonMap("found", row));
+
+    Map<Object, Object> result =
+        loader.loadAll(region, Arrays.asList("present", "found", "notFound"));
+
+    verify(sqlHandler, times(1)).readAll(region, Arrays.asList("found", "notFound"));
+    verify(sqlHandler, times(0)).read(any(), any());
+    assertThat(result).containsEntry("found", row).containsEntry("notFound", null);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void warmUpLoadsEveryRowOfTheTable() throws Exception {
+    Region<Object, Object> region = createRegionLoadingWith(loader);
+    PdxInstance row = mock(PdxInstance.class);
+    int rows = JdbcLoader.WARM_UP_BATCH_SIZE + 1;
+    doAnswer(invocation -> {
+      BiConsumer<Object, PdxInstance> consumer = invocation.getArgument(1);
+      for (int i = 0; i < rows; i++) {
+        consumer.accept(i, row);
+      }
+      return null;
+    }).when(sqlHandler).readTable(anyInt(), any());
+
+    assertThat(loader.warmUp(region, 2)).isEqualTo(rows);
+
+    verify(region, times(2)).getAll(anyCollection());
+    verify(sqlHandler, times(0)).read(any(), any());
+  }
+
+  @Test
+  public void loadAllRejectsPartitionedRegions() throws Exception {
+    Region<Object, Object> region = mock(PartitionedRegion.class);
+
+    assertThatThrownBy(() -> loader.loadAll(region, Collections.singletonList("key")))
+        .isInstanceOf(UnsupportedOperationException.class);
+    verify(sqlHandler, times(0)).readAll(any(), anyCollection());
+  }
+
+  @Test
+  public void warmUpRejectsPartitionedRegions() throws Exception {
+    Region<Object, Object> region = mock(PartitionedRegion.class);
+
+    assertThatThrownBy(() -> loader.warmUp(region, 1))
+        .isInstanceOf(UnsupportedOperationException.class);
+    verify(sqlHandler, times(0)).readTable(anyInt(), any());
+  }
+
+  /**
+   * Creates a region whose getAll loads every key with the given loader
+   */
+  @SuppressWarnings("unchecked")
+  private Region<Object, Object> createRegionLoadingWith(JdbcLoader<Object, Object> loader) {
+    Region<Object, Object> region = mock(Region.class);
+    when(region.getAll(anyCollection())).thenAnswer(invocation -> {
+      Map<Object, Object> result = new HashMap<>();
+      for (Object key : (Collection<Object>) invocation.getArgument(0)) {
+        LoaderHelper<Object, Object> helper = mock(LoaderHelper.class);
+        when(helper.getRegion()).thenReturn(region);
+        when(helper.getKey()).thenReturn(key);
+        result.put(key, loader.load(helper));
+      }
+      return result;
+    });
+    return region;
+  }
 }
@@ -33,6 +33,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import javax.sql.DataSource;
@@ -198,6 +199,23 @@ public class SqlHandlerTest {
     verify(statement).close();
   }
 
+  @Test
+  public void readAllBindsAllKeysToOneQuery() throws Exception {
+    setupEmptyResultSet();
+    FieldMapping keyFieldMapping = mock(FieldMapping.class);
+    when(keyFieldMapping.getJdbcName()).thenReturn(KEY_COLUMN);
+    when(keyFieldMapping.getPdxName()).thenReturn(KEY_COLUMN);
+    when(regionMapping.getFieldMappings()).thenReturn(Arrays.asList(keyFieldMapping));
+
+    Map<Object, PdxInstance> result = handler.readAll(region, Arrays.asList("key1", "key2"));
+
+    assertThat(result).isEmpty();
+    verify(statement).setObject(1, "key1");
+    verify(statement).setObject(2, "key2");
+    verify(statement, times(1)).executeQuery();
+    verify(statement).close();
+  }
+
   @Test
   public void throwsExceptionIfQueryFails() throws Exception {
     when(statement.executeQuery()).thenThrow(SQLException.class);
@@ -1033,4 +1051,49 @@ public class SqlHandlerTest {
     assertThatThrownBy(() -> handler.getConnection())
         .isInstanceOf(SQLException.class).hasMessage("test exception");
   }
+
+  @Test
+  public void writeAllBatchesUpdatesAndInsertsMissingRows() throws Exception {
+    when(connection.getAutoCommit()).thenReturn(true);
+    when(statement.executeBatch()).thenReturn(new int[] {1, 0}).thenReturn(new int[] {1});
+    PendingWrite<Object> existing = new PendingWrite<>(Operation.UPDATE, "existingKey", value);
+    PendingWrite<Object> missing = new PendingWrite<>(Operation.CREATE, "missingKey", value);
+
+    handler.writeAll(region, Arrays.asList(existing, missing));
+
+    verify(connection).setAutoCommit(false);
+    verify(statement, times(3)).addBatch();
+    verify(statement, times(2)).executeBatch();
+    verify(statement, times(0)).executeUpdate();
+    verify(connection).commit();
+    verify(connection).setAutoCommit(true);
+    assertThat(existing.getFailure()).isNull();
+    assertThat(missing.getFailure()).isNull();
+  }
+
+  @Test
+  public void writeAllWritesEntriesOneAtATimeIfBatchFails() throws Exception {
+    when(statement.executeBatch()).thenThrow(new SQLException("batch failed"));
+    when(statement.executeUpdate()).thenReturn(1);
+    PendingWrite<Object> first = new PendingWrite<>(Operation.UPDATE, "firstKey", value);
+    PendingWrite<Object> second = new PendingWrite<>(Operation.DESTROY, "secondKey", null);
+
+    handler.writeAll(region, Arrays.asList(first, second));
+
+    verify(connection).rollback();
+    verify(connection, times(0)).commit();
+    verify(statement, times(2)).executeUpdate();
+    assertThat(first.getFailure()).isNull();
+    assertThat(second.getFailure()).isNull();
+  }
+
+  @Test
+  public void writeAllRecordsFailureOfNullValueForNonDestroy() throws Exception {
+    PendingWrite<Object> pendingWrite = new PendingWrite<>(Operation.UPDATE, "key", null);
+
+    handler.writeAll(region, Collections.singletonList(pendingWrite));
+
+    assertThat(pendingWrite.getFailure()).isInstanceOf(IllegalArgumentException.class);
+    verify(statement, times(0)).executeBatch();
+  }
 }
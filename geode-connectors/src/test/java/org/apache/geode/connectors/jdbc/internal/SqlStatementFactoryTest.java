@@ -61,6 +61,23 @@ public class SqlStatementFactoryTest {
     assertThat(statement).isEqualTo(expectedStatement);
   }
 
+  @Test
+  public void getSelectAllQueryString() throws Exception {
+    String statement = factory.createSelectAllQueryString(QUOTED_TABLE_PATH);
+
+    assertThat(statement).isEqualTo("SELECT * FROM " + QUOTED_TABLE_PATH);
+  }
+
+  @Test
+  public void getSelectInQueryString() throws Exception {
+    String expectedStatement = String.format("SELECT * FROM %s WHERE %s IN (?,?,?)",
+        QUOTED_TABLE_PATH, quoted(KEY_COLUMN_1_NAME));
+
+    String statement = factory.createSelectInQueryString(QUOTED_TABLE_PATH, KEY_COLUMN_1_NAME, 3);
+
+    assertThat(statement).isEqualTo(expectedStatement);
+  }
+
   @Test
   public void getDestroySqlString() throws Exception {
     String expectedStatement =
@@ -21,23 +21,29 @@ import java.io.File;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
+import org.junit.contrib.java.lang.system.RestoreSystemProperties;
 import org.junit.rules.TemporaryFolder;
 
 import org.apache.geode.cache.Cache;
 import org.apache.geode.cache.CacheFactory;
 import org.apache.geode.cache.DiskStore;
 import org.apache.geode.cache.DiskStoreFactory;
+import org.apache.geode.cache.EvictionAction;
+import org.apache.geode.cache.EvictionAttributes;
 import org.apache.geode.cache.Region;
 import org.apache.geode.cache.RegionFactory;
 import org.apache.geode.cache.RegionShortcut;
 import org.apache.geode.distributed.ConfigurationProperties;
 import org.apache.geode.internal.cache.backup.BackupService;
+import org.apache.geode.management.OplogHeatData;
 
 
 public class DiskStoreImplIntegrationTest {
@@ -48,6 +54,9 @@ public class DiskStoreImplIntegrationTest {
   @Rule
   public TemporaryFolder temporaryDirectory = new TemporaryFolder();
 
+  @Rule
+  public RestoreSystemProperties restoreSystemProperties = new RestoreSystemProperties();
+
   private Cache cache;
   private Region aRegion;
   private DiskStoreStats diskStoreStats;
@@ -100,6 +109,185 @@ public class DiskStoreImplIntegrationTest {
     await().until(() -> diskStoreStats.getQueueSize() == 0);
   }
 
+  @Test
+  public void recoversEntriesFromKrfsReadAheadInParallel() throws Exception {
+    File baseDir = temporaryDirectory.newFolder();
+    Region<Integer, String> region = createReplicateRegionWithDiskStore(baseDir);
+    DiskStore diskStore = cache.findDiskStore(DISK_STORE_NAME);
+    Map<Integer, String> expected = new HashMap<>();
+    for (int round = 0; round < 4; round++) {
+      for (int i = 0; i < 100; i++) {
+        region.put(i, "value" + round + "-" + i);
+        expected.put(i, "value" + round + "-" + i);
+      }
+      region.destroy(round);
+      expected.remove(round);
+      diskStore.forceRoll();
+    }
+    await().until(() -> baseDir.list((dir, name) -> name.endsWith(".krf")).length >= 4);
+
+    cache.close();
+    System.setProperty(DiskStoreImpl.RECOVERY_THREADS_PROPERTY_NAME, "4");
+    cache = createCache();
+    Region<Integer, String> recovered = createReplicateRegionWithDiskStore(baseDir);
+
+    assertThat(recovered.size()).isEqualTo(expected.size());
+    expected.forEach((key, value) -> assertThat(recovered.get(key)).isEqualTo(value));
+    assertThat(
+        ((DiskStoreImpl) cache.findDiskStore(DISK_STORE_NAME)).getStats().getKrfsPrefetched())
+            .isGreaterThan(0);
+  }
+
+  @Test
+  public void faultsInValuesFromMappedSealedOplogs() throws Exception {
+    System.setProperty(DiskStoreImpl.MAP_SEALED_OPLOGS_PROPERTY_NAME, "true");
+    cache.close();
+    cache = createCache();
+    File baseDir = temporaryDirectory.newFolder();
+    cache.createDiskStoreFactory().setDiskDirs(new File[] {baseDir}).create(DISK_STORE_NAME);
+    Region<Integer, String> region =
+        cache.<Integer, String>createRegionFactory(RegionShortcut.REPLICATE_PERSISTENT)
+            .setEvictionAttributes(
+                EvictionAttributes.createLRUEntryAttributes(1, EvictionAction.OVERFLOW_TO_DISK))
+            .setDiskStoreName(DISK_STORE_NAME).create(REGION_NAME);
+    DiskStoreImpl diskStore = (DiskStoreImpl) cache.findDiskStore(DISK_STORE_NAME);
+    for (int i = 0; i < 100; i++) {
+      region.put(i, "value" + i);
+    }
+    diskStore.forceRoll();
+
+    for (int i = 0; i < 100; i++) {
+      assertThat(region.get(i)).isEqualTo("value" + i);
+    }
+    assertThat(diskStore.getStats().getOplogMappedReads()).isGreaterThan(0);
+  }
+
+  @Test
+  public void recoversAndFaultsInCompressedValues() throws Exception {
+    System.setProperty(DiskStoreImpl.VALUE_CODEC_PROPERTY_NAME, "deflate");
+    cache.close();
+    cache = createCache();
+    File baseDir = temporaryDirectory.newFolder();
+    Region<Integer, String> region = createReplicateRegionWithDiskStore(baseDir);
+    Map<Integer, String> expected = new HashMap<>();
+    for (int i = 0; i < 100; i++) {
+      StringBuilder value = new StringBuilder();
+      for (int j = 0; j < 50; j++) {
+        value.append("value").append(i);
+      }
+      region.put(i, value.toString());
+      expected.put(i, value.toString());
+    }
+    region.put(100, "short");
+    expected.put(100, "short");
+    assertThat(((DiskStoreImpl) cache.findDiskStore(DISK_STORE_NAME)).getStats()
+        .getCompressedValues()).isEqualTo(100);
+
+    cache.close();
+    System.clearProperty(DiskStoreImpl.VALUE_CODEC_PROPERTY_NAME);
+    System.setProperty(DiskStoreImpl.RECOVER_VALUE_PROPERTY_NAME, "false");
+    cache = createCache();
+    Region<Integer, String> recovered = createReplicateRegionWithDiskStore(baseDir);
+
+    expected.forEach((key, value) -> assertThat(recovered.get(key)).isEqualTo(value));
+
+    cache.close();
+    System.setProperty(DiskStoreImpl.RECOVER_VALUE_PROPERTY_NAME, "true");
+    cache = createCache();
+    Region<Integer, String> recoveredValues = createReplicateRegionWithDiskStore(baseDir);
+
+    expected.forEach((key, value) -> assertThat(recoveredValues.get(key)).isEqualTo(value));
+  }
+
+  @Test
+  public void compactsOplogsInSlices() throws Exception {
+    System.setProperty(DiskStoreImpl.COMPACTION_SLICE_BYTES_PROPERTY_NAME, "10000");
+    cache.close();
+    cache = createCache();
+    File baseDir = temporaryDirectory.newFolder();
+    DiskStoreImpl diskStore = (DiskStoreImpl) cache.createDiskStoreFactory()
+        .setDiskDirs(new File[] {baseDir}).setAllowForceCompaction(true).create(DISK_STORE_NAME);
+    Region<Integer, String> region =
+        cache.<Integer, String>createRegionFactory(RegionShortcut.REPLICATE_PERSISTENT)
+            .setDiskStoreName(DISK_STORE_NAME).create(REGION_NAME);
+    StringBuilder value = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      value.append('v');
+    }
+    for (int i = 0; i < 100; i++) {
+      region.put(i, value.toString());
+    }
+    for (int i = 0; i < 100; i += 2) {
+      region.destroy(i);
+    }
+
+    assertThat(diskStore.forceCompaction()).isTrue();
+
+    DiskStoreStats stats = diskStore.getStats();
+    assertThat(stats.getCompactedBytes()).isGreaterThanOrEqualTo(50 * 1000);
+    assertThat(stats.getCompacts()).isGreaterThan(1);
+    assertThat(diskStore.numCompactableOplogs()).isEqualTo(0);
+
+    cache.close();
+    cache = createCache();
+    Region<Integer, String> recovered = createReplicateRegionWithDiskStore(baseDir);
+    assertThat(recovered.size()).isEqualTo(50);
+    for (int i = 1; i < 100; i += 2) {
+      assertThat(recovered.get(i)).isEqualTo(value.toString());
+    }
+  }
+
+  @Test
+  public void oplogHeatCountsFaultInsAndGarbageOfEachOplog() throws Exception {
+    File baseDir = temporaryDirectory.newFolder();
+    DiskStoreImpl diskStore = (DiskStoreImpl) cache.createDiskStoreFactory()
+        .setDiskDirs(new File[] {baseDir}).setAutoCompact(false).setAllowForceCompaction(true)
+        .create(DISK_STORE_NAME);
+    Region<Integer, String> region =
+        cache.<Integer, String>createRegionFactory(RegionShortcut.REPLICATE_PERSISTENT)
+            .setEvictionAttributes(
+                EvictionAttributes.createLRUEntryAttributes(1, EvictionAction.OVERFLOW_TO_DISK))
+            .setDiskStoreName(DISK_STORE_NAME).create(REGION_NAME);
+    for (int i = 0; i < 100; i++) {
+      region.put(i, "value" + i);
+    }
+    long firstOplogId = diskStore.getOplogHeat()[0].getOplogId();
+    diskStore.forceRoll();
+    for (int i = 0; i < 50; i++) {
+      region.put(i, "newValue" + i);
+    }
+    diskStore.forceRoll();
+
+    for (int i = 50; i < 100; i++) {
+      assertThat(region.get(i)).isEqualTo("value" + i);
+    }
+
+    OplogHeatData first = heatOf(diskStore, firstOplogId);
+    assertThat(first.getReads()).isGreaterThanOrEqualTo(50);
+    assertThat(first.getReadBytes()).isGreaterThan(0);
+    assertThat(first.getLiveEntries()).isEqualTo(50);
+    assertThat(first.getGarbageEntries()).isEqualTo(50);
+    assertThat(first.getSize()).isGreaterThan(0);
+    OplogHeatData second = heatOf(diskStore, firstOplogId + 1);
+    assertThat(second.getReads()).isEqualTo(0);
+    assertThat(second.getLiveEntries()).isEqualTo(50);
+    assertThat(second.getGarbageEntries()).isEqualTo(0);
+
+    assertThat(diskStore.forceCompaction()).isTrue();
+
+    assertThat(diskStore.getOplogHeat()).extracting(OplogHeatData::getOplogId)
+        .doesNotContain(firstOplogId);
+  }
+
+  private static OplogHeatData heatOf(DiskStoreImpl diskStore, long oplogId) {
+    for (OplogHeatData heat : diskStore.getOplogHeat()) {
+      if (heat.getOplogId() == oplogId) {
+        return heat;
+      }
+    }
+    throw new AssertionError("No heat of oplog " + oplogId);
+  }
+
   private void putEntries(int numToPut) {
     for (int i = 1; i <= numToPut; i++) {
       aRegion.put(i, i);
@@ -112,6 +300,12 @@ public class DiskStoreImplIntegrationTest {
         .setDiskStoreName(DISK_STORE_NAME).create(REGION_NAME);
   }
 
+  private Region<Integer, String> createReplicateRegionWithDiskStore(File baseDir) {
+    cache.createDiskStoreFactory().setDiskDirs(new File[] {baseDir}).create(DISK_STORE_NAME);
+    return cache.<Integer, String>createRegionFactory(RegionShortcut.REPLICATE_PERSISTENT)
+        .setDiskStoreName(DISK_STORE_NAME).create(REGION_NAME);
+  }
+
   private void createRegionWithDiskStoreAndAsyncQueue(File baseDir, int queueSize) {
     createDiskStoreWithQueue(baseDir, queueSize, TIME_INTERVAL);
 
@@ -0,0 +1,250 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import static org.apache.geode.internal.cache.DiskStoreImpl.DELTA_CHECKPOINT_INTERVAL_PROPERTY_NAME;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.File;
+import java.io.IOException;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.contrib.java.lang.system.RestoreSystemProperties;
+import org.junit.rules.TemporaryFolder;
+
+import org.apache.geode.DataSerializable;
+import org.apache.geode.Delta;
+import org.apache.geode.cache.Cache;
+import org.apache.geode.cache.CacheFactory;
+import org.apache.geode.cache.PartitionAttributesFactory;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.distributed.ConfigurationProperties;
+
+/**
+ * Tests that updates are written to the oplogs as deltas of the previous value, see
+ * {@link DiskStoreImpl#DELTA_CHECKPOINT_INTERVAL_PROPERTY_NAME}, and that the values of entries
+ * are rebuilt from their delta chains after recovery and compaction.
+ */
+public class OplogDeltaIntegrationTest {
+  private static final String DISK_STORE_NAME = "testDiskStore";
+  private static final String REGION_NAME = "testRegion";
+  private static final int KEYS = 10;
+
+  @Rule
+  public TemporaryFolder temporaryDirectory = new TemporaryFolder();
+
+  @Rule
+  public RestoreSystemProperties restoreSystemProperties = new RestoreSystemProperties();
+
+  private Cache cache;
+  private File diskDir;
+
+  @Before
+  public void setup() throws Exception {
+    System.setProperty(DELTA_CHECKPOINT_INTERVAL_PROPERTY_NAME, "5");
+    diskDir = temporaryDirectory.newFolder();
+    cache = createCache();
+  }
+
+  @After
+  public void tearDown() {
+    if (cache != null && !cache.isClosed()) {
+      cache.close();
+    }
+  }
+
+  @Test
+  public void recoversAndFaultsInValuesWrittenAsDeltas() {
+    Region<Integer, Counter> region = createRegion(true);
+    putAndUpdate(region, 3);
+    assertThat(getDiskStore().getStats().getDeltaValues()).isEqualTo(KEYS * 3);
+
+    cache.close();
+    cache = createCache();
+    region = createRegion(true);
+
+    assertCounts(region, 3);
+  }
+
+  @Test
+  public void writesTheWholeValueOnceTheChainReachesTheCheckpointInterval() {
+    System.setProperty(DELTA_CHECKPOINT_INTERVAL_PROPERTY_NAME, "2");
+    Region<Integer, Counter> region = createRegion(true);
+    putAndUpdate(region, 5);
+    // updates 1 and 2 are deltas, 3 is a whole value and 4 and 5 are deltas of it
+    assertThat(getDiskStore().getStats().getDeltaValues()).isEqualTo(KEYS * 4);
+
+    cache.close();
+    cache = createCache();
+    region = createRegion(true);
+
+    assertCounts(region, 5);
+  }
+
+  @Test
+  public void onlineCompactionCopiesTheValuesOfDeltaChainsForward() {
+    Region<Integer, Counter> region = createRegion(true);
+    putAndUpdate(region, 3);
+    createGarbage(region);
+    DiskStoreImpl diskStore = getDiskStore();
+    diskStore.forceRoll();
+
+    assertThat(diskStore.forceCompaction()).isTrue();
+    assertCounts(region, 3);
+
+    cache.close();
+    cache = createCache();
+    region = createRegion(true);
+
+    assertCounts(region, 3);
+  }
+
+  @Test
+  public void offlineCompactionCopiesDeltaChainsForward() throws Exception {
+    Region<Integer, Counter> region = createRegion(true);
+    putAndUpdate(region, 3);
+    createGarbage(region);
+    cache.close();
+
+    DiskStoreImpl compacted =
+        DiskStoreImpl.offlineCompact(DISK_STORE_NAME, new File[] {diskDir}, false, -1);
+    assertThat(compacted.getDeadRecordCount()).isGreaterThan(0);
+    assertThat(compacted.getLiveEntryCount()).isEqualTo(KEYS);
+
+    cache = createCache();
+    region = createRegion(true);
+
+    assertCounts(region, 3);
+  }
+
+  @Test
+  public void asyncPersistenceWritesDeltas() {
+    Region<Integer, Counter> region = createRegion(false);
+    DiskStoreImpl diskStore = getDiskStore();
+    for (int key = 0; key < KEYS; key++) {
+      for (int count = 0; count <= 3; count++) {
+        region.put(key, new Counter(count));
+        diskStore.flush();
+      }
+    }
+    assertThat(diskStore.getStats().getDeltaValues()).isGreaterThan(0);
+
+    cache.close();
+    cache = createCache();
+    region = createRegion(false);
+
+    assertCounts(region, 3);
+  }
+
+  private void putAndUpdate(Region<Integer, Counter> region, int updates) {
+    for (int count = 0; count <= updates; count++) {
+      for (int key = 0; key < KEYS; key++) {
+        region.put(key, new Counter(count));
+      }
+    }
+  }
+
+  private void createGarbage(Region<Integer, Counter> region) {
+    for (int key = KEYS; key < KEYS * 2; key++) {
+      region.put(key, new Counter(0));
+    }
+    for (int key = KEYS; key < KEYS * 2; key++) {
+      region.destroy(key);
+    }
+  }
+
+  private void assertCounts(Region<Integer, Counter> region, int expected) {
+    for (int key = 0; key < KEYS; key++) {
+      assertThat(region.get(key).getCount()).as("count of key " + key).isEqualTo(expected);
+    }
+  }
+
+  private DiskStoreImpl getDiskStore() {
+    return (DiskStoreImpl) cache.findDiskStore(DISK_STORE_NAME);
+  }
+
+  /**
+   * Deltas are only extracted from updates of partitioned regions with redundant copies, so the
+   * region has one even though there is no other member to host it.
+   */
+  private Region<Integer, Counter> createRegion(boolean diskSynchronous) {
+    cache.createDiskStoreFactory().setDiskDirs(new File[] {diskDir}).setAutoCompact(false)
+        .setAllowForceCompaction(true).create(DISK_STORE_NAME);
+    return cache.<Integer, Counter>createRegionFactory(RegionShortcut.PARTITION_PERSISTENT)
+        .setPartitionAttributes(
+            new PartitionAttributesFactory<Integer, Counter>().setRedundantCopies(1).create())
+        .setDiskStoreName(DISK_STORE_NAME).setDiskSynchronous(diskSynchronous)
+        .create(REGION_NAME);
+  }
+
+  private Cache createCache() {
+    // Setting MCAST port explicitly is currently required due to default properties set in gradle
+    return new CacheFactory().set(ConfigurationProperties.MCAST_PORT, "0").create();
+  }
+
+  /**
+   * A value whose delta is just its count, padded so that the delta is much smaller than the value.
+   */
+  public static class Counter implements DataSerializable, Delta {
+    private int count;
+    private byte[] padding;
+
+    public Counter() {}
+
+    Counter(int count) {
+      this.count = count;
+      this.padding = new byte[1000];
+    }
+
+    int getCount() {
+      return count;
+    }
+
+    @Override
+    public boolean hasDelta() {
+      return true;
+    }
+
+    @Override
+    public void toDelta(DataOutput out) throws IOException {
+      out.writeInt(count);
+    }
+
+    @Override
+    public void fromDelta(DataInput in) throws IOException {
+      count = in.readInt();
+    }
+
+    @Override
+    public void toData(DataOutput out) throws IOException {
+      out.writeInt(count);
+      out.writeInt(padding.length);
+      out.write(padding);
+    }
+
+    @Override
+    public void fromData(DataInput in) throws IOException {
+      count = in.readInt();
+      padding = new byte[in.readInt()];
+      in.readFully(padding);
+    }
+  }
+}
@@ -14,6 +14,7 @@
  */
 package org.apache.geode.internal.cache.backup;
 
+import static org.apache.geode.internal.cache.backup.FileSystemBackupWriter.CHECKSUMS_FILE;
 import static org.apache.geode.internal.cache.backup.FileSystemBackupWriter.CONFIG_DIRECTORY;
 import static org.apache.geode.internal.cache.backup.FileSystemBackupWriter.DATA_STORES_DIRECTORY;
 import static org.apache.geode.internal.cache.backup.FileSystemBackupWriter.DEPLOYED_JARS_DIRECTORY;
@@ -161,6 +162,24 @@ public class FileSystemBackupWriterTest {
     assertThat(diskStoreDir.resolve("dir1").resolve("krf")).exists();
   }
 
+  @Test
+  @Parameters({"true", "false"})
+  public void checksumsOfOplogFilesAreBackedUp(boolean useRelativePath) throws Exception {
+    DiskStoreImpl diskStore = mock(DiskStoreImpl.class);
+    when(diskStore.getDiskStoreID()).thenReturn(new DiskStoreID(1, 2));
+    when(diskStore.getInforFileDirIndex()).thenReturn(1);
+    when(diskStore.getDirectoryHolders()).thenReturn(new DirectoryHolder[0]);
+    Path crf = Files.write(tempDir.newFile("crf").toPath(), new byte[] {1, 2, 3});
+    backupDefinition.addOplogFileToBackup(diskStore, crf);
+    backupDefinition.setRestoreScript(restoreScript);
+
+    executeBackup(useRelativePath);
+
+    Path checksumsFile = getTargetMemberDir(useRelativePath).resolve(CHECKSUMS_FILE);
+    assertThat(BackupChecksums.read(checksumsFile).getChecksums()).containsOnlyKeys(
+        DATA_STORES_DIRECTORY + "/" + GemFireCacheImpl.getDefaultDiskStoreName() + "_1-2/dir1/crf");
+  }
+
   @Test
   @Parameters({"true", "false"})
   public void diskInitFilesAreBackedUp(boolean useRelativePath) throws Exception {
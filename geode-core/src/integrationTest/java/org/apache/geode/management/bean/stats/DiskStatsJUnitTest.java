@@ -23,6 +23,8 @@ import org.junit.experimental.categories.Category;
 
 import org.apache.geode.internal.NanoTimer;
 import org.apache.geode.internal.cache.DiskStoreStats;
+import org.apache.geode.internal.statistics.LatencyHistogram;
+import org.apache.geode.management.DiskLatencyData;
 import org.apache.geode.management.internal.beans.DiskStoreMBeanBridge;
 import org.apache.geode.test.junit.categories.JMXTest;
 
@@ -76,6 +78,25 @@ public class DiskStatsJUnitTest extends MBeanStatsTestCase {
     assertTrue(getDiskWritesRate() > 0);
   }
 
+  @Test
+  public void diskLatenciesReportTheRecordedLatencies() {
+    LatencyHistogram writes = diskStoreStats.getLatency(DiskStoreStats.Latency.WRITE);
+    for (long latency = 1; latency <= 100; latency++) {
+      writes.record(latency);
+    }
+
+    DiskLatencyData[] latencies = bridge.getDiskLatencies();
+
+    assertEquals(DiskStoreStats.Latency.values().length, latencies.length);
+    DiskLatencyData write = latencies[DiskStoreStats.Latency.WRITE.ordinal()];
+    assertEquals("write", write.getOperation());
+    assertEquals(100, write.getCount());
+    assertEquals(50, write.getMedian());
+    assertEquals(99, write.getPercentile99());
+    assertEquals(100, write.getMax());
+    assertEquals(0, latencies[DiskStoreStats.Latency.FSYNC.ordinal()].getCount());
+  }
+
   private long getDiskReadsAvgLatency() {
     return bridge.getDiskReadsAvgLatency();
   }
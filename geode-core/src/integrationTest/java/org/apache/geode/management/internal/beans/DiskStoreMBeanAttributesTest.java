@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.management.internal.beans;
+
+import static org.apache.geode.distributed.ConfigurationProperties.ENABLE_TIME_STATISTICS;
+import static org.apache.geode.test.awaitility.GeodeAwaitility.await;
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+
+import javax.management.ObjectName;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+
+import org.apache.geode.cache.DiskStore;
+import org.apache.geode.cache.EvictionAction;
+import org.apache.geode.cache.EvictionAttributes;
+import org.apache.geode.cache.Region;
+import org.apache.geode.cache.RegionShortcut;
+import org.apache.geode.internal.cache.InternalCache;
+import org.apache.geode.management.DiskLatencyData;
+import org.apache.geode.management.DiskStoreMXBean;
+import org.apache.geode.management.OplogHeatData;
+import org.apache.geode.management.internal.MBeanJMXAdapter;
+import org.apache.geode.test.junit.categories.JMXTest;
+import org.apache.geode.test.junit.rules.MBeanServerConnectionRule;
+import org.apache.geode.test.junit.rules.ServerStarterRule;
+
+/**
+ * Reads the composite data of the {@link DiskStoreMXBean} through a JMX connection, so the
+ * attributes are converted to and from their open types as they are for any JMX client.
+ */
+@Category({JMXTest.class})
+public class DiskStoreMBeanAttributesTest {
+
+  private static final String DISK_STORE_NAME = "diskStore";
+
+  @Rule
+  public ServerStarterRule server = new ServerStarterRule().withJMXManager()
+      .withProperty(ENABLE_TIME_STATISTICS, "true").withAutoStart();
+
+  @Rule
+  public MBeanServerConnectionRule mBeanRule = new MBeanServerConnectionRule();
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private DiskStore diskStore;
+
+  private Region<Integer, String> region;
+
+  private DiskStoreMXBean bean;
+
+  @Before
+  public void setUp() throws Exception {
+    InternalCache cache = server.getCache();
+    diskStore = cache.createDiskStoreFactory()
+        .setDiskDirs(new File[] {temporaryFolder.newFolder()}).create(DISK_STORE_NAME);
+    region = cache.<Integer, String>createRegionFactory(RegionShortcut.REPLICATE_PERSISTENT)
+        .setEvictionAttributes(
+            EvictionAttributes.createLRUEntryAttributes(1, EvictionAction.OVERFLOW_TO_DISK))
+        .setDiskStoreName(DISK_STORE_NAME).create("region");
+
+    mBeanRule.connect(server.getJmxPort());
+    ObjectName name = MBeanJMXAdapter.getDiskStoreMBeanName(
+        cache.getDistributedSystem().getDistributedMember(), DISK_STORE_NAME);
+    await().untilAsserted(
+        () -> assertThat(mBeanRule.getMBeanServerConnection().isRegistered(name)).isTrue());
+    bean = mBeanRule.getProxyMXBean(DiskStoreMXBean.class, name.toString());
+  }
+
+  @Test
+  public void oplogHeatIsReadOverJmx() {
+    putAndFaultIn();
+
+    OplogHeatData[] heat = bean.getOplogHeat();
+
+    assertThat(heat).isNotEmpty();
+    assertThat(heat).extracting(OplogHeatData::getReads).anyMatch(reads -> reads > 0);
+    assertThat(heat).extracting(OplogHeatData::getLiveEntries).contains(100L);
+    assertThat(heat).extracting(OplogHeatData::getSize).allMatch(size -> size > 0);
+  }
+
+  @Test
+  public void diskLatenciesAreReadOverJmx() {
+    putAndFaultIn();
+
+    DiskLatencyData[] latencies = bean.getDiskLatencies();
+
+    assertThat(latencies).extracting(DiskLatencyData::getOperation)
+        .containsExactly("write", "flush", "fsync", "faultIn", "compactionRead");
+    DiskLatencyData write = latencies[0];
+    assertThat(write.getCount()).isGreaterThanOrEqualTo(100);
+    assertThat(write.getMax()).isGreaterThan(0)
+        .isGreaterThanOrEqualTo(write.getPercentile999())
+        .isGreaterThanOrEqualTo(write.getPercentile99())
+        .isGreaterThanOrEqualTo(write.getMedian());
+    DiskLatencyData faultIn = latencies[3];
+    assertThat(faultIn.getCount()).isGreaterThan(0);
+  }
+
+  /**
+   * Writes 100 entries that overflow to a rolled oplog and then faults their values back in
+   */
+  private void putAndFaultIn() {
+    for (int i = 0; i < 100; i++) {
+      region.put(i, "value" + i);
+    }
+    diskStore.forceRoll();
+    for (int i = 0; i < 100; i++) {
+      assertThat(region.get(i)).isEqualTo("value" + i);
+    }
+  }
+}
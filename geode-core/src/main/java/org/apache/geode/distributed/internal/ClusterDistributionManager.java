@@ -80,7 +80,10 @@ import org.apache.geode.internal.cache.InternalCache;
 import org.apache.geode.internal.logging.LogService;
 import org.apache.geode.internal.logging.LoggingExecutors;
 import org.apache.geode.internal.logging.LoggingThread;
+import org.apache.geode.internal.logging.LoggingThreadFactory.CommandWrapper;
+import org.apache.geode.internal.logging.LoggingThreadFactory.ThreadInitializer;
 import org.apache.geode.internal.logging.LoggingUncaughtExceptionHandler;
+import org.apache.geode.internal.logging.VirtualThreadFactory;
 import org.apache.geode.internal.logging.log4j.LogMarker;
 import org.apache.geode.internal.monitoring.ThreadsMonitoring;
 import org.apache.geode.internal.monitoring.ThreadsMonitoringImpl;
@@ -159,6 +162,24 @@ public class ClusterDistributionManager implements DistributionManager {
   public static final int MAX_FE_THREADS = Integer.getInteger("DistributionManager.MAX_FE_THREADS",
       Math.max(Runtime.getRuntime().availableProcessors() * 4, 16));
 
+  /**
+   * If true, and the JVM supports virtual threads, the normal, high priority, waiting,
+   * partitioned region and function execution pools run each message on a virtual thread instead
+   * of queueing it for one of at most MAX_THREADS, MAX_PR_THREADS or MAX_FE_THREADS platform
+   * threads. A partitioned region or function execution pool limited to a single thread stays
+   * serial.
+   * <p>
+   * Virtual threads are only used on Java 24 and later. On Java 21 to 23 a virtual thread blocked
+   * inside a synchronized block pins its carrier thread, which message handlers would do often
+   * enough to stall the pools, so this property is ignored there with a warning.
+   * <p>
+   * These pools hand every message straight to a thread, so INCOMING_QUEUE_LIMIT no longer blocks
+   * the reader threads when they fall behind. This is intended: the limit only existed to bound
+   * the backlog of a fixed number of platform threads. The serial queue throttle still applies.
+   */
+  private static final boolean USE_VIRTUAL_THREADS =
+      Boolean.getBoolean("DistributionManager.USE_VIRTUAL_THREADS");
+
 
 
   private static final int INCOMING_QUEUE_LIMIT =
@@ -706,19 +727,25 @@ public class ClusterDistributionManager implements DistributionManager {
               thread -> stats.incViewThreadStarts(), this::doViewThread,
               stats.getViewProcessorHelper(), threadMonitor);
 
-      threadPool =
-          LoggingExecutors.newThreadPoolWithFeedStatistics("Pooled Message Processor ",
-              thread -> stats.incProcessingThreadStarts(), this::doProcessingThread,
-              MAX_THREADS, stats.getNormalPoolHelper(), threadMonitor,
-              INCOMING_QUEUE_LIMIT, stats.getOverflowQueueHelper());
+      final boolean virtualThreads =
+          useVirtualThreads(USE_VIRTUAL_THREADS, VirtualThreadFactory.isSupported());
+
+      threadPool = newMessageProcessorPool(virtualThreads, "Pooled Message Processor ",
+          thread -> stats.incProcessingThreadStarts(), this::doProcessingThread,
+          MAX_THREADS, stats.getNormalPoolHelper(), threadMonitor,
+          INCOMING_QUEUE_LIMIT, stats.getOverflowQueueHelper());
 
-      highPriorityPool = LoggingExecutors.newThreadPoolWithFeedStatistics(
+      highPriorityPool = newMessageProcessorPool(virtualThreads,
           "Pooled High Priority Message Processor ",
           thread -> stats.incHighPriorityThreadStarts(), this::doHighPriorityThread,
           MAX_THREADS, stats.getHighPriorityPoolHelper(), threadMonitor,
           INCOMING_QUEUE_LIMIT, stats.getHighPriorityQueueHelper());
 
-      {
+      if (virtualThreads) {
+        waitingPool = LoggingExecutors.newVirtualThreadPool("Pooled Waiting Message Processor ",
+            thread -> stats.incWaitingThreadStarts(), this::doWaitingThread,
+            stats.getWaitingPoolHelper(), threadMonitor);
+      } else {
         BlockingQueue<Runnable> poolQueue;
         if (MAX_WAITING_THREADS == Integer.MAX_VALUE) {
           // no need for a queue since we have infinite threads
@@ -739,11 +766,11 @@ public class ClusterDistributionManager implements DistributionManager {
               0, stats.getWaitingQueueHelper());
 
       if (MAX_PR_THREADS > 1) {
-        partitionedRegionPool =
-            LoggingExecutors.newThreadPoolWithFeedStatistics("PartitionedRegion Message Processor",
-                thread -> stats.incPartitionedRegionThreadStarts(), this::doPartitionRegionThread,
-                MAX_PR_THREADS, stats.getPartitionedRegionPoolHelper(), threadMonitor,
-                INCOMING_QUEUE_LIMIT, stats.getPartitionedRegionQueueHelper());
+        partitionedRegionPool = newMessageProcessorPool(virtualThreads,
+            "PartitionedRegion Message Processor",
+            thread -> stats.incPartitionedRegionThreadStarts(), this::doPartitionRegionThread,
+            MAX_PR_THREADS, stats.getPartitionedRegionPoolHelper(), threadMonitor,
+            INCOMING_QUEUE_LIMIT, stats.getPartitionedRegionQueueHelper());
       } else {
         partitionedRegionThread = LoggingExecutors.newSerialThreadPoolWithFeedStatistics(
             "PartitionedRegion Message Processor",
@@ -751,7 +778,12 @@ public class ClusterDistributionManager implements DistributionManager {
             stats.getPartitionedRegionPoolHelper(), threadMonitor,
             INCOMING_QUEUE_LIMIT, stats.getPartitionedRegionQueueHelper());
       }
-      if (MAX_FE_THREADS > 1) {
+      if (MAX_FE_THREADS > 1 && virtualThreads) {
+        functionExecutionPool =
+            LoggingExecutors.newVirtualThreadPool(FUNCTION_EXECUTION_PROCESSOR_THREAD_PREFIX,
+                thread -> stats.incFunctionExecutionThreadStarts(), this::doFunctionExecutionThread,
+                stats.getFunctionExecutionPoolHelper(), threadMonitor);
+      } else if (MAX_FE_THREADS > 1) {
         functionExecutionPool =
             LoggingExecutors.newFunctionThreadPoolWithFeedStatistics(
                 FUNCTION_EXECUTION_PROCESSOR_THREAD_PREFIX,
@@ -804,6 +836,35 @@ public class ClusterDistributionManager implements DistributionManager {
     }
   }
 
+  /**
+   * @param requested whether USE_VIRTUAL_THREADS is set
+   * @param supported whether {@link VirtualThreadFactory#isSupported()}
+   * @return true if the message processor pools should run on virtual threads
+   */
+  static boolean useVirtualThreads(boolean requested, boolean supported) {
+    if (requested && !supported) {
+      logger.warn(
+          "DistributionManager.USE_VIRTUAL_THREADS is set but this JVM does not support virtual threads without pinning them in synchronized blocks (Java 24 or later is required); message processors will use platform threads");
+    }
+    return requested && supported;
+  }
+
+  /**
+   * Creates a message processor pool running each message on a virtual thread, or on one of at
+   * most poolSize platform threads that queue up to feedSize messages
+   */
+  static ExecutorService newMessageProcessorPool(boolean virtualThreads, String threadName,
+      ThreadInitializer threadInitializer, CommandWrapper commandWrapper, int poolSize,
+      PoolStatHelper poolStats, ThreadsMonitoring threadsMonitoring, int feedSize,
+      QueueStatHelper feedStats) {
+    if (virtualThreads) {
+      return LoggingExecutors.newVirtualThreadPool(threadName, threadInitializer, commandWrapper,
+          poolStats, threadsMonitoring);
+    }
+    return LoggingExecutors.newThreadPoolWithFeedStatistics(threadName, threadInitializer,
+        commandWrapper, poolSize, poolStats, threadsMonitoring, feedSize, feedStats);
+  }
+
   private void doFunctionExecutionThread(Runnable command) {
     stats.incFunctionExecutionThreads(1);
     isFunctionExecutionThread.set(Boolean.TRUE);
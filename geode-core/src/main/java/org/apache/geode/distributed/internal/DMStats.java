@@ -141,6 +141,12 @@ public interface DMStats {
 
   void incBatchFlushTime(long start);
 
+  /**
+   * Increments the number of coalesced writes by one and the messages they wrote by the given
+   * number.
+   */
+  void incCoalescedWrites(int messages);
+
   /**
    * Increments the total number of nanoseconds spent scheduling messages to be processed.
    */
@@ -538,6 +544,21 @@ public interface DMStats {
    */
   void incSenderBufferSize(int inc, boolean direct);
 
+  /**
+   * Increments the number of direct buffers reused from the buffer pool.
+   */
+  void incBufferPoolHits();
+
+  /**
+   * Increments the number of direct buffers allocated because the buffer pool had none.
+   */
+  void incBufferPoolMisses();
+
+  /**
+   * Increments the number of bytes held by idle buffers in the buffer pool.
+   */
+  void incBufferPoolBytes(long inc);
+
   /**
    * @since GemFire 5.0.2.4
    */
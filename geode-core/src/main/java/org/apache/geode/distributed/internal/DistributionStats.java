@@ -149,6 +149,13 @@ public class DistributionStats implements DMStats {
   private static final int batchWaitTimeId;
   private static final int batchFlushTimeId;
 
+  private static final int coalescedWritesId;
+  private static final int coalescedWriteMessagesId;
+
+  private static final int bufferPoolHitsId;
+  private static final int bufferPoolMissesId;
+  private static final int bufferPoolBytesId;
+
   private static final int threadOwnedReceiversId;
   private static final int threadOwnedReceiversId2;
 
@@ -367,11 +374,11 @@ public class DistributionStats implements DMStats {
     final String asyncThreadTimeDesc =
         "Total time spent by asynchronous message queue threads performing iterations.";
     final String receiverDirectBufferSizeDesc =
-        "Current number of bytes allocated from direct memory as buffers for incoming messages.";
+        "Current number of bytes of direct memory in use as buffers for incoming messages.";
     final String receiverHeapBufferSizeDesc =
         "Current number of bytes allocated from Java heap memory as buffers for incoming messages.";
     final String senderDirectBufferSizeDesc =
-        "Current number of bytes allocated from direct memory as buffers for outgoing messages.";
+        "Current number of bytes of direct memory in use as buffers for outgoing messages.";
     final String senderHeapBufferSizeDesc =
         "Current number of bytes allocated from Java heap memory as buffers for outoing messages.";
 
@@ -598,6 +605,12 @@ public class DistributionStats implements DMStats {
         f.createLongCounter("batchFlushTime",
             "Total amount of time, in nanoseconds, spent flushing batched messages to the network",
             "nanoseconds"),
+        f.createLongCounter("coalescedWrites",
+            "Total number of gathering socket writes of messages that were written to a connection at the same time.",
+            "writes"),
+        f.createLongCounter("coalescedWriteMessages",
+            "Total number of messages written by coalesced writes. Divided by coalescedWrites this gives the average number of messages per write.",
+            "messages"),
 
         f.createIntGauge("asyncSocketWritesInProgress",
             "Current number of non-blocking socket write calls in progress.", "writes"),
@@ -650,6 +663,15 @@ public class DistributionStats implements DMStats {
         f.createLongGauge("receiverHeapBufferSize", receiverHeapBufferSizeDesc, "bytes"),
         f.createLongGauge("senderDirectBufferSize", senderDirectBufferSizeDesc, "bytes"),
         f.createLongGauge("senderHeapBufferSize", senderHeapBufferSizeDesc, "bytes"),
+        f.createLongCounter("bufferPoolHits",
+            "Total number of direct buffers for messages that were reused from the buffer pool.",
+            "buffers"),
+        f.createLongCounter("bufferPoolMisses",
+            "Total number of direct buffers for messages that were allocated because the buffer pool had none of their size.",
+            "buffers"),
+        f.createLongGauge("bufferPoolBytes",
+            "Current number of bytes of direct memory held by idle buffers in the buffer pool.",
+            "bytes"),
         f.createIntGauge("socketLocksInProgress",
             "Current number of threads waiting to lock a socket", "threads", false),
         f.createIntCounter("socketLocks", "Total number of times a socket has been locked.",
@@ -844,6 +866,13 @@ public class DistributionStats implements DMStats {
     batchWaitTimeId = type.nameToId("batchWaitTime");
     batchFlushTimeId = type.nameToId("batchFlushTime");
 
+    coalescedWritesId = type.nameToId("coalescedWrites");
+    coalescedWriteMessagesId = type.nameToId("coalescedWriteMessages");
+
+    bufferPoolHitsId = type.nameToId("bufferPoolHits");
+    bufferPoolMissesId = type.nameToId("bufferPoolMisses");
+    bufferPoolBytesId = type.nameToId("bufferPoolBytes");
+
     asyncSocketWritesInProgressId = type.nameToId("asyncSocketWritesInProgress");
     asyncSocketWritesId = type.nameToId("asyncSocketWrites");
     asyncSocketWriteRetriesId = type.nameToId("asyncSocketWriteRetries");
@@ -2235,6 +2264,20 @@ public class DistributionStats implements DMStats {
     }
   }
 
+  @Override
+  public void incCoalescedWrites(int messages) {
+    stats.incLong(coalescedWritesId, 1);
+    stats.incLong(coalescedWriteMessagesId, messages);
+  }
+
+  public long getCoalescedWrites() {
+    return stats.getLong(coalescedWritesId);
+  }
+
+  public long getCoalescedWriteMessages() {
+    return stats.getLong(coalescedWriteMessagesId);
+  }
+
   @Override
   public void incUcastRetransmits() {
     stats.incInt(ucastRetransmitsId, 1);
@@ -2288,6 +2331,33 @@ public class DistributionStats implements DMStats {
     }
   }
 
+  @Override
+  public void incBufferPoolHits() {
+    stats.incLong(bufferPoolHitsId, 1);
+  }
+
+  @Override
+  public void incBufferPoolMisses() {
+    stats.incLong(bufferPoolMissesId, 1);
+  }
+
+  @Override
+  public void incBufferPoolBytes(long inc) {
+    stats.incLong(bufferPoolBytesId, inc);
+  }
+
+  public long getBufferPoolHits() {
+    return stats.getLong(bufferPoolHitsId);
+  }
+
+  public long getBufferPoolMisses() {
+    return stats.getLong(bufferPoolMissesId);
+  }
+
+  public long getBufferPoolBytes() {
+    return stats.getLong(bufferPoolBytesId);
+  }
+
   @Override
   public void incMessagesBeingReceived(boolean newMsg, int bytes) {
     if (newMsg) {
@@ -618,6 +618,9 @@ public class LonerDistributionManager implements DistributionManager {
     @Override
     public void incBatchFlushTime(long start) {}
 
+    @Override
+    public void incCoalescedWrites(int messages) {}
+
     @Override
     public void incUcastWriteBytes(int bytesWritten) {}
 
@@ -819,6 +822,15 @@ public class LonerDistributionManager implements DistributionManager {
     @Override
     public void incSenderBufferSize(int inc, boolean direct) {}
 
+    @Override
+    public void incBufferPoolHits() {}
+
+    @Override
+    public void incBufferPoolMisses() {}
+
+    @Override
+    public void incBufferPoolBytes(long inc) {}
+
     @Override
     public long startSocketLock() {
       return 0;
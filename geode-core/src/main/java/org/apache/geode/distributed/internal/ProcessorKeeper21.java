@@ -16,6 +16,7 @@ package org.apache.geode.distributed.internal;
 
 import java.lang.ref.WeakReference;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import org.apache.geode.internal.Assert;
 import org.apache.geode.internal.ObjIdConcurrentMap;
@@ -33,9 +34,33 @@ import org.apache.geode.internal.ObjIdConcurrentMap;
  * <p>
  * Processor ids are always greater than 0.
  * </p>
+ * <p>
+ * A processor that is waited for by the thread that registers it can instead be kept with
+ * {@link #putPooled}. Each thread then reuses one slot of a fixed table, so registering and
+ * removing it allocates nothing and does not touch the map.
+ * </p>
  */
 public class ProcessorKeeper21 {
 
+  /**
+   * The number of low bits of a pooled id that select its slot
+   */
+  private static final int SLOT_BITS = 12;
+
+  private static final int SLOT_MASK = (1 << SLOT_BITS) - 1;
+
+  /**
+   * Set in every pooled id and in no id returned by put(), which keeps the two apart
+   */
+  private static final int POOLED_ID_BIT = 1 << 30;
+
+  /**
+   * The bits of a pooled id between its slot and {@link #POOLED_ID_BIT}. A slot hands out the same
+   * id again only after this many registrations, so a late reply to a processor that stopped
+   * waiting is not mistaken for a reply to a newer one.
+   */
+  private static final int GENERATION_MASK = (POOLED_ID_BIT - 1) >>> SLOT_BITS;
+
   /**
    * Key is a unique id, value is an instance of some processor class
    */
@@ -48,6 +73,21 @@ public class ProcessorKeeper21 {
 
   private final AtomicInteger nextKey = new AtomicInteger(1);
 
+  private final AtomicReferenceArray<PooledSlot> slots =
+      new AtomicReferenceArray<>(1 << SLOT_BITS);
+
+  private final AtomicInteger nextSlot = new AtomicInteger();
+
+  /**
+   * The slot of each thread that has used putPooled, or {@link #noSlot} if the table was full
+   */
+  private final ThreadLocal<PooledSlot> threadSlot = new ThreadLocal<>();
+
+  /**
+   * Marks a thread that found no free slot so it does not search again; never stored in slots
+   */
+  private final PooledSlot noSlot = new PooledSlot(-1, null, 0);
+
   public ProcessorKeeper21() {
     this(true);
   }
@@ -58,12 +98,12 @@ public class ProcessorKeeper21 {
 
   private int getNextId() {
     int id = this.nextKey.getAndIncrement();
-    if (id <= 0) {
+    if (id <= 0 || id >= POOLED_ID_BIT) {
       // id must be >= 0 since ObjIdMap does not supports keys < 0.
       // We don't use 0 just to keep it reserved as an illegal id.
       synchronized (this.nextKey) {
         id = this.nextKey.get();
-        if (id <= 0) {
+        if (id <= 0 || id >= POOLED_ID_BIT) {
           this.nextKey.set(1);
         }
       }
@@ -95,12 +135,57 @@ public class ProcessorKeeper21 {
     return id;
   }
 
+  /**
+   * Save the processor in the calling thread's slot and return an id to retrieve it with. Unlike
+   * put() the slot references the processor strongly until it is removed or the thread puts its
+   * next pooled processor, which replaces it. The caller must therefore be done waiting for the
+   * processor before it puts another one with this method. Falls back to put() if every slot is
+   * taken by a live thread.
+   *
+   * @param processor the processor to keep
+   * @return the unique id for processor
+   */
+  public int putPooled(Object processor) {
+    PooledSlot slot = this.threadSlot.get();
+    if (slot == null) {
+      slot = claimSlot();
+      this.threadSlot.set(slot);
+    }
+    if (slot == this.noSlot) {
+      return put(processor);
+    }
+    return slot.put(processor);
+  }
+
+  /**
+   * Find a slot that was never used or whose thread has died
+   */
+  private PooledSlot claimSlot() {
+    final Thread thread = Thread.currentThread();
+    for (int i = 0; i < this.slots.length(); i++) {
+      int index = this.nextSlot.getAndIncrement() & SLOT_MASK;
+      PooledSlot current = this.slots.get(index);
+      if (current == null || current.owner.get() == null) {
+        int generation = current == null ? 0 : current.getGeneration();
+        PooledSlot slot = new PooledSlot(index, thread, generation);
+        if (this.slots.compareAndSet(index, current, slot)) {
+          return slot;
+        }
+      }
+    }
+    return this.noSlot;
+  }
+
   /**
    * Retrieve a processor that was previously put() in this keeper. The id is the value returned
    * from put(). If there is no processor by that id, or it has been garbage collected, null is
    * returned.
    */
   public Object retrieve(int id) {
+    if ((id & POOLED_ID_BIT) != 0) {
+      PooledSlot slot = this.slots.get(id & SLOT_MASK);
+      return slot == null ? null : slot.get(id);
+    }
     Object o = null;
     if (this.useWeakRefs) {
       final WeakReference<?> ref = (WeakReference<?>) this.map.get(id);
@@ -122,7 +207,68 @@ public class ProcessorKeeper21 {
    * Remove the processor with the given id. It's okay if no processor with that id exists.
    */
   public void remove(int id) {
+    if ((id & POOLED_ID_BIT) != 0) {
+      PooledSlot slot = this.slots.get(id & SLOT_MASK);
+      if (slot != null) {
+        slot.remove(id);
+      }
+      return;
+    }
     map.remove(id);
   }
 
+  /**
+   * The slot a thread keeps its pooled processors in. Only put and remove are synchronized;
+   * readers check that the id they want is in place both before and after reading the processor.
+   */
+  private static class PooledSlot {
+
+    final int index;
+
+    final WeakReference<Thread> owner;
+
+    private int generation;
+
+    private volatile int id;
+
+    private volatile Object processor;
+
+    PooledSlot(int index, Thread owner, int generation) {
+      this.index = index;
+      this.owner = new WeakReference<>(owner);
+      this.generation = generation;
+    }
+
+    synchronized int getGeneration() {
+      return this.generation;
+    }
+
+    synchronized int put(Object processor) {
+      this.generation = (this.generation + 1) & GENERATION_MASK;
+      this.id = 0;
+      this.processor = processor;
+      final int newId = POOLED_ID_BIT | (this.generation << SLOT_BITS) | this.index;
+      this.id = newId;
+      return newId;
+    }
+
+    Object get(int wantedId) {
+      if (this.id != wantedId) {
+        return null;
+      }
+      final Object o = this.processor;
+      if (this.id != wantedId) {
+        return null;
+      }
+      return o;
+    }
+
+    synchronized void remove(int removedId) {
+      if (this.id == removedId) {
+        this.id = 0;
+        this.processor = null;
+      }
+    }
+  }
+
 }
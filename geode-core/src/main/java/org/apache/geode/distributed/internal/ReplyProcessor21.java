@@ -334,10 +334,25 @@ public class ReplyProcessor21 implements MembershipListener {
   }
 
   protected int register() {
-    this.processorId = keeper.put(this);
+    if (usePooledProcessorId()) {
+      this.processorId = keeper.putPooled(this);
+    } else {
+      this.processorId = keeper.put(this);
+    }
     return this.processorId;
   }
 
+  /**
+   * Override and return true if the thread that registers this processor always waits for it
+   * before registering another one that returns true. Such a processor is kept in a slot of that
+   * thread instead of the keeper's map.
+   *
+   * @see ProcessorKeeper21#putPooled
+   */
+  protected boolean usePooledProcessorId() {
+    return false;
+  }
+
   ///////////////////// Instance Methods /////////////////////
 
   /**
@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a crf or drf with direct I/O when an oplog is recovered, so that recovering a disk store
+ * does not fill the page cache with oplogs that are only read once, see
+ * {@link DiskStoreImpl#DIRECT_IO_PROPERTY_NAME}. The file is read in aligned chunks of
+ * {@link DirectOplogWriter#BUFFER_SIZE} bytes.
+ */
+class DirectOplogInputStream extends InputStream {
+
+  private final FileChannel channel;
+
+  private final int alignment;
+
+  private ByteBuffer buffer;
+
+  /**
+   * The offset in the file of the first byte past the ones in {@link #buffer}
+   */
+  private long position;
+
+  private boolean eof;
+
+  DirectOplogInputStream(FileChannel channel, int alignment) {
+    this.channel = channel;
+    this.alignment = alignment;
+    this.buffer = DirectOplogWriter.acquireBuffer(alignment);
+    this.buffer.limit(0);
+  }
+
+  /**
+   * Opens the given oplog file for reading, with direct I/O if it is supported for the file
+   */
+  static InputStream open(File file) throws FileNotFoundException {
+    FileChannel channel = DirectOplogWriter.openDirect(file.toPath(), StandardOpenOption.READ);
+    if (channel == null) {
+      return new FileInputStream(file);
+    }
+    return new DirectOplogInputStream(channel, DirectOplogWriter.getAlignment(file.toPath()));
+  }
+
+  /**
+   * Reads the chunk of the file at {@link #position} if all bytes in {@link #buffer} were read
+   *
+   * @return false at the end of the file
+   */
+  private boolean fill() throws IOException {
+    if (this.buffer == null) {
+      throw new IOException("Stream closed");
+    }
+    if (this.buffer.hasRemaining()) {
+      return true;
+    }
+    if (this.eof) {
+      return false;
+    }
+    // direct reads start at a block boundary, so a short read is read again from its last block
+    long start = this.position - this.position % this.alignment;
+    this.buffer.clear();
+    int read = this.channel.read(this.buffer, start);
+    this.buffer.flip();
+    int skip = (int) (this.position - start);
+    if (read <= skip) {
+      this.eof = true;
+      this.buffer.limit(0);
+      return false;
+    }
+    this.buffer.position(skip);
+    this.position = start + read;
+    return true;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (!fill()) {
+      return -1;
+    }
+    return this.buffer.get() & 0xff;
+  }
+
+  @Override
+  public int read(byte[] bytes, int offset, int length) throws IOException {
+    if (length == 0) {
+      return 0;
+    }
+    if (!fill()) {
+      return -1;
+    }
+    int count = Math.min(length, this.buffer.remaining());
+    this.buffer.get(bytes, offset, count);
+    return count;
+  }
+
+  @Override
+  public long skip(long count) throws IOException {
+    if (count <= 0 || this.buffer == null) {
+      return 0;
+    }
+    if (count <= this.buffer.remaining()) {
+      this.buffer.position(this.buffer.position() + (int) count);
+      return count;
+    }
+    long skipped = Math.min(count - this.buffer.remaining(),
+        Math.max(this.channel.size() - this.position, 0)) + this.buffer.remaining();
+    this.position += skipped - this.buffer.remaining();
+    this.buffer.limit(0);
+    return skipped;
+  }
+
+  @Override
+  public int available() {
+    return this.buffer == null ? 0 : this.buffer.remaining();
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (this.buffer != null) {
+      DirectOplogWriter.releaseBuffer(this.buffer, this.alignment);
+      this.buffer = null;
+    }
+    this.channel.close();
+  }
+}
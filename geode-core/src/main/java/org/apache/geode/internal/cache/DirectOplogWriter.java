@@ -0,0 +1,331 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.OpenOption;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.logging.log4j.Logger;
+
+import org.apache.geode.annotations.Immutable;
+import org.apache.geode.annotations.internal.MakeNotStatic;
+import org.apache.geode.internal.cache.persistence.UninterruptibleFileChannel;
+import org.apache.geode.internal.logging.LogService;
+
+/**
+ * Writes a crf or drf with direct I/O, so that the bytes of the oplog bypass the page cache, see
+ * {@link DiskStoreImpl#DIRECT_IO_PROPERTY_NAME}.
+ * <p>
+ * Direct I/O needs the offsets, lengths and memory of writes to be aligned to the block size of
+ * the file system. The writer keeps the last, partially filled block of the oplog in an aligned
+ * buffer and writes it again, padded with zeros, together with the next bytes appended to the
+ * oplog. The zeros past the end of the oplog are the same recovery already finds in preblown
+ * oplogs, and are truncated away when the oplog is unpreblown.
+ * <p>
+ * The oplog keeps reading through its buffered channel, whose position the writer moves past the
+ * bytes it appends. Direct I/O needs {@code com.sun.nio.file.ExtendedOpenOption.DIRECT}, which is
+ * looked up reflectively since it was only added in Java 10. {@link #open} returns null if it, or
+ * the file system of the oplog, does not support direct I/O.
+ */
+class DirectOplogWriter implements Closeable {
+  private static final Logger logger = LogService.getLogger();
+
+  static final int DEFAULT_ALIGNMENT = 4096;
+
+  /**
+   * The size of the aligned buffers writes are staged in
+   */
+  static final int BUFFER_SIZE = 256 * 1024;
+
+  private static final int MAX_POOLED_BUFFERS = 16;
+
+  @Immutable
+  private static final OpenOption DIRECT = findDirectOption();
+
+  @Immutable
+  private static final Method ALIGNED_SLICE =
+      findMethod(ByteBuffer.class, "alignedSlice", int.class);
+
+  @Immutable
+  private static final Method GET_BLOCK_SIZE = findMethod(FileStore.class, "getBlockSize");
+
+  /**
+   * The aligned buffers of closed writers, by their alignment
+   */
+  @MakeNotStatic
+  private static final Map<Integer, Queue<ByteBuffer>> bufferPool = new ConcurrentHashMap<>();
+
+  @MakeNotStatic
+  private static final AtomicBoolean loggedUnsupported = new AtomicBoolean();
+
+  private final FileChannel channel;
+
+  private final int alignment;
+
+  private ByteBuffer buffer;
+
+  /**
+   * The offset of the block in {@link #buffer}, which holds the {@link #tailLength} bytes of the
+   * oplog written to it so far
+   */
+  private long tailPosition;
+
+  private int tailLength;
+
+  DirectOplogWriter(FileChannel channel, int alignment) {
+    this.channel = channel;
+    this.alignment = alignment;
+    this.buffer = acquireBuffer(alignment);
+  }
+
+  /**
+   * Opens the given oplog file for direct writes
+   *
+   * @param sync If true, a write only returns once its bytes are on the disk, like the writes to
+   *        the oplog opened in "rwd" mode
+   * @return null if direct I/O is not supported for the file
+   */
+  static DirectOplogWriter open(File file, boolean sync) {
+    Path path = file.toPath();
+    FileChannel channel = sync
+        ? openDirect(path, StandardOpenOption.READ, StandardOpenOption.WRITE,
+            StandardOpenOption.DSYNC)
+        : openDirect(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    if (channel == null) {
+      return null;
+    }
+    return new DirectOplogWriter(channel, getAlignment(path));
+  }
+
+  /**
+   * Opens the given file with {@link #DIRECT} and the given options
+   *
+   * @return null if the platform or the file system does not support direct I/O
+   */
+  static FileChannel openDirect(Path path, OpenOption... options) {
+    if (DIRECT == null) {
+      logUnsupported(path, null);
+      return null;
+    }
+    OpenOption[] directOptions = Arrays.copyOf(options, options.length + 1);
+    directOptions[options.length] = DIRECT;
+    try {
+      return FileChannel.open(path, directOptions);
+    } catch (IOException | UnsupportedOperationException ex) {
+      logUnsupported(path, ex);
+      return null;
+    }
+  }
+
+  private static void logUnsupported(Path path, Exception ex) {
+    if (loggedUnsupported.compareAndSet(false, true)) {
+      logger.warn("Oplogs are not read and written with direct I/O since {} does not support it{}",
+          ex == null ? "this JVM" : "the file system of " + path,
+          ex == null ? "" : ": " + ex);
+    }
+  }
+
+  /**
+   * Returns the block size of the file system of the given path, which the offsets, lengths and
+   * memory of direct I/O have to be aligned to
+   */
+  static int getAlignment(Path path) {
+    if (GET_BLOCK_SIZE != null) {
+      try {
+        long blockSize = (Long) GET_BLOCK_SIZE.invoke(Files.getFileStore(path));
+        if (blockSize > 0 && blockSize <= BUFFER_SIZE && Long.bitCount(blockSize) == 1) {
+          return (int) blockSize;
+        }
+      } catch (Exception ignore) {
+        // use the default
+      }
+    }
+    return DEFAULT_ALIGNMENT;
+  }
+
+  static ByteBuffer acquireBuffer(int alignment) {
+    Queue<ByteBuffer> pooled = bufferPool.get(alignment);
+    ByteBuffer buffer = pooled == null ? null : pooled.poll();
+    if (buffer != null) {
+      buffer.clear();
+      return buffer;
+    }
+    if (ALIGNED_SLICE == null) {
+      // without alignedSlice there is no DIRECT either, so the memory need not be aligned
+      return ByteBuffer.allocateDirect(BUFFER_SIZE);
+    }
+    try {
+      ByteBuffer aligned = (ByteBuffer) ALIGNED_SLICE
+          .invoke(ByteBuffer.allocateDirect(BUFFER_SIZE + alignment - 1), alignment);
+      aligned.limit(BUFFER_SIZE);
+      return aligned.slice();
+    } catch (ReflectiveOperationException ex) {
+      throw new IllegalStateException("Could not align a buffer to " + alignment, ex);
+    }
+  }
+
+  static void releaseBuffer(ByteBuffer buffer, int alignment) {
+    Queue<ByteBuffer> pooled =
+        bufferPool.computeIfAbsent(alignment, key -> new ConcurrentLinkedQueue<>());
+    if (pooled.size() < MAX_POOLED_BUFFERS) {
+      pooled.offer(buffer);
+    }
+  }
+
+  /**
+   * Appends the remaining bytes of the given buffers to the oplog at the position of its buffered
+   * channel, and moves that position past them
+   *
+   * @return The number of bytes written, or -1 if the writer is closed, for example by an
+   *         interrupt. The buffers are left as they were in that case, and have to be written by
+   *         the caller.
+   */
+  synchronized long write(UninterruptibleFileChannel oplogChannel, ByteBuffer... srcs)
+      throws IOException {
+    if (this.buffer == null) {
+      return -1;
+    }
+    long position = oplogChannel.position();
+    long blockStart = position - position % this.alignment;
+    int[] srcPositions = new int[srcs.length];
+    for (int i = 0; i < srcs.length; i++) {
+      srcPositions[i] = srcs[i].position();
+    }
+    try {
+      long written = write(position, blockStart, srcs);
+      oplogChannel.position(position + written);
+      return written;
+    } catch (ClosedChannelException ex) {
+      for (int i = 0; i < srcs.length; i++) {
+        srcs[i].position(srcPositions[i]);
+      }
+      close();
+      return -1;
+    }
+  }
+
+  private long write(long position, long blockStart, ByteBuffer... srcs) throws IOException {
+    int offset = (int) (position - blockStart);
+    if (blockStart != this.tailPosition || offset != this.tailLength) {
+      // the oplog was not last written by this writer, so read its partial block back
+      this.buffer.clear();
+      if (offset > 0) {
+        this.buffer.limit(this.alignment);
+        while (this.buffer.hasRemaining()) {
+          if (this.channel.read(this.buffer, blockStart + this.buffer.position()) <= 0) {
+            break;
+          }
+        }
+      }
+    }
+    this.buffer.limit(this.buffer.capacity());
+    this.buffer.position(offset);
+
+    long written = 0;
+    long writePosition = blockStart;
+    for (ByteBuffer src : srcs) {
+      while (src.hasRemaining()) {
+        int length = Math.min(src.remaining(), this.buffer.remaining());
+        ByteBuffer slice = src.duplicate();
+        slice.limit(slice.position() + length);
+        this.buffer.put(slice);
+        src.position(src.position() + length);
+        written += length;
+        if (!this.buffer.hasRemaining()) {
+          this.buffer.flip();
+          writeFully(writePosition);
+          writePosition += this.buffer.limit();
+          this.buffer.clear();
+        }
+      }
+    }
+
+    int pending = this.buffer.position();
+    int fullBlocks = pending - pending % this.alignment;
+    if (pending > fullBlocks) {
+      int padded = fullBlocks + this.alignment;
+      for (int i = pending; i < padded; i++) {
+        this.buffer.put(i, (byte) 0);
+      }
+      this.buffer.position(0);
+      this.buffer.limit(padded);
+      writeFully(writePosition);
+      // keep the partial block to write again with the next bytes
+      this.buffer.limit(pending);
+      this.buffer.position(fullBlocks);
+      this.buffer.compact();
+    } else if (pending > 0) {
+      this.buffer.flip();
+      writeFully(writePosition);
+    }
+    this.tailPosition = writePosition + fullBlocks;
+    this.tailLength = pending - fullBlocks;
+    return written;
+  }
+
+  private void writeFully(long writePosition) throws IOException {
+    long position = writePosition;
+    while (this.buffer.hasRemaining()) {
+      position += this.channel.write(this.buffer, position);
+    }
+  }
+
+  @Override
+  public synchronized void close() throws IOException {
+    if (this.buffer != null) {
+      releaseBuffer(this.buffer, this.alignment);
+      this.buffer = null;
+    }
+    this.channel.close();
+  }
+
+  private static OpenOption findDirectOption() {
+    try {
+      Class<?> extendedOpenOption = Class.forName("com.sun.nio.file.ExtendedOpenOption");
+      for (Object option : extendedOpenOption.getEnumConstants()) {
+        if ("DIRECT".equals(((Enum<?>) option).name())) {
+          return (OpenOption) option;
+        }
+      }
+    } catch (ClassNotFoundException ignore) {
+      // not supported
+    }
+    return null;
+  }
+
+  private static Method findMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+    try {
+      return type.getMethod(name, parameterTypes);
+    } catch (NoSuchMethodException ex) {
+      return null;
+    }
+  }
+}
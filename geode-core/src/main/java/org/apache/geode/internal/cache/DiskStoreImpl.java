@@ -54,6 +54,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
@@ -66,6 +67,7 @@ import java.util.stream.Stream;
 import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
 import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import org.apache.commons.io.FileUtils;
+import org.apache.logging.log4j.Level;
 import org.apache.logging.log4j.Logger;
 
 import org.apache.geode.CancelCriterion;
@@ -116,6 +118,8 @@ import org.apache.geode.internal.logging.LogService;
 import org.apache.geode.internal.logging.LoggingExecutors;
 import org.apache.geode.internal.logging.LoggingThread;
 import org.apache.geode.internal.util.BlobHelper;
+import org.apache.geode.internal.util.ByteRateLimiter;
+import org.apache.geode.management.OplogHeatData;
 import org.apache.geode.pdx.internal.EnumInfo;
 import org.apache.geode.pdx.internal.PdxField;
 import org.apache.geode.pdx.internal.PdxType;
@@ -181,6 +185,86 @@ public class DiskStoreImpl implements DiskStore {
   public static final String RECOVER_LRU_VALUES_PROPERTY_NAME =
       DistributionConfig.GEMFIRE_PREFIX + "disk.recoverLruValues";
 
+  /**
+   * The number of threads reading and parsing krf files ahead of their recovery. With the default
+   * of 1 every oplog is read by the recovering thread itself.
+   */
+  public static final String RECOVERY_THREADS_PROPERTY_NAME =
+      DistributionConfig.GEMFIRE_PREFIX + "disk.recoveryThreads";
+
+  /**
+   * If true, concurrent synchronous writers of an oplog share one flush of its write buffers in
+   * place of each flushing on its own.
+   */
+  public static final String GROUP_COMMIT_PROPERTY_NAME =
+      DistributionConfig.GEMFIRE_PREFIX + "disk.groupCommit";
+
+  /**
+   * The number of microseconds the writer doing a group commit waits for other writers to join it
+   * before flushing. With the default of 0 a group commit only takes in the writers that appended
+   * while the previous one was flushing.
+   */
+  public static final String GROUP_COMMIT_MAX_WAIT_PROPERTY_NAME =
+      DistributionConfig.GEMFIRE_PREFIX + "disk.groupCommitMaxWaitMicros";
+
+  /**
+   * If true, the crf of an oplog that is no longer written to is mapped into memory the first time
+   * a value is faulted in from it, and later values are read from the mapping without locking the
+   * oplog. The mapping is dropped when the oplog is closed or deleted, but the memory is only
+   * unmapped once it is garbage collected, which on some platforms keeps the file from being
+   * deleted until then.
+   */
+  public static final String MAP_SEALED_OPLOGS_PROPERTY_NAME =
+      DistributionConfig.GEMFIRE_PREFIX + "disk.mapSealedOplogs";
+
+  /**
+   * The name of the {@link OplogValueCodec} to compress the values written to oplogs with, snappy or
+   * deflate. Values are not compressed by default. Values already written stay readable whatever
+   * this is set to.
+   */
+  public static final String VALUE_CODEC_PROPERTY_NAME =
+      DistributionConfig.GEMFIRE_PREFIX + "disk.valueCodec";
+
+  /**
+   * The number of bytes per second the compactor of a disk store may copy forward. The compactor
+   * waits out the rest of its budget between slices, see
+   * {@link #COMPACTION_SLICE_BYTES_PROPERTY_NAME}, so that it does not compete with synchronous
+   * writes for the disks. Compaction is not limited by default.
+   */
+  public static final String COMPACTION_MAX_BYTES_PER_SECOND_PROPERTY_NAME =
+      DistributionConfig.GEMFIRE_PREFIX + "disk.compactionMaxBytesPerSecond";
+
+  /**
+   * The number of bytes the compactor copies forward before ending a compaction, leaving the rest
+   * of the oplog it was compacting for a later one. The next compaction again starts with the oplog
+   * that has the most garbage. Defaults to a tenth of the bytes per second compaction is limited to,
+   * and to compacting whole oplogs if it is not limited.
+   */
+  public static final String COMPACTION_SLICE_BYTES_PROPERTY_NAME =
+      DistributionConfig.GEMFIRE_PREFIX + "disk.compactionSliceBytes";
+
+  /**
+   * The number of updates of an entry that a disk store writes as just their
+   * {@link org.apache.geode.Delta} before it writes the whole value again. Reading the value of an
+   * entry applies up to this many deltas, so it should be kept small. Deltas are only written for
+   * updates that carry one, and asynchronously only if the region has concurrency checks enabled
+   * and no later update of the entry was queued before the write. Offline compaction copies the
+   * deltas of an entry forward together with the value they apply to. The default of 0 always
+   * writes whole values.
+   */
+  public static final String DELTA_CHECKPOINT_INTERVAL_PROPERTY_NAME =
+      DistributionConfig.GEMFIRE_PREFIX + "disk.deltaCheckpointInterval";
+
+  /**
+   * If true, crfs and drfs are written, and read during recovery, with direct I/O so that the
+   * oplogs of a disk store do not push the data of the rest of the system out of the page cache.
+   * Writes are padded to the block size of the file system, see {@link DirectOplogWriter}. Oplogs
+   * are read through the page cache if the platform or the file system does not support direct
+   * I/O.
+   */
+  public static final String DIRECT_IO_PROPERTY_NAME =
+      DistributionConfig.GEMFIRE_PREFIX + "disk.directIO";
+
   boolean RECOVER_VALUES = getBoolean(DiskStoreImpl.RECOVER_VALUE_PROPERTY_NAME, true);
 
   boolean RECOVER_VALUES_SYNC = getBoolean(DiskStoreImpl.RECOVER_VALUES_SYNC_PROPERTY_NAME, false);
@@ -191,6 +275,29 @@ public class DiskStoreImpl implements DiskStore {
   final boolean RECOVER_LRU_VALUES =
       getBoolean(DiskStoreImpl.RECOVER_LRU_VALUES_PROPERTY_NAME, false);
 
+  final int RECOVERY_THREADS = Integer.getInteger(RECOVERY_THREADS_PROPERTY_NAME, 1);
+
+  final boolean GROUP_COMMIT = getBoolean(GROUP_COMMIT_PROPERTY_NAME, false);
+
+  final long GROUP_COMMIT_MAX_WAIT_NANOS =
+      TimeUnit.MICROSECONDS.toNanos(Long.getLong(GROUP_COMMIT_MAX_WAIT_PROPERTY_NAME, 0L));
+
+  final boolean MAP_SEALED_OPLOGS = getBoolean(MAP_SEALED_OPLOGS_PROPERTY_NAME, false);
+
+  final OplogValueCodec VALUE_CODEC =
+      OplogValueCodec.forName(System.getProperty(VALUE_CODEC_PROPERTY_NAME));
+
+  final int DELTA_CHECKPOINT_INTERVAL =
+      Integer.getInteger(DELTA_CHECKPOINT_INTERVAL_PROPERTY_NAME, 0);
+
+  final boolean DIRECT_IO = getBoolean(DIRECT_IO_PROPERTY_NAME, false);
+
+  final long COMPACTION_MAX_BYTES_PER_SECOND =
+      Long.getLong(COMPACTION_MAX_BYTES_PER_SECOND_PROPERTY_NAME, 0L);
+
+  final long COMPACTION_SLICE_BYTES = Long.getLong(COMPACTION_SLICE_BYTES_PROPERTY_NAME,
+      COMPACTION_MAX_BYTES_PER_SECOND > 0 ? Math.max(COMPACTION_MAX_BYTES_PER_SECOND / 10, 1) : 0L);
+
   public static boolean getBoolean(String sysProp, boolean def) {
     return Boolean.valueOf(System.getProperty(sysProp, Boolean.valueOf(def).toString()));
   }
@@ -566,6 +673,22 @@ public class DiskStoreImpl implements DiskStore {
     return this.stats;
   }
 
+  /**
+   * Returns how much each oplog with a crf is read from and how much of it is garbage
+   */
+  public OplogHeatData[] getOplogHeat() {
+    List<OplogHeatData> heat = new ArrayList<>();
+    for (Oplog oplog : this.persistentOplogs.getAllOplogs()) {
+      OplogStats oplogStats = oplog == null ? null : oplog.getOplogStats();
+      if (oplogStats != null) {
+        heat.add(new OplogHeatData(oplog.getOplogId(), oplogStats.getReads(),
+            oplogStats.getReadBytes(), oplog.getLiveEntryCount(), oplog.getGarbageEntryCount(),
+            oplog.getOplogSize()));
+      }
+    }
+    return heat.toArray(new OplogHeatData[0]);
+  }
+
   public Map<Long, AbstractDiskRegion> getAllDiskRegions() {
     Map<Long, AbstractDiskRegion> results = new HashMap<Long, AbstractDiskRegion>();
     results.putAll(drMap);
@@ -1241,7 +1364,7 @@ public class DiskStoreImpl implements DiskStore {
         DiskEntry.Helper.doAsyncFlush(tag, region);
       } else {
         DiskEntry entry = ade.de;
-        DiskEntry.Helper.handleFullAsyncQueue(entry, region, tag);
+        DiskEntry.Helper.handleFullAsyncQueue(entry, region, tag, ade.deltaBytes);
       }
     } catch (RegionDestroyedException ignore) {
       // Normally we flush before closing or destroying a region
@@ -1735,7 +1858,7 @@ public class DiskStoreImpl implements DiskStore {
                           CacheObserverHolder.getInstance().goingToFlush();
                         }
                       }
-                      DiskEntry.Helper.doAsyncFlush(entry, region, tag);
+                      DiskEntry.Helper.doAsyncFlush(entry, region, tag, ade.deltaBytes);
                     } else {
                       // If it is no longer pending someone called
                       // unscheduleAsyncWrite
@@ -2720,7 +2843,17 @@ public class DiskStoreImpl implements DiskStore {
     if (!all && max > MAX_OPLOGS_PER_COMPACTION && MAX_OPLOGS_PER_COMPACTION > 0) {
       max = MAX_OPLOGS_PER_COMPACTION;
     }
-    getPersistentOplogs().getCompactableOplogs(l, max);
+    if (COMPACTION_SLICE_BYTES > 0) {
+      // Compactions only copy forward a slice of the oplogs, so start with the ones that free up the
+      // most disk space for the bytes copied.
+      getPersistentOplogs().getCompactableOplogs(l, Integer.MAX_VALUE);
+      l.sort(Comparator.comparingDouble(oplog -> -((Oplog) oplog).getGarbageRatio()));
+      if (l.size() > max) {
+        l.subList(max, l.size()).clear();
+      }
+    } else {
+      getPersistentOplogs().getCompactableOplogs(l, max);
+    }
 
     // Note this always puts overflow oplogs on the end of the list.
     // They may get starved.
@@ -2774,9 +2907,21 @@ public class DiskStoreImpl implements DiskStore {
 
     private final boolean compactionCompletionRequired;
 
+    /**
+     * Null if compaction is not limited to a number of bytes per second
+     */
+    private final ByteRateLimiter throttle;
+
+    /**
+     * The number of bytes copied forward by the current compaction
+     */
+    private long compactedBytes;
+
     OplogCompactor() {
       this.compactionCompletionRequired =
           Boolean.getBoolean(COMPLETE_COMPACTION_BEFORE_TERMINATION_PROPERTY_NAME);
+      this.throttle = COMPACTION_MAX_BYTES_PER_SECOND > 0
+          ? new ByteRateLimiter(COMPACTION_MAX_BYTES_PER_SECOND) : null;
     }
 
     /** Creates a new thread and starts the thread* */
@@ -2844,8 +2989,9 @@ public class DiskStoreImpl implements DiskStore {
       int totalCount = 0;
       long compactionStart = getStats().startCompaction();
       long start = System.nanoTime();
+      this.compactedBytes = 0;
       try {
-        for (int i = 0; i < oplogs.length && keepCompactorRunning(); i++) {
+        for (int i = 0; i < oplogs.length && keepCompactorRunning() && !isSliceDone(); i++) {
           totalCount += oplogs[i].compact(this);
         }
 
@@ -2853,11 +2999,60 @@ public class DiskStoreImpl implements DiskStore {
         getStats().endCompaction(compactionStart);
       }
       long endTime = System.nanoTime();
-      logger.info("compaction did {} creates and updates in {} ms",
+      logger.log(getCompactionLogLevel(), "compaction did {} creates and updates in {} ms",
           totalCount, ((endTime - start) / 1000000));
+      waitForBudget();
       return true;
     }
 
+    /**
+     * Compactions of slices are frequent, so they are only logged when debugging
+     */
+    private Level getCompactionLogLevel() {
+      return COMPACTION_SLICE_BYTES > 0 ? Level.DEBUG : Level.INFO;
+    }
+
+    /**
+     * Called by an oplog after copying forward a record with the given number of value bytes
+     */
+    void compacted(long bytes) {
+      this.compactedBytes += bytes;
+      getStats().incCompactedBytes(bytes);
+    }
+
+    /**
+     * @return true if this compaction copied forward all the bytes it may, and the oplog being
+     *         compacted should stop and leave the rest of its live entries for a later one
+     */
+    boolean isSliceDone() {
+      return COMPACTION_SLICE_BYTES > 0 && this.compactedBytes >= COMPACTION_SLICE_BYTES;
+    }
+
+    /**
+     * Waits until the bytes copied forward by this compaction are paid for, before the next one is
+     * scheduled. Must not be called while holding any oplog lock.
+     */
+    private void waitForBudget() {
+      if (this.throttle == null || this.compactedBytes == 0) {
+        return;
+      }
+      long start = System.nanoTime();
+      long remaining = this.throttle.charge(this.compactedBytes, start);
+      if (remaining <= 0) {
+        return;
+      }
+      long deadline = start + remaining;
+      while (remaining > 0 && this.compactorEnabled && !isClosing()) {
+        // wake up now and then to notice the compactor being stopped
+        LockSupport.parkNanos(this, Math.min(remaining, TimeUnit.MILLISECONDS.toNanos(100)));
+        if (Thread.currentThread().isInterrupted()) {
+          break;
+        }
+        remaining = deadline - System.nanoTime();
+      }
+      getStats().incCompactionThrottleTime(System.nanoTime() - start);
+    }
+
     private boolean isClosing() {
       if (getCache().isClosed()) {
         return true;
@@ -2899,7 +3094,7 @@ public class DiskStoreImpl implements DiskStore {
             }
           }
           String ids = buffer.toString();
-          logger.info("OplogCompactor for {} compaction oplog id(s): {}",
+          logger.log(getCompactionLogLevel(), "OplogCompactor for {} compaction oplog id(s): {}",
               getName(), ids);
           if (LocalRegion.ISSUE_CALLBACKS_TO_CACHE_OBSERVER) {
             CacheObserverHolder.getInstance().beforeGoingToCompact();
@@ -3426,11 +3621,21 @@ public class DiskStoreImpl implements DiskStore {
     public final DiskEntry de;
     public final boolean versionOnly;
     public final VersionTag tag;
+    /**
+     * The {@link org.apache.geode.Delta} bytes of the update, written instead of the value if the
+     * entry still has the version of the tag when it is flushed
+     */
+    public final byte[] deltaBytes;
 
     public AsyncDiskEntry(InternalRegion region, DiskEntry de, VersionTag tag) {
+      this(region, de, tag, null);
+    }
+
+    public AsyncDiskEntry(InternalRegion region, DiskEntry de, VersionTag tag, byte[] deltaBytes) {
       this.region = region;
       this.de = de;
       this.tag = tag;
+      this.deltaBytes = deltaBytes;
       this.versionOnly = false;
     }
 
@@ -3438,6 +3643,7 @@ public class DiskStoreImpl implements DiskStore {
       this.region = region;
       this.de = null;
       this.tag = tag;
+      this.deltaBytes = null;
       this.versionOnly = true;
       // if versionOnly, only de.getDiskId() is used for synchronize
     }
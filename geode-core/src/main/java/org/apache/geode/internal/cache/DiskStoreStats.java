@@ -14,6 +14,8 @@
  */
 package org.apache.geode.internal.cache;
 
+import java.util.Arrays;
+
 import org.apache.geode.StatisticDescriptor;
 import org.apache.geode.Statistics;
 import org.apache.geode.StatisticsFactory;
@@ -21,6 +23,7 @@ import org.apache.geode.StatisticsType;
 import org.apache.geode.StatisticsTypeFactory;
 import org.apache.geode.annotations.Immutable;
 import org.apache.geode.distributed.internal.DistributionStats;
+import org.apache.geode.internal.statistics.LatencyHistogram;
 import org.apache.geode.internal.statistics.StatisticsTypeFactoryImpl;
 
 /**
@@ -31,6 +34,33 @@ import org.apache.geode.internal.statistics.StatisticsTypeFactoryImpl;
  */
 public class DiskStoreStats {
 
+  /**
+   * The disk operations whose latencies are kept in a {@link LatencyHistogram}. Each has statistics
+   * for the median, 99th percentile and maximum of its latencies, which are only recorded when
+   * time statistics are enabled. The histograms are cumulative, they cover every latency since the
+   * disk store was created.
+   */
+  public enum Latency {
+    WRITE("write", "writing entries to oplogs"),
+    FLUSH("flush", "async queue flushes"),
+    FSYNC("fsync", "forcing oplogs to the disk"),
+    FAULT_IN("faultIn", "reading entries from oplogs"),
+    COMPACTION_READ("compactionRead", "reading the values that compaction copies forward");
+
+    private final String statName;
+
+    private final String description;
+
+    Latency(String statName, String description) {
+      this.statName = statName;
+      this.description = description;
+    }
+
+    public String getStatName() {
+      return this.statName;
+    }
+  }
+
   @Immutable
   private static final StatisticsType type;
 
@@ -60,6 +90,13 @@ public class DiskStoreStats {
   private static final int oplogRecoveriesId;
   private static final int oplogRecoveryTimeId;
   private static final int oplogRecoveredBytesId;
+  private static final int drfRecoveryTimeId;
+  private static final int krfsPrefetchedId;
+  private static final int krfPrefetchTimeId;
+  private static final int groupCommitsId;
+  private static final int groupCommitWritesId;
+  private static final int fsyncsId;
+  private static final int fsyncTimeId;
   private static final int bytesReadId;
   private static final int removesId;
   private static final int removeTimeId;
@@ -71,6 +108,8 @@ public class DiskStoreStats {
   private static final int compactUpdateTimeId;
   private static final int compactDeletesId;
   private static final int compactDeleteTimeId;
+  private static final int compactedBytesId;
+  private static final int compactionThrottleTimeId;
 
   private static final int openOplogsId;
   private static final int inactiveOplogsId;
@@ -78,11 +117,24 @@ public class DiskStoreStats {
 
   private static final int oplogReadsId;
   private static final int oplogSeeksId;
+  private static final int oplogMappedReadsId;
+  private static final int mappedOplogsId;
+  private static final int compressedValuesId;
+  private static final int compressedValueBytesSavedId;
+  private static final int deltaValuesId;
+  private static final int deltaValueBytesSavedId;
 
   private static final int uncreatedRecoveredRegionsId;
   private static final int backupsInProgress;
   private static final int backupsCompleted;
 
+  @Immutable
+  private static final int[] latencyMedianIds = new int[Latency.values().length];
+  @Immutable
+  private static final int[] latency99thPercentileIds = new int[Latency.values().length];
+  @Immutable
+  private static final int[] latencyMaxIds = new int[Latency.values().length];
+
   static {
     String statName = "DiskStoreStatistics";
     String statDescription = "Statistics about a Region's use of the disk";
@@ -119,7 +171,8 @@ public class DiskStoreStats {
     StatisticsTypeFactory f = StatisticsTypeFactoryImpl.singleton();
 
     type = f.createType(statName, statDescription,
-        new StatisticDescriptor[] {f.createLongCounter("writes", writesDesc, "ops"),
+        withLatencyDescriptors(f, new StatisticDescriptor[] {
+            f.createLongCounter("writes", writesDesc, "ops"),
             f.createLongCounter("writeTime", writeTimeDesc, "nanoseconds"),
             f.createLongCounter("writtenBytes", bytesWrittenDesc, "bytes"),
             f.createLongCounter("flushes", flushesDesc, "ops"),
@@ -151,6 +204,24 @@ public class DiskStoreStats {
             f.createIntCounter("oplogRecoveries", oplogRecoveriesDesc, "ops"),
             f.createLongCounter("oplogRecoveryTime", oplogRecoveryTimeDesc, "nanoseconds"),
             f.createLongCounter("oplogRecoveredBytes", oplogRecoveredBytesDesc, "bytes"),
+            f.createLongCounter("drfRecoveryTime",
+                "The total amount of time spent reading drf files to find destroyed entries during a recovery",
+                "nanoseconds"),
+            f.createIntCounter("krfsPrefetched",
+                "The total number of krf files read and parsed ahead of their recovery by recovery worker threads",
+                "files"),
+            f.createLongCounter("krfPrefetchTime",
+                "The total amount of time recovery worker threads spent reading and parsing krf files",
+                "nanoseconds"),
+            f.createIntCounter("groupCommits",
+                "The total number of oplog flushes done on behalf of a group of synchronous writers",
+                "flushes"),
+            f.createLongCounter("groupCommitWrites",
+                "The total number of synchronous writes made durable by group commits", "ops"),
+            f.createLongCounter("fsyncs", "The total number of times oplogs were forced to disk",
+                "ops"),
+            f.createLongCounter("fsyncTime",
+                "The total amount of time spent forcing oplogs to disk", "nanoseconds"),
             f.createLongCounter("removes", removesDesc, "ops"),
             f.createLongCounter("removeTime", removeTimeDesc, "nanoseconds"),
             f.createIntGauge("queueSize", queueSizeDesc, "entries"),
@@ -169,6 +240,11 @@ public class DiskStoreStats {
             f.createLongCounter("compactDeleteTime",
                 "Total amount of time, in nanoseconds, spent doing deletes during a compact",
                 "nanoseconds"),
+            f.createLongCounter("compactedBytes",
+                "Total number of value bytes copied forward by oplog compacts", "bytes"),
+            f.createLongCounter("compactionThrottleTime",
+                "Total amount of time, in nanoseconds, the compactor waited to stay within the bytes per second it may compact",
+                "nanoseconds"),
             f.createIntGauge("compactsInProgress",
                 "current number of oplog compacts that are in progress", "compacts"),
             f.createIntGauge("writesInProgress",
@@ -187,11 +263,24 @@ public class DiskStoreStats {
                 "oplogs"),
             f.createLongCounter("oplogReads", "Total number of oplog reads", "reads"),
             f.createLongCounter("oplogSeeks", "Total number of oplog seeks", "seeks"),
+            f.createLongCounter("oplogMappedReads",
+                "Total number of oplog reads served from a crf mapped into memory", "reads"),
+            f.createIntGauge("mappedOplogs",
+                "Current number of oplogs this disk store has mapped into memory", "oplogs"),
+            f.createLongCounter("compressedValues",
+                "Total number of values compressed before being written to an oplog", "values"),
+            f.createLongCounter("compressedValueBytesSaved",
+                "Total number of bytes saved by compressing values written to oplogs", "bytes"),
+            f.createLongCounter("deltaValues",
+                "Total number of updates written to oplogs as just their delta", "values"),
+            f.createLongCounter("deltaValueBytesSaved",
+                "Total number of bytes saved by writing deltas instead of values to oplogs",
+                "bytes"),
             f.createIntGauge("uncreatedRecoveredRegions",
                 "The current number of regions that have been recovered but have not yet been created.",
                 "regions"),
             f.createIntGauge("backupsInProgress", backupsInProgressDesc, "backups"),
-            f.createIntCounter("backupsCompleted", backupsCompletedDesc, "backups"),});
+            f.createIntCounter("backupsCompleted", backupsCompletedDesc, "backups"),}));
 
     // Initialize id fields
     writesId = type.nameToId("writes");
@@ -220,6 +309,13 @@ public class DiskStoreStats {
     oplogRecoveriesId = type.nameToId("oplogRecoveries");
     oplogRecoveryTimeId = type.nameToId("oplogRecoveryTime");
     oplogRecoveredBytesId = type.nameToId("oplogRecoveredBytes");
+    drfRecoveryTimeId = type.nameToId("drfRecoveryTime");
+    krfsPrefetchedId = type.nameToId("krfsPrefetched");
+    krfPrefetchTimeId = type.nameToId("krfPrefetchTime");
+    groupCommitsId = type.nameToId("groupCommits");
+    groupCommitWritesId = type.nameToId("groupCommitWrites");
+    fsyncsId = type.nameToId("fsyncs");
+    fsyncTimeId = type.nameToId("fsyncTime");
     removesId = type.nameToId("removes");
     removeTimeId = type.nameToId("removeTime");
     queueSizeId = type.nameToId("queueSize");
@@ -230,8 +326,16 @@ public class DiskStoreStats {
     compactInsertTimeId = type.nameToId("compactInsertTime");
     compactUpdatesId = type.nameToId("compactUpdates");
     compactUpdateTimeId = type.nameToId("compactUpdateTime");
+    compactedBytesId = type.nameToId("compactedBytes");
+    compactionThrottleTimeId = type.nameToId("compactionThrottleTime");
     oplogReadsId = type.nameToId("oplogReads");
     oplogSeeksId = type.nameToId("oplogSeeks");
+    oplogMappedReadsId = type.nameToId("oplogMappedReads");
+    mappedOplogsId = type.nameToId("mappedOplogs");
+    compressedValuesId = type.nameToId("compressedValues");
+    compressedValueBytesSavedId = type.nameToId("compressedValueBytesSaved");
+    deltaValuesId = type.nameToId("deltaValues");
+    deltaValueBytesSavedId = type.nameToId("deltaValueBytesSaved");
 
     openOplogsId = type.nameToId("openOplogs");
     inactiveOplogsId = type.nameToId("inactiveOplogs");
@@ -239,6 +343,35 @@ public class DiskStoreStats {
     uncreatedRecoveredRegionsId = type.nameToId("uncreatedRecoveredRegions");
     backupsInProgress = type.nameToId("backupsInProgress");
     backupsCompleted = type.nameToId("backupsCompleted");
+    for (Latency latency : Latency.values()) {
+      latencyMedianIds[latency.ordinal()] = type.nameToId(latency.statName + "LatencyMedian");
+      latency99thPercentileIds[latency.ordinal()] =
+          type.nameToId(latency.statName + "Latency99thPercentile");
+      latencyMaxIds[latency.ordinal()] = type.nameToId(latency.statName + "LatencyMax");
+    }
+  }
+
+  private static final String SINCE_CREATED = " since the disk store was created";
+
+  private static StatisticDescriptor[] withLatencyDescriptors(StatisticsTypeFactory f,
+      StatisticDescriptor[] descriptors) {
+    Latency[] latencies = Latency.values();
+    StatisticDescriptor[] all =
+        Arrays.copyOf(descriptors, descriptors.length + 3 * latencies.length);
+    int i = descriptors.length;
+    for (Latency latency : latencies) {
+      all[i++] = f.createLongGauge(latency.statName + "LatencyMedian",
+          "The median amount of time spent " + latency.description + SINCE_CREATED,
+          "nanoseconds");
+      all[i++] = f.createLongGauge(latency.statName + "Latency99thPercentile",
+          "The 99th percentile of the amount of time spent " + latency.description
+              + SINCE_CREATED,
+          "nanoseconds");
+      all[i++] = f.createLongGauge(latency.statName + "LatencyMax",
+          "The maximum amount of time spent " + latency.description + SINCE_CREATED,
+          "nanoseconds");
+    }
+    return all;
   }
 
   ////////////////////// Instance Fields //////////////////////
@@ -246,6 +379,12 @@ public class DiskStoreStats {
   /** The Statistics object that we delegate most behavior to */
   private final Statistics stats;
 
+  private final StatisticsFactory factory;
+
+  private final String name;
+
+  private final LatencyHistogram[] latencies = new LatencyHistogram[Latency.values().length];
+
   /////////////////////// Constructors ///////////////////////
 
   /**
@@ -253,6 +392,24 @@ public class DiskStoreStats {
    */
   public DiskStoreStats(StatisticsFactory f, String name) {
     this.stats = f.createAtomicStatistics(type, name);
+    this.factory = f;
+    this.name = name;
+    for (Latency latency : Latency.values()) {
+      LatencyHistogram histogram = new LatencyHistogram();
+      this.latencies[latency.ordinal()] = histogram;
+      this.stats.setLongSupplier(latencyMedianIds[latency.ordinal()],
+          () -> histogram.getValueAtPercentile(50));
+      this.stats.setLongSupplier(latency99thPercentileIds[latency.ordinal()],
+          () -> histogram.getValueAtPercentile(99));
+      this.stats.setLongSupplier(latencyMaxIds[latency.ordinal()], histogram::getMax);
+    }
+  }
+
+  /**
+   * Creates the statistics of the given oplog of this disk store
+   */
+  OplogStats createOplogStats(Oplog oplog) {
+    return new OplogStats(this.factory, this.name + "_oplog_" + oplog.getOplogId(), oplog);
   }
 
   ///////////////////// Instance Methods /////////////////////
@@ -367,6 +524,7 @@ public class DiskStoreStats {
     long end = DistributionStats.getStatTime();
     this.stats.incLong(writesId, 1);
     this.stats.incLong(writeTimeId, end - start);
+    recordLatency(Latency.WRITE, start, end);
     return end;
   }
 
@@ -375,6 +533,46 @@ public class DiskStoreStats {
     long end = DistributionStats.getStatTime();
     this.stats.incLong(flushesId, 1);
     this.stats.incLong(flushTimeId, end - start);
+    recordLatency(Latency.FLUSH, start, end);
+  }
+
+  /**
+   * Invoked after an oplog has been forced to disk
+   *
+   * @param start The time at which the force started
+   */
+  public void endFsync(long start) {
+    long end = DistributionStats.getStatTime();
+    this.stats.incLong(fsyncsId, 1);
+    this.stats.incLong(fsyncTimeId, end - start);
+    recordLatency(Latency.FSYNC, start, end);
+  }
+
+  public long getFsyncs() {
+    return this.stats.getLong(fsyncsId);
+  }
+
+  /**
+   * Invoked after compaction has read a value it copies forward from an oplog
+   *
+   * @param start The time at which the read started
+   */
+  public void endCompactionRead(long start) {
+    recordLatency(Latency.COMPACTION_READ, start, DistributionStats.getStatTime());
+  }
+
+  private void recordLatency(Latency latency, long start, long end) {
+    // both are 0 unless time statistics are enabled
+    if (start != 0) {
+      this.latencies[latency.ordinal()].record(end - start);
+    }
+  }
+
+  /**
+   * Returns the histogram of the latencies of the given operation
+   */
+  public LatencyHistogram getLatency(Latency latency) {
+    return this.latencies[latency.ordinal()];
   }
 
   public long getFlushes() {
@@ -403,6 +601,7 @@ public class DiskStoreStats {
     this.stats.incLong(readsId, 1);
     this.stats.incLong(readTimeId, end - start);
     this.stats.incLong(bytesReadId, bytesRead);
+    recordLatency(Latency.FAULT_IN, start, end);
     return end;
   }
 
@@ -446,6 +645,10 @@ public class DiskStoreStats {
     this.stats.incLong(compactTimeId, end - start);
   }
 
+  public int getCompacts() {
+    return this.stats.getInt(compactsId);
+  }
+
   public void endOplogRead(long start, long bytesRead) {
     long end = DistributionStats.getStatTime();
     this.stats.incInt(oplogRecoveriesId, 1);
@@ -453,6 +656,37 @@ public class DiskStoreStats {
     this.stats.incLong(oplogRecoveredBytesId, bytesRead);
   }
 
+  public void endDrfRecovery(long start) {
+    long end = DistributionStats.getStatTime();
+    this.stats.incLong(drfRecoveryTimeId, end - start);
+  }
+
+  public void endKrfPrefetch(long start) {
+    long end = DistributionStats.getStatTime();
+    this.stats.incInt(krfsPrefetchedId, 1);
+    this.stats.incLong(krfPrefetchTimeId, end - start);
+  }
+
+  /**
+   * Returns the total number of krf files read ahead of their recovery by recovery worker threads
+   */
+  public int getKrfsPrefetched() {
+    return this.stats.getInt(krfsPrefetchedId);
+  }
+
+  public void incGroupCommits(long writes) {
+    this.stats.incInt(groupCommitsId, 1);
+    this.stats.incLong(groupCommitWritesId, writes);
+  }
+
+  public int getGroupCommits() {
+    return this.stats.getInt(groupCommitsId);
+  }
+
+  public long getGroupCommitWrites() {
+    return this.stats.getLong(groupCommitWritesId);
+  }
+
   public void incRecoveredEntryCreates() {
     this.stats.incLong(recoveredEntryCreatesId, 1);
   }
@@ -504,6 +738,36 @@ public class DiskStoreStats {
     this.stats.incLong(oplogSeeksId, 1);
   }
 
+  public void incOplogMappedReads() {
+    this.stats.incLong(oplogMappedReadsId, 1);
+  }
+
+  public long getOplogMappedReads() {
+    return this.stats.getLong(oplogMappedReadsId);
+  }
+
+  public void incMappedOplogs(int delta) {
+    this.stats.incInt(mappedOplogsId, delta);
+  }
+
+  public void incCompressedValues(long bytesSaved) {
+    this.stats.incLong(compressedValuesId, 1);
+    this.stats.incLong(compressedValueBytesSavedId, bytesSaved);
+  }
+
+  public long getCompressedValues() {
+    return this.stats.getLong(compressedValuesId);
+  }
+
+  public void incDeltaValues(long bytesSaved) {
+    this.stats.incLong(deltaValuesId, 1);
+    this.stats.incLong(deltaValueBytesSavedId, bytesSaved);
+  }
+
+  public long getDeltaValues() {
+    return this.stats.getLong(deltaValuesId);
+  }
+
   public void incInactiveOplogs(int delta) {
     this.stats.incInt(inactiveOplogsId, delta);
   }
@@ -527,6 +791,22 @@ public class DiskStoreStats {
     this.stats.incLong(compactUpdateTimeId, getStatTime() - start);
   }
 
+  public void incCompactedBytes(long bytes) {
+    this.stats.incLong(compactedBytesId, bytes);
+  }
+
+  public long getCompactedBytes() {
+    return this.stats.getLong(compactedBytesId);
+  }
+
+  public void incCompactionThrottleTime(long nanos) {
+    this.stats.incLong(compactionThrottleTimeId, nanos);
+  }
+
+  public long getCompactionThrottleTime() {
+    return this.stats.getLong(compactionThrottleTimeId);
+  }
+
   public long getStatTime() {
     return DistributionStats.getStatTime();
   }
@@ -16,6 +16,7 @@ package org.apache.geode.internal.cache;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.DataInput;
 import java.io.DataInputStream;
 import java.io.DataOutput;
@@ -26,13 +27,21 @@ import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InterruptedIOException;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
 import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.Deque;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -45,11 +54,13 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
 import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
 import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectIterator;
@@ -57,6 +68,8 @@ import org.apache.logging.log4j.Logger;
 
 import org.apache.geode.CancelException;
 import org.apache.geode.DataSerializer;
+import org.apache.geode.Delta;
+import org.apache.geode.InvalidDeltaException;
 import org.apache.geode.SerializationException;
 import org.apache.geode.annotations.Immutable;
 import org.apache.geode.cache.CacheClosedException;
@@ -139,6 +152,12 @@ public class Oplog implements CompactableOplog, Flushable {
   /** The stats for this store */
   private final DiskStoreStats stats;
 
+  /**
+   * Shares the flushes of synchronous writes among concurrent writers, null unless
+   * {@link DiskStoreImpl#GROUP_COMMIT_PROPERTY_NAME} is set
+   */
+  private final OplogGroupCommit groupCommit;
+
   /** The store that owns this Oplog* */
   private final DiskStoreImpl parent;
 
@@ -189,6 +208,11 @@ public class Oplog implements CompactableOplog, Flushable {
    */
   private final AtomicLong totalLiveCount = new AtomicLong(0);
 
+  /**
+   * The statistics of this oplog, while it has a crf open
+   */
+  private volatile OplogStats oplogStats;
+
   private final ConcurrentMap<Long, DiskRegionInfo> regionMap =
       new ConcurrentHashMap<Long, DiskRegionInfo>();
 
@@ -525,7 +549,24 @@ public class Oplog implements CompactableOplog, Flushable {
    * Set to true when this oplog will no longer be written to. Never set to false once it becomes
    * true.
    */
-  private boolean doneAppending = false;
+  private volatile boolean doneAppending = false;
+
+  /**
+   * The number of deltas written to this oplog since the last value, by key id, see
+   * {@link DiskStoreImpl#DELTA_CHECKPOINT_INTERVAL_PROPERTY_NAME}. Guarded by the lock.
+   */
+  private final Long2IntOpenHashMap deltaDepths = new Long2IntOpenHashMap();
+
+  /**
+   * The crf mapped into memory, once it is done appending, if
+   * {@link DiskStoreImpl#MAP_SEALED_OPLOGS_PROPERTY_NAME} is set
+   */
+  private final AtomicReference<MappedByteBuffer> mappedCrf = new AtomicReference<>();
+
+  /**
+   * Set to true once mapping the crf was tried, even if it failed
+   */
+  private volatile boolean triedMappingCrf;
 
   /**
    * Creates new {@code Oplog} for the given region.
@@ -572,6 +613,7 @@ public class Oplog implements CompactableOplog, Flushable {
     }
     setMaxCrfDrfSize();
     this.stats = getParent().getStats();
+    this.groupCommit = createGroupCommit();
     this.compactOplogs = getParent().getAutoCompact();
 
     this.closed = false;
@@ -633,6 +675,7 @@ public class Oplog implements CompactableOplog, Flushable {
     }
     setMaxCrfDrfSize();
     this.stats = prevOplog.stats;
+    this.groupCommit = createGroupCommit();
     this.compactOplogs = prevOplog.compactOplogs;
     // copy over the previous Oplog's data version since data is not being
     // transformed at this point
@@ -833,6 +876,7 @@ public class Oplog implements CompactableOplog, Flushable {
     this.maxOplogSize = getParent().getMaxOplogSizeInBytes();
     setMaxCrfDrfSize();
     this.stats = getParent().getStats();
+    this.groupCommit = createGroupCommit();
     this.compactOplogs = getParent().getAutoCompact();
     this.closed = true;
     this.crf.RAFClosed = true;
@@ -919,6 +963,7 @@ public class Oplog implements CompactableOplog, Flushable {
         this.crf.raf = new UninterruptibleRandomAccessFile(this.crf.f, "r");
         this.crf.channel = this.crf.raf.getChannel();
         this.stats.incOpenOplogs();
+        this.oplogStats = this.stats.createOplogStats(this);
 
         // drf.raf is null at this point. create one and close it to retain
         // existing behavior
@@ -992,6 +1037,7 @@ public class Oplog implements CompactableOplog, Flushable {
             e);
       }
     }
+    closeDirectWriter(olf);
     olf.RAFClosed = true;
     if (!olf.f.delete() && olf.f.exists()) {
       throw new DiskAccessException(
@@ -1078,8 +1124,10 @@ public class Oplog implements CompactableOplog, Flushable {
     logger.info("Created {} {} for disk store {}.",
         new Object[] {toString(), getFileType(this.crf), getParent().getName()});
     this.crf.channel = this.crf.raf.getChannel();
+    openDirectWriter(this.crf);
 
     this.stats.incOpenOplogs();
+    this.oplogStats = this.stats.createOplogStats(this);
     writeDiskStoreRecord(this.crf, OPLOG_TYPE.CRF);
     writeGemfireVersionRecord(this.crf);
     writeRVVRecord(this.crf, false);
@@ -1091,6 +1139,36 @@ public class Oplog implements CompactableOplog, Flushable {
     this.maxCrfSize += this.crf.currSize;
   }
 
+  /**
+   * Opens the given crf or drf to recover it, with direct I/O if the disk store uses it
+   */
+  private InputStream openForRecovery(File file) throws FileNotFoundException {
+    if (getParent().DIRECT_IO) {
+      return DirectOplogInputStream.open(file);
+    }
+    return new FileInputStream(file);
+  }
+
+  /**
+   * Opens a {@link DirectOplogWriter} for the given file if the disk store writes its oplogs with
+   * direct I/O
+   */
+  private void openDirectWriter(OplogFile olf) {
+    if (getParent().DIRECT_IO) {
+      olf.direct = DirectOplogWriter.open(olf.f, SYNC_WRITES);
+    }
+  }
+
+  private static void closeDirectWriter(OplogFile olf) {
+    if (olf.direct != null) {
+      try {
+        olf.direct.close();
+      } catch (IOException ignore) {
+      }
+      olf.direct = null;
+    }
+  }
+
   private static ByteBuffer allocateWriteBuf(OplogFile prevOlf) {
     if (prevOlf != null && prevOlf.writeBuf != null) {
       ByteBuffer result = prevOlf.writeBuf;
@@ -1118,6 +1196,7 @@ public class Oplog implements CompactableOplog, Flushable {
     logger.info("Created {} {} for disk store {}.",
         new Object[] {toString(), getFileType(this.drf), getParent().getName()});
     this.drf.channel = this.drf.raf.getChannel();
+    openDirectWriter(this.drf);
     writeDiskStoreRecord(this.drf, OPLOG_TYPE.DRF);
     writeGemfireVersionRecord(this.drf);
     writeRVVRecord(this.drf, true);
@@ -1262,6 +1341,10 @@ public class Oplog implements CompactableOplog, Flushable {
       dr.endRead(start, this.stats.endRead(start, 1), 1);
     } else {
       dr.endRead(start, this.stats.endRead(start, bb.getBytes().length), bb.getBytes().length);
+      OplogStats oplogStats = this.oplogStats;
+      if (oplogStats != null) {
+        oplogStats.incReads(bb.getBytes().length);
+      }
     }
     return bb;
 
@@ -1466,9 +1549,9 @@ public class Oplog implements CompactableOplog, Flushable {
       try {
         int recordCount = 0;
         boolean foundDiskStoreRecord = false;
-        FileInputStream fis = null;
+        InputStream fis = null;
         try {
-          fis = new FileInputStream(drfFile);
+          fis = openForRecovery(drfFile);
           dis = new CountingDataInputStream(new BufferedInputStream(fis, 32 * 1024),
               drfFile.length());
           boolean endOfLog = false;
@@ -1611,7 +1694,8 @@ public class Oplog implements CompactableOplog, Flushable {
   private OplogEntryIdMap skippedKeyBytes;
 
   private boolean readKrf(OplogEntryIdSet deletedIds, boolean recoverValues,
-      boolean recoverValuesSync, Set<Oplog> oplogsNeedingValueRecovery, boolean latestOplog) {
+      boolean recoverValuesSync, Set<Oplog> oplogsNeedingValueRecovery, boolean latestOplog,
+      PrefetchedKrf prefetchedKrf) {
     File f = new File(this.diskFile.getPath() + KRF_FILE_EXT);
     if (!f.exists()) {
       return false;
@@ -1631,6 +1715,12 @@ public class Oplog implements CompactableOplog, Flushable {
       return false;
     }
 
+    if (prefetchedKrf != null) {
+      recoverPrefetchedKrf(prefetchedKrf, f, deletedIds, recoverValues,
+          oplogsNeedingValueRecovery, latestOplog);
+      return true;
+    }
+
     FileInputStream fis;
     try {
       fis = new FileInputStream(f);
@@ -1685,26 +1775,12 @@ public class Oplog implements CompactableOplog, Flushable {
         while (keyBytes != null) {
           byte userBits = dis.readByte();
           int valueLength = InternalDataSerializer.readArrayLength(dis);
-          byte[] valueBytes = null;
           long drId = DiskInitFile.readDiskRegionID(dis);
-          DiskRecoveryStore drs = getOplogSet().getCurrentlyRecovering(drId);
 
           // read version
           VersionTag tag = null;
           if (EntryBits.isWithVersions(userBits)) {
             tag = readVersionsFromOplog(dis);
-            if (drs != null && !drs.getDiskRegionView().getFlags()
-                .contains(DiskRegionFlag.IS_WITH_VERSIONING)) {
-              // 50044 Remove version tag from entry if we don't want versioning
-              // for this region
-              tag = null;
-              userBits = EntryBits.setWithVersions(userBits, false);
-            } else {
-              // Update the RVV with the new entry
-              if (drs != null) {
-                drs.recordRecoveredVersionTag(tag);
-              }
-            }
           }
 
           long oplogKeyId = InternalDataSerializer.readVLOld(dis);
@@ -1719,59 +1795,9 @@ public class Oplog implements CompactableOplog, Flushable {
           if (oplogKeyId > oplogKeyIdHWM) {
             oplogKeyIdHWM = oplogKeyId;
           }
-          if (okToSkipModifyRecord(deletedIds, drId, drs, oplogKeyId, true, tag).skip()) {
-            if (logger.isTraceEnabled(LogMarker.PERSIST_RECOVERY_VERBOSE)) {
-              logger.trace(LogMarker.PERSIST_RECOVERY_VERBOSE,
-                  "readNewEntry skipping oplogKeyId=<{}> drId={} userBits={} oplogOffset={} valueLen={}",
-                  oplogKeyId, drId, userBits, oplogOffset, valueLength);
-            }
-            this.stats.incRecoveryRecordsSkipped();
-            incSkipped();
-          } else {
-            if (EntryBits.isAnyInvalid(userBits)) {
-              if (EntryBits.isInvalid(userBits)) {
-                valueBytes = DiskEntry.INVALID_BYTES;
-              } else {
-                valueBytes = DiskEntry.LOCAL_INVALID_BYTES;
-              }
-            } else if (EntryBits.isTombstone(userBits)) {
-              valueBytes = DiskEntry.TOMBSTONE_BYTES;
-            }
-            Object key = deserializeKey(keyBytes, version, in);
-            {
-              Object oldValue = getRecoveryMap().put(oplogKeyId, key);
-              if (oldValue != null) {
-                throw new AssertionError(
-                    String.format(
-                        "Oplog::readNewEntry: Create is present in more than one Oplog. This should not be possible. The Oplog Key ID for this entry is %s.",
-                        oplogKeyId));
-              }
-            }
-            DiskEntry de = drs.getDiskEntry(key);
-            if (de == null) {
-              if (logger.isTraceEnabled(LogMarker.PERSIST_RECOVERY_VERBOSE)) {
-                logger.trace(LogMarker.PERSIST_RECOVERY_VERBOSE,
-                    "readNewEntry oplogKeyId=<{}> drId={} userBits={} oplogOffset={} valueLen={}",
-                    oplogKeyId, drId, userBits, oplogOffset, valueLength);
-              }
-              DiskEntry.RecoveredEntry re = createRecoveredEntry(valueBytes, valueLength, userBits,
-                  getOplogId(), oplogOffset, oplogKeyId, false, version, in);
-              if (tag != null) {
-                re.setVersionTag(tag);
-              }
-              initRecoveredEntry(drs.getDiskRegionView(), drs.initializeRecoveredEntry(key, re));
-              drs.getDiskRegionView().incRecoveredEntryCount();
-              this.stats.incRecoveredEntryCreates();
-              krfEntryCount++;
-            } else {
-              DiskId curdid = de.getDiskId();
-              // assert curdid.getOplogId() != getOplogId();
-              if (logger.isTraceEnabled(LogMarker.PERSIST_RECOVERY_VERBOSE)) {
-                logger.trace(LogMarker.PERSIST_RECOVERY_VERBOSE,
-                    "ignore readNewEntry because getOplogId()={} != curdid.getOplogId()={} for drId={} key={}",
-                    getOplogId(), curdid.getOplogId(), drId, key);
-              }
-            }
+          if (recoverKrfRecord(deletedIds, drId, userBits, valueLength, tag, oplogKeyId,
+              oplogOffset, null, keyBytes, version, in)) {
+            krfEntryCount++;
           }
           keyBytes = DataSerializer.readByteArray(dis);
         } // while
@@ -1814,6 +1840,263 @@ public class Oplog implements CompactableOplog, Flushable {
     return true;
   }
 
+  /**
+   * Recovers the entry of one krf record, unless a later oplog already recovered one for its key
+   *
+   * @param key The key of the record, or null to deserialize keyBytes if the record is not skipped
+   * @return true if an entry was recovered
+   */
+  private boolean recoverKrfRecord(OplogEntryIdSet deletedIds, long drId, byte userBits,
+      int valueLength, VersionTag tag, long oplogKeyId, long oplogOffset, Object key,
+      byte[] keyBytes, Version version, ByteArrayDataInput in) {
+    byte[] valueBytes = null;
+    DiskRecoveryStore drs = getOplogSet().getCurrentlyRecovering(drId);
+    if (EntryBits.isWithVersions(userBits)) {
+      if (drs != null && !drs.getDiskRegionView().getFlags()
+          .contains(DiskRegionFlag.IS_WITH_VERSIONING)) {
+        // 50044 Remove version tag from entry if we don't want versioning
+        // for this region
+        tag = null;
+        userBits = EntryBits.setWithVersions(userBits, false);
+      } else {
+        // Update the RVV with the new entry
+        if (drs != null) {
+          drs.recordRecoveredVersionTag(tag);
+        }
+      }
+    }
+
+    if (okToSkipModifyRecord(deletedIds, drId, drs, oplogKeyId, true, tag).skip()) {
+      if (logger.isTraceEnabled(LogMarker.PERSIST_RECOVERY_VERBOSE)) {
+        logger.trace(LogMarker.PERSIST_RECOVERY_VERBOSE,
+            "readNewEntry skipping oplogKeyId=<{}> drId={} userBits={} oplogOffset={} valueLen={}",
+            oplogKeyId, drId, userBits, oplogOffset, valueLength);
+      }
+      this.stats.incRecoveryRecordsSkipped();
+      incSkipped();
+      return false;
+    }
+    if (EntryBits.isAnyInvalid(userBits)) {
+      if (EntryBits.isInvalid(userBits)) {
+        valueBytes = DiskEntry.INVALID_BYTES;
+      } else {
+        valueBytes = DiskEntry.LOCAL_INVALID_BYTES;
+      }
+    } else if (EntryBits.isTombstone(userBits)) {
+      valueBytes = DiskEntry.TOMBSTONE_BYTES;
+    }
+    if (key == null) {
+      key = deserializeKey(keyBytes, version, in);
+    }
+    {
+      Object oldValue = getRecoveryMap().put(oplogKeyId, key);
+      if (oldValue != null) {
+        throw new AssertionError(
+            String.format(
+                "Oplog::readNewEntry: Create is present in more than one Oplog. This should not be possible. The Oplog Key ID for this entry is %s.",
+                oplogKeyId));
+      }
+    }
+    DiskEntry de = drs.getDiskEntry(key);
+    if (de == null) {
+      if (logger.isTraceEnabled(LogMarker.PERSIST_RECOVERY_VERBOSE)) {
+        logger.trace(LogMarker.PERSIST_RECOVERY_VERBOSE,
+            "readNewEntry oplogKeyId=<{}> drId={} userBits={} oplogOffset={} valueLen={}",
+            oplogKeyId, drId, userBits, oplogOffset, valueLength);
+      }
+      DiskEntry.RecoveredEntry re = createRecoveredEntry(valueBytes, valueLength, userBits,
+          getOplogId(), oplogOffset, oplogKeyId, false, version, in);
+      if (tag != null) {
+        re.setVersionTag(tag);
+      }
+      initRecoveredEntry(drs.getDiskRegionView(), drs.initializeRecoveredEntry(key, re));
+      drs.getDiskRegionView().incRecoveredEntryCount();
+      this.stats.incRecoveredEntryCreates();
+      return true;
+    } else {
+      DiskId curdid = de.getDiskId();
+      // assert curdid.getOplogId() != getOplogId();
+      if (logger.isTraceEnabled(LogMarker.PERSIST_RECOVERY_VERBOSE)) {
+        logger.trace(LogMarker.PERSIST_RECOVERY_VERBOSE,
+            "ignore readNewEntry because getOplogId()={} != curdid.getOplogId()={} for drId={} key={}",
+            getOplogId(), curdid.getOplogId(), drId, key);
+      }
+      return false;
+    }
+  }
+
+  /**
+   * The file name, without extension, of the files of this oplog being recovered
+   */
+  private File getRecoveredDiskFile() {
+    return new File(this.drf.f.getParentFile(),
+        oplogSet.getPrefix() + getParent().getName() + "_" + this.oplogId);
+  }
+
+  /**
+   * The records of a krf read and parsed by {@link #prefetchKrf()}
+   */
+  static class PrefetchedKrf {
+    private final byte[] rvvRecord;
+    private final List<KrfRecord> records;
+    private final long oplogKeyIdHWM;
+
+    private PrefetchedKrf(byte[] rvvRecord, List<KrfRecord> records, long oplogKeyIdHWM) {
+      this.rvvRecord = rvvRecord;
+      this.records = records;
+      this.oplogKeyIdHWM = oplogKeyIdHWM;
+    }
+  }
+
+  private static class KrfRecord {
+    private final Object key;
+    private final byte userBits;
+    private final int valueLength;
+    private final long drId;
+    private final VersionTag tag;
+    private final long oplogKeyId;
+    private final long oplogOffset;
+
+    private KrfRecord(Object key, byte userBits, int valueLength, long drId, VersionTag tag,
+        long oplogKeyId, long oplogOffset) {
+      this.key = key;
+      this.userBits = userBits;
+      this.valueLength = valueLength;
+      this.drId = drId;
+      this.tag = tag;
+      this.oplogKeyId = oplogKeyId;
+      this.oplogOffset = oplogOffset;
+    }
+  }
+
+  /**
+   * Reads the krf of this oplog and deserializes its keys without recovering any of its entries.
+   * This only reads the file, so the krfs of several oplogs can be read at the same time by
+   * different threads while {@link #recoverCrf} recovers them one at a time in oplog order.
+   *
+   * @return The parsed krf or null if recoverCrf has to read the files of this oplog itself, which
+   *         is also the case if reading the krf failed so that recoverCrf reports the failure
+   */
+  PrefetchedKrf prefetchKrf() {
+    if (this.crf.f == null || (getParent().isOffline() && !getParent().FORCE_KRF_RECOVERY)
+        || !getParent().getDiskInitFile().hasKrf(this.oplogId)) {
+      return null;
+    }
+    File f = new File(getRecoveredDiskFile().getPath() + KRF_FILE_EXT);
+    long start = this.stats.startOplogRead();
+    try {
+      byte[] bytes = Files.readAllBytes(f.toPath());
+      DataInputStream dis = new DataInputStream(new ByteArrayInputStream(bytes));
+      try {
+        validateOpcode(dis, OPLOG_MAGIC_SEQ_ID);
+        readOplogMagicSeqRecord(dis, f, OPLOG_TYPE.KRF);
+
+        validateOpcode(dis, OPLOG_DISK_STORE_ID);
+        readDiskStoreRecord(dis, f);
+      } catch (DiskAccessException | IllegalStateException ignore) {
+        // Try reading it as a file in old format, as readKrf does
+        dis = new DataInputStream(new ByteArrayInputStream(bytes));
+        readDiskStoreRecord(dis, f);
+      }
+
+      readGemfireVersionRecord(dis, f);
+      readTotalCountRecord(dis, f);
+      // the RVV is recovered along with the records, in oplog order
+      int rvvStart = bytes.length - dis.available();
+      skipRVVRecord(dis);
+      byte[] rvvRecord = Arrays.copyOfRange(bytes, rvvStart, bytes.length - dis.available());
+
+      final Version version = getProductVersionIfOld();
+      final ByteArrayDataInput in = new ByteArrayDataInput();
+      List<KrfRecord> records = new ArrayList<>();
+      long oplogKeyIdHWM = DiskStoreImpl.INVALID_ID;
+      long lastOffset = 0;
+      byte[] keyBytes = DataSerializer.readByteArray(dis);
+      while (keyBytes != null) {
+        byte userBits = dis.readByte();
+        int valueLength = InternalDataSerializer.readArrayLength(dis);
+        long drId = DiskInitFile.readDiskRegionID(dis);
+        VersionTag tag = null;
+        if (EntryBits.isWithVersions(userBits)) {
+          tag = readVersionsFromOplog(dis);
+        }
+        long oplogKeyId = InternalDataSerializer.readVLOld(dis);
+        long oplogOffset;
+        if (EntryBits.isAnyInvalid(userBits) || EntryBits.isTombstone(userBits)) {
+          oplogOffset = -1;
+        } else {
+          oplogOffset = lastOffset + InternalDataSerializer.readVLOld(dis);
+          lastOffset = oplogOffset;
+        }
+        if (oplogKeyId > oplogKeyIdHWM) {
+          oplogKeyIdHWM = oplogKeyId;
+        }
+        records.add(new KrfRecord(deserializeKey(keyBytes, version, in), userBits, valueLength,
+            drId, tag, oplogKeyId, oplogOffset));
+        keyBytes = DataSerializer.readByteArray(dis);
+      }
+      this.stats.endKrfPrefetch(start);
+      return new PrefetchedKrf(rvvRecord, records, oplogKeyIdHWM);
+    } catch (IOException | RuntimeException e) {
+      if (logger.isDebugEnabled()) {
+        logger.debug("Could not read ahead krf {} for disk store {}", f.getName(),
+            getParent().getName(), e);
+      }
+      return null;
+    }
+  }
+
+  /**
+   * Recovers the entries of a krf read by {@link #prefetchKrf()}, like readKrf does while reading
+   * the file
+   */
+  private void recoverPrefetchedKrf(PrefetchedKrf krf, File f, OplogEntryIdSet deletedIds,
+      boolean recoverValues, Set<Oplog> oplogsNeedingValueRecovery, boolean latestOplog) {
+    logger.info("Recovering {} {} for disk store {}.",
+        new Object[] {toString(), f.getAbsolutePath(), getParent().getName()});
+    this.recoverNewEntryId = DiskStoreImpl.INVALID_ID;
+    this.recoverModEntryId = DiskStoreImpl.INVALID_ID;
+    this.recoverModEntryIdHWM = DiskStoreImpl.INVALID_ID;
+    try {
+      readRVVRecord(new DataInputStream(new ByteArrayInputStream(krf.rvvRecord)), f, false,
+          latestOplog);
+    } catch (IOException ex) {
+      throw new DiskAccessException("Unable to recover from krf file for oplogId=" + oplogId
+          + ", file=" + f.getName() + ". This file is corrupt, but may be safely deleted.", ex,
+          getParent());
+    }
+    final Version version = getProductVersionIfOld();
+    final ByteArrayDataInput in = new ByteArrayDataInput();
+    int krfEntryCount = 0;
+    for (KrfRecord record : krf.records) {
+      if (recoverKrfRecord(deletedIds, record.drId, record.userBits, record.valueLength,
+          record.tag, record.oplogKeyId, record.oplogOffset, record.key, null, version, in)) {
+        krfEntryCount++;
+      }
+    }
+    setRecoverNewEntryId(krf.oplogKeyIdHWM);
+    if (recoverValues && krfEntryCount > 0) {
+      oplogsNeedingValueRecovery.add(this);
+    }
+  }
+
+  /**
+   * Reads past the RVV record of a krf, see {@link #readRVVRecord}
+   */
+  private void skipRVVRecord(DataInput dis) throws IOException {
+    long numRegions = InternalDataSerializer.readUnsignedVL(dis);
+    for (int region = 0; region < numRegions; region++) {
+      InternalDataSerializer.readUnsignedVL(dis);
+      DataSerializer.readBoolean(dis);
+      long rvvSize = InternalDataSerializer.readUnsignedVL(dis);
+      for (int memberNum = 0; memberNum < rvvSize; memberNum++) {
+        InternalDataSerializer.readUnsignedVL(dis);
+        new RegionVersionHolder(dis);
+      }
+    }
+    readEndOfRecord(dis);
+  }
+
   private void validateOpcode(DataInputStream dis, byte expect) throws IOException {
     byte opCode = dis.readByte();
     if (opCode != expect) {
@@ -1840,9 +2123,9 @@ public class Oplog implements CompactableOplog, Flushable {
       final HeapDataOutputStream hdos = new HeapDataOutputStream(Version.CURRENT);
       int recordCount = 0;
       boolean foundDiskStoreRecord = false;
-      FileInputStream fis = null;
+      InputStream fis = null;
       try {
-        fis = new FileInputStream(this.crf.f);
+        fis = openForRecovery(this.crf.f);
         dis = new CountingDataInputStream(new BufferedInputStream(fis, 1024 * 1024),
             this.crf.f.length());
         boolean endOfLog = false;
@@ -2185,9 +2468,22 @@ public class Oplog implements CompactableOplog, Flushable {
    */
   long recoverCrf(OplogEntryIdSet deletedIds, boolean recoverValues, boolean recoverValuesSync,
       boolean alreadyRecoveredOnce, Set<Oplog> oplogsNeedingValueRecovery, boolean latestOplog) {
+    return recoverCrf(deletedIds, recoverValues, recoverValuesSync, alreadyRecoveredOnce,
+        oplogsNeedingValueRecovery, latestOplog, null);
+  }
+
+  /**
+   * Recovers one oplog
+   *
+   * @param latestOplog - true if this oplog is the latest oplog in the disk store.
+   * @param prefetchedKrf - the krf of this oplog read by {@link #prefetchKrf()}, or null to read the
+   *        oplog files here
+   */
+  long recoverCrf(OplogEntryIdSet deletedIds, boolean recoverValues, boolean recoverValuesSync,
+      boolean alreadyRecoveredOnce, Set<Oplog> oplogsNeedingValueRecovery, boolean latestOplog,
+      PrefetchedKrf prefetchedKrf) {
     // crf might not exist; but drf always will
-    this.diskFile = new File(this.drf.f.getParentFile(),
-        oplogSet.getPrefix() + getParent().getName() + "_" + this.oplogId);
+    this.diskFile = getRecoveredDiskFile();
 
     File crfFile = this.crf.f;
     if (crfFile == null) {
@@ -2209,7 +2505,7 @@ public class Oplog implements CompactableOplog, Flushable {
       // if we have a KRF then read it and delay reading the CRF.
       // Unless we are in synchronous recovery mode
       if (!readKrf(deletedIds, recoverValues, recoverValuesSync, oplogsNeedingValueRecovery,
-          latestOplog)) {
+          latestOplog, prefetchedKrf)) {
         logger.info("Recovering {} {} for disk store {}.",
             new Object[] {toString(), crfFile.getAbsolutePath(), getParent().getName()});
         byteCount = readCrf(deletedIds, recoverValues, latestOplog);
@@ -2288,6 +2584,10 @@ public class Oplog implements CompactableOplog, Flushable {
       byte userBits, long oplogId, long offsetInOplog, long oplogKeyId, boolean recoverValue,
       Version version, ByteArrayDataInput in) {
     DiskEntry.RecoveredEntry re = null;
+    if (recoverValue && EntryBits.isCompressed(userBits) && OplogDeltaValue.isDelta(valueBytes)) {
+      // the deltas are applied when the value is faulted in
+      recoverValue = false;
+    }
     if (recoverValue || EntryBits.isAnyInvalid(userBits) || EntryBits.isTombstone(userBits)) {
       Object value;
       if (EntryBits.isLocalInvalid(userBits)) {
@@ -2296,13 +2596,18 @@ public class Oplog implements CompactableOplog, Flushable {
       } else if (EntryBits.isInvalid(userBits)) {
         value = Token.INVALID;
         valueLength = 0;
-      } else if (EntryBits.isSerialized(userBits)) {
-        value = DiskEntry.Helper.readSerializedValue(valueBytes, version, in, false,
-            getParent().getCache());
       } else if (EntryBits.isTombstone(userBits)) {
         value = Token.TOMBSTONE;
       } else {
-        value = valueBytes;
+        if (EntryBits.isCompressed(userBits)) {
+          valueBytes = OplogValueCodec.decompressValue(valueBytes);
+        }
+        if (EntryBits.isSerialized(userBits)) {
+          value = DiskEntry.Helper.readSerializedValue(valueBytes, version, in, false,
+              getParent().getCache());
+        } else {
+          value = valueBytes;
+        }
       }
       re = new DiskEntry.RecoveredEntry(oplogKeyId, oplogId, offsetInOplog, userBits, valueLength,
           value);
@@ -2543,8 +2848,8 @@ public class Oplog implements CompactableOplog, Flushable {
             this.stats.incRecoveredEntryCreates();
           } else { // phase2
             Assert.assertTrue(p2cr != null, "First pass did not find create a compaction record");
-            getOplogSet().getChild().copyForwardForOfflineCompact(oplogKeyId, p2cr.getKeyBytes(),
-                objValue, userBits, drId, tag);
+            getOplogSet().getChild().copyForwardForOfflineCompact(this, oplogKeyId,
+                p2cr.getKeyBytes(), objValue, userBits, drId, tag);
             if (isPersistRecoveryDebugEnabled) {
               logger.trace(LogMarker.PERSIST_RECOVERY_VERBOSE,
                   "readNewEntry copyForward oplogKeyId=<{}>", oplogKeyId);
@@ -2718,8 +3023,8 @@ public class Oplog implements CompactableOplog, Flushable {
           cr.update(crOffset);
         } else { // phase2
           Assert.assertTrue(p2cr != null, "First pass did not find create a compaction record");
-          getOplogSet().getChild().copyForwardForOfflineCompact(oplogKeyId, p2cr.getKeyBytes(),
-              objValue, userBits, drId, tag);
+          getOplogSet().getChild().copyForwardForOfflineCompact(this, oplogKeyId,
+              p2cr.getKeyBytes(), objValue, userBits, drId, tag);
           if (isPersistRecoveryDebugEnabled) {
             logger.trace(LogMarker.PERSIST_RECOVERY_VERBOSE,
                 "readModifyEntry copyForward oplogKeyId=<{}>", oplogKeyId);
@@ -2938,8 +3243,8 @@ public class Oplog implements CompactableOplog, Flushable {
           this.stats.incRecoveredEntryCreates();
         } else { // phase2
           Assert.assertTrue(p2cr != null, "First pass did not find create a compaction record");
-          getOplogSet().getChild().copyForwardForOfflineCompact(oplogKeyId, p2cr.getKeyBytes(),
-              objValue, userBits, drId, tag);
+          getOplogSet().getChild().copyForwardForOfflineCompact(this, oplogKeyId,
+              p2cr.getKeyBytes(), objValue, userBits, drId, tag);
           if (logger.isTraceEnabled(LogMarker.PERSIST_RECOVERY_VERBOSE)) {
             logger.trace(LogMarker.PERSIST_RECOVERY_VERBOSE,
                 "readModifyEntryWithKey copyForward oplogKeyId=<{}>", oplogKeyId);
@@ -3223,6 +3528,7 @@ public class Oplog implements CompactableOplog, Flushable {
     // No need to get the backup lock prior to synchronizing (correct lock order) since the
     // synchronized block does not attempt to get the backup lock (incorrect lock order)
     synchronized (this.lock/* crf */) {
+      closeDirectWriter(this.crf);
       unpreblow(this.crf, getMaxCrfSize());
       if (!this.crf.RAFClosed) {
         try {
@@ -3238,9 +3544,12 @@ public class Oplog implements CompactableOplog, Flushable {
       }
       this.closed = true;
     }
+    unmapCrf();
+    closeOplogStats();
     // No need to get the backup lock prior to synchronizing (correct lock order) since the
     // synchronized block does not attempt to get the backup lock (incorrect lock order)
     synchronized (this.lock/* drf */) {
+      closeDirectWriter(this.drf);
       unpreblow(this.drf, getMaxDrfSize());
       if (!this.drf.RAFClosed) {
         try {
@@ -3391,6 +3700,110 @@ public class Oplog implements CompactableOplog, Flushable {
     return vw.getUserBits();
   }
 
+  /**
+   * Compresses a value with the codec of the disk store, if it has one and the value is long
+   * enough and gets shorter. Only values on the heap are compressed.
+   */
+  private ValueWrapper compressValue(ValueWrapper value) {
+    OplogValueCodec codec = getParent().VALUE_CODEC;
+    if (codec == null
+        || value.getClass() != DiskEntry.Helper.ByteArrayValueWrapper.class
+            && value.getClass() != DiskEntry.Helper.DeltaValueWrapper.class
+        || value.getLength() < OplogValueCodec.MIN_VALUE_LENGTH
+        || !EntryBits.isNeedsValue(value.getUserBits())) {
+      return value;
+    }
+    byte[] compressed = codec.compress(((DiskEntry.Helper.ByteArrayValueWrapper) value).bytes);
+    if (compressed == null) {
+      return value;
+    }
+    this.stats.incCompressedValues(value.getLength() - compressed.length);
+    return new DiskEntry.Helper.CompressedValueWrapper(value.isSerialized(), compressed);
+  }
+
+  /**
+   * Returns the delta of an update to write instead of its value, or null if the value has to be
+   * written because the previous value of the entry is not in this oplog, or because as many deltas
+   * as {@link DiskStoreImpl#DELTA_CHECKPOINT_INTERVAL_PROPERTY_NAME} allows already follow it, or
+   * because the delta is not shorter. Must be called while holding the lock.
+   */
+  private ValueWrapper createDeltaValue(DiskId id, ValueWrapper value, byte[] delta) {
+    if (OplogDeltaValue.HEADER_LENGTH + delta.length >= value.getLength()
+        || this.deltaDepths.get(abs(id.getKeyId())) >= getParent().DELTA_CHECKPOINT_INTERVAL) {
+      return null;
+    }
+    long prevOffset;
+    int prevLength;
+    byte prevUserBits;
+    synchronized (id) {
+      if (id.getOplogId() != getOplogId() || id.isPendingAsync()) {
+        return null;
+      }
+      prevOffset = id.getOffsetInOplog();
+      prevLength = id.getValueLength();
+      prevUserBits = id.getUserBits();
+    }
+    if (prevOffset < 0 || prevLength == 0 || !EntryBits.isNeedsValue(prevUserBits)) {
+      return null;
+    }
+    return new DiskEntry.Helper.CompressedValueWrapper(true,
+        OplogDeltaValue.encode(prevOffset, prevLength, prevUserBits, delta));
+  }
+
+  /**
+   * Returns the value read from disk decompressed, or with its deltas applied, without the
+   * compressed user bit
+   */
+  private BytesAndBits decodeValue(DiskRegionView dr, BytesAndBits bb) {
+    if (bb == null || !EntryBits.isCompressed(bb.getBits())) {
+      return bb;
+    }
+    byte[] bytes = bb.getBytes();
+    if (OplogDeltaValue.isDelta(bytes)) {
+      bytes = applyDeltas(dr, bytes);
+    } else {
+      bytes = OplogValueCodec.decompressValue(bytes);
+    }
+    BytesAndBits result = new BytesAndBits(bytes, EntryBits.setCompressed(bb.getBits(), false));
+    result.setVersion(bb.getVersion());
+    return result;
+  }
+
+  /**
+   * Reads the records of an entry back from a delta value to the last whole value, and returns
+   * that value serialized again after applying the deltas to it in the order they were written.
+   */
+  private byte[] applyDeltas(DiskRegionView dr, byte[] stored) {
+    Deque<byte[]> deltas = new ArrayDeque<>();
+    BytesAndBits prev;
+    do {
+      deltas.push(OplogDeltaValue.getDelta(stored));
+      prev = readValue(dr, OplogDeltaValue.getPrevOffset(stored), false,
+          OplogDeltaValue.getPrevLength(stored), OplogDeltaValue.getPrevUserBits(stored));
+      if (prev == null || !EntryBits.isSerialized(prev.getBits())) {
+        throw new DiskAccessException(
+            String.format("Could not find the value a delta applies to in %s",
+                this.diskFile.getPath()),
+            dr.getName());
+      }
+      stored = prev.getBytes();
+    } while (EntryBits.isCompressed(prev.getBits()) && OplogDeltaValue.isDelta(stored));
+    if (EntryBits.isCompressed(prev.getBits())) {
+      stored = OplogValueCodec.decompressValue(stored);
+    }
+    Object value = EntryEventImpl.deserialize(stored);
+    try {
+      while (!deltas.isEmpty()) {
+        ((Delta) value).fromDelta(new ByteArrayDataInput(deltas.pop()));
+      }
+    } catch (IOException | InvalidDeltaException ex) {
+      throw new DiskAccessException(
+          String.format("Could not apply a delta read from %s", this.diskFile.getPath()), ex,
+          dr.getName());
+    }
+    return EntryEventImpl.serialize(value);
+  }
+
   /**
    * Returns true if the given entry has not yet been written to this oplog.
    */
@@ -3427,6 +3840,7 @@ public class Oplog implements CompactableOplog, Flushable {
       try {
         // It is ok to do this outside of "lock" because
         // create records do not need to change.
+        value = compressValue(value);
         byte userBits = calcUserBits(value);
         // save versions for creates and updates even if value is bytearrary in
         // 7.0
@@ -3484,6 +3898,7 @@ public class Oplog implements CompactableOplog, Flushable {
     DiskId id = entry.getDiskId();
     boolean useNextOplog = false;
     long startPosForSynchOp = -1;
+    long commitTicket = 0;
     if (DiskStoreImpl.KRF_DEBUG) {
       // wait for cache close to create krf
       System.out.println("basicCreate KRF_DEBUG");
@@ -3552,7 +3967,10 @@ public class Oplog implements CompactableOplog, Flushable {
           id.setOplogId(getOplogId());
           // do the io while holding lock so that switch can set doneAppending
           // Write the data to the opLog for the synch mode
-          startPosForSynchOp = writeOpLogBytes(this.crf, async, true);
+          startPosForSynchOp = writeOpLogBytes(this.crf, async, !isGroupCommit(async));
+          if (isGroupCommit(async)) {
+            commitTicket = this.groupCommit.append();
+          }
           // if (this.crf.currSize != startPosForSynchOp) {
           // assert false;
           // }
@@ -3615,6 +4033,9 @@ public class Oplog implements CompactableOplog, Flushable {
       Assert.assertTrue(this != getOplogSet().getChild());
       getOplogSet().getChild().basicCreate(dr, entry, value, userBits, async);
     } else {
+      if (commitTicket != 0) {
+        awaitGroupCommit(commitTicket);
+      }
       if (LocalRegion.ISSUE_CALLBACKS_TO_CACHE_OBSERVER) {
         CacheObserverHolder.getInstance().afterSettingOplogOffSet(startPosForSynchOp);
       }
@@ -4168,9 +4589,11 @@ public class Oplog implements CompactableOplog, Flushable {
     ReferenceCountHelper.unskipRefCountTracking();
     boolean foundData = false;
     if (value == null) {
+      long start = getStats().getStatTime();
       // If the mode is synch it is guaranteed to be present in the disk
       foundData = basicGetForCompactor(dr, oplogOffset, false, did.getValueLength(),
           did.getUserBits(), wrapper);
+      getStats().endCompactionRead(start);
       // after we have done the get do one more check to see if the
       // disk id of interest is still stored in the current oplog.
       // Do this to fix bug 40648
@@ -4318,6 +4741,12 @@ public class Oplog implements CompactableOplog, Flushable {
       byte prevUsrBit = did.getUserBits();
       int len = did.getValueLength();
       try {
+        byte[] delta = null;
+        if (getParent().DELTA_CHECKPOINT_INTERVAL > 0
+            && value instanceof DiskEntry.Helper.DeltaValueWrapper) {
+          delta = ((DiskEntry.Helper.DeltaValueWrapper) value).deltaBytes;
+        }
+        value = compressValue(value);
         byte userBits = calcUserBits(value);
         // save versions for creates and updates even if value is bytearrary in
         // 7.0
@@ -4329,7 +4758,7 @@ public class Oplog implements CompactableOplog, Flushable {
           // pdx and tx will not use version
           userBits = EntryBits.setWithVersions(userBits, true);
         }
-        basicModify(region.getDiskRegion(), entry, value, userBits, async, false);
+        basicModify(region.getDiskRegion(), entry, value, userBits, delta, async, false);
       } catch (IOException ex) {
         exceptionOccurred = true;
         region.getCancelCriterion().checkCancelInProgress(ex);
@@ -4375,7 +4804,7 @@ public class Oplog implements CompactableOplog, Flushable {
         vs.setVersions(vt);
         userBits = EntryBits.setWithVersions(userBits, true);
       }
-      basicModify(drv, entry, vw, userBits, false, false);
+      basicModify(drv, entry, vw, userBits, null, false, false);
     } catch (IOException ex) {
       throw new DiskAccessException(
           String.format("Failed writing key to %s", this.diskFile.getPath()),
@@ -4409,10 +4838,19 @@ public class Oplog implements CompactableOplog, Flushable {
     }
   }
 
-  private void copyForwardForOfflineCompact(long oplogKeyId, byte[] keyBytes, byte[] valueBytes,
-      byte userBits, long drId, VersionTag tag) {
+  /**
+   * @param source The oplog being compacted that the record was read from
+   */
+  private void copyForwardForOfflineCompact(Oplog source, long oplogKeyId, byte[] keyBytes,
+      byte[] valueBytes, byte userBits, long drId, VersionTag tag) {
     try {
-      basicCopyForwardForOfflineCompact(oplogKeyId, keyBytes, valueBytes, userBits, drId, tag);
+      if (EntryBits.isCompressed(userBits) && OplogDeltaValue.isDelta(valueBytes)) {
+        // applying the deltas needs the classes of the values, so the records are copied instead
+        basicCopyDeltaChainForwardForOfflineCompact(oplogKeyId, keyBytes,
+            source.readDeltaChain(valueBytes, userBits), drId, tag);
+      } else {
+        basicCopyForwardForOfflineCompact(oplogKeyId, keyBytes, valueBytes, userBits, drId, tag);
+      }
     } catch (IOException ex) {
       getParent().getCancelCriterion().checkCancelInProgress(ex);
       throw new DiskAccessException(
@@ -4449,7 +4887,7 @@ public class Oplog implements CompactableOplog, Flushable {
         }
         // Compactor always says to do an async basicModify so that its writes
         // will be grouped. This is not a true async write; just a grouped one.
-        basicModify(dr, entry, vw, userBits, true, true);
+        basicModify(dr, entry, vw, userBits, null, true, true);
       } catch (IOException ex) {
         exceptionOccurred = true;
         getParent().getCancelCriterion().checkCancelInProgress(ex);
@@ -4482,12 +4920,15 @@ public class Oplog implements CompactableOplog, Flushable {
    * compaction if required
    *
    * @param entry DiskEntry object representing the current Entry
+   * @param delta The delta bytes of the update, to write instead of the value if possible
    */
   private void basicModify(DiskRegionView dr, DiskEntry entry, ValueWrapper value, byte userBits,
-      boolean async, boolean calledByCompactor) throws IOException, InterruptedException {
+      byte[] delta, boolean async, boolean calledByCompactor)
+      throws IOException, InterruptedException {
     DiskId id = entry.getDiskId();
     boolean useNextOplog = false;
     long startPosForSynchOp = -1L;
+    long commitTicket = 0;
     int adjustment = 0;
     Oplog emptyOplog = null;
     if (DiskStoreImpl.KRF_DEBUG) {
@@ -4502,7 +4943,17 @@ public class Oplog implements CompactableOplog, Flushable {
         if (getOplogSet().getChild() != this) {
           useNextOplog = true;
         } else {
-          initOpState(OPLOG_MOD_ENTRY_1ID, dr, entry, value, userBits, false);
+          // the value and user bits of the record, which the next oplog does not use
+          ValueWrapper recordValue = value;
+          byte recordBits = userBits;
+          if (delta != null) {
+            ValueWrapper deltaValue = createDeltaValue(id, value, delta);
+            if (deltaValue != null) {
+              recordValue = deltaValue;
+              recordBits = EntryBits.setCompressed(userBits, true);
+            }
+          }
+          initOpState(OPLOG_MOD_ENTRY_1ID, dr, entry, recordValue, recordBits, false);
           adjustment = getOpStateSize();
           assert adjustment > 0;
           long temp = (this.crf.currSize + adjustment);
@@ -4521,7 +4972,10 @@ public class Oplog implements CompactableOplog, Flushable {
             long oldOplogId;
             // do the io while holding lock so that switch can set doneAppending
             // Write the data to the opLog for the synch mode
-            startPosForSynchOp = writeOpLogBytes(this.crf, async, true);
+            startPosForSynchOp = writeOpLogBytes(this.crf, async, !isGroupCommit(async));
+            if (isGroupCommit(async)) {
+              commitTicket = this.groupCommit.append();
+            }
             this.crf.currSize = temp;
             startPosForSynchOp += getOpStateValueOffset();
             if (logger.isTraceEnabled(LogMarker.PERSIST_WRITES_VERBOSE)) {
@@ -4531,15 +4985,22 @@ public class Oplog implements CompactableOplog, Flushable {
               }
               logger.trace(LogMarker.PERSIST_WRITES_VERBOSE,
                   "basicModify: id=<{}> key=<{}> valueOffset={} userBits={} valueLen={} valueBytes=<{}> drId={} versionStamp={} oplog#{}",
-                  abs(id.getKeyId()), entry.getKey(), startPosForSynchOp, userBits,
-                  value.getLength(), value.getBytesAsString(), dr.getId(), tag, getOplogId());
+                  abs(id.getKeyId()), entry.getKey(), startPosForSynchOp, recordBits,
+                  recordValue.getLength(), recordValue.getBytesAsString(), dr.getId(), tag,
+                  getOplogId());
+            }
+            if (recordValue != value) {
+              this.deltaDepths.addTo(abs(id.getKeyId()), 1);
+              this.stats.incDeltaValues(value.getLength() - recordValue.getLength());
+            } else if (!this.deltaDepths.isEmpty()) {
+              this.deltaDepths.remove(abs(id.getKeyId()));
             }
-            if (EntryBits.isNeedsValue(userBits)) {
-              id.setValueLength(value.getLength());
+            if (EntryBits.isNeedsValue(recordBits)) {
+              id.setValueLength(recordValue.getLength());
             } else {
               id.setValueLength(0);
             }
-            id.setUserBits(userBits);
+            id.setUserBits(recordBits);
             if (logger.isTraceEnabled()) {
               logger.trace("Oplog::basicModify:Released ByteBuffer with data for Disk ID = {}", id);
             }
@@ -4550,7 +5011,7 @@ public class Oplog implements CompactableOplog, Flushable {
               // a really doubt is is correct.
               // I think we need to do a fresh rewrite of it.
               oldOplogId = id.setOplogId(getOplogId());
-              if (EntryBits.isAnyInvalid(userBits) || EntryBits.isTombstone(userBits)) {
+              if (EntryBits.isAnyInvalid(recordBits) || EntryBits.isTombstone(recordBits)) {
                 id.setOffsetInOplog(-1);
               } else {
                 id.setOffsetInOplog(startPosForSynchOp);
@@ -4597,8 +5058,12 @@ public class Oplog implements CompactableOplog, Flushable {
         CacheObserverHolder.getInstance().afterSwitchingOplog();
       }
       Assert.assertTrue(getOplogSet().getChild() != this);
-      getOplogSet().getChild().basicModify(dr, entry, value, userBits, async, calledByCompactor);
+      getOplogSet().getChild().basicModify(dr, entry, value, userBits, delta, async,
+          calledByCompactor);
     } else {
+      if (commitTicket != 0) {
+        awaitGroupCommit(commitTicket);
+      }
       if (LocalRegion.ISSUE_CALLBACKS_TO_CACHE_OBSERVER) {
         CacheObserverHolder.getInstance().afterSettingOplogOffSet(startPosForSynchOp);
       }
@@ -4730,6 +5195,104 @@ public class Oplog implements CompactableOplog, Flushable {
     }
   }
 
+  /**
+   * Like {@link #basicCopyForwardForOfflineCompact} but for the records of a delta chain, which are
+   * all written to the same oplog with each delta pointing at the copy of the record before it.
+   * Only the last record is written to the krf and with the version tag.
+   *
+   * @param chain The records from the last whole value to the last delta
+   */
+  private void basicCopyDeltaChainForwardForOfflineCompact(long oplogKeyId, byte[] keyBytes,
+      Deque<BytesAndBits> chain, long drId, VersionTag tag)
+      throws IOException, InterruptedException {
+    boolean useNextOplog = false;
+    // No need to get the backup lock since this is only for offline compaction
+    synchronized (this.lock) {
+      if (getOplogSet().getChild() != this) {
+        useNextOplog = true;
+      } else {
+        long chainLength = 0;
+        for (BytesAndBits record : chain) {
+          chainLength += record.getBytes().length;
+        }
+        // the records are not counted, so the crf can get slightly larger than the max
+        if (this.crf.currSize + chainLength > getMaxCrfSize() && !isFirstRecord()) {
+          switchOpLog(null, (int) Math.min(chainLength, Integer.MAX_VALUE), null);
+          useNextOplog = true;
+        } else {
+          this.firstRecord = false;
+          long prevOffset = -1;
+          int prevLength = 0;
+          byte prevUserBits = 0;
+          for (Iterator<BytesAndBits> it = chain.iterator(); it.hasNext();) {
+            BytesAndBits record = it.next();
+            boolean last = !it.hasNext();
+            byte[] valueBytes = record.getBytes();
+            // only the last record has its version tag
+            byte userBits = EntryBits.getPersistentBits(
+                last ? record.getBits() : EntryBits.setWithVersions(record.getBits(), false));
+            if (prevOffset != -1) {
+              valueBytes = OplogDeltaValue.encode(prevOffset, prevLength, prevUserBits,
+                  OplogDeltaValue.getDelta(valueBytes));
+            }
+            this.opState.initialize(oplogKeyId, prevOffset == -1 ? keyBytes : null, valueBytes,
+                userBits, drId, last ? tag : null, false);
+            int adjustment = getOpStateSize();
+            long temp = this.crf.currSize + adjustment;
+            prevOffset = writeOpLogBytes(this.crf, true, true) + getOpStateValueOffset();
+            prevLength = valueBytes.length;
+            prevUserBits = userBits;
+            this.crf.currSize = temp;
+            this.dirHolder.incrementTotalOplogSize(adjustment);
+            this.incTotalCount();
+            clearOpState();
+          }
+          writeOneKeyEntryForKRF(keyBytes, prevUserBits, prevLength, drId, oplogKeyId,
+              prevOffset, tag);
+
+          if (logger.isTraceEnabled(LogMarker.PERSIST_WRITES_VERBOSE)) {
+            logger.trace(LogMarker.PERSIST_WRITES_VERBOSE,
+                "basicCopyDeltaChainForwardForOfflineCompact: id=<{}> keyBytes=<{}> valueOffset={} records={} drId={} oplog#{}",
+                oplogKeyId, baToString(keyBytes), prevOffset, chain.size(), drId, getOplogId());
+          }
+        }
+      }
+    }
+    if (useNextOplog) {
+      if (LocalRegion.ISSUE_CALLBACKS_TO_CACHE_OBSERVER) {
+        CacheObserverHolder.getInstance().afterSwitchingOplog();
+      }
+      Assert.assertTrue(getOplogSet().getChild() != this);
+      getOplogSet().getChild().basicCopyDeltaChainForwardForOfflineCompact(oplogKeyId, keyBytes,
+          chain, drId, tag);
+    }
+  }
+
+  /**
+   * Reads the records of an entry back from a delta value to the last whole value from the crf,
+   * without applying the deltas, for offline compaction
+   *
+   * @return The records from the last whole value to the given delta value, as they are stored
+   */
+  private Deque<BytesAndBits> readDeltaChain(byte[] stored, byte userBits) throws IOException {
+    Deque<BytesAndBits> chain = new ArrayDeque<>();
+    chain.push(new BytesAndBits(stored, userBits));
+    UninterruptibleRandomAccessFile raf = new UninterruptibleRandomAccessFile(this.crf.f, "r");
+    try {
+      while (EntryBits.isCompressed(userBits) && OplogDeltaValue.isDelta(stored)) {
+        long prevOffset = OplogDeltaValue.getPrevOffset(stored);
+        userBits = OplogDeltaValue.getPrevUserBits(stored);
+        stored = new byte[OplogDeltaValue.getPrevLength(stored)];
+        raf.seek(prevOffset);
+        raf.readFully(stored);
+        chain.push(new BytesAndBits(stored, userBits));
+      }
+    } finally {
+      raf.close();
+    }
+    return chain;
+  }
+
   private boolean isCompacting() {
     return this.compacting;
   }
@@ -4945,6 +5508,7 @@ public class Oplog implements CompactableOplog, Flushable {
 
     boolean useNextOplog = false;
     long startPosForSynchOp = -1;
+    long commitTicket = 0;
     Oplog emptyOplog = null;
     if (DiskStoreImpl.KRF_DEBUG) {
       // wait for cache close to create krf
@@ -4994,7 +5558,10 @@ public class Oplog implements CompactableOplog, Flushable {
             // before we flush the crf.
             // However we can't have removes by async if we are doing a sync write
             // because we might be killed right after we do this write.
-            startPosForSynchOp = writeOpLogBytes(this.drf, async, true);
+            startPosForSynchOp = writeOpLogBytes(this.drf, async, !isGroupCommit(async));
+            if (isGroupCommit(async)) {
+              commitTicket = this.groupCommit.append();
+            }
             setHasDeletes(true);
             if (logger.isDebugEnabled(LogMarker.PERSIST_WRITES_VERBOSE)) {
               logger.debug("basicRemove: id=<{}> key=<{}> drId={} oplog#{}", abs(id.getKeyId()),
@@ -5033,6 +5600,9 @@ public class Oplog implements CompactableOplog, Flushable {
       Assert.assertTrue(getOplogSet().getChild() != this);
       getOplogSet().getChild().basicRemove(dr, entry, async, isClear);
     } else {
+      if (commitTicket != 0) {
+        awaitGroupCommit(commitTicket);
+      }
       if (LocalRegion.ISSUE_CALLBACKS_TO_CACHE_OBSERVER) {
         CacheObserverHolder.getInstance().afterSettingOplogOffSet(startPosForSynchOp);
       }
@@ -5074,6 +5644,29 @@ public class Oplog implements CompactableOplog, Flushable {
     flushAll(false);
   }
 
+  private OplogGroupCommit createGroupCommit() {
+    if (!getParent().GROUP_COMMIT) {
+      return null;
+    }
+    return new OplogGroupCommit(getParent().GROUP_COMMIT_MAX_WAIT_NANOS, this.stats);
+  }
+
+  /**
+   * Returns true if a synchronous write leaves flushing its record to a group commit
+   */
+  private boolean isGroupCommit(boolean async) {
+    return !async && this.groupCommit != null;
+  }
+
+  /**
+   * Waits until a record appended by this thread is flushed. Must be called after releasing the
+   * oplog lock so that other writers can append to the same flush. The drf is flushed before the
+   * crf, as when every write flushes on its own.
+   */
+  private void awaitGroupCommit(long commitTicket) throws IOException {
+    this.groupCommit.awaitCommit(commitTicket, () -> flushAll(false));
+  }
+
   private static final int MAX_CHANNEL_RETRIES = 5;
 
   private void flush(OplogFile olf, boolean doSync) throws IOException {
@@ -5087,9 +5680,9 @@ public class Oplog implements CompactableOplog, Flushable {
         ByteBuffer bb = olf.writeBuf;
         if (bb != null && bb.position() != 0) {
           bb.flip();
-          int flushed = 0;
+          int flushed = (int) writeDirect(olf, bb);
           int numChannelRetries = 0;
-          do {
+          while (bb.hasRemaining()) {
             int channelBytesWritten = 0;
             final int bbStartPos = bb.position();
             final long channelStartPos = olf.channel.position();
@@ -5113,7 +5706,7 @@ public class Oplog implements CompactableOplog, Flushable {
               }
             }
             flushed += channelBytesWritten;
-          } while (bb.hasRemaining());
+          }
           // update bytesFlushed after entire writeBuffer is flushed to fix bug
           // 41201
           olf.bytesFlushed += flushed;
@@ -5121,8 +5714,10 @@ public class Oplog implements CompactableOplog, Flushable {
         }
         if (doSync) {
           if (SYNC_WRITES) {
+            long start = this.stats.getStatTime();
             // Synch Meta Data as well as content
             olf.channel.force(true);
+            this.stats.endFsync(start);
           }
         }
       }
@@ -5146,7 +5741,7 @@ public class Oplog implements CompactableOplog, Flushable {
         this.bbArray[0] = b1;
         this.bbArray[1] = b2;
         b1.flip();
-        long flushed = 0;
+        long flushed = writeDirect(olf, b1, b2);
         do {
           flushed += olf.channel.write(this.bbArray);
         } while (b2.hasRemaining());
@@ -5165,6 +5760,25 @@ public class Oplog implements CompactableOplog, Flushable {
     }
   }
 
+  /**
+   * Writes the given buffers with the {@link DirectOplogWriter} of the file, if it has one. The
+   * writer is dropped if it was closed by an interrupt, and the file is written through its channel
+   * from then on.
+   *
+   * @return The number of bytes written, 0 if the buffers still have to be written to the channel
+   */
+  private static long writeDirect(OplogFile olf, ByteBuffer... buffers) throws IOException {
+    if (olf.direct == null) {
+      return 0;
+    }
+    long written = olf.direct.write(olf.channel, buffers);
+    if (written < 0) {
+      olf.direct = null;
+      return 0;
+    }
+    return written;
+  }
+
   public void flushAll() {
     flushAll(false);
   }
@@ -5278,6 +5892,81 @@ public class Oplog implements CompactableOplog, Flushable {
 
   private volatile boolean beingRead;
 
+  /**
+   * Returns the crf mapped into memory, mapping it if this oplog is done appending, or null if it
+   * can not be mapped
+   */
+  private ByteBuffer getMappedCrf() {
+    MappedByteBuffer result = this.mappedCrf.get();
+    if (result != null || this.triedMappingCrf || !this.doneAppending
+        || !getParent().MAP_SEALED_OPLOGS) {
+      return result;
+    }
+    // No need to get the backup lock prior to synchronizing (correct lock order) since the
+    // synchronized block does not attempt to get the backup lock (incorrect lock order)
+    synchronized (this.lock/* crf */) {
+      if (this.triedMappingCrf || this.closed || this.deleted.get() || this.crf.f == null) {
+        return this.mappedCrf.get();
+      }
+      this.triedMappingCrf = true;
+      // only what was flushed when appending ended is mapped, reads past it use the raf
+      long size = this.crf.bytesFlushed;
+      if (size <= 0 || size > Integer.MAX_VALUE) {
+        return null;
+      }
+      try (FileChannel channel = FileChannel.open(this.crf.f.toPath(), StandardOpenOption.READ)) {
+        this.mappedCrf.set(channel.map(FileChannel.MapMode.READ_ONLY, 0, size));
+        this.stats.incMappedOplogs(1);
+      } catch (IOException e) {
+        logger.info("Could not map {} into memory for disk store {}, reading it from the file: {}",
+            this, getParent().getName(), e.toString());
+      }
+      if (this.closed || this.deleted.get()) {
+        // closed or deleted while mapping it
+        unmapCrf();
+      }
+      return this.mappedCrf.get();
+    }
+  }
+
+  /**
+   * Drops the mapping of the crf. The memory is unmapped once the buffer is garbage collected.
+   */
+  private void unmapCrf() {
+    // not synchronized since this oplog may be deleted by a thread holding locks that writers take
+    // while synchronized on it
+    this.triedMappingCrf = true;
+    if (this.mappedCrf.getAndSet(null) != null) {
+      this.stats.incMappedOplogs(-1);
+    }
+  }
+
+  /**
+   * Reads a value from the mapped crf without synchronizing on this oplog
+   *
+   * @return The value, or null if the crf is not mapped or the value is not in the mapped part
+   */
+  private BytesAndBits attemptMappedGet(long offsetInOplog, int valueLength, byte userBits) {
+    ByteBuffer mapped = getMappedCrf();
+    if (mapped == null || offsetInOplog < 0 || offsetInOplog + valueLength > mapped.limit()) {
+      return null;
+    }
+    // a duplicate has its own position so concurrent readers do not interfere
+    ByteBuffer slice = mapped.duplicate();
+    slice.position((int) offsetInOplog);
+    byte[] valueBytes = new byte[valueLength];
+    slice.get(valueBytes);
+    this.stats.incOplogReads();
+    this.stats.incOplogMappedReads();
+    BytesAndBits bb = new BytesAndBits(valueBytes, userBits);
+    // also set the product version for an older product
+    final Version version = getProductVersionIfOld();
+    if (version != null) {
+      bb.setVersion(version);
+    }
+    return bb;
+  }
+
   /**
    * If crfRAF has been closed then attempt to reopen the oplog for this read. Verify that this only
    * happens when test methods are invoked.
@@ -5398,9 +6087,20 @@ public class Oplog implements CompactableOplog, Flushable {
    */
   private BytesAndBits basicGet(DiskRegionView dr, long offsetInOplog, boolean bitOnly,
       int valueLength, byte userBits) {
+    return decodeValue(dr, readValue(dr, offsetInOplog, bitOnly, valueLength, userBits));
+  }
+
+  /**
+   * Like {@link #basicGet} but returns the value as it is stored in the oplog, so compressed values
+   * are not decompressed and delta values not applied
+   */
+  private BytesAndBits readValue(DiskRegionView dr, long offsetInOplog, boolean bitOnly,
+      int valueLength, byte userBits) {
     BytesAndBits bb = null;
     if (EntryBits.isAnyInvalid(userBits) || EntryBits.isTombstone(userBits) || bitOnly
         || valueLength == 0) {
+      // the value is not read so it is not decompressed
+      userBits = EntryBits.setCompressed(userBits, false);
       if (EntryBits.isInvalid(userBits)) {
         bb = new BytesAndBits(DiskEntry.INVALID_BYTES, userBits);
       } else if (EntryBits.isTombstone(userBits)) {
@@ -5411,6 +6111,10 @@ public class Oplog implements CompactableOplog, Flushable {
     } else {
       if (offsetInOplog == -1)
         return null;
+      bb = attemptMappedGet(offsetInOplog, valueLength, userBits);
+      if (bb != null) {
+        return bb;
+      }
       try {
         for (;;) {
           dr.getCancelCriterion().checkCancelInProgress(null);
@@ -5524,6 +6228,12 @@ public class Oplog implements CompactableOplog, Flushable {
             }
           }
         }
+        if (EntryBits.isCompressed(userBits) && valueLength >= OplogDeltaValue.HEADER_LENGTH
+            && wrapper.getBytes()[0] == OplogDeltaValue.ID) {
+          // the records the delta applies to are not copied forward so the value has to be
+          byte[] value = applyDeltas(dr, Arrays.copyOf(wrapper.getBytes(), valueLength));
+          wrapper.setData(value, EntryBits.setCompressed(userBits, false), value.length, false);
+        }
       } catch (IOException ex) {
         getParent().getCancelCriterion().checkCancelInProgress(ex);
         throw new DiskAccessException(
@@ -5564,6 +6274,8 @@ public class Oplog implements CompactableOplog, Flushable {
       // oplog registered with the parent and allow the compactor to unregister
       // it.
 
+      unmapCrf();
+      closeOplogStats();
       deleteCRF();
       if (!crfOnly || !getHasDeletes()) {
         setHasDeletes(false);
@@ -5738,6 +6450,11 @@ public class Oplog implements CompactableOplog, Flushable {
     // synchronized block does not attempt to get the backup lock (incorrect lock order)
     synchronized (this.lock/* crf */) {
       this.doneAppending = true;
+      this.deltaDepths.clear();
+      this.deltaDepths.trim();
+      // the oplog is only read from now on, and the next oplog has its own direct writers
+      closeDirectWriter(this.crf);
+      closeDirectWriter(this.drf);
     }
     handleNoLiveValues();
     // I'm deadcoding the following because it is not safe unless we change to
@@ -5778,6 +6495,18 @@ public class Oplog implements CompactableOplog, Flushable {
     return false;
   }
 
+  /**
+   * @return The fraction of the records written to this oplog that are no longer live
+   */
+  double getGarbageRatio() {
+    long total = this.totalCount.get();
+    if (total <= 0) {
+      return 1.0;
+    }
+    long live = Math.max(this.totalLiveCount.get(), 0);
+    return 1.0 - Math.min((double) live / total, 1.0);
+  }
+
   public boolean hadLiveEntries() {
     return this.totalCount.get() != 0;
   }
@@ -5976,6 +6705,12 @@ public class Oplog implements CompactableOplog, Flushable {
               compactFailed = true;
               break;
             }
+            if (compactor.isSliceDone()) {
+              // leave the remaining live entries for a later compaction, which resumes with them
+              // since the ones copied forward are no longer live in this oplog
+              compactFailed = true;
+              break;
+            }
             if (lastDe != null) {
               if (lastDe == de) {
                 throw new IllegalStateException("compactor would have gone into infinite loop");
@@ -5984,6 +6719,7 @@ public class Oplog implements CompactableOplog, Flushable {
             }
             lastDe = de;
             didCompact = false;
+            long compactedBytes = 0;
             synchronized (de) { // fix for bug 41797
               DiskId did = de.getDiskId();
               assert did != null;
@@ -6004,6 +6740,9 @@ public class Oplog implements CompactableOplog, Flushable {
                     }
                     continue;
                   }
+                  // the off heap data is only valid while synced on the entry
+                  compactedBytes = wrapper.getOffHeapData() != null
+                      ? wrapper.getOffHeapData().getDataSize() : wrapper.getValidLength();
                   // write it to the current oplog
                   getOplogSet().getChild().copyForwardModifyForCompact(dr, de, wrapper);
                   // the did's oplogId will now be set to the current active oplog
@@ -6013,6 +6752,7 @@ public class Oplog implements CompactableOplog, Flushable {
             } // de
             if (didCompact) {
               totalCount++;
+              compactor.compacted(compactedBytes);
               getStats().endCompactionUpdate(opStart);
               opStart = getStats().getStatTime();
               // Check if the value byte array happens to be any of the
@@ -6050,6 +6790,32 @@ public class Oplog implements CompactableOplog, Flushable {
     }
   }
 
+  /**
+   * Returns the number of entries whose most recent value is in this oplog
+   */
+  long getLiveEntryCount() {
+    return Math.max(this.totalLiveCount.get(), 0);
+  }
+
+  /**
+   * Returns the number of records in this oplog that compacting it would remove
+   */
+  long getGarbageEntryCount() {
+    return Math.max(this.totalCount.get() - getLiveEntryCount(), 0);
+  }
+
+  OplogStats getOplogStats() {
+    return this.oplogStats;
+  }
+
+  private void closeOplogStats() {
+    OplogStats oplogStats = this.oplogStats;
+    if (oplogStats != null) {
+      this.oplogStats = null;
+      oplogStats.close();
+    }
+  }
+
   AtomicLong getTotalLiveCount() {
     return totalLiveCount;
   }
@@ -6488,6 +7254,7 @@ public class Oplog implements CompactableOplog, Flushable {
     public long currSize;
     public long bytesFlushed;
     public boolean unpreblown;
+    public DirectOplogWriter direct;
   }
 
   private static class KRFile {
@@ -6627,7 +7394,8 @@ public class Oplog implements CompactableOplog, Flushable {
 
     public void initialize(long oplogKeyId, byte[] keyBytes, byte[] valueBytes, byte userBits,
         long drId, VersionTag tag, boolean notToUseUserBits) throws IOException {
-      this.opCode = OPLOG_MOD_ENTRY_WITH_KEY_1ID;
+      // without the key for the records of a delta chain after the first
+      this.opCode = keyBytes != null ? OPLOG_MOD_ENTRY_WITH_KEY_1ID : OPLOG_MOD_ENTRY_1ID;
       this.size = 1;// for the opcode
       saveUserBits(notToUseUserBits, userBits);
 
@@ -6638,7 +7406,9 @@ public class Oplog implements CompactableOplog, Flushable {
       }
 
       this.needsValue = EntryBits.isNeedsValue(this.userBits);
-      this.size += (4 + this.keyBytes.length);
+      if (this.keyBytes != null) {
+        this.size += (4 + this.keyBytes.length);
+      }
       saveDrId(drId);
       initVersionsBytes(tag);
 
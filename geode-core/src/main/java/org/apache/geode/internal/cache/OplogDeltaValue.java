@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The value of a crf record that holds only the {@link org.apache.geode.Delta} of an update, see
+ * {@link DiskStoreImpl#DELTA_CHECKPOINT_INTERVAL_PROPERTY_NAME}.
+ * <p>
+ * Like a value compressed by an {@link OplogValueCodec} its record has the
+ * {@link EntryBits#isCompressed compressed} user bit set, and it starts with an id that no codec
+ * uses. It is followed by the offset, length and user bits of the record of the same entry the
+ * delta applies to, which is always earlier in the same crf, and then by the delta itself. Reading
+ * the value walks back to the last full value and applies the deltas to it.
+ */
+class OplogDeltaValue {
+
+  static final byte ID = 0x44;
+
+  static final int HEADER_LENGTH = 1 + 8 + 4 + 1;
+
+  private OplogDeltaValue() {
+    // no instances
+  }
+
+  static byte[] encode(long prevOffset, int prevLength, byte prevUserBits, byte[] delta) {
+    return ByteBuffer.allocate(HEADER_LENGTH + delta.length).put(ID).putLong(prevOffset)
+        .putInt(prevLength).put(prevUserBits).put(delta).array();
+  }
+
+  /**
+   * @param stored The value of a record with the compressed user bit set
+   */
+  static boolean isDelta(byte[] stored) {
+    return stored != null && stored.length >= HEADER_LENGTH && stored[0] == ID;
+  }
+
+  static long getPrevOffset(byte[] stored) {
+    return ByteBuffer.wrap(stored).getLong(1);
+  }
+
+  static int getPrevLength(byte[] stored) {
+    return ByteBuffer.wrap(stored).getInt(9);
+  }
+
+  static byte getPrevUserBits(byte[] stored) {
+    return stored[13];
+  }
+
+  static byte[] getDelta(byte[] stored) {
+    byte[] delta = new byte[stored.length - HEADER_LENGTH];
+    System.arraycopy(stored, HEADER_LENGTH, delta, 0, delta.length);
+    return delta;
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import java.io.IOException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Lets concurrent synchronous writers of an oplog share a single flush of its write buffers.
+ * <p>
+ * A writer appends its record to the write buffer while holding the oplog lock, takes a ticket with
+ * {@link #append()} before releasing it and then calls {@link #awaitCommit}. The first writer to
+ * find no flush in progress becomes the leader: it optionally waits for up to the max wait for
+ * more writers to append, flushes everything appended so far and releases every writer whose
+ * ticket was covered. Writers that appended while the leader was flushing are covered by the next
+ * leader, which is one of them.
+ * <p>
+ * A writer only returns once a flush that started after its append completed, so the durability of
+ * a write is the same as when every writer flushes on its own. If the flush fails the leader throws
+ * and another writer takes over, seeing the failure itself.
+ */
+class OplogGroupCommit {
+
+  interface Flush {
+    void flush() throws IOException;
+  }
+
+  private final long maxWaitNanos;
+
+  private final DiskStoreStats stats;
+
+  /**
+   * The ticket of the last append
+   */
+  private long appended;
+
+  /**
+   * All appends up to and including this ticket were flushed
+   */
+  private long committed;
+
+  private boolean flushing;
+
+  /**
+   * @param maxWaitNanos How long a leader waits for more writers to append before flushing
+   */
+  OplogGroupCommit(long maxWaitNanos, DiskStoreStats stats) {
+    this.maxWaitNanos = maxWaitNanos;
+    this.stats = stats;
+  }
+
+  /**
+   * Must be called while holding the lock the record was appended under, after appending it
+   *
+   * @return The ticket to pass to {@link #awaitCommit}
+   */
+  synchronized long append() {
+    return ++this.appended;
+  }
+
+  /**
+   * Waits until the append with the given ticket was flushed, flushing as the leader if no other
+   * writer is. Must not be called while holding the lock of the oplog. The wait is not interrupted,
+   * the interrupt status is kept.
+   */
+  void awaitCommit(long ticket, Flush flush) throws IOException {
+    boolean interrupted = false;
+    try {
+      synchronized (this) {
+        while (this.committed < ticket) {
+          if (!this.flushing) {
+            this.flushing = true;
+            break;
+          }
+          try {
+            wait();
+          } catch (InterruptedException ignore) {
+            interrupted = true;
+          }
+        }
+        if (this.committed >= ticket) {
+          return;
+        }
+      }
+      lead(flush);
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void lead(Flush flush) throws IOException {
+    try {
+      if (this.maxWaitNanos > 0) {
+        long deadline = System.nanoTime() + this.maxWaitNanos;
+        long remaining = this.maxWaitNanos;
+        while (remaining > 0 && !Thread.currentThread().isInterrupted()) {
+          LockSupport.parkNanos(this, remaining);
+          remaining = deadline - System.nanoTime();
+        }
+      }
+      long target;
+      synchronized (this) {
+        target = this.appended;
+      }
+      flush.flush();
+      synchronized (this) {
+        this.stats.incGroupCommits(target - this.committed);
+        this.committed = target;
+      }
+    } finally {
+      synchronized (this) {
+        this.flushing = false;
+        notifyAll();
+      }
+    }
+  }
+}
@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import org.apache.geode.StatisticDescriptor;
+import org.apache.geode.Statistics;
+import org.apache.geode.StatisticsFactory;
+import org.apache.geode.StatisticsType;
+import org.apache.geode.StatisticsTypeFactory;
+import org.apache.geode.annotations.Immutable;
+import org.apache.geode.internal.statistics.StatisticsTypeFactoryImpl;
+
+/**
+ * GemFire statistics about a single oplog of a {@link DiskStoreImpl}. Side by side, the instances
+ * of a disk store are a heat map of which oplogs serve the most faults and which hold the most
+ * garbage, for tuning compaction and the size of oplogs.
+ */
+public class OplogStats {
+
+  @Immutable
+  private static final StatisticsType type;
+
+  //////////////////// Statistic "Id" Fields ////////////////////
+
+  private static final int readsId;
+  private static final int readBytesId;
+  private static final int liveEntriesId;
+  private static final int garbageEntriesId;
+  private static final int bytesId;
+
+  static {
+    String statName = "DiskStoreOplogStatistics";
+    String statDescription = "Statistics about a single oplog of a disk store";
+
+    StatisticsTypeFactory f = StatisticsTypeFactoryImpl.singleton();
+
+    type = f.createType(statName, statDescription,
+        new StatisticDescriptor[] {
+            f.createLongCounter("reads",
+                "The total number of entry values that have been faulted in from this oplog",
+                "ops"),
+            f.createLongCounter("readBytes",
+                "The total number of bytes that have been faulted in from this oplog", "bytes"),
+            f.createLongGauge("liveEntries",
+                "The current number of entries whose most recent value is in this oplog",
+                "entries"),
+            f.createLongGauge("garbageEntries",
+                "The current number of records in this oplog that have been superseded and will be removed by compacting it",
+                "entries"),
+            f.createLongGauge("bytes", "The current size in bytes of the crf and drf of this oplog",
+                "bytes")});
+
+    // Initialize id fields
+    readsId = type.nameToId("reads");
+    readBytesId = type.nameToId("readBytes");
+    liveEntriesId = type.nameToId("liveEntries");
+    garbageEntriesId = type.nameToId("garbageEntries");
+    bytesId = type.nameToId("bytes");
+  }
+
+  ////////////////////// Instance Fields //////////////////////
+
+  /** The Statistics object that we delegate most behavior to */
+  private final Statistics stats;
+
+  /////////////////////// Constructors ///////////////////////
+
+  /**
+   * Creates a new <code>OplogStats</code> whose gauges are sampled from the given oplog.
+   */
+  OplogStats(StatisticsFactory f, String name, Oplog oplog) {
+    this.stats = f.createAtomicStatistics(type, name);
+    this.stats.setLongSupplier(liveEntriesId, oplog::getLiveEntryCount);
+    this.stats.setLongSupplier(garbageEntriesId, oplog::getGarbageEntryCount);
+    this.stats.setLongSupplier(bytesId, oplog::getOplogSize);
+  }
+
+  ///////////////////// Instance Methods /////////////////////
+
+  public void close() {
+    this.stats.close();
+  }
+
+  public void incReads(long bytesRead) {
+    this.stats.incLong(readsId, 1);
+    this.stats.incLong(readBytesId, bytesRead);
+  }
+
+  /**
+   * Returns the total number of entry values that have been faulted in from the oplog
+   */
+  public long getReads() {
+    return this.stats.getLong(readsId);
+  }
+
+  /**
+   * Returns the total number of bytes that have been faulted in from the oplog
+   */
+  public long getReadBytes() {
+    return this.stats.getLong(readBytesId);
+  }
+
+  public Statistics getStats() {
+    return stats;
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import java.nio.ByteBuffer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.iq80.snappy.CorruptionException;
+import org.iq80.snappy.Snappy;
+
+import org.apache.geode.compression.CompressionException;
+
+/**
+ * The codecs a disk store can compress the values of crf records with, see
+ * {@link DiskStoreImpl#VALUE_CODEC_PROPERTY_NAME}. Both are implemented in java.
+ * <p>
+ * A compressed value starts with the id of the codec that compressed it, and its record has the
+ * {@link EntryBits#isCompressed compressed} user bit set. So a value can be read no matter what
+ * codec, if any, the disk store uses now, and the compactor can copy it forward as it is. The id
+ * {@link OplogDeltaValue#ID} is taken by delta values.
+ */
+public enum OplogValueCodec {
+
+  SNAPPY((byte) 1) {
+    @Override
+    byte[] compress(byte[] value) {
+      byte[] buffer = new byte[1 + Snappy.maxCompressedLength(value.length)];
+      int length = Snappy.compress(value, 0, value.length, buffer, 1);
+      if (1 + length >= value.length) {
+        return null;
+      }
+      byte[] result = new byte[1 + length];
+      System.arraycopy(buffer, 1, result, 1, length);
+      result[0] = getId();
+      return result;
+    }
+
+    @Override
+    byte[] decompress(byte[] stored) {
+      try {
+        return Snappy.uncompress(stored, 1, stored.length - 1);
+      } catch (CorruptionException e) {
+        throw new CompressionException(e);
+      }
+    }
+  },
+
+  DEFLATE((byte) 2) {
+    @Override
+    byte[] compress(byte[] value) {
+      // the id, the length of the value and the deflated value must be shorter than the value
+      byte[] buffer = new byte[value.length];
+      Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+      try {
+        deflater.setInput(value);
+        deflater.finish();
+        int length = deflater.deflate(buffer, 5, buffer.length - 5);
+        if (!deflater.finished() || 5 + length >= value.length) {
+          return null;
+        }
+        ByteBuffer.wrap(buffer).put(getId()).putInt(value.length);
+        byte[] result = new byte[5 + length];
+        System.arraycopy(buffer, 0, result, 0, result.length);
+        return result;
+      } finally {
+        deflater.end();
+      }
+    }
+
+    @Override
+    byte[] decompress(byte[] stored) {
+      byte[] result = new byte[ByteBuffer.wrap(stored, 1, 4).getInt()];
+      Inflater inflater = new Inflater(true);
+      try {
+        inflater.setInput(stored, 5, stored.length - 5);
+        int length = 0;
+        while (length < result.length) {
+          int inflated = inflater.inflate(result, length, result.length - length);
+          if (inflated == 0 && (inflater.finished() || inflater.needsInput())) {
+            break;
+          }
+          length += inflated;
+        }
+        if (length != result.length) {
+          throw new CompressionException(
+              "Inflated " + length + " bytes of a value of " + result.length + " bytes");
+        }
+        return result;
+      } catch (DataFormatException e) {
+        throw new CompressionException(e);
+      } finally {
+        inflater.end();
+      }
+    }
+  };
+
+  /**
+   * Values shorter than this are not worth compressing
+   */
+  static final int MIN_VALUE_LENGTH = 64;
+
+  private final byte id;
+
+  OplogValueCodec(byte id) {
+    this.id = id;
+  }
+
+  byte getId() {
+    return this.id;
+  }
+
+  /**
+   * @return The value compressed and prefixed with the id of this codec, or null if that is not
+   *         shorter than the value
+   */
+  abstract byte[] compress(byte[] value);
+
+  abstract byte[] decompress(byte[] stored);
+
+  /**
+   * Decompresses a value compressed by any of the codecs
+   */
+  static byte[] decompressValue(byte[] stored) {
+    for (OplogValueCodec codec : values()) {
+      if (codec.id == stored[0]) {
+        return codec.decompress(stored);
+      }
+    }
+    throw new CompressionException("Unknown oplog value codec " + stored[0]);
+  }
+
+  /**
+   * @return The codec with the given name ignoring case, or null if the name is null or empty
+   * @throws IllegalArgumentException if there is no codec with the name
+   */
+  static OplogValueCodec forName(String name) {
+    if (name == null || name.isEmpty()) {
+      return null;
+    }
+    return valueOf(name.toUpperCase());
+  }
+}
@@ -16,7 +16,9 @@ package org.apache.geode.internal.cache;
 
 import java.io.File;
 import java.io.FilenameFilter;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -26,6 +28,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -43,6 +48,7 @@ import org.apache.geode.internal.cache.persistence.DiskStoreFilter;
 import org.apache.geode.internal.cache.persistence.OplogType;
 import org.apache.geode.internal.cache.versions.RegionVersionVector;
 import org.apache.geode.internal.logging.LogService;
+import org.apache.geode.internal.logging.LoggingExecutors;
 import org.apache.geode.internal.sequencelog.EntryLogger;
 
 public class PersistentOplogSet implements OplogSet {
@@ -440,6 +446,7 @@ public class PersistentOplogSet implements OplogSet {
     if (oplogSet.size() > 0) {
       long startOpLogRecovery = System.currentTimeMillis();
       // first figure out all entries that have been destroyed
+      long startDrfRecovery = parent.getStats().startOplogRead();
       boolean latestOplog = true;
       for (Oplog oplog : oplogSet) {
         byteCount += oplog.recoverDrf(deletedIds, this.alreadyRecoveredOnce.get(), latestOplog);
@@ -448,26 +455,38 @@ public class PersistentOplogSet implements OplogSet {
           updateOplogEntryId(oplog.getMaxRecoveredOplogEntryId());
         }
       }
+      parent.getStats().endDrfRecovery(startDrfRecovery);
       parent.incDeadRecordCount(deletedIds.size());
       // now figure out live entries
-      latestOplog = true;
-      for (Oplog oplog : oplogSet) {
-        long startOpLogRead = parent.getStats().startOplogRead();
-        long bytesRead = oplog.recoverCrf(deletedIds,
-            // @todo make recoverValues per region
-            recoverValues(), recoverValuesSync(), this.alreadyRecoveredOnce.get(),
-            oplogsNeedingValueRecovery, latestOplog);
-        latestOplog = false;
-        if (!this.alreadyRecoveredOnce.get()) {
-          updateOplogEntryId(oplog.getMaxRecoveredOplogEntryId());
-        }
-        byteCount += bytesRead;
-        parent.getStats().endOplogRead(startOpLogRead, bytesRead);
+      KrfPrefetcher krfPrefetcher = null;
+      if (parent.RECOVERY_THREADS > 1 && !recoverValuesSync()) {
+        krfPrefetcher = new KrfPrefetcher(oplogSet, parent.RECOVERY_THREADS);
+      }
+      try {
+        latestOplog = true;
+        for (Oplog oplog : oplogSet) {
+          long startOpLogRead = parent.getStats().startOplogRead();
+          Oplog.PrefetchedKrf prefetchedKrf = krfPrefetcher != null ? krfPrefetcher.next() : null;
+          long bytesRead = oplog.recoverCrf(deletedIds,
+              // @todo make recoverValues per region
+              recoverValues(), recoverValuesSync(), this.alreadyRecoveredOnce.get(),
+              oplogsNeedingValueRecovery, latestOplog, prefetchedKrf);
+          latestOplog = false;
+          if (!this.alreadyRecoveredOnce.get()) {
+            updateOplogEntryId(oplog.getMaxRecoveredOplogEntryId());
+          }
+          byteCount += bytesRead;
+          parent.getStats().endOplogRead(startOpLogRead, bytesRead);
 
-        // Callback to the disk regions to indicate the oplog is recovered
-        // Used for offline export
-        for (DiskRecoveryStore drs : this.currentRecoveryMap.values()) {
-          drs.getDiskRegionView().oplogRecovered(oplog.oplogId);
+          // Callback to the disk regions to indicate the oplog is recovered
+          // Used for offline export
+          for (DiskRecoveryStore drs : this.currentRecoveryMap.values()) {
+            drs.getDiskRegionView().oplogRecovered(oplog.oplogId);
+          }
+        }
+      } finally {
+        if (krfPrefetcher != null) {
+          krfPrefetcher.close();
         }
       }
       long endOpLogRecovery = System.currentTimeMillis();
@@ -1153,4 +1172,52 @@ public class PersistentOplogSet implements OplogSet {
   public boolean isCompactionPossible() {
     return getParent().isCompactionPossible();
   }
+
+  /**
+   * Reads the krfs of the oplogs to recover on a pool of threads, in the order the oplogs are
+   * recovered in and at most two per thread ahead of the oplog being recovered. The entries are
+   * still recovered by the recovering thread one oplog at a time, so the newest entry of a key wins
+   * as with sequential recovery.
+   */
+  private static class KrfPrefetcher {
+    private final ExecutorService executor;
+    private final Iterator<Oplog> oplogs;
+    private final ArrayDeque<Future<Oplog.PrefetchedKrf>> prefetched = new ArrayDeque<>();
+
+    KrfPrefetcher(Collection<Oplog> oplogs, int threads) {
+      this.executor = LoggingExecutors.newFixedThreadPool("Oplog Recovery", true, threads);
+      this.oplogs = oplogs.iterator();
+      for (int i = 0; i < threads * 2; i++) {
+        prefetchNext();
+      }
+    }
+
+    private void prefetchNext() {
+      if (this.oplogs.hasNext()) {
+        Oplog oplog = this.oplogs.next();
+        this.prefetched.add(this.executor.submit(oplog::prefetchKrf));
+      }
+    }
+
+    /**
+     * @return The krf of the next oplog, or null if it has to be read by the recovering thread
+     */
+    Oplog.PrefetchedKrf next() {
+      Future<Oplog.PrefetchedKrf> future = this.prefetched.poll();
+      prefetchNext();
+      try {
+        return future.get();
+      } catch (ExecutionException e) {
+        logger.debug("Reading ahead a krf failed", e);
+        return null;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return null;
+      }
+    }
+
+    void close() {
+      this.executor.shutdownNow();
+    }
+  }
 }
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.backup;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The checksums of the oplog files of a member's backup, kept in {@link BackupWriter#CHECKSUMS_FILE}
+ * so that a backup can be verified before it is restored. Each line holds the checksum of a file
+ * in hex, its length and its path. Paths of files in the backup are relative to the member's
+ * backup directory, paths of files an incremental backup takes from its baseline are absolute.
+ */
+class BackupChecksums {
+
+  static final String ALGORITHM = "SHA-256";
+
+  /**
+   * The checksums by path
+   */
+  private final Map<String, String> checksums = new TreeMap<>();
+
+  private final Map<String, Long> lengths = new TreeMap<>();
+
+  void add(String path, String checksum, long length) {
+    this.checksums.put(path, checksum);
+    this.lengths.put(path, length);
+  }
+
+  Map<String, String> getChecksums() {
+    return Collections.unmodifiableMap(this.checksums);
+  }
+
+  void write(Path file) throws IOException {
+    try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+      for (Map.Entry<String, String> entry : this.checksums.entrySet()) {
+        writer.write(entry.getValue() + " " + this.lengths.get(entry.getKey()) + " "
+            + entry.getKey());
+        writer.newLine();
+      }
+    }
+  }
+
+  /**
+   * @return The checksums in the file, or none if it does not exist
+   */
+  static BackupChecksums read(Path file) throws IOException {
+    BackupChecksums result = new BackupChecksums();
+    if (!Files.exists(file)) {
+      return result;
+    }
+    try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        String[] fields = line.split(" ", 3);
+        if (fields.length != 3) {
+          throw new IOException("Malformed line in " + file + ": " + line);
+        }
+        result.add(fields[2], fields[0], Long.parseLong(fields[1]));
+      }
+    }
+    return result;
+  }
+}
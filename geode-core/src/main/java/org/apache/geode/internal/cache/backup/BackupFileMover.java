@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.backup;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.apache.geode.internal.logging.LoggingExecutors;
+import org.apache.geode.internal.util.ByteRateLimiter;
+import org.apache.geode.internal.util.Hex;
+
+/**
+ * Moves the files of a backup into the backup directory on a number of threads, computing the
+ * {@link BackupChecksums#ALGORITHM} checksum of each file as it goes. Files on the same file store
+ * as their target are renamed and then read for their checksum, others are copied.
+ * <p>
+ * If a number of bytes per second is given, the threads together wait as long as it takes to keep
+ * the bytes they copy under it. Reading a renamed file for its checksum is not limited, since it
+ * stands in for a rename that used to take no time at all.
+ */
+class BackupFileMover implements AutoCloseable {
+
+  private static final int BUFFER_SIZE = 1024 * 1024;
+
+  private final ExecutorService executor;
+
+  /**
+   * Null if the bytes per second are not limited
+   */
+  private final ByteRateLimiter limiter;
+
+  private final List<Future<?>> moves = new ArrayList<>();
+
+  private final Map<Path, String> checksums = new ConcurrentHashMap<>();
+
+  /**
+   * @param maxBytesPerSecond The limit of the bytes to move per second, or 0 for none
+   */
+  BackupFileMover(int threads, long maxBytesPerSecond) {
+    if (threads < 1) {
+      throw new IllegalArgumentException("threads must be positive: " + threads);
+    }
+    this.executor = LoggingExecutors.newFixedThreadPool("BackupFileMover", true, threads);
+    this.limiter = maxBytesPerSecond > 0 ? new ByteRateLimiter(maxBytesPerSecond) : null;
+  }
+
+  /**
+   * Starts moving a file. The directory of the target must exist.
+   */
+  void move(Path source, Path target) {
+    this.moves.add(this.executor.submit(() -> {
+      this.checksums.put(target, moveFile(source, target));
+      return null;
+    }));
+  }
+
+  /**
+   * Waits for all files to be moved
+   *
+   * @return The checksums of the moved files by their target
+   * @throws IOException if moving any of the files failed
+   */
+  Map<Path, String> awaitMoves() throws IOException {
+    try {
+      for (Future<?> move : this.moves) {
+        move.get();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted while moving backup files");
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException) {
+        throw (IOException) e.getCause();
+      }
+      throw new IOException("Failed to move backup files", e.getCause());
+    }
+    return this.checksums;
+  }
+
+  @Override
+  public void close() {
+    this.executor.shutdownNow();
+  }
+
+  private String moveFile(Path source, Path target) throws IOException, InterruptedException {
+    MessageDigest digest = createDigest();
+    byte[] buffer = new byte[BUFFER_SIZE];
+    if (canRename(source, target)) {
+      Files.move(source, target);
+      try (InputStream in = Files.newInputStream(target)) {
+        int length;
+        while ((length = in.read(buffer)) != -1) {
+          digest.update(buffer, 0, length);
+        }
+      }
+    } else {
+      try (InputStream in = Files.newInputStream(source);
+          OutputStream out = Files.newOutputStream(target, StandardOpenOption.CREATE_NEW)) {
+        int length;
+        while ((length = in.read(buffer)) != -1) {
+          if (this.limiter != null) {
+            this.limiter.acquire(length);
+          }
+          digest.update(buffer, 0, length);
+          out.write(buffer, 0, length);
+        }
+      }
+      Files.setLastModifiedTime(target, Files.getLastModifiedTime(source));
+      Files.delete(source);
+    }
+    return Hex.toHex(digest.digest());
+  }
+
+  /**
+   * @return true if the source is on the same file store as the target, so it can be renamed
+   */
+  boolean canRename(Path source, Path target) throws IOException {
+    return Files.getFileStore(source).equals(Files.getFileStore(target.getParent()));
+  }
+
+  private static MessageDigest createDigest() {
+    try {
+      return MessageDigest.getInstance(BackupChecksums.ALGORITHM);
+    } catch (NoSuchAlgorithmException e) {
+      // every java platform has it
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -25,6 +25,7 @@ public interface BackupWriter {
   String CONFIG_DIRECTORY = "config";
   String BACKUP_DIR_PREFIX = "dir";
   String README_FILE = "README_FILE.txt";
+  String CHECKSUMS_FILE = "CHECKSUMS_FILE.txt";
   String DATA_STORES_DIRECTORY = "diskstores";
 
   void backupFiles(BackupDefinition backupDefinition) throws IOException;
@@ -25,15 +25,32 @@ import java.util.Map;
 import org.apache.commons.io.FileUtils;
 
 import org.apache.geode.cache.DiskStore;
+import org.apache.geode.distributed.internal.DistributionConfig;
 import org.apache.geode.internal.cache.DirectoryHolder;
 import org.apache.geode.internal.cache.DiskStoreImpl;
 import org.apache.geode.internal.cache.GemFireCacheImpl;
 
 class FileSystemBackupWriter implements BackupWriter {
 
+  /**
+   * The number of threads a member moves the oplogs of all its disk stores into the backup
+   * directory with. Defaults to 1.
+   */
+  static final String COPY_THREADS_PROPERTY_NAME =
+      DistributionConfig.GEMFIRE_PREFIX + "backup.copyThreads";
+
+  /**
+   * The number of bytes per second a member may move oplogs into the backup directory with, over
+   * all of its threads. The oplogs are not limited by default.
+   */
+  static final String MAX_BYTES_PER_SECOND_PROPERTY_NAME =
+      DistributionConfig.GEMFIRE_PREFIX + "backup.maxBytesPerSecond";
+
   private final Path backupDirectory;
   private final FileSystemIncrementalBackupLocation incrementalBaselineLocation;
   private final BackupFilter filter;
+  private final int copyThreads;
+  private final long maxBytesPerSecond;
 
   FileSystemBackupWriter(Path backupDirectory) {
     this(backupDirectory, null);
@@ -41,9 +58,19 @@ class FileSystemBackupWriter implements BackupWriter {
 
   FileSystemBackupWriter(Path backupDirectory,
       FileSystemIncrementalBackupLocation incrementalBaselineLocation) {
+    this(backupDirectory, incrementalBaselineLocation,
+        Integer.getInteger(COPY_THREADS_PROPERTY_NAME, 1),
+        Long.getLong(MAX_BYTES_PER_SECOND_PROPERTY_NAME, 0L));
+  }
+
+  FileSystemBackupWriter(Path backupDirectory,
+      FileSystemIncrementalBackupLocation incrementalBaselineLocation, int copyThreads,
+      long maxBytesPerSecond) {
     this.backupDirectory = backupDirectory;
     this.incrementalBaselineLocation = incrementalBaselineLocation;
     filter = createBackupFilter(incrementalBaselineLocation);
+    this.copyThreads = copyThreads;
+    this.maxBytesPerSecond = maxBytesPerSecond;
   }
 
   private BackupFilter createBackupFilter(
@@ -79,7 +106,9 @@ class FileSystemBackupWriter implements BackupWriter {
   private void backupAllFilesets(BackupDefinition backupDefinition) throws IOException {
     RestoreScript restoreScript = backupDefinition.getRestoreScript();
     backupDiskInitFiles(backupDefinition.getDiskInitFiles());
-    backupOplogs(backupDefinition.getOplogFilesByDiskStore(), restoreScript);
+    BackupChecksums checksums =
+        backupOplogs(backupDefinition.getOplogFilesByDiskStore(), restoreScript);
+    checksums.write(backupDirectory.resolve(CHECKSUMS_FILE));
     backupConfigFiles(backupDefinition.getConfigFiles());
     backupUserFiles(backupDefinition.getUserFiles(), restoreScript);
     backupDeployedJars(backupDefinition.getDeployedJars(), restoreScript);
@@ -144,34 +173,57 @@ class FileSystemBackupWriter implements BackupWriter {
     moveFilesOrDirectories(configFiles, configDirectory);
   }
 
-  private void backupOplogs(Map<DiskStore, Collection<Path>> oplogFiles,
+  /**
+   * Moves the oplogs of all disk stores in parallel, see {@link BackupFileMover}
+   *
+   * @return The checksums of the oplogs moved and of those taken from the baseline
+   */
+  private BackupChecksums backupOplogs(Map<DiskStore, Collection<Path>> oplogFiles,
       RestoreScript restoreScript) throws IOException {
+    BackupChecksums checksums = new BackupChecksums();
     File storesDir = new File(backupDirectory.toFile(), DATA_STORES_DIRECTORY);
-    for (Map.Entry<DiskStore, Collection<Path>> entry : oplogFiles.entrySet()) {
-      DiskStoreImpl diskStore = (DiskStoreImpl) entry.getKey();
-      boolean diskstoreHasFilesInBackup = false;
-      for (Path path : entry.getValue()) {
-        if (filter.accept(diskStore, path)) {
-          diskstoreHasFilesInBackup = true;
-          int index = diskStore.getInforFileDirIndex();
-          Path backupDir = createOplogBackupDir(diskStore, index);
-          backupOplog(backupDir, path);
-        } else {
-          Map<String, File> baselineOplogMap =
-              incrementalBaselineLocation.getBackedUpOplogs(diskStore);
-          restoreScript.addBaselineFile(baselineOplogMap.get(path.getFileName().toString()),
-              new File(path.toAbsolutePath().getParent().getParent().toFile(),
-                  path.getFileName().toString()));
+    try (BackupFileMover mover = new BackupFileMover(copyThreads, maxBytesPerSecond)) {
+      for (Map.Entry<DiskStore, Collection<Path>> entry : oplogFiles.entrySet()) {
+        DiskStoreImpl diskStore = (DiskStoreImpl) entry.getKey();
+        boolean diskstoreHasFilesInBackup = false;
+        Map<String, String> baselineChecksums = null;
+        for (Path path : entry.getValue()) {
+          if (filter.accept(diskStore, path)) {
+            diskstoreHasFilesInBackup = true;
+            int index = diskStore.getInforFileDirIndex();
+            Path backupDir = createOplogBackupDir(diskStore, index);
+            mover.move(path, backupDir.resolve(path.getFileName()));
+          } else {
+            Map<String, File> baselineOplogMap =
+                incrementalBaselineLocation.getBackedUpOplogs(diskStore);
+            File baselineOplog = baselineOplogMap.get(path.getFileName().toString());
+            restoreScript.addBaselineFile(baselineOplog,
+                new File(path.toAbsolutePath().getParent().getParent().toFile(),
+                    path.getFileName().toString()));
+            if (baselineChecksums == null) {
+              baselineChecksums = incrementalBaselineLocation.getBackedUpChecksums(diskStore);
+            }
+            String checksum = baselineChecksums.get(path.getFileName().toString());
+            if (checksum != null) {
+              checksums.add(baselineOplog.getAbsolutePath(), checksum, baselineOplog.length());
+            }
+          }
+        }
+        if (diskstoreHasFilesInBackup) {
+          addDiskStoreDirectoriesToRestoreScript((DiskStoreImpl) entry.getKey(),
+              getBaseBackupDirectory().toFile(), restoreScript);
         }
+        File targetStoresDir = new File(storesDir, getBackupDirName(diskStore));
+        addDiskStoreDirectoriesToRestoreScript(diskStore, targetStoresDir, restoreScript);
+
       }
-      if (diskstoreHasFilesInBackup) {
-        addDiskStoreDirectoriesToRestoreScript((DiskStoreImpl) entry.getKey(),
-            getBaseBackupDirectory().toFile(), restoreScript);
+      for (Map.Entry<Path, String> moved : mover.awaitMoves().entrySet()) {
+        Path target = moved.getKey();
+        String path = backupDirectory.relativize(target).toString();
+        checksums.add(path.replace(File.separatorChar, '/'), moved.getValue(), Files.size(target));
       }
-      File targetStoresDir = new File(storesDir, getBackupDirName(diskStore));
-      addDiskStoreDirectoriesToRestoreScript(diskStore, targetStoresDir, restoreScript);
-
     }
+    return checksums;
   }
 
   private Path getOplogBackupDir(DiskStore diskStore, int index) {
@@ -204,14 +256,6 @@ class FileSystemBackupWriter implements BackupWriter {
     return name + "_" + diskStore.getDiskStoreID().toString();
   }
 
-  private void backupOplog(Path targetDir, Path path) throws IOException {
-    backupFile(targetDir, path.toFile());
-  }
-
-  private void backupFile(Path targetDir, File file) throws IOException {
-    Files.move(file.toPath(), targetDir.resolve(file.getName()));
-  }
-
   private void moveFilesOrDirectories(Collection<Path> paths, Path targetDirectory)
       throws IOException {
     for (Path userFile : paths) {
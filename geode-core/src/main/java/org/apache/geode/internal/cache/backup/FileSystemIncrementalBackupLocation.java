@@ -17,8 +17,10 @@ package org.apache.geode.internal.cache.backup;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 
@@ -56,6 +58,27 @@ class FileSystemIncrementalBackupLocation implements IncrementalBackupLocation {
     return TransformUtils.transformAndMap(baselineOplogFiles, TransformUtils.fileNameTransformer);
   }
 
+  @Override
+  public Map<String, String> getBackedUpChecksums(DiskStore diskStore) throws IOException {
+    File checkedBaselineDir = checkBaseline(diskStore);
+    if (checkedBaselineDir == null) {
+      return Collections.emptyMap();
+    }
+    BackupChecksums checksums =
+        BackupChecksums.read(checkedBaselineDir.toPath().resolve(BackupWriter.CHECKSUMS_FILE));
+    String diskStoreDir = BackupWriter.DATA_STORES_DIRECTORY + "/"
+        + getBackupDirName((DiskStoreImpl) diskStore) + "/";
+    Map<String, String> result = new HashMap<>();
+    for (Map.Entry<String, String> entry : checksums.getChecksums().entrySet()) {
+      // absolute paths are of oplogs the baseline took from its own baseline
+      Path path = Paths.get(entry.getKey());
+      if (path.isAbsolute() || entry.getKey().startsWith(diskStoreDir)) {
+        result.put(path.getFileName().toString(), entry.getValue());
+      }
+    }
+    return result;
+  }
+
   Collection<File> getBackedUpOplogs(File checkedBaselineDir, DiskStore diskStore) {
     File baselineDir = new File(checkedBaselineDir, BackupWriter.DATA_STORES_DIRECTORY);
     baselineDir = new File(baselineDir, getBackupDirName((DiskStoreImpl) diskStore));
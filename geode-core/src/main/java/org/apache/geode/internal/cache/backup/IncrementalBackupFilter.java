@@ -16,6 +16,7 @@ package org.apache.geode.internal.cache.backup;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Map;
 
@@ -32,6 +33,9 @@ public class IncrementalBackupFilter implements BackupFilter {
   @Override
   public boolean accept(DiskStore diskStore, Path path) throws IOException {
     Map<String, File> baselineOplogMap = incrementalBackupLocation.getBackedUpOplogs(diskStore);
-    return !baselineOplogMap.containsKey(path.getFileName().toString());
+    File baselineOplog = baselineOplogMap.get(path.getFileName().toString());
+    // oplogs do not change once they are rolled, so the baseline has the same content if it has an
+    // oplog of the same name and length
+    return baselineOplog == null || baselineOplog.length() != Files.size(path);
   }
 }
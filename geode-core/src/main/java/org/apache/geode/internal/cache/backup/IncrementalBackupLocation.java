@@ -16,6 +16,7 @@ package org.apache.geode.internal.cache.backup;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Map;
 
 import org.apache.geode.cache.DiskStore;
@@ -23,4 +24,12 @@ import org.apache.geode.cache.DiskStore;
 public interface IncrementalBackupLocation {
 
   Map<String, File> getBackedUpOplogs(DiskStore diskStore) throws IOException;
+
+  /**
+   * Returns the checksums the baseline recorded for the oplogs of the disk store by their file
+   * name. Oplogs backed up without a checksum have none.
+   */
+  default Map<String, String> getBackedUpChecksums(DiskStore diskStore) throws IOException {
+    return Collections.emptyMap();
+  }
 }
@@ -623,6 +623,35 @@ public interface DiskEntry extends RegionEntry {
       }
     }
 
+    /**
+     * Wraps a value compressed by an {@link org.apache.geode.internal.cache.OplogValueCodec} so that
+     * it is written with the compressed user bit.
+     */
+    public static class CompressedValueWrapper extends ByteArrayValueWrapper {
+      public CompressedValueWrapper(boolean isSerializedObject, byte[] compressedBytes) {
+        super(isSerializedObject, compressedBytes);
+      }
+
+      @Override
+      public byte getUserBits() {
+        return EntryBits.setCompressed(super.getUserBits(), true);
+      }
+    }
+
+    /**
+     * Wraps the serialized value of an update together with the {@link org.apache.geode.Delta}
+     * bytes of the update, so that the oplog can write just the delta when the previous value of
+     * the entry is in the same oplog. Everything else writes the value.
+     */
+    public static class DeltaValueWrapper extends ByteArrayValueWrapper {
+      public final byte[] deltaBytes;
+
+      public DeltaValueWrapper(byte[] bytes, byte[] deltaBytes) {
+        super(true, bytes);
+        this.deltaBytes = deltaBytes;
+      }
+    }
+
     /**
      * Note that the StoredObject this ValueWrapper is created with is unretained so it must be used
      * before the owner of the StoredObject releases it. Since the RegionEntry that has the value we
@@ -779,6 +808,19 @@ public interface DiskEntry extends RegionEntry {
       }
     }
 
+    /**
+     * Returns a {@link DeltaValueWrapper} if a serialized value was updated with a delta
+     *
+     * @param deltaBytes The delta of the update, or null if it had none
+     */
+    private static ValueWrapper withDelta(ValueWrapper vw, byte[] deltaBytes) {
+      if (deltaBytes == null || vw.getClass() != ByteArrayValueWrapper.class
+          || !vw.isSerialized() || !EntryBits.isNeedsValue(vw.getUserBits())) {
+        return vw;
+      }
+      return new DeltaValueWrapper(((ByteArrayValueWrapper) vw).bytes, deltaBytes);
+    }
+
     public static ValueWrapper createValueWrapperFromEntry(DiskEntry entry, InternalRegion region,
         EntryEventImpl event) {
       if (event != null) {
@@ -952,7 +994,9 @@ public interface DiskEntry extends RegionEntry {
                   writeToDisk(entry, region, false, event);
                 }
               } else {
-                writeBytesToDisk(entry, region, false, createValueWrapper(newValue, event));
+                byte[] deltaBytes = event != null ? event.getDeltaBytes() : null;
+                writeBytesToDisk(entry, region, false,
+                    withDelta(createValueWrapper(newValue, event), deltaBytes));
                 newValueStoredInEntry = true;
                 entry.setValueWithContext(region, newValue); // OFFHEAP newValue already prepared
               }
@@ -972,7 +1016,8 @@ public interface DiskEntry extends RegionEntry {
                 if (stamp != null) {
                   tag = stamp.asVersionTag();
                 }
-                result = new AsyncDiskEntry(region, entry, tag);
+                result = new AsyncDiskEntry(region, entry, tag,
+                    tag != null && event != null ? event.getDeltaBytes() : null);
               }
               newValueStoredInEntry = true;
               entry.setValueWithContext(region, newValue); // OFFHEAP newValue already prepared
@@ -1413,8 +1458,8 @@ public interface DiskEntry extends RegionEntry {
     }
 
     public static void handleFullAsyncQueue(DiskEntry entry, InternalRegion region,
-        VersionTag tag) {
-      writeEntryToDisk(entry, region, tag, true);
+        VersionTag tag, byte[] deltaBytes) {
+      writeEntryToDisk(entry, region, tag, deltaBytes, true);
     }
 
     public static void doAsyncFlush(VersionTag tag, InternalRegion region) {
@@ -1436,21 +1481,24 @@ public interface DiskEntry extends RegionEntry {
     /**
      * Flush an entry that was previously scheduled to be written to disk.
      *
+     * @param deltaBytes The delta of the update that scheduled the write, or null if it had none
      * @since GemFire prPersistSprint1
      */
-    public static void doAsyncFlush(DiskEntry entry, InternalRegion region, VersionTag tag) {
-      writeEntryToDisk(entry, region, tag, false);
+    public static void doAsyncFlush(DiskEntry entry, InternalRegion region, VersionTag tag,
+        byte[] deltaBytes) {
+      writeEntryToDisk(entry, region, tag, deltaBytes, false);
     }
 
     /**
      * Does a synchronous write to disk for a region that uses async. This method is used by both
      * doAsyncFlush and handleFullAsyncQueue to fix GEODE-1700.
      *
+     * @param deltaBytes The delta of the update that scheduled the write, or null if it had none
      * @param asyncQueueWasFull true if caller wanted to put this entry in the queue but could not
      *        do so because it was full
      */
     private static void writeEntryToDisk(DiskEntry entry, InternalRegion region, VersionTag tag,
-        boolean asyncQueueWasFull) {
+        byte[] deltaBytes, boolean asyncQueueWasFull) {
       if (region.isThisRegionBeingClosedOrDestroyed())
         return;
       DiskRegion dr = region.getDiskRegion();
@@ -1485,7 +1533,12 @@ public interface DiskEntry extends RegionEntry {
                       && !dr.isBackup()) {
                     // no need to write invalid or tombstones to disk if overflow only
                   } else if (entryVal != null) {
-                    writeToDisk(entry, region, true);
+                    ValueWrapper vw = createValueWrapperFromEntry(entry, region, null);
+                    if (hasVersion(entry, tag)) {
+                      // no later update was queued, so the delta leads to the value written
+                      vw = withDelta(vw, deltaBytes);
+                    }
+                    writeBytesToDisk(entry, region, true, vw);
                     assert !dr.isSync();
                     // Only setValue to null if this was an evict.
                     // We could just be a backup that is writing async.
@@ -1537,6 +1590,15 @@ public interface DiskEntry extends RegionEntry {
       } // sync entry
     }
 
+    /**
+     * Returns true if the entry still has the version of the tag
+     */
+    private static boolean hasVersion(DiskEntry entry, VersionTag tag) {
+      VersionStamp stamp = entry.getVersionStamp();
+      return tag != null && stamp != null && stamp.getMemberID() == tag.getMemberID()
+          && stamp.getRegionVersion() == tag.getRegionVersion();
+    }
+
     /**
      * Removes the key/value pair in the given entry from disk
      *
@@ -501,6 +501,15 @@ public class GetMessage extends PartitionMessageWithDirectReply {
       this.key = key;
     }
 
+    /**
+     * The thread that sends the get waits for its reply in {@link #waitForResponse} before it can
+     * send another one
+     */
+    @Override
+    protected boolean usePooledProcessorId() {
+      return true;
+    }
+
     @Override
     public void process(DistributionMessage msg) {
       if (DistributionStats.enableClockStats) {
@@ -17,6 +17,7 @@
 package org.apache.geode.internal.logging;
 
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.MINUTES;
 import static java.util.concurrent.TimeUnit.SECONDS;
 
 import java.util.concurrent.ArrayBlockingQueue;
@@ -140,6 +141,22 @@ public class LoggingExecutors {
         threadsMonitoring);
   }
 
+  /**
+   * Creates a pool that runs each task on a virtual thread as soon as it is submitted, so tasks
+   * that block never wait for a free thread. Idle threads are kept for a minute and reused, which
+   * keeps the threadInitializer and commandWrapper invoked once per thread like in the other pools.
+   *
+   * @see VirtualThreadFactory#isSupported() which must be true
+   */
+  public static ExecutorService newVirtualThreadPool(String threadName,
+      ThreadInitializer threadInitializer, CommandWrapper commandWrapper,
+      PoolStatHelper poolStats, ThreadsMonitoring threadsMonitoring) {
+    ThreadFactory threadFactory =
+        new VirtualThreadFactory(threadName, threadInitializer, commandWrapper);
+    return new PooledExecutorWithDMStats(new SynchronousQueue<>(), Integer.MAX_VALUE, poolStats,
+        threadFactory, (int) MINUTES.toMillis(1), threadsMonitoring);
+  }
+
   public static ExecutorService newThreadPoolWithSynchronousFeed(String threadName,
       CommandWrapper commandWrapper,
       int poolSize) {
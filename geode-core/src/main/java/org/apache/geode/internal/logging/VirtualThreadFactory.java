@@ -0,0 +1,161 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.logging;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.geode.annotations.Immutable;
+import org.apache.geode.internal.Assert;
+import org.apache.geode.internal.logging.LoggingThreadFactory.CommandWrapper;
+import org.apache.geode.internal.logging.LoggingThreadFactory.ThreadInitializer;
+
+/**
+ * Like {@link LoggingThreadFactory} but produces virtual threads. Virtual threads are always
+ * daemons. Geode only uses them on Java 24 and later, see {@link #isSupported()}; Geode still
+ * compiles for Java 8 so they are created through reflection.
+ */
+public class VirtualThreadFactory implements ThreadFactory {
+
+  @Immutable
+  private static final Method OF_VIRTUAL = findMethod(Thread.class, "ofVirtual");
+
+  @Immutable
+  private static final Method NAME = findMethod(findClass("java.lang.Thread$Builder"), "name",
+      String.class, long.class);
+
+  @Immutable
+  private static final Method FACTORY =
+      findMethod(findClass("java.lang.Thread$Builder"), "factory");
+
+  /**
+   * Before Java 24 a virtual thread that blocks inside a synchronized block pins the platform
+   * thread carrying it. Geode's message handlers do that all the time, so they could tie up every
+   * carrier and stall all virtual threads.
+   */
+  private static final int MIN_JAVA_VERSION = 24;
+
+  private static final boolean SUPPORTED =
+      javaVersion(System.getProperty("java.specification.version")) >= MIN_JAVA_VERSION
+          && checkSupported();
+
+  private final ThreadFactory virtualThreadFactory;
+  private final CommandWrapper commandWrapper;
+  private final ThreadInitializer threadInitializer;
+
+  /**
+   * Returns true if this JVM can create virtual threads that do not pin their carrier in
+   * synchronized blocks, that is on Java 24 and later
+   */
+  public static boolean isSupported() {
+    return SUPPORTED;
+  }
+
+  /**
+   * Create a factory that produces virtual threads that log uncaught exceptions
+   *
+   * @param baseName the base name will be included in every thread name
+   * @param threadInitializer if not null, will be invoked with the thread each time a thread is
+   *        created
+   * @param commandWrapper if not null, will be invoked by each thread created by this factory
+   * @see #isSupported() which must be true
+   */
+  public VirtualThreadFactory(String baseName, ThreadInitializer threadInitializer,
+      CommandWrapper commandWrapper) {
+    Assert.assertTrue(isSupported(), "virtual threads are not supported by this JVM");
+    try {
+      Object builder = OF_VIRTUAL.invoke(null);
+      builder = NAME.invoke(builder, baseName, 1L);
+      this.virtualThreadFactory = (ThreadFactory) FACTORY.invoke(builder);
+    } catch (IllegalAccessException | InvocationTargetException ex) {
+      // isSupported() already created a builder, so this does not happen
+      throw new IllegalStateException(ex);
+    }
+    this.threadInitializer = threadInitializer;
+    this.commandWrapper = commandWrapper;
+  }
+
+  @Override
+  public Thread newThread(Runnable runnable) {
+    Runnable commandToRun;
+    if (commandWrapper != null) {
+      commandToRun = () -> commandWrapper.invoke(runnable);
+    } else {
+      commandToRun = runnable;
+    }
+    Thread thread = virtualThreadFactory.newThread(commandToRun);
+    LoggingUncaughtExceptionHandler.setOnThread(thread);
+    if (threadInitializer != null) {
+      threadInitializer.initialize(thread);
+    }
+    return thread;
+  }
+
+  /**
+   * Java 19 and 20 have the methods but throw unless preview features are enabled
+   */
+  private static boolean checkSupported() {
+    if (OF_VIRTUAL == null || NAME == null || FACTORY == null) {
+      return false;
+    }
+    try {
+      OF_VIRTUAL.invoke(null);
+      return true;
+    } catch (IllegalAccessException | InvocationTargetException ex) {
+      return false;
+    }
+  }
+
+  /**
+   * @param specificationVersion a java.specification.version such as "1.8" or "24"
+   * @return the major Java version, or 0 if it cannot be parsed
+   */
+  static int javaVersion(String specificationVersion) {
+    if (specificationVersion == null) {
+      return 0;
+    }
+    String version = specificationVersion.startsWith("1.") ? specificationVersion.substring(2)
+        : specificationVersion;
+    int dot = version.indexOf('.');
+    if (dot >= 0) {
+      version = version.substring(0, dot);
+    }
+    try {
+      return Integer.parseInt(version);
+    } catch (NumberFormatException ex) {
+      return 0;
+    }
+  }
+
+  private static Class<?> findClass(String name) {
+    try {
+      return Class.forName(name);
+    } catch (ClassNotFoundException ex) {
+      return null;
+    }
+  }
+
+  private static Method findMethod(Class<?> type, String name, Class<?>... parameterTypes) {
+    if (type == null) {
+      return null;
+    }
+    try {
+      return type.getMethod(name, parameterTypes);
+    } catch (NoSuchMethodException ex) {
+      return null;
+    }
+  }
+}
@@ -14,14 +14,29 @@
  */
 package org.apache.geode.internal.net;
 
-import java.lang.ref.SoftReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.nio.ByteBuffer;
-import java.util.IdentityHashMap;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
+import org.apache.geode.annotations.Immutable;
 import org.apache.geode.distributed.internal.DMStats;
-import org.apache.geode.internal.Assert;
 
+/**
+ * Pools the direct buffers used for reading and writing sockets.
+ * <p>
+ * Buffers come in size classes, powers of two and halfway between them, so a released buffer
+ * can be reused by any request of its class without searching. Each thread caches one released
+ * buffer of every class, and the rest are kept in lock-free queues per class. The pool keeps at
+ * most {@link #MAX_POOLED_BYTES} of idle buffers and drops the buffers released beyond that, so
+ * the garbage collector can free them. Buffers larger than the largest class are not pooled.
+ */
 public class BufferPool {
   private final DMStats stats;
 
@@ -36,15 +51,91 @@ public class BufferPool {
   }
 
 
+  /**
+   * The most bytes of idle direct buffers the pool keeps. Default is 256 megabytes.
+   */
+  static final long MAX_POOLED_BYTES = Long.getLong("p2p.bufferPoolMaxBytes", 256L * 1024 * 1024);
+
+  private static final int MIN_SIZE_CLASS_SHIFT = 10;
+
+  private static final int MAX_SIZE_CLASS_SHIFT = 24;
+
+  /**
+   * The capacities of the pooled buffers, from 1 kilobyte to 16 megabytes
+   */
+  @Immutable
+  private static final int[] SIZE_CLASSES = createSizeClasses();
+
+  private final long maxPooledBytes;
+
+  /**
+   * Idle buffers of each size class
+   */
+  private final ConcurrentLinkedQueue<ByteBuffer>[] freeBuffers;
+
+  private final AtomicLong pooledBytes = new AtomicLong();
+
+  private final ThreadLocal<AtomicReferenceArray<ByteBuffer>> threadCache =
+      ThreadLocal.withInitial(this::createThreadCache);
+
+  /**
+   * The caches of the threads that used this pool, so that the buffers cached by a thread that
+   * died can be reused by others
+   */
+  private final Map<Reference<Thread>, AtomicReferenceArray<ByteBuffer>> threadCaches =
+      new ConcurrentHashMap<>();
+
+  private final ReferenceQueue<Thread> deadThreads = new ReferenceQueue<>();
+
+  private volatile boolean closed;
+
   public BufferPool(DMStats stats) {
+    this(stats, MAX_POOLED_BYTES);
+  }
+
+  @SuppressWarnings("unchecked")
+  BufferPool(DMStats stats, long maxPooledBytes) {
     this.stats = stats;
+    this.maxPooledBytes = maxPooledBytes;
+    this.freeBuffers = new ConcurrentLinkedQueue[SIZE_CLASSES.length];
+    for (int i = 0; i < SIZE_CLASSES.length; i++) {
+      this.freeBuffers[i] = new ConcurrentLinkedQueue<>();
+    }
+  }
+
+  private static int[] createSizeClasses() {
+    int[] sizeClasses = new int[2 * (MAX_SIZE_CLASS_SHIFT - MIN_SIZE_CLASS_SHIFT) + 1];
+    for (int shift = MIN_SIZE_CLASS_SHIFT, i = 0; shift <= MAX_SIZE_CLASS_SHIFT; shift++) {
+      sizeClasses[i++] = 1 << shift;
+      if (shift < MAX_SIZE_CLASS_SHIFT) {
+        sizeClasses[i++] = 3 << (shift - 1);
+      }
+    }
+    return sizeClasses;
   }
 
   /**
-   * A list of soft references to byte buffers.
+   * Returns the smallest size class that holds the given number of bytes, or -1 if the buffer is
+   * too large to be pooled
    */
-  private final ConcurrentLinkedQueue<BBSoftReference> bufferQueue =
-      new ConcurrentLinkedQueue<>();
+  static int sizeClassOf(int size) {
+    int index = Arrays.binarySearch(SIZE_CLASSES, size);
+    if (index >= 0) {
+      return index;
+    }
+    index = -index - 1;
+    return index < SIZE_CLASSES.length ? index : -1;
+  }
+
+  static int getSizeClassCapacity(int sizeClass) {
+    return SIZE_CLASSES[sizeClass];
+  }
+
+  private AtomicReferenceArray<ByteBuffer> createThreadCache() {
+    AtomicReferenceArray<ByteBuffer> cache = new AtomicReferenceArray<>(SIZE_CLASSES.length);
+    this.threadCaches.put(new WeakReference<>(Thread.currentThread(), this.deadThreads), cache);
+    return cache;
+  }
 
   /**
    * use direct ByteBuffers instead of heap ByteBuffers for NIO operations
@@ -67,49 +158,33 @@ public class BufferPool {
   private ByteBuffer acquireBuffer(int size, boolean send) {
     ByteBuffer result;
     if (useDirectBuffers) {
-      IdentityHashMap<BBSoftReference, BBSoftReference> alreadySeen = null; // keys are used like a
-                                                                            // set
-      BBSoftReference ref = bufferQueue.poll();
-      while (ref != null) {
-        ByteBuffer bb = ref.getBB();
-        if (bb == null) {
-          // it was garbage collected
-          int refSize = ref.consumeSize();
-          if (refSize > 0) {
-            if (ref.getSend()) { // fix bug 46773
-              stats.incSenderBufferSize(-refSize, true);
-            } else {
-              stats.incReceiverBufferSize(-refSize, true);
-            }
-          }
-        } else if (bb.capacity() >= size) {
-          bb.rewind();
-          bb.limit(size);
-          return bb;
-        } else {
-          // wasn't big enough so put it back in the queue
-          Assert.assertTrue(bufferQueue.offer(ref));
-          if (alreadySeen == null) {
-            alreadySeen = new IdentityHashMap<>();
-          }
-          if (alreadySeen.put(ref, ref) != null) {
-            // if it returns non-null then we have already seen this item
-            // so we have worked all the way through the queue once.
-            // So it is time to give up and allocate a new buffer.
-            break;
-          }
+      int sizeClass = sizeClassOf(size);
+      result = null;
+      if (sizeClass >= 0) {
+        result = this.threadCache.get().getAndSet(sizeClass, null);
+        if (result == null) {
+          result = this.freeBuffers[sizeClass].poll();
         }
-        ref = bufferQueue.poll();
       }
-      result = ByteBuffer.allocateDirect(size);
+      if (result != null) {
+        this.pooledBytes.addAndGet(-result.capacity());
+        stats.incBufferPoolBytes(-result.capacity());
+        stats.incBufferPoolHits();
+      } else {
+        reclaimDeadThreadCaches();
+        stats.incBufferPoolMisses();
+        result = ByteBuffer.allocateDirect(sizeClass >= 0 ? SIZE_CLASSES[sizeClass] : size);
+      }
+      result.clear();
+      result.limit(size);
     } else {
       // if we are using heap buffers then don't bother with keeping them around
       result = ByteBuffer.allocate(size);
     }
     if (send) {
-      stats.incSenderBufferSize(size, useDirectBuffers);
+      stats.incSenderBufferSize(result.capacity(), useDirectBuffers);
     } else {
-      stats.incReceiverBufferSize(size, useDirectBuffers);
+      stats.incReceiverBufferSize(result.capacity(), useDirectBuffers);
     }
     return result;
   }
@@ -189,50 +264,81 @@ public class BufferPool {
    * Releases a previously acquired buffer.
    */
   private void releaseBuffer(ByteBuffer bb, boolean send) {
-    if (useDirectBuffers) {
-      BBSoftReference bbRef = new BBSoftReference(bb, send);
-      bufferQueue.offer(bbRef);
+    if (send) {
+      stats.incSenderBufferSize(-bb.capacity(), bb.isDirect());
     } else {
-      if (send) {
-        stats.incSenderBufferSize(-bb.capacity(), false);
-      } else {
-        stats.incReceiverBufferSize(-bb.capacity(), false);
-      }
+      stats.incReceiverBufferSize(-bb.capacity(), bb.isDirect());
+    }
+    if (!bb.isDirect() || this.closed) {
+      return;
+    }
+    int sizeClass = Arrays.binarySearch(SIZE_CLASSES, bb.capacity());
+    if (sizeClass < 0) {
+      // not pooled
+      return;
+    }
+    if (this.pooledBytes.addAndGet(bb.capacity()) > this.maxPooledBytes) {
+      // the pool is full, so let the garbage collector free the buffer
+      this.pooledBytes.addAndGet(-bb.capacity());
+      return;
+    }
+    stats.incBufferPoolBytes(bb.capacity());
+    if (!this.threadCache.get().compareAndSet(sizeClass, null, bb)) {
+      this.freeBuffers[sizeClass].offer(bb);
     }
   }
 
   /**
-   * A soft reference that remembers the size of the byte buffer it refers to. TODO Dan - I really
-   * think this should be a weak reference. The JVM doesn't seem to clear soft references if it is
-   * getting low on direct memory.
+   * Moves the cached buffers of threads that died to the queues of idle buffers
    */
-  private static class BBSoftReference extends SoftReference<ByteBuffer> {
-    private int size;
-    private final boolean send;
-
-    BBSoftReference(ByteBuffer bb, boolean send) {
-      super(bb);
-      this.size = bb.capacity();
-      this.send = send;
+  private void reclaimDeadThreadCaches() {
+    Reference<? extends Thread> deadThread;
+    while ((deadThread = this.deadThreads.poll()) != null) {
+      AtomicReferenceArray<ByteBuffer> cache = this.threadCaches.remove(deadThread);
+      if (cache != null) {
+        for (int i = 0; i < cache.length(); i++) {
+          ByteBuffer bb = cache.getAndSet(i, null);
+          if (bb != null) {
+            this.freeBuffers[i].offer(bb);
+          }
+        }
+      }
     }
+  }
 
-    public int getSize() {
-      return this.size;
+  private void drop(AtomicReferenceArray<ByteBuffer> cache) {
+    for (int i = 0; i < cache.length(); i++) {
+      ByteBuffer bb = cache.getAndSet(i, null);
+      if (bb != null) {
+        dropPooled(bb);
+      }
     }
+  }
 
-    synchronized int consumeSize() {
-      int result = this.size;
-      this.size = 0;
-      return result;
-    }
+  private void dropPooled(ByteBuffer bb) {
+    this.pooledBytes.addAndGet(-bb.capacity());
+    stats.incBufferPoolBytes(-bb.capacity());
+  }
 
-    public boolean getSend() {
-      return this.send;
+  /**
+   * Drops all idle buffers so the garbage collector can free them. Buffers released after this
+   * are not pooled.
+   */
+  public void close() {
+    this.closed = true;
+    for (ConcurrentLinkedQueue<ByteBuffer> buffers : this.freeBuffers) {
+      ByteBuffer bb;
+      while ((bb = buffers.poll()) != null) {
+        dropPooled(bb);
+      }
     }
-
-    public ByteBuffer getBB() {
-      return super.get();
+    for (AtomicReferenceArray<ByteBuffer> cache : this.threadCaches.values()) {
+      drop(cache);
     }
+    this.threadCaches.clear();
   }
 
+  long getPooledBytes() {
+    return this.pooledBytes.get();
+  }
 }
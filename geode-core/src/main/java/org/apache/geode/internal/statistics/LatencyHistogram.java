@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.statistics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A histogram of latencies in the style of HdrHistogram. Values are counted in buckets that double
+ * in width with every power of two and are each split into {@link #SUB_BUCKETS} linear
+ * sub-buckets. Percentiles are therefore reported within about 3% of the recorded values, while
+ * the histogram stays a fixed array of counters that is updated without locking.
+ * <p>
+ * Averages hide the outliers that matter for latency, so a histogram is kept next to the counters
+ * and total times of a statistics instance where the tail is worth knowing.
+ * <p>
+ * Like those counters, a histogram is cumulative: it never drops a recorded value, so its
+ * percentiles describe every latency since it was created rather than a recent interval.
+ */
+public class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 5;
+
+  static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  /**
+   * Enough buckets for every non negative long
+   */
+  private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+  private final LongAdder count = new LongAdder();
+
+  private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+  /**
+   * Records a latency, negative values are recorded as 0
+   */
+  public void record(long value) {
+    long recorded = Math.max(value, 0);
+    this.counts.incrementAndGet(indexOf(recorded));
+    this.count.increment();
+    this.max.accumulate(recorded);
+  }
+
+  /**
+   * Returns the number of values recorded
+   */
+  public long getCount() {
+    return this.count.sum();
+  }
+
+  /**
+   * Returns the largest value recorded, or 0 if none was
+   */
+  public long getMax() {
+    return this.max.get();
+  }
+
+  /**
+   * Returns the value that the given percentage of the recorded values are less than or equal to,
+   * or 0 if no value was recorded
+   *
+   * @param percentile A percentage between 0 and 100
+   */
+  public long getValueAtPercentile(double percentile) {
+    long total = 0;
+    long[] snapshot = new long[BUCKETS];
+    for (int i = 0; i < BUCKETS; i++) {
+      snapshot[i] = this.counts.get(i);
+      total += snapshot[i];
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(Math.min(percentile, 100.0) / 100.0 * total));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += snapshot[i];
+      if (seen >= rank) {
+        return Math.min(highestValueOf(i), getMax());
+      }
+    }
+    return getMax();
+  }
+
+  static int indexOf(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return (shift + 1) * SUB_BUCKETS + (int) ((value >>> shift) - SUB_BUCKETS);
+  }
+
+  /**
+   * Returns the largest value counted in the bucket with the given index
+   */
+  static long highestValueOf(int index) {
+    if (index < SUB_BUCKETS) {
+      return index;
+    }
+    int shift = index / SUB_BUCKETS - 1;
+    long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+}
@@ -27,6 +27,8 @@ import java.nio.ByteBuffer;
 import java.nio.channels.CancelledKeyException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
 import java.nio.channels.SocketChannel;
 import java.util.Collections;
 import java.util.HashMap;
@@ -35,6 +37,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -321,6 +324,32 @@ public class Connection implements Runnable {
   /** whether the reader thread is, or should be, running */
   volatile boolean stopped = true;
 
+  /**
+   * The reader that watches the socket of this receiver once its handshake has been read, or null
+   * if this connection keeps its reader thread
+   */
+  private SelectorReader selectorReader;
+
+  /**
+   * true once this receiver has been handed to its {@link #selectorReader}. From then on its
+   * channel stays non-blocking, see {@link #awaitWritable}.
+   */
+  private volatile boolean selected;
+
+  /**
+   * Waits for the non-blocking channel of a selected receiver to accept more bytes. Opened by the
+   * first write that finds the socket buffer full.
+   */
+  private Selector writeSelector;
+
+  /** true once the {@link #writeSelector} was closed, protected by writeSelectorLock */
+  private boolean writeSelectorClosed;
+
+  private final Object writeSelectorLock = new Object();
+
+  /** the domino count read in the handshake of a receiver */
+  private int dominoNumber;
+
   /** set to true once a close begins */
   private final AtomicBoolean closing = new AtomicBoolean(false);
 
@@ -508,6 +537,7 @@ public class Connection implements Runnable {
           "Null ConnectionTable");
     }
     this.conduit = t.getConduit();
+    this.writeCoalescer = createWriteCoalescer();
     this.isReceiver = true;
     this.owner = t;
     this.socket = socket;
@@ -1100,6 +1130,7 @@ public class Connection implements Runnable {
           "ConnectionTable is null.");
     }
     this.conduit = t.getConduit();
+    this.writeCoalescer = createWriteCoalescer();
     this.isReceiver = false;
     this.owner = t;
     this.sharedResource = sharedResource;
@@ -1193,6 +1224,23 @@ public class Connection implements Runnable {
       Integer.getInteger("p2p.batchBufferSize", 1024 * 1024);
   private static final int BATCH_FLUSH_MS = Integer.getInteger("p2p.batchFlushTime", 50);
   private final Object batchLock = new Object();
+
+  /**
+   * If true then the messages that threads send on a connection at the same time are written with
+   * gathering writes, instead of one write each. Connections that use SSL or that can queue
+   * messages for a slow receiver write each message by itself.
+   */
+  static final boolean COALESCE_WRITES = Boolean.getBoolean("p2p.coalesceWrites");
+  /** the maximum number of bytes in one coalesced write */
+  private static final int COALESCE_MAX_BYTES =
+      Integer.getInteger("p2p.coalesceMaxBytes", 256 * 1024);
+  /**
+   * How long, in microseconds, a coalesced write waits for more messages when the connection is
+   * busy
+   */
+  private static final int COALESCE_WINDOW_MICROS =
+      Integer.getInteger("p2p.coalesceWindowMicros", 50);
+  private final WriteCoalescer writeCoalescer;
   private ByteBuffer fillBatchBuffer;
   private ByteBuffer sendBatchBuffer;
   private BatchBufferFlusher batchFlusher;
@@ -1327,6 +1375,43 @@ public class Connection implements Runnable {
     }
   }
 
+  private WriteCoalescer createWriteCoalescer() {
+    if (!COALESCE_WRITES || this.conduit.useSSL()) {
+      return null;
+    }
+    return new WriteCoalescer(this::writeGathering, COALESCE_MAX_BYTES,
+        TimeUnit.MICROSECONDS.toNanos(COALESCE_WINDOW_MICROS), this.conduit.getStats());
+  }
+
+  /**
+   * Writes the buffers of a {@link WriteCoalescer} with as few gathering writes as possible
+   */
+  private void writeGathering(ByteBuffer[] buffers, int length) throws IOException {
+    final DMStats stats = this.owner.getConduit().getStats();
+    SocketChannel channel = getSocket().getChannel();
+    long startLock = stats.startSocketLock();
+    synchronized (this.outLock) {
+      stats.endSocketLock(startLock);
+      int offset = 0;
+      while (offset < length) {
+        long amtWritten = 0;
+        long start = stats.startSocketWrite(true);
+        try {
+          amtWritten = channel.write(buffers, offset, length - offset);
+        } finally {
+          stats.endSocketWrite(true, start, (int) amtWritten, 0);
+        }
+        if (amtWritten == 0) {
+          // the non-blocking channel of a selected receiver is full
+          awaitWritable(channel);
+        }
+        while (offset < length && !buffers[offset].hasRemaining()) {
+          offset++;
+        }
+      }
+    }
+  }
+
   private void closeBatchBuffer() {
     if (this.batchFlusher != null) {
       this.batchFlusher.close();
@@ -1461,6 +1546,10 @@ public class Connection implements Runnable {
       // synchronized block to fix bug #42159
       // Make sure anyone waiting for a handshake stops waiting
       notifyHandshakeWaiter(false);
+      if (this.selected) {
+        // a parked receiver has no reader thread to notice the close
+        this.selectorReader.closed(this);
+      }
       // wait a bit for the our reader thread to exit
       // don't wait if we are the reader thread
       boolean isIBM = false;
@@ -1573,37 +1662,85 @@ public class Connection implements Runnable {
     this.readerThread.setName(p2pReaderName());
     ConnectionTable.threadWantsSharedResources();
     makeReaderThread(this.isReceiver);
+    if (this.isReceiver && !getConduit().useSSL()) {
+      this.selectorReader = this.owner.getSelectorReader();
+    }
+    boolean parked = false;
     try {
-      readMessages();
+      parked = readMessages();
     } finally {
-      // bug36060: do the socket close within a finally block
-      if (logger.isDebugEnabled()) {
-        logger.debug("Stopping {} for {}", p2pReaderName(), remoteAddr);
+      if (parked) {
+        park();
+      } else {
+        readerStopped();
       }
-      if (this.isReceiver) {
-        try {
-          initiateSuspicionIfSharedUnordered();
-        } catch (CancelException e) {
-          // shutting down
-        }
-        if (!this.sharedResource) {
-          this.conduit.getStats().incThreadOwnedReceivers(-1L, dominoCount.get());
-        }
-        asyncClose(false);
-        this.owner.removeAndCloseThreadOwnedSockets();
+      Thread.currentThread().setName("unused p2p reader");
+    }
+  }
+
+  /**
+   * Reads this receiver on a worker thread of its {@link SelectorReader}, which saw bytes on the
+   * socket or saw the connection close
+   */
+  void readSelected() {
+    this.readerThread = Thread.currentThread();
+    ConnectionTable.threadWantsSharedResources();
+    makeReaderThread(true);
+    boolean parked = false;
+    try {
+      parked = readMessages(this.socket.getChannel(), false);
+    } finally {
+      if (parked) {
+        park();
+      } else {
+        readerStopped();
       }
-      releaseInputBuffer();
+      // an interrupt meant for this connection must not close the next one read by this thread
+      Thread.interrupted();
+    }
+  }
 
-      // make sure that if the reader thread exits we notify a thread waiting
-      // for the handshake.
-      // see bug 37524 for an example of listeners hung in waitForHandshake
-      notifyHandshakeWaiter(false);
-      this.readerThread.setName("unused p2p reader");
-      synchronized (this.stateLock) {
-        this.isRunning = false;
-        this.readerThread = null;
+  /**
+   * Hands this receiver to its {@link SelectorReader} until its socket has bytes to read
+   */
+  private void park() {
+    synchronized (this.stateLock) {
+      this.readerThread = null;
+    }
+    this.selectorReader.register(this);
+  }
+
+  /**
+   * Cleans up once this connection will not be read anymore
+   */
+  void readerStopped() {
+    // bug36060: do the socket close within a finally block
+    if (logger.isDebugEnabled()) {
+      logger.debug("Stopping {} for {}", p2pReaderName(), remoteAddr);
+    }
+    if (this.isReceiver) {
+      try {
+        initiateSuspicionIfSharedUnordered();
+      } catch (CancelException e) {
+        // shutting down
+      }
+      if (!this.sharedResource) {
+        this.conduit.getStats().incThreadOwnedReceivers(-1L, this.dominoNumber);
       }
-    } // finally
+      asyncClose(false);
+      this.owner.removeAndCloseThreadOwnedSockets();
+      closeWriteSelector();
+    }
+    releaseInputBuffer();
+
+    // make sure that if the reader thread exits we notify a thread waiting
+    // for the handshake.
+    // see bug 37524 for an example of listeners hung in waitForHandshake
+    notifyHandshakeWaiter(false);
+    synchronized (this.stateLock) {
+      this.isRunning = false;
+      this.readerThread = null;
+    }
   }
 
   private void releaseInputBuffer() {
@@ -1635,7 +1772,10 @@ public class Connection implements Runnable {
     return sb.toString();
   }
 
-  private void readMessages() {
+  /**
+   * @return true if this receiver should be handed to its {@link SelectorReader}
+   */
+  private boolean readMessages() {
     // take a snapshot of uniqueId to detect reconnect attempts; see bug 37592
     SocketChannel channel;
     try {
@@ -1654,7 +1794,7 @@ public class Connection implements Runnable {
             "readMessages caught closed channel");
       } catch (Exception ignore) {
       }
-      return; // exit loop and thread
+      return false; // exit loop and thread
     } catch (IOException ex) {
       if (stopped || owner.getConduit().getCancelCriterion().isCancelInProgress()) {
         try {
@@ -1662,7 +1802,7 @@ public class Connection implements Runnable {
               "readMessages caught shutdown");
         } catch (Exception ignore) {
         }
-        return; // bug37520: exit loop (and thread)
+        return false; // bug37520: exit loop (and thread)
       }
       logger.info("Failed initializing socket for message {}: {}",
           (this.isReceiver ? "receiver" : "sender"), ex.getMessage());
@@ -1672,7 +1812,7 @@ public class Connection implements Runnable {
             ex));
       } catch (Exception ignore) {
       }
-      return;
+      return false;
     }
 
     if (!stopped) {
@@ -1681,12 +1821,21 @@ public class Connection implements Runnable {
         logger.debug("Starting {} on {}", p2pReaderName(), socket);
       }
     }
+    // if we're using SSL/TLS the input buffer may already have data to process
+    return readMessages(channel, getInputBuffer().position() > 0);
+  }
+
+  /**
+   * Reads and processes messages until the connection closes or, once this receiver has been
+   * handed to its {@link SelectorReader}, until the socket has no more bytes.
+   *
+   * @return true if this receiver should be handed to its {@link SelectorReader}
+   */
+  private boolean readMessages(SocketChannel channel, boolean skipInitialRead) {
     // we should not change the state of the connection if we are a handshake reader thread
     // as there is a race between this thread and the application thread doing direct ack
     // fix for #40869
     boolean isHandShakeReader = false;
-    // if we're using SSL/TLS the input buffer may already have data to process
-    boolean skipInitialRead = getInputBuffer().position() > 0;
     boolean isInitialRead = true;
     try {
       for (;;) {
@@ -1730,6 +1879,9 @@ public class Connection implements Runnable {
             connectionState = STATE_IDLE;
           }
           if (amountRead == 0) {
+            if (this.selected) {
+              return true;
+            }
             continue;
           }
           if (amountRead < 0) {
@@ -1739,7 +1891,7 @@ public class Connection implements Runnable {
             } catch (Exception e) {
               // ignore - shutting down
             }
-            return;
+            return false;
           }
 
           processInputBuffer();
@@ -1756,6 +1908,14 @@ public class Connection implements Runnable {
             // Once we have read the handshake the reader can go away
             break;
           }
+          if (this.selectorReader != null && this.handshakeRead && !this.selected) {
+            // from now on the selector reader finds a thread when there are bytes to read. The
+            // channel is made non-blocking here, once, and never by the selector thread, which
+            // would have to wait for a writer holding the channel's write lock.
+            channel.configureBlocking(false);
+            this.selected = true;
+            return true;
+          }
         } catch (CancelException e) {
           if (logger.isDebugEnabled()) {
             logger.debug("{} Terminated <{}> due to cancellation", p2pReaderName(), this, e);
@@ -1766,7 +1926,7 @@ public class Connection implements Runnable {
                 String.format("CacheClosed in channel read: %s", e));
           } catch (Exception ignored) {
           }
-          return;
+          return false;
         } catch (ClosedChannelException e) {
           this.readerShuttingDown = true;
           try {
@@ -1774,7 +1934,7 @@ public class Connection implements Runnable {
                 e));
           } catch (Exception ignored) {
           }
-          return;
+          return false;
         } catch (IOException e) {
           if (!isSocketClosed() && !"Socket closed".equalsIgnoreCase(e.getMessage()) // needed for
                                                                                      // Solaris jdk
@@ -1797,7 +1957,7 @@ public class Connection implements Runnable {
                 String.format("IOException in channel read: %s", e));
           } catch (Exception ignored) {
           }
-          return;
+          return false;
 
         } catch (Exception e) {
           this.owner.getConduit().getCancelCriterion().checkCancelInProgress(null); // bug 37101
@@ -1810,7 +1970,7 @@ public class Connection implements Runnable {
                 String.format("%s exception in channel read", e));
           } catch (Exception ignored) {
           }
-          return;
+          return false;
         }
       } // for
     } finally {
@@ -1824,6 +1984,7 @@ public class Connection implements Runnable {
             remoteAddr, isHandShakeReader);
       }
     }
+    return false;
   }
 
   private void createIoFilter(SocketChannel channel, boolean clientSocket) throws IOException {
@@ -2545,6 +2706,9 @@ public class Connection implements Runnable {
 
   private static final int MAX_WAIT_TIME = (1 << 5); // ms (must be a power of 2)
 
+  /** how long a write to a full socket of a selected receiver waits before it checks for close */
+  private static final long WRITE_SELECT_TIMEOUT = 100; // ms
+
   private void writeAsync(SocketChannel channel, ByteBuffer buffer, boolean forceAsync,
       DistributionMessage p_msg, final DMStats stats) throws IOException {
     DistributionMessage msg = p_msg;
@@ -2720,6 +2884,12 @@ public class Connection implements Runnable {
         }
         // fall through
       }
+      if (this.writeCoalescer != null
+          && (this.isReceiver || !this.preserveOrder || this.asyncDistributionTimeout == 0)) {
+        // this connection never queues messages, so they can be written together
+        this.writeCoalescer.write(buffer);
+        return;
+      }
       long startLock = stats.startSocketLock();
       synchronized (this.outLock) {
         stats.endSocketLock(startLock);
@@ -2738,6 +2908,9 @@ public class Connection implements Runnable {
           } finally {
             stats.endSocketWrite(true, start, amtWritten, 0);
           }
+          if (amtWritten == 0) {
+            awaitWritable(channel);
+          }
         }
 
       } // synchronized
@@ -2746,6 +2919,54 @@ public class Connection implements Runnable {
     }
   }
 
+  /**
+   * Waits until the socket buffer of a selected receiver has room again. Writes to the blocking
+   * channel of any other connection never write 0 bytes, so this returns at once for them.
+   *
+   * @throws ClosedChannelException if the connection was closed while waiting
+   */
+  private void awaitWritable(SocketChannel channel) throws IOException {
+    if (channel.isBlocking()) {
+      return;
+    }
+    Selector selector;
+    synchronized (this.writeSelectorLock) {
+      if (this.writeSelectorClosed) {
+        throw new ClosedChannelException();
+      }
+      if (this.writeSelector == null) {
+        this.writeSelector = Selector.open();
+        channel.register(this.writeSelector, SelectionKey.OP_WRITE);
+      }
+      selector = this.writeSelector;
+    }
+    try {
+      // wake up now and then to notice a close that did not close the selector
+      selector.select(WRITE_SELECT_TIMEOUT);
+      selector.selectedKeys().clear();
+    } catch (ClosedSelectorException e) {
+      throw new ClosedChannelException();
+    }
+    this.owner.getConduit().getCancelCriterion().checkCancelInProgress(null);
+    if (isSocketClosed()) {
+      throw new ClosedChannelException();
+    }
+  }
+
+  private void closeWriteSelector() {
+    synchronized (this.writeSelectorLock) {
+      this.writeSelectorClosed = true;
+      if (this.writeSelector != null) {
+        try {
+          this.writeSelector.close();
+        } catch (IOException ignore) {
+          // nothing more to close
+        }
+        this.writeSelector = null;
+      }
+    }
+  }
+
   /** gets the buffer for receiving message length bytes */
   private ByteBuffer getInputBuffer() {
     if (inputBuffer == null) {
@@ -2995,6 +3216,7 @@ public class Connection implements Runnable {
           dominoNumber = 0;
         }
         dominoCount.set(dominoNumber);
+        this.dominoNumber = dominoNumber;
         // this.senderName = dis.readUTF();
       }
       if (!this.sharedResource) {
@@ -3413,6 +3635,10 @@ public class Connection implements Runnable {
     return result;
   }
 
+  SocketChannel getSocketChannel() {
+    return this.socket.getChannel();
+  }
+
   boolean isSocketClosed() {
     return this.socket.isClosed() || !this.socket.isConnected();
   }
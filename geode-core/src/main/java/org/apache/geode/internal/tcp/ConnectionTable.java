@@ -30,6 +30,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.logging.log4j.Logger;
@@ -143,6 +144,26 @@ public class ConnectionTable {
   private static final long READER_POOL_KEEP_ALIVE_TIME =
       Long.getLong("p2p.READER_POOL_KEEP_ALIVE_TIME", 120).longValue();
 
+  /**
+   * Number of threads that watch the sockets of receiving connections for bytes to read. A
+   * receiver then only has a reader thread while it is reading messages, instead of one for as
+   * long as it is open. Receivers that use SSL always have their own reader thread. Default is 0,
+   * which gives every receiver its own reader thread.
+   */
+  static final int SELECTOR_READERS = Integer.getInteger("p2p.selectorReaders", 0);
+
+  /**
+   * Readers that watch the sockets of receivers, empty unless {@link #SELECTOR_READERS} is set
+   */
+  private final SelectorReader[] selectorReaders;
+
+  private final AtomicInteger nextSelectorReader = new AtomicInteger();
+
+  /**
+   * Executor of the threads that read receivers when their {@link SelectorReader} sees bytes
+   */
+  private final ExecutorService selectorWorkerThreadPool;
+
   private final SocketCloser socketCloser;
 
   /**
@@ -201,6 +222,18 @@ public class ConnectionTable {
     this.threadConnMaps = new ArrayList();
     this.threadConnectionMap = new ConcurrentHashMap();
     this.p2pReaderThreadPool = createThreadPoolForIO(conduit.getDM().getSystem().isShareSockets());
+    this.selectorReaders = new SelectorReader[SELECTOR_READERS];
+    if (SELECTOR_READERS > 0) {
+      this.selectorWorkerThreadPool = LoggingExecutors.newThreadPoolWithSynchronousFeed(
+          "P2PSelectorWorker", 1, Integer.MAX_VALUE, READER_POOL_KEEP_ALIVE_TIME);
+      for (int i = 0; i < SELECTOR_READERS; i++) {
+        this.selectorReaders[i] =
+            new SelectorReader("P2P selector reader " + i, this.selectorWorkerThreadPool);
+        this.selectorReaders[i].start();
+      }
+    } else {
+      this.selectorWorkerThreadPool = null;
+    }
     this.socketCloser = new SocketCloser();
     this.bufferPool = new BufferPool(owner.getStats());
   }
@@ -709,6 +742,12 @@ public class ConnectionTable {
       }
     }
     closeReceivers(false);
+    for (SelectorReader selectorReader : this.selectorReaders) {
+      selectorReader.close();
+    }
+    if (this.selectorWorkerThreadPool != null) {
+      this.selectorWorkerThreadPool.shutdown();
+    }
 
     Map m = (Map) this.threadOrderedConnMap.get();
     if (m != null) {
@@ -717,6 +756,19 @@ public class ConnectionTable {
       }
     }
     this.socketCloser.close();
+    this.bufferPool.close();
+  }
+
+  /**
+   * Returns the reader that should watch the socket of a new receiver, or null if receivers have
+   * their own reader thread
+   */
+  SelectorReader getSelectorReader() {
+    if (this.selectorReaders.length == 0) {
+      return null;
+    }
+    return this.selectorReaders[Math.floorMod(this.nextSelectorReader.getAndIncrement(),
+        this.selectorReaders.length)];
   }
 
   public void executeCommand(Runnable runnable) {
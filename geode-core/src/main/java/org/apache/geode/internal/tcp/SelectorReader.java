@@ -0,0 +1,201 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.tcp;
+
+import java.io.IOException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.IllegalBlockingModeException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.apache.logging.log4j.Logger;
+
+import org.apache.geode.SystemFailure;
+import org.apache.geode.internal.logging.LogService;
+import org.apache.geode.internal.logging.LoggingThread;
+
+/**
+ * Watches the sockets of many receiving {@link Connection}s with one thread, see
+ * {@link ConnectionTable#SELECTOR_READERS}.
+ * <p>
+ * A connection whose socket has no bytes to read is parked in this reader's {@link Selector}.
+ * When bytes arrive the connection is taken out of the selector and handed to a worker thread,
+ * which reads and processes messages until the socket has no more bytes and then parks the
+ * connection again. Only one thread reads a connection at a time, so the messages a connection
+ * processes in its reader thread keep their order.
+ * <p>
+ * The channel of a parked connection is non-blocking for the rest of its life, so threads that
+ * write replies to it wait for it to become writable instead of blocking in the write.
+ */
+class SelectorReader implements Runnable {
+
+  private static final Logger logger = LogService.getLogger();
+
+  private final Selector selector;
+
+  private final Executor workers;
+
+  private final Thread thread;
+
+  /**
+   * Connections to park, added by the threads that read them
+   */
+  private final Queue<Connection> registrations = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Connections that were closed, possibly while parked
+   */
+  private final Queue<Connection> closedConnections = new ConcurrentLinkedQueue<>();
+
+  /**
+   * Connections parked in the selector. Only used by the selector thread.
+   */
+  private final Set<Connection> parked = new HashSet<>();
+
+  private volatile boolean stopped;
+
+  SelectorReader(String name, Executor workers) throws IOException {
+    this.selector = Selector.open();
+    this.workers = workers;
+    this.thread = new LoggingThread(name, this);
+  }
+
+  void start() {
+    this.thread.start();
+  }
+
+  /**
+   * Parks the given connection until its socket has bytes to read. The calling thread must not
+   * read the connection anymore.
+   */
+  void register(Connection connection) {
+    this.registrations.add(connection);
+    this.selector.wakeup();
+  }
+
+  /**
+   * Tells this reader that the given connection was closed. A parked connection is handed to a
+   * worker thread to finish reading it.
+   */
+  void closed(Connection connection) {
+    this.closedConnections.add(connection);
+    this.selector.wakeup();
+  }
+
+  void close() {
+    this.stopped = true;
+    this.selector.wakeup();
+  }
+
+  @Override
+  public void run() {
+    List<Connection> ready = new ArrayList<>();
+    try {
+      while (!this.stopped) {
+        SystemFailure.checkFailure();
+        this.selector.select();
+        for (Iterator<SelectionKey> it = this.selector.selectedKeys().iterator(); it
+            .hasNext();) {
+          SelectionKey key = it.next();
+          it.remove();
+          key.cancel();
+          Connection connection = (Connection) key.attachment();
+          this.parked.remove(connection);
+          ready.add(connection);
+        }
+        Connection connection;
+        while ((connection = this.closedConnections.poll()) != null) {
+          if (this.parked.remove(connection)) {
+            SelectionKey key = connection.getSocketChannel().keyFor(this.selector);
+            if (key != null) {
+              key.cancel();
+            }
+            ready.add(connection);
+          }
+        }
+        if (!ready.isEmpty()) {
+          // deregister the cancelled keys so the channels can be registered again when parked
+          this.selector.selectNow();
+          for (Connection readyConnection : ready) {
+            dispatch(readyConnection);
+          }
+          ready.clear();
+        }
+        while ((connection = this.registrations.poll()) != null) {
+          park(connection);
+        }
+      }
+    } catch (IOException e) {
+      if (!this.stopped) {
+        logger.fatal("P2P selector reader failed", e);
+      }
+    } finally {
+      for (Connection connection : this.parked) {
+        connection.readerStopped();
+      }
+      this.parked.clear();
+      Connection connection;
+      while ((connection = this.registrations.poll()) != null) {
+        connection.readerStopped();
+      }
+      try {
+        this.selector.close();
+      } catch (IOException ignore) {
+        // shutting down
+      }
+    }
+  }
+
+  private void park(Connection connection) {
+    if (connection.stopped) {
+      dispatch(connection);
+      return;
+    }
+    SocketChannel channel = connection.getSocketChannel();
+    try {
+      // the connection made its channel non-blocking before it was first parked; changing the
+      // blocking mode here would wait for any thread writing to the channel
+      channel.register(this.selector, SelectionKey.OP_READ, connection);
+      this.parked.add(connection);
+    } catch (ClosedChannelException e) {
+      // the worker's read finds the channel closed and closes the connection
+      dispatch(connection);
+    } catch (IllegalBlockingModeException e) {
+      if (logger.isDebugEnabled()) {
+        logger.debug("Failed to register {} with the P2P selector reader", connection, e);
+      }
+      dispatch(connection);
+    }
+  }
+
+  private void dispatch(Connection connection) {
+    try {
+      this.workers.execute(connection::readSelected);
+    } catch (RejectedExecutionException e) {
+      // the connection table is closing
+      connection.readerStopped();
+    }
+  }
+}
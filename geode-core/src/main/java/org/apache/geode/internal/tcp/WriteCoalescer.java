@@ -0,0 +1,185 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.tcp;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+import java.util.concurrent.locks.LockSupport;
+
+import org.apache.geode.distributed.internal.DMStats;
+
+/**
+ * Writes the messages that threads send on one {@link Connection} at the same time with gathering
+ * writes, see {@link Connection#COALESCE_WRITES}.
+ * <p>
+ * The first thread to write becomes the writer. Threads that write while it writes queue their
+ * buffers and wait. The writer writes everything queued, up to a number of bytes, with one
+ * gathering write until its own buffer has been written, and then leaves the writing to a waiting
+ * thread. A thread that writes to an idle connection writes right away, so messages only wait
+ * for each other when the connection is busy. If the last write coalesced messages the writer
+ * first waits a short window for more of them.
+ * <p>
+ * A thread returns from {@link #write} once its buffer has been written, or throws the exception
+ * of the write that failed to write it.
+ */
+class WriteCoalescer {
+
+  interface GatheringWriter {
+    /**
+     * Writes all remaining bytes of the first length buffers
+     */
+    void write(ByteBuffer[] buffers, int length) throws IOException;
+  }
+
+  private static class PendingWrite {
+    private final ByteBuffer buffer;
+    private boolean done;
+    private Exception failure;
+
+    private PendingWrite(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+  }
+
+  private final GatheringWriter writer;
+
+  private final int maxBytes;
+
+  private final long windowNanos;
+
+  private final DMStats stats;
+
+  private final Queue<PendingWrite> queue = new ArrayDeque<>();
+
+  /**
+   * True while a thread is the writer
+   */
+  private boolean writing;
+
+  /**
+   * The number of messages in the last write. Only used by the writer.
+   */
+  private int lastWriteMessages;
+
+  WriteCoalescer(GatheringWriter writer, int maxBytes, long windowNanos, DMStats stats) {
+    this.writer = writer;
+    this.maxBytes = maxBytes;
+    this.windowNanos = windowNanos;
+    this.stats = stats;
+  }
+
+  /**
+   * Writes all remaining bytes of the given buffer, possibly together with those of other threads
+   */
+  void write(ByteBuffer buffer) throws IOException {
+    PendingWrite pending = new PendingWrite(buffer);
+    synchronized (this) {
+      this.queue.add(pending);
+      boolean interrupted = false;
+      try {
+        while (this.writing && !pending.done) {
+          try {
+            wait(); // spurious wakeup ok
+          } catch (InterruptedException e) {
+            interrupted = true;
+          }
+        }
+      } finally {
+        if (interrupted) {
+          Thread.currentThread().interrupt();
+        }
+      }
+      if (!pending.done) {
+        this.writing = true;
+      }
+    }
+    if (!pending.done) {
+      try {
+        writeUntilDone(pending);
+      } finally {
+        synchronized (this) {
+          this.writing = false;
+          notifyAll();
+        }
+      }
+    }
+    Exception failure = pending.failure;
+    if (failure instanceof IOException) {
+      throw (IOException) failure;
+    } else if (failure != null) {
+      throw (RuntimeException) failure;
+    }
+  }
+
+  synchronized int getQueuedWrites() {
+    return this.queue.size();
+  }
+
+  private void writeUntilDone(PendingWrite own) {
+    ByteBuffer[] buffers = new ByteBuffer[8];
+    PendingWrite[] batch = new PendingWrite[8];
+    while (!own.done) {
+      if (this.lastWriteMessages > 1 && this.windowNanos > 0) {
+        // the connection is busy so give more messages a chance to join this write
+        LockSupport.parkNanos(this.windowNanos);
+      }
+      int count = 0;
+      synchronized (this) {
+        long bytes = 0;
+        PendingWrite next;
+        while ((next = this.queue.peek()) != null
+            && (count == 0 || bytes + next.buffer.remaining() <= this.maxBytes)) {
+          this.queue.remove();
+          if (count == batch.length) {
+            batch = Arrays.copyOf(batch, count * 2);
+            buffers = Arrays.copyOf(buffers, count * 2);
+          }
+          batch[count] = next;
+          buffers[count] = next.buffer;
+          bytes += next.buffer.remaining();
+          count++;
+        }
+      }
+      Exception failure = null;
+      boolean written = false;
+      try {
+        this.writer.write(buffers, count);
+        written = true;
+      } catch (IOException | RuntimeException e) {
+        failure = e;
+      } finally {
+        if (!written && failure == null) {
+          failure = new IOException("Coalesced write did not complete");
+        }
+        if (count > 1) {
+          this.stats.incCoalescedWrites(count);
+        }
+        this.lastWriteMessages = count;
+        synchronized (this) {
+          for (int i = 0; i < count; i++) {
+            batch[i].failure = failure;
+            batch[i].done = true;
+            batch[i] = null;
+            buffers[i] = null;
+          }
+          notifyAll();
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,68 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps the bytes a task processes under a number of bytes per second. Used to limit the bytes
+ * copied by disk store compaction and by backups.
+ * <p>
+ * Callers report the bytes they processed and then wait for as long as {@link #charge} tells
+ * them to, either through {@link #acquire} or in their own way, for example so they can notice
+ * being stopped. Any number of threads may share a limiter. Budget left unused while it is idle is
+ * not saved up, so a task never starts with a burst.
+ */
+public class ByteRateLimiter {
+
+  private final long bytesPerSecond;
+
+  /**
+   * The time at which the bytes charged so far are paid for
+   */
+  private long paidUntilNanos;
+
+  private boolean charged;
+
+  public ByteRateLimiter(long bytesPerSecond) {
+    if (bytesPerSecond <= 0) {
+      throw new IllegalArgumentException("bytesPerSecond must be positive: " + bytesPerSecond);
+    }
+    this.bytesPerSecond = bytesPerSecond;
+  }
+
+  /**
+   * Charges the given bytes against the budget
+   *
+   * @param nowNanos The current {@link System#nanoTime()}
+   * @return The number of nanoseconds to wait before processing more
+   */
+  public synchronized long charge(long bytes, long nowNanos) {
+    if (!this.charged || this.paidUntilNanos - nowNanos < 0) {
+      this.paidUntilNanos = nowNanos;
+      this.charged = true;
+    }
+    this.paidUntilNanos +=
+        (long) ((double) bytes * TimeUnit.SECONDS.toNanos(1) / this.bytesPerSecond);
+    return this.paidUntilNanos - nowNanos;
+  }
+
+  /**
+   * Charges the given bytes against the budget and sleeps until they are paid for
+   */
+  public void acquire(long bytes) throws InterruptedException {
+    TimeUnit.NANOSECONDS.sleep(charge(bytes, System.nanoTime()));
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.management;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Composite data type used to distribute the latencies of an operation of a disk store, taken from
+ * a histogram of the latencies recorded while time statistics are enabled. The histogram is
+ * cumulative, so the latencies are those of every operation since the disk store was created.
+ *
+ * @since Geode 1.10
+ */
+public class DiskLatencyData {
+
+  private final String operation;
+  private final long count;
+  private final long median;
+  private final long percentile99;
+  private final long percentile999;
+  private final long max;
+
+  /**
+   *
+   * This constructor is to be used by internal JMX framework only. User should not try to create an
+   * instance of this class.
+   */
+  @ConstructorProperties({"operation", "count", "median", "percentile99", "percentile999", "max"})
+  public DiskLatencyData(final String operation, final long count, final long median,
+      final long percentile99, final long percentile999, final long max) {
+    this.operation = operation;
+    this.count = count;
+    this.median = median;
+    this.percentile99 = percentile99;
+    this.percentile999 = percentile999;
+    this.max = max;
+  }
+
+  /**
+   * Returns the name of the operation, one of write, flush, fsync, faultIn and compactionRead.
+   */
+  public String getOperation() {
+    return this.operation;
+  }
+
+  /**
+   * Returns the number of latencies recorded for the operation.
+   */
+  public long getCount() {
+    return this.count;
+  }
+
+  /**
+   * Returns the median latency of the operation in nanoseconds.
+   */
+  public long getMedian() {
+    return this.median;
+  }
+
+  /**
+   * Returns the 99th percentile of the latencies of the operation in nanoseconds.
+   */
+  public long getPercentile99() {
+    return this.percentile99;
+  }
+
+  /**
+   * Returns the 99.9th percentile of the latencies of the operation in nanoseconds.
+   */
+  public long getPercentile999() {
+    return this.percentile999;
+  }
+
+  /**
+   * Returns the maximum latency of the operation in nanoseconds.
+   */
+  public long getMax() {
+    return this.max;
+  }
+}
@@ -142,6 +142,24 @@ public interface DiskStoreMXBean {
    */
   int getTotalRecoveriesInProgress();
 
+  /**
+   * Returns the latencies of writing to the disk store, flushing its asynchronous queue, forcing
+   * its oplogs to disk, faulting values in from them and reading the values compaction copies
+   * forward. Latencies are only recorded while time statistics are enabled, and are cumulative
+   * since the disk store was created.
+   *
+   * @since Geode 1.10
+   */
+  DiskLatencyData[] getDiskLatencies();
+
+  /**
+   * Returns how many values are faulted in from each oplog of the disk store and how much of each
+   * oplog is garbage.
+   *
+   * @since Geode 1.10
+   */
+  OplogHeatData[] getOplogHeat();
+
   /**
    * Requests the DiskStore to start writing to a new op-log. The old oplog will be asynchronously
    * compressed if compaction is set to true. The new op-log will be created in the next available
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.management;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * Composite data type used to distribute how much an oplog of a disk store is read from and how
+ * much of it is garbage, for tuning compaction and the maximum size of oplogs.
+ *
+ * @since Geode 1.10
+ */
+public class OplogHeatData {
+
+  private final long oplogId;
+  private final long reads;
+  private final long readBytes;
+  private final long liveEntries;
+  private final long garbageEntries;
+  private final long size;
+
+  /**
+   *
+   * This constructor is to be used by internal JMX framework only. User should not try to create an
+   * instance of this class.
+   */
+  @ConstructorProperties({"oplogId", "reads", "readBytes", "liveEntries", "garbageEntries",
+      "size"})
+  public OplogHeatData(final long oplogId, final long reads, final long readBytes,
+      final long liveEntries, final long garbageEntries, final long size) {
+    this.oplogId = oplogId;
+    this.reads = reads;
+    this.readBytes = readBytes;
+    this.liveEntries = liveEntries;
+    this.garbageEntries = garbageEntries;
+    this.size = size;
+  }
+
+  /**
+   * Returns the ID of the oplog.
+   */
+  public long getOplogId() {
+    return this.oplogId;
+  }
+
+  /**
+   * Returns the number of entry values that have been faulted in from the oplog.
+   */
+  public long getReads() {
+    return this.reads;
+  }
+
+  /**
+   * Returns the number of bytes that have been faulted in from the oplog.
+   */
+  public long getReadBytes() {
+    return this.readBytes;
+  }
+
+  /**
+   * Returns the number of entries whose most recent value is in the oplog.
+   */
+  public long getLiveEntries() {
+    return this.liveEntries;
+  }
+
+  /**
+   * Returns the number of records in the oplog that compacting it would remove.
+   */
+  public long getGarbageEntries() {
+    return this.garbageEntries;
+  }
+
+  /**
+   * Returns the size of the oplog in bytes.
+   */
+  public long getSize() {
+    return this.size;
+  }
+}
@@ -16,7 +16,9 @@ package org.apache.geode.management.internal.beans;
 
 import javax.management.NotificationBroadcasterSupport;
 
+import org.apache.geode.management.DiskLatencyData;
 import org.apache.geode.management.DiskStoreMXBean;
+import org.apache.geode.management.OplogHeatData;
 
 /**
  * DiskStore MBean represent a DiskStore which provides disk storage for one or more regions. The
@@ -120,6 +122,16 @@ public class DiskStoreMBean extends NotificationBroadcasterSupport implements Di
     return bridge.getTotalRecoveriesInProgress();
   }
 
+  @Override
+  public DiskLatencyData[] getDiskLatencies() {
+    return bridge.getDiskLatencies();
+  }
+
+  @Override
+  public OplogHeatData[] getOplogHeat() {
+    return bridge.getOplogHeat();
+  }
+
   @Override
   public int getWriteBufferSize() {
     return bridge.getWriteBufferSize();
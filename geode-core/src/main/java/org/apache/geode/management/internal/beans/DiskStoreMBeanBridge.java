@@ -20,6 +20,9 @@ import org.apache.geode.cache.DiskStore;
 import org.apache.geode.internal.cache.DirectoryHolder;
 import org.apache.geode.internal.cache.DiskStoreImpl;
 import org.apache.geode.internal.cache.DiskStoreStats;
+import org.apache.geode.internal.statistics.LatencyHistogram;
+import org.apache.geode.management.DiskLatencyData;
+import org.apache.geode.management.OplogHeatData;
 import org.apache.geode.management.internal.beans.stats.MBeanStatsMonitor;
 import org.apache.geode.management.internal.beans.stats.StatType;
 import org.apache.geode.management.internal.beans.stats.StatsAverageLatency;
@@ -251,6 +254,28 @@ public class DiskStoreMBeanBridge {
     return getDiskStoreStatistic(StatsKey.RECOVERIES_IN_PROGRESS).intValue();
   }
 
+  public DiskLatencyData[] getDiskLatencies() {
+    if (diskStoreStats == null) {
+      return new DiskLatencyData[0];
+    }
+    DiskStoreStats.Latency[] latencies = DiskStoreStats.Latency.values();
+    DiskLatencyData[] data = new DiskLatencyData[latencies.length];
+    for (int i = 0; i < latencies.length; i++) {
+      LatencyHistogram histogram = diskStoreStats.getLatency(latencies[i]);
+      data[i] = new DiskLatencyData(latencies[i].getStatName(), histogram.getCount(),
+          histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(99),
+          histogram.getValueAtPercentile(99.9), histogram.getMax());
+    }
+    return data;
+  }
+
+  public OplogHeatData[] getOplogHeat() {
+    if (diskStore == null) {
+      return new OplogHeatData[0];
+    }
+    return diskStore.getOplogHeat();
+  }
+
   public Number getDiskStoreStatistic(String statName) {
     if (diskStoreStats != null) {
       return diskStoreStats.getStats().get(statName);
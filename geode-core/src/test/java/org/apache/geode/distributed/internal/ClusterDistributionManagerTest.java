@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.distributed.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.internal.logging.VirtualThreadFactory;
+import org.apache.geode.internal.monitoring.ThreadsMonitoringImplDummy;
+import org.apache.geode.test.junit.categories.MembershipTest;
+
+@Category({MembershipTest.class})
+public class ClusterDistributionManagerTest {
+
+  private final AtomicBoolean wrapped = new AtomicBoolean();
+
+  private ExecutorService pool;
+
+  @After
+  public void tearDown() {
+    if (pool != null) {
+      pool.shutdownNow();
+    }
+  }
+
+  @Test
+  public void usesVirtualThreadsOnlyIfRequestedAndSupported() {
+    assertThat(ClusterDistributionManager.useVirtualThreads(true, true)).isTrue();
+    assertThat(ClusterDistributionManager.useVirtualThreads(true, false)).isFalse();
+    assertThat(ClusterDistributionManager.useVirtualThreads(false, true)).isFalse();
+    assertThat(ClusterDistributionManager.useVirtualThreads(false, false)).isFalse();
+  }
+
+  @Test
+  public void virtualPoolRunsMessagesOnVirtualThreads() throws Exception {
+    assumeTrue(VirtualThreadFactory.isSupported());
+    pool = newPool(true);
+
+    Thread thread = runningThread();
+
+    assertThat(isVirtual(thread)).isTrue();
+    assertThat(thread.getName()).startsWith("Test Message Processor ");
+    assertThat(wrapped).isTrue();
+  }
+
+  @Test
+  public void platformPoolRunsMessagesOnPlatformThreads() throws Exception {
+    pool = newPool(false);
+
+    Thread thread = runningThread();
+
+    assertThat(isVirtual(thread)).isFalse();
+    assertThat(thread.getName()).startsWith("Test Message Processor ");
+    assertThat(wrapped).isTrue();
+  }
+
+  @Test
+  public void fallsBackToPlatformThreadsIfVirtualThreadsAreNotSupported() throws Exception {
+    pool = newPool(ClusterDistributionManager.useVirtualThreads(true, false));
+
+    assertThat(isVirtual(runningThread())).isFalse();
+  }
+
+  private ExecutorService newPool(boolean virtualThreads) {
+    return ClusterDistributionManager.newMessageProcessorPool(virtualThreads,
+        "Test Message Processor ", null, command -> {
+          wrapped.set(true);
+          command.run();
+        }, 2, mock(PoolStatHelper.class), new ThreadsMonitoringImplDummy(), 10,
+        mock(QueueStatHelper.class));
+  }
+
+  private Thread runningThread() throws Exception {
+    return pool.submit(Thread::currentThread).get(30, TimeUnit.SECONDS);
+  }
+
+  private static boolean isVirtual(Thread thread) throws Exception {
+    try {
+      return (Boolean) Thread.class.getMethod("isVirtual").invoke(thread);
+    } catch (NoSuchMethodException e) {
+      // no virtual threads before Java 19
+      return false;
+    }
+  }
+}
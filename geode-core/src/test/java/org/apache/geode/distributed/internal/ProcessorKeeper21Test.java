@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.distributed.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.test.junit.categories.MembershipTest;
+
+@Category({MembershipTest.class})
+public class ProcessorKeeper21Test {
+
+  private final ProcessorKeeper21 keeper = new ProcessorKeeper21();
+
+  @Test
+  public void pooledProcessorCanBeRetrievedUntilRemoved() {
+    Object processor = new Object();
+
+    int id = keeper.putPooled(processor);
+
+    assertThat(id).isGreaterThan(0);
+    assertThat(keeper.retrieve(id)).isSameAs(processor);
+    keeper.remove(id);
+    assertThat(keeper.retrieve(id)).isNull();
+  }
+
+  @Test
+  public void nextPooledProcessorOfThreadGetsNewId() {
+    Object first = new Object();
+    Object second = new Object();
+
+    int firstId = keeper.putPooled(first);
+    int secondId = keeper.putPooled(second);
+
+    assertThat(secondId).isNotEqualTo(firstId);
+    assertThat(keeper.retrieve(firstId)).isNull();
+    assertThat(keeper.retrieve(secondId)).isSameAs(second);
+
+    keeper.remove(firstId);
+    assertThat(keeper.retrieve(secondId)).isSameAs(second);
+  }
+
+  @Test
+  public void pooledAndUnpooledIdsDoNotCollide() {
+    Object pooled = new Object();
+    Object unpooled = new Object();
+
+    int pooledId = keeper.putPooled(pooled);
+    int unpooledId = keeper.put(unpooled);
+
+    assertThat(unpooledId).isNotEqualTo(pooledId);
+    assertThat(keeper.retrieve(pooledId)).isSameAs(pooled);
+    assertThat(keeper.retrieve(unpooledId)).isSameAs(unpooled);
+  }
+
+  @Test
+  public void threadsHaveSeparateSlots() throws Exception {
+    Object mine = new Object();
+    Object theirs = new Object();
+    AtomicInteger theirId = new AtomicInteger();
+
+    int myId = keeper.putPooled(mine);
+    Thread thread = new Thread(() -> theirId.set(keeper.putPooled(theirs)));
+    thread.start();
+    thread.join();
+
+    assertThat(theirId.get()).isNotEqualTo(myId);
+    assertThat(keeper.retrieve(myId)).isSameAs(mine);
+    assertThat(keeper.retrieve(theirId.get())).isSameAs(theirs);
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.apache.geode.internal.cache.persistence.UninterruptibleFileChannel;
+import org.apache.geode.internal.cache.persistence.UninterruptibleRandomAccessFile;
+
+/**
+ * Exercises the block handling of {@link DirectOplogWriter} through a channel opened without
+ * direct I/O, which behaves the same apart from the page cache.
+ */
+public class DirectOplogWriterTest {
+
+  private static final int ALIGNMENT = 512;
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private File file;
+
+  private UninterruptibleRandomAccessFile raf;
+
+  private UninterruptibleFileChannel oplogChannel;
+
+  private DirectOplogWriter writer;
+
+  @Before
+  public void setUp() throws Exception {
+    file = temporaryFolder.newFile("test.crf");
+    raf = new UninterruptibleRandomAccessFile(file, "rw");
+    oplogChannel = raf.getChannel();
+    writer = new DirectOplogWriter(
+        FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE),
+        ALIGNMENT);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    writer.close();
+    raf.close();
+  }
+
+  private static byte[] bytes(int length, int seed) {
+    byte[] bytes = new byte[length];
+    new Random(seed).nextBytes(bytes);
+    return bytes;
+  }
+
+  private static byte[] concat(byte[]... arrays) {
+    ByteBuffer all = ByteBuffer.allocate(Arrays.stream(arrays).mapToInt(a -> a.length).sum());
+    for (byte[] array : arrays) {
+      all.put(array);
+    }
+    return all.array();
+  }
+
+  @Test
+  public void writesArePaddedToWholeBlocks() throws Exception {
+    byte[] first = bytes(100, 1);
+    byte[] second = bytes(1000, 2);
+
+    assertThat(writer.write(oplogChannel, ByteBuffer.wrap(first))).isEqualTo(100);
+    assertThat(writer.write(oplogChannel, ByteBuffer.wrap(second))).isEqualTo(1000);
+
+    assertThat(oplogChannel.position()).isEqualTo(1100);
+    byte[] written = Files.readAllBytes(file.toPath());
+    assertThat(written).hasSize(3 * ALIGNMENT);
+    assertThat(Arrays.copyOf(written, 1100)).isEqualTo(concat(first, second));
+    assertThat(Arrays.copyOfRange(written, 1100, written.length)).containsOnly(0);
+  }
+
+  @Test
+  public void writesBytesOfAllBuffersAcrossStagingBuffers() throws Exception {
+    byte[] first = bytes(DirectOplogWriter.BUFFER_SIZE - 10, 1);
+    byte[] second = bytes(DirectOplogWriter.BUFFER_SIZE + 10, 2);
+    ByteBuffer firstBuffer = ByteBuffer.wrap(first);
+    ByteBuffer secondBuffer = ByteBuffer.wrap(second);
+
+    assertThat(writer.write(oplogChannel, firstBuffer, secondBuffer))
+        .isEqualTo(2 * DirectOplogWriter.BUFFER_SIZE);
+
+    assertThat(firstBuffer.hasRemaining()).isFalse();
+    assertThat(secondBuffer.hasRemaining()).isFalse();
+    assertThat(Files.readAllBytes(file.toPath())).isEqualTo(concat(first, second));
+  }
+
+  @Test
+  public void picksUpBytesWrittenThroughTheOplogChannel() throws Exception {
+    byte[] first = bytes(100, 1);
+    byte[] second = bytes(50, 2);
+    byte[] third = bytes(30, 3);
+
+    writer.write(oplogChannel, ByteBuffer.wrap(first));
+    oplogChannel.write(ByteBuffer.wrap(second));
+    writer.write(oplogChannel, ByteBuffer.wrap(third));
+
+    assertThat(Arrays.copyOf(Files.readAllBytes(file.toPath()), 180))
+        .isEqualTo(concat(first, second, third));
+  }
+
+  @Test
+  public void closedWriterLeavesBuffersToTheCaller() throws Exception {
+    ByteBuffer buffer = ByteBuffer.wrap(bytes(100, 1));
+    writer.close();
+
+    assertThat(writer.write(oplogChannel, buffer)).isEqualTo(-1);
+
+    assertThat(buffer.remaining()).isEqualTo(100);
+    assertThat(oplogChannel.position()).isEqualTo(0);
+  }
+
+  @Test
+  public void inputStreamReadsAndSkipsAcrossBlocks() throws Exception {
+    byte[] bytes = bytes(DirectOplogWriter.BUFFER_SIZE + 1000, 1);
+    Files.write(file.toPath(), bytes);
+
+    try (InputStream in =
+        new DirectOplogInputStream(FileChannel.open(file.toPath()), ALIGNMENT)) {
+      byte[] read = new byte[100];
+      assertThat(in.read(read)).isEqualTo(100);
+      assertThat(read).isEqualTo(Arrays.copyOf(bytes, 100));
+      assertThat(in.skip(DirectOplogWriter.BUFFER_SIZE)).isEqualTo(DirectOplogWriter.BUFFER_SIZE);
+      assertThat(in.read()).isEqualTo(bytes[DirectOplogWriter.BUFFER_SIZE + 100] & 0xff);
+      assertThat(in.skip(10000)).isEqualTo(899);
+      assertThat(in.read()).isEqualTo(-1);
+    }
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class OplogDeltaValueTest {
+
+  @Test
+  public void deltaValueKeepsThePreviousRecordAndTheDelta() {
+    byte[] delta = new byte[] {1, 2, 3};
+    byte[] stored = OplogDeltaValue.encode(1L << 40, 200_000, (byte) 0x21, delta);
+
+    assertThat(stored).hasSize(OplogDeltaValue.HEADER_LENGTH + delta.length);
+    assertThat(OplogDeltaValue.isDelta(stored)).isTrue();
+    assertThat(OplogDeltaValue.getPrevOffset(stored)).isEqualTo(1L << 40);
+    assertThat(OplogDeltaValue.getPrevLength(stored)).isEqualTo(200_000);
+    assertThat(OplogDeltaValue.getPrevUserBits(stored)).isEqualTo((byte) 0x21);
+    assertThat(OplogDeltaValue.getDelta(stored)).isEqualTo(delta);
+  }
+
+  @Test
+  public void compressedValuesAreNotDeltas() {
+    byte[] value = new byte[100];
+    for (int i = 0; i < value.length; i++) {
+      value[i] = (byte) (i % 7);
+    }
+    for (OplogValueCodec codec : OplogValueCodec.values()) {
+      assertThat(codec.getId()).isNotEqualTo(OplogDeltaValue.ID);
+      assertThat(OplogDeltaValue.isDelta(codec.compress(value))).isFalse();
+    }
+    assertThat(OplogDeltaValue.isDelta(new byte[] {OplogDeltaValue.ID})).isFalse();
+    assertThat(OplogDeltaValue.isDelta(null)).isFalse();
+  }
+}
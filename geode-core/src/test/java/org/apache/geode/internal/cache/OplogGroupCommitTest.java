@@ -0,0 +1,134 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class OplogGroupCommitTest {
+
+  private final DiskStoreStats stats = mock(DiskStoreStats.class);
+
+  private final Object lock = new Object();
+
+  private final AtomicInteger flushes = new AtomicInteger();
+
+  private long written;
+
+  private volatile long flushed;
+
+  private final ExecutorService executor = Executors.newFixedThreadPool(8);
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  private long write(OplogGroupCommit groupCommit) {
+    synchronized (lock) {
+      written++;
+      return groupCommit.append();
+    }
+  }
+
+  private void flush() {
+    long toFlush;
+    synchronized (lock) {
+      toFlush = written;
+    }
+    flushes.incrementAndGet();
+    try {
+      Thread.sleep(1);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    flushed = toFlush;
+  }
+
+  @Test
+  public void singleWriterFlushesItsOwnWrite() throws Exception {
+    OplogGroupCommit groupCommit = new OplogGroupCommit(0, stats);
+
+    long ticket = write(groupCommit);
+    groupCommit.awaitCommit(ticket, this::flush);
+
+    assertThat(flushed).isEqualTo(1);
+    assertThat(flushes.get()).isEqualTo(1);
+    verify(stats, times(1)).incGroupCommits(1);
+  }
+
+  @Test
+  public void concurrentWritersShareFlushes() throws Exception {
+    OplogGroupCommit groupCommit =
+        new OplogGroupCommit(TimeUnit.MICROSECONDS.toNanos(200), stats);
+    int writesPerThread = 50;
+    List<Future<Void>> futures = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      futures.add(executor.submit(() -> {
+        for (int j = 0; j < writesPerThread; j++) {
+          long position;
+          long ticket;
+          synchronized (lock) {
+            ticket = write(groupCommit);
+            position = written;
+          }
+          groupCommit.awaitCommit(ticket, this::flush);
+          assertThat(flushed).isGreaterThanOrEqualTo(position);
+        }
+        return null;
+      }));
+    }
+    for (Future<Void> future : futures) {
+      future.get(1, TimeUnit.MINUTES);
+    }
+
+    assertThat(flushed).isEqualTo(8 * writesPerThread);
+    assertThat(flushes.get()).isLessThan(8 * writesPerThread);
+  }
+
+  @Test
+  public void failedFlushIsSeenByTheWriterAndRetriedByTheNext() throws Exception {
+    OplogGroupCommit groupCommit = new OplogGroupCommit(0, stats);
+
+    long first = write(groupCommit);
+    assertThatThrownBy(() -> groupCommit.awaitCommit(first, () -> {
+      throw new IOException("disk full");
+    })).isInstanceOf(IOException.class);
+    verify(stats, times(0)).incGroupCommits(anyLong());
+
+    long second = write(groupCommit);
+    groupCommit.awaitCommit(second, this::flush);
+    groupCommit.awaitCommit(first, this::flush);
+
+    assertThat(flushed).isEqualTo(2);
+    assertThat(flushes.get()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import org.apache.geode.compression.CompressionException;
+
+public class OplogValueCodecTest {
+
+  private static byte[] compressibleValue() {
+    StringBuilder value = new StringBuilder();
+    for (int i = 0; i < 500; i++) {
+      value.append("value-").append(i % 7);
+    }
+    return value.toString().getBytes();
+  }
+
+  @Test
+  public void valuesRoundTripThroughEveryCodec() {
+    byte[] value = compressibleValue();
+    for (OplogValueCodec codec : OplogValueCodec.values()) {
+      byte[] compressed = codec.compress(value);
+
+      assertThat(compressed.length).isLessThan(value.length);
+      assertThat(compressed[0]).isEqualTo(codec.getId());
+      assertThat(OplogValueCodec.decompressValue(compressed)).isEqualTo(value);
+    }
+  }
+
+  @Test
+  public void incompressibleValuesAreNotCompressed() {
+    byte[] value = new byte[OplogValueCodec.MIN_VALUE_LENGTH];
+    new Random(1).nextBytes(value);
+    for (OplogValueCodec codec : OplogValueCodec.values()) {
+      assertThat(codec.compress(value)).isNull();
+    }
+  }
+
+  @Test
+  public void unknownCodecIdCanNotBeDecompressed() {
+    assertThatThrownBy(() -> OplogValueCodec.decompressValue(new byte[] {0, 1, 2}))
+        .isInstanceOf(CompressionException.class);
+  }
+
+  @Test
+  public void codecsAreFoundByNameIgnoringCase() {
+    assertThat(OplogValueCodec.forName("snappy")).isEqualTo(OplogValueCodec.SNAPPY);
+    assertThat(OplogValueCodec.forName("Deflate")).isEqualTo(OplogValueCodec.DEFLATE);
+    assertThat(OplogValueCodec.forName("")).isNull();
+    assertThat(OplogValueCodec.forName(null)).isNull();
+    assertThatThrownBy(() -> OplogValueCodec.forName("lzma"))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.backup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.file.Path;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BackupChecksumsTest {
+
+  @Rule
+  public TemporaryFolder tempDir = new TemporaryFolder();
+
+  @Test
+  public void checksumsRoundTripThroughTheirFile() throws Exception {
+    BackupChecksums checksums = new BackupChecksums();
+    checksums.add("diskstores/ds_1-2/dir0/BACKUPds_1.crf", "00ff", 1024);
+    checksums.add("/baseline/member 1/diskstores/ds_1-2/dir0/BACKUPds_0.crf", "ff00", 2048);
+    Path file = tempDir.getRoot().toPath().resolve(BackupWriter.CHECKSUMS_FILE);
+
+    checksums.write(file);
+
+    assertThat(BackupChecksums.read(file).getChecksums())
+        .isEqualTo(checksums.getChecksums())
+        .containsEntry("/baseline/member 1/diskstores/ds_1-2/dir0/BACKUPds_0.crf", "ff00");
+  }
+
+  @Test
+  public void missingFileHasNoChecksums() throws Exception {
+    assertThat(BackupChecksums.read(tempDir.getRoot().toPath().resolve("missing")).getChecksums())
+        .isEmpty();
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.cache.backup;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.apache.geode.internal.util.Hex;
+
+public class BackupFileMoverTest {
+
+  @Rule
+  public TemporaryFolder tempDir = new TemporaryFolder();
+
+  private Path sourceDir;
+  private Path targetDir;
+
+  @Before
+  public void setup() throws IOException {
+    sourceDir = tempDir.newFolder("source").toPath();
+    targetDir = tempDir.newFolder("target").toPath();
+  }
+
+  private Path createFile(String name, int length) throws IOException {
+    byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = (byte) (i * 31 + name.hashCode());
+    }
+    return Files.write(sourceDir.resolve(name), bytes);
+  }
+
+  private static String checksum(byte[] bytes) throws Exception {
+    return Hex.toHex(MessageDigest.getInstance(BackupChecksums.ALGORITHM).digest(bytes));
+  }
+
+  @Test
+  public void movesFilesAndComputesTheirChecksums() throws Exception {
+    Map<Path, String> checksums;
+    try (BackupFileMover mover = new BackupFileMover(3, 0)) {
+      for (int i = 0; i < 10; i++) {
+        mover.move(createFile("oplog" + i, 100_000 * i), targetDir.resolve("oplog" + i));
+      }
+      checksums = mover.awaitMoves();
+    }
+
+    assertThat(checksums).hasSize(10);
+    for (int i = 0; i < 10; i++) {
+      Path target = targetDir.resolve("oplog" + i);
+      assertThat(sourceDir.resolve("oplog" + i)).doesNotExist();
+      assertThat(checksums.get(target)).isEqualTo(checksum(Files.readAllBytes(target)));
+    }
+  }
+
+  /**
+   * Creates a mover that copies files even though the test's directories share a file store
+   */
+  private static BackupFileMover copyingMover(int threads, long maxBytesPerSecond) {
+    return new BackupFileMover(threads, maxBytesPerSecond) {
+      @Override
+      boolean canRename(Path source, Path target) {
+        return false;
+      }
+    };
+  }
+
+  @Test
+  public void copiesFilesAndComputesTheirChecksums() throws Exception {
+    byte[] bytes = Files.readAllBytes(createFile("oplog", 300_000));
+    Map<Path, String> checksums;
+    try (BackupFileMover mover = copyingMover(1, 0)) {
+      mover.move(sourceDir.resolve("oplog"), targetDir.resolve("oplog"));
+      checksums = mover.awaitMoves();
+    }
+
+    assertThat(sourceDir.resolve("oplog")).doesNotExist();
+    assertThat(targetDir.resolve("oplog")).hasBinaryContent(bytes);
+    assertThat(checksums.get(targetDir.resolve("oplog"))).isEqualTo(checksum(bytes));
+  }
+
+  @Test
+  public void limitsTheBytesPerSecond() throws Exception {
+    long start = System.nanoTime();
+    try (BackupFileMover mover = copyingMover(2, 1_000_000)) {
+      mover.move(createFile("oplog1", 1_000_000), targetDir.resolve("oplog1"));
+      mover.move(createFile("oplog2", 1_000_000), targetDir.resolve("oplog2"));
+      mover.awaitMoves();
+    }
+    // the first megabyte is paid for after a second, the second one after two
+    assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(1_900_000_000L);
+  }
+
+  @Test
+  public void doesNotLimitReadingRenamedFilesForTheirChecksums() throws Exception {
+    long start = System.nanoTime();
+    try (BackupFileMover mover = new BackupFileMover(1, 1_000_000)) {
+      mover.move(createFile("oplog1", 2_000_000), targetDir.resolve("oplog1"));
+      mover.awaitMoves();
+    }
+    assertThat(System.nanoTime() - start).isLessThan(1_000_000_000L);
+  }
+
+  @Test
+  public void failureToMoveAFileIsThrown() {
+    try (BackupFileMover mover = new BackupFileMover(1, 0)) {
+      mover.move(sourceDir.resolve("missing"), targetDir.resolve("missing"));
+      assertThatThrownBy(mover::awaitMoves).isInstanceOf(NoSuchFileException.class);
+    }
+  }
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.logging;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assume.assumeTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.internal.logging.LoggingThreadFactory.ThreadInitializer;
+import org.apache.geode.test.junit.categories.LoggingTest;
+
+/**
+ * Unit tests for {@link VirtualThreadFactory}.
+ */
+@Category(LoggingTest.class)
+public class VirtualThreadFactoryTest {
+
+  @Test
+  public void verifyThreadNames() {
+    assumeTrue(VirtualThreadFactory.isSupported());
+    VirtualThreadFactory factory = new VirtualThreadFactory("baseName", null, null);
+
+    assertThat(factory.newThread(() -> {
+    }).getName()).isEqualTo("baseName" + 1);
+    assertThat(factory.newThread(() -> {
+    }).getName()).isEqualTo("baseName" + 2);
+  }
+
+  @Test
+  public void verifyThreadsAreDaemonsWithExpectedHandler() {
+    assumeTrue(VirtualThreadFactory.isSupported());
+    VirtualThreadFactory factory = new VirtualThreadFactory("baseName", null, null);
+
+    Thread thread = factory.newThread(() -> {
+    });
+
+    assertThat(thread.isDaemon()).isTrue();
+    assertThat(thread.getUncaughtExceptionHandler())
+        .isSameAs(LoggingUncaughtExceptionHandler.getInstance());
+  }
+
+  @Test
+  public void verifyThreadInitializerAndCommandWrapperCalled() throws Exception {
+    assumeTrue(VirtualThreadFactory.isSupported());
+    ThreadInitializer threadInitializer = mock(ThreadInitializer.class);
+    AtomicBoolean wrapped = new AtomicBoolean();
+    AtomicBoolean ran = new AtomicBoolean();
+    VirtualThreadFactory factory = new VirtualThreadFactory("baseName", threadInitializer,
+        runnable -> {
+          wrapped.set(true);
+          runnable.run();
+        });
+
+    Thread thread = factory.newThread(() -> ran.set(true));
+    thread.start();
+    thread.join();
+
+    verify(threadInitializer).initialize(thread);
+    assertThat(wrapped).isTrue();
+    assertThat(ran).isTrue();
+  }
+
+  @Test
+  public void javaVersionIsParsedFromTheSpecificationVersion() {
+    assertThat(VirtualThreadFactory.javaVersion("1.8")).isEqualTo(8);
+    assertThat(VirtualThreadFactory.javaVersion("21")).isEqualTo(21);
+    assertThat(VirtualThreadFactory.javaVersion("24")).isEqualTo(24);
+    assertThat(VirtualThreadFactory.javaVersion("unknown")).isEqualTo(0);
+    assertThat(VirtualThreadFactory.javaVersion(null)).isEqualTo(0);
+  }
+
+  @Test
+  public void notSupportedBeforeJava24() {
+    assumeTrue(
+        VirtualThreadFactory.javaVersion(System.getProperty("java.specification.version")) < 24);
+
+    assertThat(VirtualThreadFactory.isSupported()).isFalse();
+  }
+}
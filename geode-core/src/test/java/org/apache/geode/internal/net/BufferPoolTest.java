@@ -17,9 +17,13 @@ package org.apache.geode.internal.net;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assume.assumeTrue;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -113,4 +117,93 @@ public class BufferPoolTest {
     assertThat(newBuffer.position()).isEqualTo(16384);
     assertThat(newBuffer.limit()).isEqualTo(newBuffer.capacity());
   }
+
+  @Test
+  public void sizeClassesGrowByHalvesOfPowersOfTwo() {
+    assertThat(BufferPool.getSizeClassCapacity(BufferPool.sizeClassOf(1))).isEqualTo(1024);
+    assertThat(BufferPool.getSizeClassCapacity(BufferPool.sizeClassOf(1024))).isEqualTo(1024);
+    assertThat(BufferPool.getSizeClassCapacity(BufferPool.sizeClassOf(1025))).isEqualTo(1536);
+    assertThat(BufferPool.getSizeClassCapacity(BufferPool.sizeClassOf(40899))).isEqualTo(49152);
+    assertThat(BufferPool.getSizeClassCapacity(BufferPool.sizeClassOf(16 * 1024 * 1024)))
+        .isEqualTo(16 * 1024 * 1024);
+    assertThat(BufferPool.sizeClassOf(16 * 1024 * 1024 + 1)).isEqualTo(-1);
+  }
+
+  @Test
+  public void releasedDirectBufferIsReusedForItsSizeClass() {
+    assumeTrue(BufferPool.useDirectBuffers);
+    ByteBuffer buffer = bufferPool.acquireReceiveBuffer(1000);
+    assertThat(buffer.isDirect()).isTrue();
+    assertThat(buffer.capacity()).isEqualTo(1024);
+    assertThat(buffer.limit()).isEqualTo(1000);
+    buffer.position(10);
+    bufferPool.releaseReceiveBuffer(buffer);
+
+    ByteBuffer reused = bufferPool.acquireSenderBuffer(900);
+    assertThat(reused).isSameAs(buffer);
+    assertThat(reused.position()).isEqualTo(0);
+    assertThat(reused.limit()).isEqualTo(900);
+    assertThat(bufferPool.acquireSenderBuffer(900)).isNotSameAs(buffer);
+  }
+
+  @Test
+  public void buffersBeyondTheThreadCacheAreReusedByOtherThreads() throws Exception {
+    assumeTrue(BufferPool.useDirectBuffers);
+    ByteBuffer cached = bufferPool.acquireReceiveBuffer(1000);
+    ByteBuffer shared = bufferPool.acquireReceiveBuffer(1000);
+    bufferPool.releaseReceiveBuffer(cached);
+    bufferPool.releaseReceiveBuffer(shared);
+
+    AtomicReference<ByteBuffer> reused = new AtomicReference<>();
+    Thread thread = new Thread(() -> reused.set(bufferPool.acquireReceiveBuffer(1000)));
+    thread.start();
+    thread.join();
+
+    assertThat(reused.get()).isSameAs(shared);
+    assertThat(bufferPool.acquireReceiveBuffer(1000)).isSameAs(cached);
+  }
+
+  @Test
+  public void poolKeepsAtMostMaxPooledBytes() {
+    assumeTrue(BufferPool.useDirectBuffers);
+    DMStats stats = mock(DMStats.class);
+    BufferPool pool = new BufferPool(stats, 2048);
+    ByteBuffer[] buffers = new ByteBuffer[3];
+    for (int i = 0; i < buffers.length; i++) {
+      buffers[i] = pool.acquireSenderBuffer(1024);
+    }
+    for (ByteBuffer buffer : buffers) {
+      pool.releaseSenderBuffer(buffer);
+    }
+
+    assertThat(pool.getPooledBytes()).isEqualTo(2048);
+    verify(stats, times(3)).incBufferPoolMisses();
+    verify(stats, times(3)).incSenderBufferSize(1024, true);
+    verify(stats, times(3)).incSenderBufferSize(-1024, true);
+  }
+
+  @Test
+  public void closeDropsIdleBuffers() {
+    assumeTrue(BufferPool.useDirectBuffers);
+    ByteBuffer first = bufferPool.acquireReceiveBuffer(1000);
+    ByteBuffer second = bufferPool.acquireReceiveBuffer(1000);
+    bufferPool.releaseReceiveBuffer(first);
+
+    bufferPool.close();
+    bufferPool.releaseReceiveBuffer(second);
+
+    assertThat(bufferPool.getPooledBytes()).isEqualTo(0);
+    assertThat(bufferPool.acquireReceiveBuffer(1000)).isNotSameAs(first).isNotSameAs(second);
+  }
+
+  @Test
+  public void buffersLargerThanTheLargestSizeClassAreNotPooled() {
+    assumeTrue(BufferPool.useDirectBuffers);
+    int size = 16 * 1024 * 1024 + 1;
+    ByteBuffer buffer = bufferPool.acquireReceiveBuffer(size);
+    assertThat(buffer.capacity()).isEqualTo(size);
+    bufferPool.releaseReceiveBuffer(buffer);
+
+    assertThat(bufferPool.getPooledBytes()).isEqualTo(0);
+  }
 }
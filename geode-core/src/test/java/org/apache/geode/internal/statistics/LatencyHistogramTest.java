@@ -0,0 +1,87 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.statistics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+  private final LatencyHistogram histogram = new LatencyHistogram();
+
+  @Test
+  public void emptyHistogramReportsZero() {
+    assertThat(histogram.getCount()).isEqualTo(0);
+    assertThat(histogram.getMax()).isEqualTo(0);
+    assertThat(histogram.getValueAtPercentile(99)).isEqualTo(0);
+  }
+
+  @Test
+  public void smallValuesAreExact() {
+    for (int i = 1; i <= LatencyHistogram.SUB_BUCKETS; i++) {
+      histogram.record(i);
+    }
+
+    assertThat(histogram.getValueAtPercentile(50)).isEqualTo(LatencyHistogram.SUB_BUCKETS / 2);
+    assertThat(histogram.getValueAtPercentile(100)).isEqualTo(LatencyHistogram.SUB_BUCKETS);
+  }
+
+  @Test
+  public void percentilesAreWithinThePrecisionOfTheBuckets() {
+    for (long i = 1; i <= 100_000; i++) {
+      histogram.record(i * 1000);
+    }
+
+    assertThat(histogram.getCount()).isEqualTo(100_000);
+    assertThat(histogram.getMax()).isEqualTo(100_000_000);
+    assertThat((double) histogram.getValueAtPercentile(50)).isCloseTo(50_000_000, within(1.6e6));
+    assertThat((double) histogram.getValueAtPercentile(99)).isCloseTo(99_000_000, within(3.1e6));
+    assertThat(histogram.getValueAtPercentile(100)).isEqualTo(100_000_000);
+  }
+
+  @Test
+  public void tailIsNotHiddenByManyFastValues() {
+    for (int i = 0; i < 990; i++) {
+      histogram.record(100);
+    }
+    for (int i = 0; i < 10; i++) {
+      histogram.record(1_000_000);
+    }
+
+    assertThat(histogram.getValueAtPercentile(99)).isLessThan(200);
+    assertThat(histogram.getValueAtPercentile(99.9)).isGreaterThan(900_000);
+  }
+
+  @Test
+  public void bucketsCoverEveryValue() {
+    for (long value : new long[] {0, 31, 32, 33, 63, 64, 65, 1L << 40, Long.MAX_VALUE}) {
+      int index = LatencyHistogram.indexOf(value);
+      assertThat(LatencyHistogram.highestValueOf(index)).isGreaterThanOrEqualTo(value);
+      if (index > 0) {
+        assertThat(LatencyHistogram.highestValueOf(index - 1)).isLessThan(value);
+      }
+    }
+  }
+
+  @Test
+  public void negativeValuesAreRecordedAsZero() {
+    histogram.record(-5);
+
+    assertThat(histogram.getCount()).isEqualTo(1);
+    assertThat(histogram.getValueAtPercentile(100)).isEqualTo(0);
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.tcp;
+
+import static org.apache.geode.test.awaitility.GeodeAwaitility.await;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.test.junit.categories.MembershipTest;
+
+@Category({MembershipTest.class})
+public class SelectorReaderTest {
+
+  private SocketChannel sender;
+  private SocketChannel receiver;
+  private Connection connection;
+  private SelectorReader selectorReader;
+
+  @Before
+  public void setUp() throws Exception {
+    try (ServerSocketChannel server = ServerSocketChannel.open()) {
+      server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+      sender = SocketChannel.open(server.getLocalAddress());
+      receiver = server.accept();
+    }
+    // as Connection does before it is first parked
+    receiver.configureBlocking(false);
+    connection = mock(Connection.class);
+    when(connection.getSocketChannel()).thenReturn(receiver);
+    selectorReader = new SelectorReader("test selector reader", Runnable::run);
+    selectorReader.start();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    selectorReader.close();
+    sender.close();
+    receiver.close();
+  }
+
+  @Test
+  public void parkedConnectionIsReadWhenBytesArrive() throws Exception {
+    selectorReader.register(connection);
+    await().until(receiver::isRegistered);
+    verify(connection, never()).readSelected();
+
+    sender.write(ByteBuffer.wrap(new byte[] {1, 2, 3}));
+
+    verify(connection, timeout(10000)).readSelected();
+  }
+
+  @Test
+  public void closedParkedConnectionIsReadToStop() throws Exception {
+    selectorReader.register(connection);
+    await().until(receiver::isRegistered);
+
+    connection.stopped = true;
+    selectorReader.closed(connection);
+
+    verify(connection, timeout(10000)).readSelected();
+  }
+
+  @Test
+  public void stoppedConnectionIsNotParked() throws Exception {
+    connection.stopped = true;
+    selectorReader.register(connection);
+
+    verify(connection, timeout(10000)).readSelected();
+  }
+
+  @Test
+  public void closingStopsParkedConnections() throws Exception {
+    selectorReader.register(connection);
+    await().until(receiver::isRegistered);
+
+    selectorReader.close();
+
+    verify(connection, timeout(10000)).readerStopped();
+  }
+}
@@ -0,0 +1,154 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.tcp;
+
+import static org.apache.geode.test.awaitility.GeodeAwaitility.await;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.distributed.internal.DMStats;
+import org.apache.geode.test.junit.categories.MembershipTest;
+
+@Category({MembershipTest.class})
+public class WriteCoalescerTest {
+
+  private final DMStats stats = mock(DMStats.class);
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  private final List<Integer> writes = new ArrayList<>();
+
+  private final CountDownLatch firstWriteStarted = new CountDownLatch(1);
+
+  private final CountDownLatch releaseFirstWrite = new CountDownLatch(1);
+
+  @After
+  public void tearDown() {
+    releaseFirstWrite.countDown();
+    executor.shutdownNow();
+  }
+
+  private void write(ByteBuffer[] buffers, int length) throws IOException {
+    synchronized (writes) {
+      writes.add(length);
+    }
+    firstWriteStarted.countDown();
+    try {
+      releaseFirstWrite.await();
+    } catch (InterruptedException e) {
+      throw new IOException(e);
+    }
+    for (int i = 0; i < length; i++) {
+      buffers[i].position(buffers[i].limit());
+    }
+  }
+
+  private static ByteBuffer message() {
+    return ByteBuffer.allocate(10);
+  }
+
+  @Test
+  public void writeToIdleConnectionIsNotDelayed() throws Exception {
+    releaseFirstWrite.countDown();
+    WriteCoalescer coalescer = new WriteCoalescer(this::write, 1000, 0, stats);
+    ByteBuffer buffer = message();
+
+    coalescer.write(buffer);
+
+    assertThat(buffer.hasRemaining()).isFalse();
+    assertThat(writes).containsExactly(1);
+  }
+
+  @Test
+  public void messagesWrittenDuringAWriteAreCoalesced() throws Exception {
+    WriteCoalescer coalescer = new WriteCoalescer(this::write, 1000, 0, stats);
+    ByteBuffer first = message();
+    CompletableFuture<Void> firstWrite =
+        CompletableFuture.runAsync(() -> write(coalescer, first), executor);
+    firstWriteStarted.await();
+
+    List<ByteBuffer> buffers = new ArrayList<>();
+    List<CompletableFuture<Void>> queuedWrites = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      ByteBuffer buffer = message();
+      buffers.add(buffer);
+      queuedWrites.add(CompletableFuture.runAsync(() -> write(coalescer, buffer), executor));
+    }
+    await().until(() -> coalescer.getQueuedWrites() == 3);
+    releaseFirstWrite.countDown();
+
+    firstWrite.get();
+    for (CompletableFuture<Void> queuedWrite : queuedWrites) {
+      queuedWrite.get();
+    }
+    assertThat(buffers).allMatch(buffer -> !buffer.hasRemaining());
+    assertThat(writes).containsExactly(1, 3);
+    verify(stats).incCoalescedWrites(3);
+  }
+
+  @Test
+  public void coalescedWritesStayUnderMaxBytes() throws Exception {
+    WriteCoalescer coalescer = new WriteCoalescer(this::write, 20, 0, stats);
+    CompletableFuture<Void> firstWrite =
+        CompletableFuture.runAsync(() -> write(coalescer, message()), executor);
+    firstWriteStarted.await();
+
+    List<CompletableFuture<Void>> queuedWrites = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      queuedWrites.add(CompletableFuture.runAsync(() -> write(coalescer, message()), executor));
+    }
+    await().until(() -> coalescer.getQueuedWrites() == 3);
+    releaseFirstWrite.countDown();
+
+    firstWrite.get();
+    for (CompletableFuture<Void> queuedWrite : queuedWrites) {
+      queuedWrite.get();
+    }
+    assertThat(writes).containsExactly(1, 2, 1);
+  }
+
+  @Test
+  public void failedWriteFailsEveryMessageInIt() {
+    WriteCoalescer coalescer = new WriteCoalescer((buffers, length) -> {
+      throw new IOException("broken pipe");
+    }, 1000, 0, stats);
+
+    assertThatThrownBy(() -> coalescer.write(message())).isInstanceOf(IOException.class)
+        .hasMessage("broken pipe");
+  }
+
+  private static void write(WriteCoalescer coalescer, ByteBuffer buffer) {
+    try {
+      coalescer.write(buffer);
+    } catch (IOException e) {
+      throw new RuntimeException(e);
+    }
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.internal.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ByteRateLimiterTest {
+
+  private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+  private final ByteRateLimiter limiter = new ByteRateLimiter(1000);
+
+  @Test
+  public void waitsForTheTimeTheBytesTakeAtTheLimit() {
+    assertThat(limiter.charge(500, 0)).isEqualTo(SECOND / 2);
+    assertThat(limiter.charge(500, 0)).isEqualTo(SECOND);
+  }
+
+  @Test
+  public void timePassedPaysForBytes() {
+    assertThat(limiter.charge(1000, 0)).isEqualTo(SECOND);
+    assertThat(limiter.charge(1000, SECOND / 2)).isEqualTo(SECOND + SECOND / 2);
+    assertThat(limiter.charge(1000, 2 * SECOND)).isEqualTo(SECOND);
+  }
+
+  @Test
+  public void unusedBudgetIsNotSavedUp() {
+    assertThat(limiter.charge(1000, 0)).isEqualTo(SECOND);
+    assertThat(limiter.charge(1000, 10 * SECOND)).isEqualTo(SECOND);
+  }
+
+  @Test
+  public void worksWithNegativeNanoTimes() {
+    assertThat(limiter.charge(1000, Long.MIN_VALUE + 1)).isEqualTo(SECOND);
+  }
+
+  @Test
+  public void acquireSleepsUntilTheBytesArePaidFor() throws Exception {
+    long start = System.nanoTime();
+    limiter.acquire(100);
+    assertThat(System.nanoTime() - start).isGreaterThanOrEqualTo(SECOND / 10);
+  }
+
+  @Test
+  public void limitMustBePositive() {
+    assertThatThrownBy(() -> new ByteRateLimiter(0))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
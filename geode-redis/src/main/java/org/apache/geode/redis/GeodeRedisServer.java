@@ -22,11 +22,9 @@ import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
 import java.util.Collection;
 import java.util.Map.Entry;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -64,13 +62,18 @@ import org.apache.geode.distributed.internal.InternalDistributedSystem;
 import org.apache.geode.internal.cache.GemFireCacheImpl;
 import org.apache.geode.internal.cache.InternalCache;
 import org.apache.geode.internal.cache.InternalRegionArguments;
-import org.apache.geode.internal.hll.HyperLogLogPlus;
 import org.apache.geode.internal.net.SocketCreator;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.ByteToCommandDecoder;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
+import org.apache.geode.redis.internal.ExpirationStats;
+import org.apache.geode.redis.internal.KeyScanIndex;
 import org.apache.geode.redis.internal.RedisDataType;
+import org.apache.geode.redis.internal.RedisHash;
+import org.apache.geode.redis.internal.RedisHyperLogLog;
+import org.apache.geode.redis.internal.RedisList;
+import org.apache.geode.redis.internal.RedisSortedSet;
 import org.apache.geode.redis.internal.RegionProvider;
 
 /**
@@ -79,16 +82,21 @@ import org.apache.geode.redis.internal.RegionProvider;
  * sent back to the client. The default connection port is 6379 but that can be altered when run
  * through GFSH or started through the provided static main class.
  * <p>
- * Each Redis data type instance is stored in a separate {@link Region} except for the Strings and
- * HyperLogLogs which are collectively stored in one Region respectively. That Region along with a
- * meta data region used internally are protected so the client may not store keys with the name
- * {@link GeodeRedisServer#REDIS_META_DATA_REGION} or {@link GeodeRedisServer#STRING_REGION}. The
+ * Each Redis data type instance is stored in a separate {@link Region} except for the Strings,
+ * HyperLogLogs, Lists, SortedSets and Hashes which are collectively stored in one Region
+ * respectively. Those Regions along with a meta data region used internally are protected so the
+ * client may not store keys with the name {@link GeodeRedisServer#REDIS_META_DATA_REGION},
+ * {@link GeodeRedisServer#STRING_REGION}, {@link GeodeRedisServer#HLL_REGION},
+ * {@link GeodeRedisServer#LIST_REGION}, {@link GeodeRedisServer#SORTED_SET_REGION} or
+ * {@link GeodeRedisServer#HASH_REGION}. The
  * default Region type is {@link RegionShortcut#PARTITION} although this can be changed by
  * specifying the SystemProperty {@value #DEFAULT_REGION_SYS_PROP_NAME} to a type defined by
  * {@link RegionShortcut}. If the {@link GeodeRedisServer#NUM_THREADS_SYS_PROP_NAME} system property
- * is set to 0, one thread per client will be created. Otherwise a worker thread pool of specified
- * size is used or a default size of 4 * {@link Runtime#availableProcessors()} if the property is
- * not set.
+ * is set to 0, one thread per client will be created. Otherwise commands are executed by a worker
+ * thread pool of specified size, or a default size of 4 * {@link Runtime#availableProcessors()} if
+ * the property is not set, while one I/O thread per processor reads and writes the sockets. The
+ * commands of a connection are queued and executed in order so pipelining clients are served
+ * without blocking the I/O threads.
  * <p>
  * Setting the AUTH password requires setting the property "redis-password" just as "redis-port"
  * would be in xml or through GFSH.
@@ -160,6 +168,12 @@ public class GeodeRedisServer {
    */
   private final int numWorkerThreads;
 
+  /**
+   * The number of threads that will read and write client sockets when commands are executed by the
+   * worker threads
+   */
+  private final int numIOThreads;
+
   /**
    * The number of threads that will work socket selectors
    */
@@ -209,15 +223,21 @@ public class GeodeRedisServer {
 
   private final MetaCacheListener metaListener;
 
+  /**
+   * The Redis keys in the meta data region, maintained by the {@link #metaListener}
+   */
+  private final KeyScanIndex keyIndex;
+
   private EventLoopGroup bossGroup;
   private EventLoopGroup workerGroup;
-  private static final int numExpirationThreads = 1;
-  private final ScheduledExecutorService expirationExecutor;
 
   /**
-   * Map of futures to be executed for key expirations
+   * Worker threads executing the queued commands of all connections, null when there is one thread
+   * per connection
    */
-  private final ConcurrentMap<ByteArrayWrapper, ScheduledFuture<?>> expirationFutures;
+  private ExecutorService commandExecutor;
+  private static final int numExpirationThreads = 1;
+  private final ScheduledExecutorService expirationExecutor;
 
 
   /**
@@ -232,6 +252,24 @@ public class GeodeRedisServer {
    */
   public static final String HLL_REGION = "ReDiS_HlL";
 
+  /**
+   * The field that defines the name of the {@link Region} which holds all of the Lists. The current
+   * value of this field is {@code LIST_REGION}.
+   */
+  public static final String LIST_REGION = "ReDiS_LiStS";
+
+  /**
+   * The field that defines the name of the {@link Region} which holds all of the SortedSets. The
+   * current value of this field is {@code SORTED_SET_REGION}.
+   */
+  public static final String SORTED_SET_REGION = "ReDiS_SoRtEd_SeTs";
+
+  /**
+   * The field that defines the name of the {@link Region} which holds all of the Hashes. The
+   * current value of this field is {@code HASH_REGION}.
+   */
+  public static final String HASH_REGION = "ReDiS_HaShEs";
+
   /**
    * The field that defines the name of the {@link Region} which holds all of the Redis meta data.
    * The current value of this field is {@code REDIS_META_DATA_REGION}.
@@ -338,9 +376,10 @@ public class GeodeRedisServer {
     this.logLevel = logLevel;
     this.numWorkerThreads = setNumWorkerThreads();
     this.singleThreadPerConnection = this.numWorkerThreads == 0;
+    this.numIOThreads = Runtime.getRuntime().availableProcessors();
     this.numSelectorThreads = 1;
     this.metaListener = new MetaCacheListener();
-    this.expirationFutures = new ConcurrentHashMap<ByteArrayWrapper, ScheduledFuture<?>>();
+    this.keyIndex = new KeyScanIndex();
     this.expirationExecutor =
         Executors.newScheduledThreadPool(numExpirationThreads, new ThreadFactory() {
           private final AtomicInteger counter = new AtomicInteger();
@@ -413,7 +452,10 @@ public class GeodeRedisServer {
     synchronized (this.cache) {
       Region<ByteArrayWrapper, ByteArrayWrapper> stringsRegion;
 
-      Region<ByteArrayWrapper, HyperLogLogPlus> hLLRegion;
+      Region<ByteArrayWrapper, RedisHyperLogLog> hLLRegion;
+      Region<ByteArrayWrapper, RedisList> listRegion;
+      Region<ByteArrayWrapper, RedisSortedSet> sortedSetRegion;
+      Region<ByteArrayWrapper, RedisHash> hashRegion;
       Region<String, RedisDataType> redisMetaData;
       InternalCache gemFireCache = (InternalCache) cache;
       try {
@@ -423,10 +465,25 @@ public class GeodeRedisServer {
           stringsRegion = regionFactory.create(STRING_REGION);
         }
         if ((hLLRegion = cache.getRegion(HLL_REGION)) == null) {
-          RegionFactory<ByteArrayWrapper, HyperLogLogPlus> regionFactory =
+          RegionFactory<ByteArrayWrapper, RedisHyperLogLog> regionFactory =
               gemFireCache.createRegionFactory(this.DEFAULT_REGION_TYPE);
           hLLRegion = regionFactory.create(HLL_REGION);
         }
+        if ((listRegion = cache.getRegion(LIST_REGION)) == null) {
+          RegionFactory<ByteArrayWrapper, RedisList> regionFactory =
+              gemFireCache.createRegionFactory(this.DEFAULT_REGION_TYPE);
+          listRegion = regionFactory.create(LIST_REGION);
+        }
+        if ((sortedSetRegion = cache.getRegion(SORTED_SET_REGION)) == null) {
+          RegionFactory<ByteArrayWrapper, RedisSortedSet> regionFactory =
+              gemFireCache.createRegionFactory(this.DEFAULT_REGION_TYPE);
+          sortedSetRegion = regionFactory.create(SORTED_SET_REGION);
+        }
+        if ((hashRegion = cache.getRegion(HASH_REGION)) == null) {
+          RegionFactory<ByteArrayWrapper, RedisHash> regionFactory =
+              gemFireCache.createRegionFactory(this.DEFAULT_REGION_TYPE);
+          hashRegion = regionFactory.create(HASH_REGION);
+        }
         if ((redisMetaData = cache.getRegion(REDIS_META_DATA_REGION)) == null) {
           AttributesFactory af = new AttributesFactory();
           af.addCacheListener(metaListener);
@@ -442,11 +499,16 @@ public class GeodeRedisServer {
         assErr.initCause(e);
         throw assErr;
       }
-      this.regionCache = new RegionProvider(stringsRegion, hLLRegion, redisMetaData,
-          expirationFutures, expirationExecutor, this.DEFAULT_REGION_TYPE);
+      this.regionCache = new RegionProvider(stringsRegion, hLLRegion, listRegion,
+          sortedSetRegion, hashRegion, redisMetaData, keyIndex, expirationExecutor,
+          new ExpirationStats(this.cache.getDistributedSystem(), "redisExpiration"),
+          this.DEFAULT_REGION_TYPE);
       redisMetaData.put(REDIS_META_DATA_REGION, RedisDataType.REDIS_PROTECTED);
       redisMetaData.put(HLL_REGION, RedisDataType.REDIS_PROTECTED);
       redisMetaData.put(STRING_REGION, RedisDataType.REDIS_PROTECTED);
+      redisMetaData.put(LIST_REGION, RedisDataType.REDIS_PROTECTED);
+      redisMetaData.put(SORTED_SET_REGION, RedisDataType.REDIS_PROTECTED);
+      redisMetaData.put(HASH_REGION, RedisDataType.REDIS_PROTECTED);
     }
     checkForRegions();
   }
@@ -499,8 +561,21 @@ public class GeodeRedisServer {
       }
     };
 
+    ThreadFactory ioThreadFactory = new ThreadFactory() {
+      private final AtomicInteger counter = new AtomicInteger();
+
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread t = new Thread(r);
+        t.setName("GeodeRedisServer-IOThread-" + counter.incrementAndGet());
+        t.setDaemon(true);
+        return t;
+      }
+    };
+
     bossGroup = null;
     workerGroup = null;
+    commandExecutor = null;
     Class<? extends ServerChannel> socketClass = null;
     if (singleThreadPerConnection) {
       bossGroup = new OioEventLoopGroup(Integer.MAX_VALUE, selectorThreadFactory);
@@ -508,9 +583,11 @@ public class GeodeRedisServer {
       socketClass = OioServerSocketChannel.class;
     } else {
       bossGroup = new NioEventLoopGroup(this.numSelectorThreads, selectorThreadFactory);
-      workerGroup = new NioEventLoopGroup(this.numWorkerThreads, workerThreadFactory);
+      workerGroup = new NioEventLoopGroup(this.numIOThreads, ioThreadFactory);
+      commandExecutor = Executors.newFixedThreadPool(this.numWorkerThreads, workerThreadFactory);
       socketClass = NioServerSocketChannel.class;
     }
+    final ExecutorService executor = commandExecutor;
     InternalDistributedSystem system = (InternalDistributedSystem) cache.getDistributedSystem();
     String pwd = system.getConfig().getRedisPassword();
     final byte[] pwdB = Coder.stringToBytes(pwd);
@@ -524,7 +601,8 @@ public class GeodeRedisServer {
             ChannelPipeline p = ch.pipeline();
             p.addLast(ByteToCommandDecoder.class.getSimpleName(), new ByteToCommandDecoder());
             p.addLast(ExecutionHandlerContext.class.getSimpleName(),
-                new ExecutionHandlerContext(ch, cache, regionCache, GeodeRedisServer.this, pwdB));
+                new ExecutionHandlerContext(ch, cache, regionCache, GeodeRedisServer.this, pwdB,
+                    executor));
           }
         }).option(ChannelOption.SO_REUSEADDR, true).option(ChannelOption.SO_RCVBUF, getBufferSize())
         .childOption(ChannelOption.SO_KEEPALIVE, true)
@@ -539,7 +617,8 @@ public class GeodeRedisServer {
       if (this.singleThreadPerConnection)
         logMessage += ", One worker thread per connection";
       else
-        logMessage += ", Worker threads: " + this.numWorkerThreads;
+        logMessage += ", I/O threads: " + this.numIOThreads + ", Worker threads: "
+            + this.numWorkerThreads;
       this.logger.info(logMessage);
     }
     this.serverChannel = f.channel();
@@ -553,6 +632,9 @@ public class GeodeRedisServer {
    * @param event EntryEvent from meta data region
    */
   private void afterKeyCreate(EntryEvent<String, RedisDataType> event) {
+    if (event.getNewValue() != RedisDataType.REDIS_PROTECTED) {
+      this.keyIndex.add(event.getKey());
+    }
     if (event.isOriginRemote()) {
       final String key = (String) event.getKey();
       final RedisDataType value = event.getNewValue();
@@ -572,6 +654,7 @@ public class GeodeRedisServer {
    * also removed from each vm to avoid unnecessary data retention
    */
   private void afterKeyDestroy(EntryEvent<String, RedisDataType> event) {
+    this.keyIndex.remove(event.getKey());
     if (event.isOriginRemote()) {
       final String key = (String) event.getKey();
       final RedisDataType value = event.getOldValue();
@@ -620,14 +703,13 @@ public class GeodeRedisServer {
       Future<?> c = workerGroup.shutdownGracefully();
       Future<?> c2 = bossGroup.shutdownGracefully();
       this.serverChannel.close();
+      if (this.commandExecutor != null)
+        this.commandExecutor.shutdownNow();
       c.syncUninterruptibly();
       c2.syncUninterruptibly();
       this.regionCache.close();
       if (mainThread != null)
         mainThread.interrupt();
-      for (ScheduledFuture<?> f : this.expirationFutures.values())
-        f.cancel(true);
-      this.expirationFutures.clear();
       this.expirationExecutor.shutdownNow();
       closeFuture.syncUninterruptibly();
       shutdown = true;
@@ -23,6 +23,8 @@ import java.util.Map.Entry;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.CompositeByteBuf;
+import io.netty.buffer.Unpooled;
 
 import org.apache.geode.annotations.internal.MakeImmutable;
 import org.apache.geode.cache.EntryDestroyedException;
@@ -115,36 +117,34 @@ public class Coder {
    */
   public static final String N_INF = "-inf";
 
+  /**
+   * Values of at least this many bytes are wrapped into a response instead of being copied
+   */
+  static final int MIN_WRAPPED_VALUE_LENGTH = 512;
+
+  /**
+   * Once a framing buffer holds this many bytes a new one is started, so that a buffer never has
+   * to be copied to grow
+   */
+  static final int MAX_FRAMING_BUFFER_SIZE = 8192;
+
   public static ByteBuf getBulkStringResponse(ByteBufAllocator alloc, Object v)
       throws CoderException {
-    ByteBuf response;
-    byte[] toWrite;
+    byte[] toWrite = bulkStringBytes(v);
 
-    if (v == null) {
-      response = alloc.buffer();
+    if (toWrite == null) {
+      ByteBuf response = alloc.buffer(bNIL.length);
       response.writeBytes(bNIL);
       return response;
-    } else if (v instanceof byte[]) {
-      byte[] value = (byte[]) v;
-      response = alloc.buffer(value.length + 20);
-      toWrite = value;
-    } else if (v instanceof ByteArrayWrapper) {
-      byte[] value = ((ByteArrayWrapper) v).toBytes();
-      response = alloc.buffer(value.length + 20);
-      toWrite = value;
-    } else if (v instanceof Double) {
-      response = alloc.buffer();
-      toWrite = doubleToBytes(((Double) v).doubleValue());
-    } else if (v instanceof String) {
-      String value = (String) v;
-      response = alloc.buffer(value.length() + 20);
-      toWrite = stringToBytes(value);
-    } else {
-      throw new CoderException();
+    } else if (toWrite.length >= MIN_WRAPPED_VALUE_LENGTH) {
+      ResponseBuilder response = new ResponseBuilder(alloc);
+      response.writeBulkString(toWrite);
+      return response.build();
     }
 
+    ByteBuf response = alloc.buffer(toWrite.length + 20);
     response.writeByte(BULK_STRING_ID);
-    response.writeBytes(intToBytes(toWrite.length));
+    writeDecimal(response, toWrite.length);
     response.writeBytes(CRLFar);
     response.writeBytes(toWrite);
     response.writeBytes(CRLFar);
@@ -154,38 +154,53 @@ public class Coder {
 
   public static ByteBuf getBulkStringArrayResponse(ByteBufAllocator alloc, Collection<?> items)
       throws CoderException {
-    ByteBuf response = alloc.buffer();
-    response.writeByte(ARRAY_ID);
-    response.writeBytes(intToBytes(items.size()));
-    response.writeBytes(CRLFar);
+    ResponseBuilder response = new ResponseBuilder(alloc);
+    try {
+      writeBulkStringArray(response, items);
+    } catch (CoderException | RuntimeException e) {
+      response.release();
+      throw e;
+    }
+    return response.build();
+  }
+
+  private static void writeBulkStringArray(ResponseBuilder response, Collection<?> items)
+      throws CoderException {
+    response.writeArrayHeader(items.size());
     for (Object next : items) {
-      ByteBuf tmp = null;
-      try {
-        if (next instanceof Collection) {
-          Collection<?> nextItems = (Collection<?>) next;
-          tmp = getBulkStringArrayResponse(alloc, nextItems);
-          response.writeBytes(tmp);
-        } else {
-          tmp = getBulkStringResponse(alloc, next);
-          response.writeBytes(tmp);
-        }
-      } finally {
-        if (tmp != null) {
-          tmp.release();
-        }
+      if (next instanceof Collection) {
+        writeBulkStringArray(response, (Collection<?>) next);
+      } else {
+        response.writeBulkString(bulkStringBytes(next));
       }
     }
+  }
 
-    return response;
+  /**
+   * @return the bytes of a bulk string holding the value, or null for a nil bulk string
+   */
+  private static byte[] bulkStringBytes(Object v) throws CoderException {
+    if (v == null) {
+      return null;
+    } else if (v instanceof byte[]) {
+      return (byte[]) v;
+    } else if (v instanceof ByteArrayWrapper) {
+      return ((ByteArrayWrapper) v).toBytes();
+    } else if (v instanceof Double) {
+      return doubleToBytes(((Double) v).doubleValue());
+    } else if (v instanceof String) {
+      String value = (String) v;
+      return value.isEmpty() ? new byte[0] : stringToBytes(value);
+    } else {
+      throw new CoderException();
+    }
   }
 
   public static ByteBuf getKeyValArrayResponse(ByteBufAllocator alloc,
       Collection<Entry<ByteArrayWrapper, ByteArrayWrapper>> items) {
-    ByteBuf response = alloc.buffer();
-    response.writeByte(ARRAY_ID);
+    ResponseBuilder response = new ResponseBuilder(alloc);
 
     int size = 0;
-    ByteBuf tmp = alloc.buffer();
     for (Map.Entry<ByteArrayWrapper, ByteArrayWrapper> next : items) {
       byte[] key;
       byte[] nextByteArray;
@@ -195,26 +210,12 @@ public class Coder {
       } catch (EntryDestroyedException e) {
         continue;
       }
-      tmp.writeByte(BULK_STRING_ID); // Add key
-      tmp.writeBytes(intToBytes(key.length));
-      tmp.writeBytes(CRLFar);
-      tmp.writeBytes(key);
-      tmp.writeBytes(CRLFar);
-      tmp.writeByte(BULK_STRING_ID); // Add value
-      tmp.writeBytes(intToBytes(nextByteArray.length));
-      tmp.writeBytes(CRLFar);
-      tmp.writeBytes(nextByteArray);
-      tmp.writeBytes(CRLFar);
+      response.writeBulkString(key);
+      response.writeBulkString(nextByteArray);
       size++;
     }
 
-    response.writeBytes(intToBytes(size * 2));
-    response.writeBytes(CRLFar);
-    response.writeBytes(tmp);
-
-    tmp.release();
-
-    return response;
+    return response.buildArray(size * 2);
   }
 
   public static ByteBuf getScanResponse(ByteBufAllocator alloc, List<?> items) {
@@ -322,9 +323,7 @@ public class Coder {
 
   public static ByteBuf getBulkStringArrayResponseOfValues(ByteBufAllocator alloc,
       Collection<?> items) {
-    ByteBuf response = alloc.buffer();
-    response.writeByte(Coder.ARRAY_ID);
-    ByteBuf tmp = alloc.buffer();
+    ResponseBuilder response = new ResponseBuilder(alloc);
     int size = 0;
     try {
       for (Object next : items) {
@@ -338,26 +337,15 @@ public class Coder {
         } else if (next instanceof Struct) {
           nextWrapper = (ByteArrayWrapper) ((Struct) next).getFieldValues()[1];
         }
-        if (nextWrapper != null) {
-          tmp.writeByte(Coder.BULK_STRING_ID);
-          tmp.writeBytes(intToBytes(nextWrapper.length()));
-          tmp.writeBytes(Coder.CRLFar);
-          tmp.writeBytes(nextWrapper.toBytes());
-          tmp.writeBytes(Coder.CRLFar);
-        } else {
-          tmp.writeBytes(Coder.bNIL);
-        }
+        response.writeBulkString(nextWrapper == null ? null : nextWrapper.toBytes());
         size++;
       }
-
-      response.writeBytes(intToBytes(size));
-      response.writeBytes(Coder.CRLFar);
-      response.writeBytes(tmp);
-    } finally {
-      tmp.release();
+    } catch (RuntimeException e) {
+      response.release();
+      throw e;
     }
 
-    return response;
+    return response.buildArray(size);
   }
 
   public static ByteBuf zRangeResponse(ByteBufAllocator alloc, Collection<?> list,
@@ -425,6 +413,116 @@ public class Coder {
     return response;
   }
 
+  /**
+   * Writes the decimal digits of a non negative number without going through a String
+   */
+  static void writeDecimal(ByteBuf buffer, long l) {
+    if (l < 0) {
+      buffer.writeBytes(longToBytes(l));
+      return;
+    }
+    long divisor = 1;
+    while (divisor <= l / 10) {
+      divisor *= 10;
+    }
+    for (; divisor > 0; divisor /= 10) {
+      buffer.writeByte((int) ('0' + l / divisor % 10));
+    }
+  }
+
+  /**
+   * Assembles a response as a {@link CompositeByteBuf}. The protocol framing and small values are
+   * written to pooled direct buffers, while values of at least {@link #MIN_WRAPPED_VALUE_LENGTH}
+   * bytes are added as wrapped components so they are written to the socket without being copied.
+   * This relies on stored byte arrays never being modified in place.
+   */
+  static class ResponseBuilder {
+
+    private final ByteBufAllocator alloc;
+
+    private final CompositeByteBuf response;
+
+    private ByteBuf framing;
+
+    ResponseBuilder(ByteBufAllocator alloc) {
+      this.alloc = alloc;
+      this.response = alloc.compositeBuffer(Integer.MAX_VALUE);
+    }
+
+    private ByteBuf framing() {
+      if (this.framing == null) {
+        this.framing = this.alloc.directBuffer();
+      }
+      return this.framing;
+    }
+
+    private void endFraming() {
+      if (this.framing != null) {
+        this.response.addComponent(true, this.framing);
+        this.framing = null;
+      }
+    }
+
+    void writeArrayHeader(int size) {
+      ByteBuf buffer = framing();
+      buffer.writeByte(ARRAY_ID);
+      writeDecimal(buffer, size);
+      buffer.writeBytes(CRLFar);
+    }
+
+    /**
+     * @param value the bulk string to write, null for a nil bulk string
+     */
+    void writeBulkString(byte[] value) {
+      ByteBuf buffer = framing();
+      if (value == null) {
+        buffer.writeBytes(bNIL);
+        return;
+      }
+      buffer.writeByte(BULK_STRING_ID);
+      writeDecimal(buffer, value.length);
+      buffer.writeBytes(CRLFar);
+      if (value.length < MIN_WRAPPED_VALUE_LENGTH) {
+        buffer.writeBytes(value);
+      } else {
+        endFraming();
+        this.response.addComponent(true, Unpooled.wrappedBuffer(value));
+        buffer = framing();
+      }
+      buffer.writeBytes(CRLFar);
+      if (buffer.readableBytes() >= MAX_FRAMING_BUFFER_SIZE) {
+        endFraming();
+      }
+    }
+
+    ByteBuf build() {
+      endFraming();
+      return this.response;
+    }
+
+    /**
+     * Builds the response as an array of the given size, the header is prepended to what has been
+     * written so far
+     */
+    ByteBuf buildArray(int size) {
+      endFraming();
+      ByteBuf header = this.alloc.directBuffer(16);
+      header.writeByte(ARRAY_ID);
+      writeDecimal(header, size);
+      header.writeBytes(CRLFar);
+      this.response.addComponent(true, 0, header);
+      return this.response;
+    }
+
+    void release() {
+      if (this.framing != null) {
+        this.framing.release();
+        this.framing = null;
+      }
+      this.response.release();
+    }
+  }
+
   public static String bytesToString(byte[] bytes) {
     if (bytes == null)
       return null;
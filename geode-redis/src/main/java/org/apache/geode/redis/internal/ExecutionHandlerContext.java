@@ -17,15 +17,18 @@ package org.apache.geode.redis.internal;
 import java.io.IOException;
 import java.util.Queue;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.ByteBufAllocator;
 import io.netty.channel.Channel;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
 import io.netty.handler.codec.DecoderException;
-import io.netty.util.concurrent.EventExecutor;
 
 import org.apache.geode.LogWriter;
 import org.apache.geode.cache.Cache;
@@ -49,6 +52,12 @@ import org.apache.geode.redis.internal.executor.transactions.TransactionExecutor
  * Besides being part of Netty's pipeline, this class also serves as a context to the execution of a
  * command. It abstracts transactions, provides access to the {@link RegionProvider} and anything
  * else an executing {@link Command} may need.
+ * <p>
+ * When a command executor is given, decoded commands are not executed on the Netty event loop.
+ * Instead they are queued per connection and drained in order by a single task at a time on the
+ * command executor, so a client pipelining many commands never blocks the event loop on region
+ * operations. Responses of a drained batch are written back to back and flushed once. Reading from
+ * the socket is paused while too many commands of a connection are waiting to be executed.
  *
  *
  */
@@ -58,15 +67,42 @@ public class ExecutionHandlerContext extends ChannelInboundHandlerAdapter {
   private static final int MAXIMUM_NUM_RETRIES = (1000 * 60) / WAIT_REGION_DSTRYD_MILLIS; // 60
                                                                                           // seconds
                                                                                           // total
+  /**
+   * Number of queued commands of a connection at which reading from its socket is paused
+   */
+  static final int MAX_PENDING_COMMANDS = 1024;
+
+  /**
+   * Number of queued commands of a connection at which reading from its socket is resumed
+   */
+  private static final int RESUME_READ_PENDING_COMMANDS = MAX_PENDING_COMMANDS / 2;
+
+  /**
+   * Maximum number of commands executed by one drain of the queue before the responses are flushed
+   * and the executor thread is handed to other connections
+   */
+  private static final int MAX_COMMANDS_PER_DRAIN = 64;
 
   private final Cache cache;
   private final GeodeRedisServer server;
   private final LogWriter logger;
   private final Channel channel;
-  private final AtomicBoolean needChannelFlush;
-  private final Runnable flusher;
-  private final EventExecutor lastExecutor;
   private final ByteBufAllocator byteBufAllocator;
+
+  /**
+   * Executor the commands of this connection are run on, null to run them on the channel's own
+   * thread
+   */
+  private final ExecutorService commandExecutor;
+
+  /**
+   * Decoded commands, or decoding failures, waiting to be executed in arrival order
+   */
+  private final Queue<Object> commandQueue;
+  private final AtomicInteger pendingCommands;
+  private final AtomicBoolean draining;
+  private final Runnable drainer;
+  private final Runnable readResumer;
   /**
    * TransactionId for any transactions started by this client
    */
@@ -90,26 +126,40 @@ public class ExecutionHandlerContext extends ChannelInboundHandlerAdapter {
    * @param server Instance of the server it is attached to, only used so that any execution can
    *        initiate a shutdwon
    * @param pwd Authentication password for each context, can be null
+   * @param commandExecutor Executor used to run the commands of this connection, can be null to
+   *        run them directly on the channel's thread
    */
   public ExecutionHandlerContext(Channel ch, Cache cache, RegionProvider regionProvider,
-      GeodeRedisServer server, byte[] pwd) {
+      GeodeRedisServer server, byte[] pwd, ExecutorService commandExecutor) {
     if (ch == null || cache == null || regionProvider == null || server == null)
-      throw new IllegalArgumentException("Only the authentication password may be null");
+      throw new IllegalArgumentException(
+          "Only the authentication password and command executor may be null");
     this.cache = cache;
     this.server = server;
     this.logger = cache.getLogger();
     this.channel = ch;
-    this.needChannelFlush = new AtomicBoolean(false);
-    this.flusher = new Runnable() {
+    this.byteBufAllocator = channel.alloc();
+    this.commandExecutor = commandExecutor;
+    this.commandQueue = new ConcurrentLinkedQueue<Object>();
+    this.pendingCommands = new AtomicInteger();
+    this.draining = new AtomicBoolean(false);
+    this.drainer = new Runnable() {
 
       @Override
       public void run() {
-        flushChannel();
+        drainCommandQueue();
+      }
+
+    };
+    this.readResumer = new Runnable() {
+
+      @Override
+      public void run() {
+        if (pendingCommands.get() < MAX_PENDING_COMMANDS)
+          channel.config().setAutoRead(true);
       }
 
     };
-    this.lastExecutor = channel.pipeline().lastContext().executor();
-    this.byteBufAllocator = channel.alloc();
     this.transactionID = null;
     this.transactionQueue = null; // Lazy
     this.regionProvider = regionProvider;
@@ -117,17 +167,11 @@ public class ExecutionHandlerContext extends ChannelInboundHandlerAdapter {
     this.isAuthenticated = pwd != null ? false : true;
   }
 
-  private void flushChannel() {
-    while (needChannelFlush.getAndSet(false)) {
-      channel.flush();
-    }
-  }
-
+  /**
+   * Writes a response without flushing it, the channel is flushed once a batch of commands is done
+   */
   private void writeToChannel(ByteBuf message) {
     channel.write(message, channel.voidPromise());
-    if (!needChannelFlush.getAndSet(true)) {
-      this.lastExecutor.execute(flusher);
-    }
   }
 
   /**
@@ -135,8 +179,20 @@ public class ExecutionHandlerContext extends ChannelInboundHandlerAdapter {
    */
   @Override
   public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception {
-    Command command = (Command) msg;
-    executeCommand(ctx, command);
+    if (this.commandExecutor == null) {
+      executeCommand((Command) msg);
+    } else {
+      queueForExecution(msg);
+    }
+  }
+
+  /**
+   * Flushes the responses of the commands executed on the channel's thread during the last read
+   */
+  @Override
+  public void channelReadComplete(ChannelHandlerContext ctx) {
+    if (this.commandExecutor == null)
+      channel.flush();
   }
 
   /**
@@ -148,11 +204,68 @@ public class ExecutionHandlerContext extends ChannelInboundHandlerAdapter {
       channelInactive(ctx);
       return;
     }
-    ByteBuf response = getExceptionResponse(ctx, cause);
-    writeToChannel(response);
+    if (this.commandExecutor == null) {
+      channel.writeAndFlush(getExceptionResponse(cause), channel.voidPromise());
+    } else {
+      // Keep the error response behind the responses of the commands decoded before it
+      queueForExecution(cause);
+    }
   }
 
-  private ByteBuf getExceptionResponse(ChannelHandlerContext ctx, Throwable cause) {
+  /**
+   * Queues a decoded command, or a decoding failure, to be handled on the command executor. Called
+   * on the channel's event loop, which is also where reading is paused and resumed.
+   */
+  private void queueForExecution(Object msg) {
+    this.commandQueue.add(msg);
+    if (this.pendingCommands.incrementAndGet() >= MAX_PENDING_COMMANDS)
+      channel.config().setAutoRead(false);
+    scheduleDrain();
+  }
+
+  private void scheduleDrain() {
+    if (this.draining.compareAndSet(false, true)) {
+      try {
+        this.commandExecutor.execute(this.drainer);
+      } catch (RejectedExecutionException e) {
+        // Server is shutting down, the channel is about to be closed
+        this.draining.set(false);
+      }
+    }
+  }
+
+  /**
+   * Executes queued commands in order. Only one drain of a connection's queue runs at any time, so
+   * commands of a connection never run concurrently or out of order.
+   */
+  private void drainCommandQueue() {
+    try {
+      Object msg;
+      int executed = 0;
+      while (executed < MAX_COMMANDS_PER_DRAIN && (msg = this.commandQueue.poll()) != null) {
+        executed++;
+        if (this.pendingCommands.decrementAndGet() == RESUME_READ_PENDING_COMMANDS)
+          channel.eventLoop().execute(this.readResumer);
+        if (!channel.isOpen())
+          continue;
+        try {
+          if (msg instanceof Command)
+            executeCommand((Command) msg);
+          else
+            writeToChannel(getExceptionResponse((Throwable) msg));
+        } catch (Exception e) {
+          writeToChannel(getExceptionResponse(e));
+        }
+      }
+    } finally {
+      channel.flush();
+      this.draining.set(false);
+    }
+    if (!this.commandQueue.isEmpty())
+      scheduleDrain();
+  }
+
+  private ByteBuf getExceptionResponse(Throwable cause) {
     ByteBuf response;
     if (cause instanceof RedisDataTypeMismatchException)
       response = Coder.getWrongTypeResponse(this.byteBufAllocator, cause.getMessage());
@@ -171,7 +284,7 @@ public class ExecutionHandlerContext extends ChannelInboundHandlerAdapter {
       response = Coder.getErrorResponse(this.byteBufAllocator, cause.getMessage());
     } else {
       if (this.logger.errorEnabled())
-        this.logger.error("GeodeRedisServer-Unexpected error handler for " + ctx.channel(), cause);
+        this.logger.error("GeodeRedisServer-Unexpected error handler for " + channel, cause);
       response = Coder.getErrorResponse(this.byteBufAllocator, RedisConstants.SERVER_ERROR_MESSAGE);
     }
     return response;
@@ -185,7 +298,7 @@ public class ExecutionHandlerContext extends ChannelInboundHandlerAdapter {
     ctx.close();
   }
 
-  private void executeCommand(ChannelHandlerContext ctx, Command command) throws Exception {
+  private void executeCommand(Command command) throws Exception {
     RedisCommandType type = command.getCommandType();
     Executor exec = type.getExecutor();
     if (isAuthenticated) {
@@ -194,7 +307,7 @@ public class ExecutionHandlerContext extends ChannelInboundHandlerAdapter {
         return;
       }
       if (hasTransaction() && !(exec instanceof TransactionExecutor))
-        executeWithTransaction(ctx, exec, command);
+        executeWithTransaction(exec, command);
       else
         executeWithoutTransaction(exec, command);
 
@@ -208,8 +321,7 @@ public class ExecutionHandlerContext extends ChannelInboundHandlerAdapter {
     } else if (type == RedisCommandType.QUIT) {
       exec.executeCommand(command, this);
       ByteBuf response = command.getResponse();
-      writeToChannel(response);
-      channelInactive(ctx);
+      channel.writeAndFlush(response).addListener(ChannelFutureListener.CLOSE);
     } else if (type == RedisCommandType.AUTH) {
       exec.executeCommand(command, this);
       ByteBuf response = command.getResponse();
@@ -244,8 +356,7 @@ public class ExecutionHandlerContext extends ChannelInboundHandlerAdapter {
     throw cause;
   }
 
-  private void executeWithTransaction(ChannelHandlerContext ctx, final Executor exec,
-      Command command) throws Exception {
+  private void executeWithTransaction(final Executor exec, Command command) throws Exception {
     CacheTransactionManager txm = cache.getCacheTransactionManager();
     TransactionId transactionId = getTransactionID();
     txm.resume(transactionId);
@@ -258,7 +369,7 @@ public class ExecutionHandlerContext extends ChannelInboundHandlerAdapter {
       command.setResponse(Coder.getErrorResponse(this.byteBufAllocator,
           RedisConstants.ERROR_TRANSACTION_EXCEPTION));
     } catch (Exception e) {
-      ByteBuf response = getExceptionResponse(ctx, e);
+      ByteBuf response = getExceptionResponse(e);
       command.setResponse(response);
     }
     getTransactionQueue().add(command);
@@ -0,0 +1,306 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.internal;
+
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+import org.apache.logging.log4j.Logger;
+
+import org.apache.geode.internal.logging.LogService;
+
+/**
+ * Expires Redis keys using a hierarchical timing wheel. Only the expiration time of a key is kept
+ * per key, in place of a scheduled task, and a single periodic task advances the wheel every
+ * {@link #TICK_MILLIS} milliseconds.
+ * <p>
+ * The wheel has {@link #LEVELS} levels of 64 slots, a slot of the lowest level covers one tick and
+ * a slot of every next level covers all of the slots of the level below, so the wheel spans about
+ * 46 hours. Keys expiring later are parked in the last slot of the highest level and placed again
+ * when it comes around. When the wheel reaches a slot of a higher level its keys are spread over
+ * the lower levels, keys of a slot of the lowest level are due.
+ * <p>
+ * Changing or removing the expiration of a key does not touch the wheel. When a slot comes due the
+ * current expiration time of each of its keys is looked up, keys without one are dropped and keys
+ * expiring later are placed again.
+ * <p>
+ * Like the active expiration cycle of Redis, a run removes due keys for at most a quarter of a tick
+ * and leaves the rest as a backlog for the next run, so that a large number of keys expiring at
+ * once does not starve the other users of the expiration thread.
+ */
+public class ExpirationScheduler {
+
+  private static final Logger logger = LogService.getLogger();
+
+  static final long TICK_MILLIS = 10;
+
+  private static final int SLOT_BITS = 6;
+
+  private static final int SLOTS = 1 << SLOT_BITS;
+
+  private static final int SLOT_MASK = SLOTS - 1;
+
+  static final int LEVELS = 4;
+
+  /**
+   * Number of ticks the wheel spans
+   */
+  private static final long WHEEL_TICKS = 1L << (SLOT_BITS * LEVELS);
+
+  private static final long MAX_CYCLE_NANOS = TimeUnit.MILLISECONDS.toNanos(TICK_MILLIS) / 4;
+
+  /**
+   * Number of keys removed between checks of the time spent in a cycle
+   */
+  private static final int KEYS_PER_TIME_CHECK = 16;
+
+  /**
+   * Expiration time of every key that has one, in milliseconds since the epoch
+   */
+  private final ConcurrentMap<ByteArrayWrapper, Long> expirationTimes = new ConcurrentHashMap<>();
+
+  /**
+   * Slots of the wheel by level, created when a key is first placed in them
+   */
+  @SuppressWarnings("unchecked")
+  private final Set<ByteArrayWrapper>[][] wheel = new Set[LEVELS][SLOTS];
+
+  /**
+   * Keys that are due but were not removed yet
+   */
+  private final ArrayDeque<ByteArrayWrapper> dueKeys = new ArrayDeque<>();
+
+  /**
+   * The last tick the wheel was advanced to
+   */
+  private long currentTick;
+
+  private final Consumer<ByteArrayWrapper> expireKey;
+
+  private final ExpirationStats stats;
+
+  private final LongSupplier clock;
+
+  private ScheduledFuture<?> task;
+
+  /**
+   * @param expireKey removes an expired key, which must in turn call {@link #remove}
+   */
+  public ExpirationScheduler(Consumer<ByteArrayWrapper> expireKey, ExpirationStats stats) {
+    this(expireKey, stats, System::currentTimeMillis);
+  }
+
+  ExpirationScheduler(Consumer<ByteArrayWrapper> expireKey, ExpirationStats stats,
+      LongSupplier clock) {
+    this.expireKey = expireKey;
+    this.stats = stats;
+    this.clock = clock;
+    this.currentTick = clock.getAsLong() / TICK_MILLIS;
+    stats.setKeysWithExpirationSupplier(this.expirationTimes::size);
+    stats.setExpirationBacklogSupplier(this::getBacklog);
+  }
+
+  /**
+   * Starts running the expiration cycle every tick on the given executor
+   */
+  public synchronized void start(ScheduledExecutorService executor) {
+    this.task = executor.scheduleAtFixedRate(this::runExpirationCycle, TICK_MILLIS, TICK_MILLIS,
+        TimeUnit.MILLISECONDS);
+  }
+
+  public void stop() {
+    ScheduledFuture<?> task;
+    synchronized (this) {
+      task = this.task;
+      this.task = null;
+      this.expirationTimes.clear();
+      for (Set<ByteArrayWrapper>[] level : this.wheel) {
+        for (int i = 0; i < SLOTS; i++) {
+          level[i] = null;
+        }
+      }
+      this.dueKeys.clear();
+    }
+    if (task != null) {
+      task.cancel(false);
+    }
+    this.stats.close();
+  }
+
+  /**
+   * Sets or replaces the expiration of a key
+   *
+   * @param delay The delay in milliseconds until the key expires
+   */
+  public void schedule(ByteArrayWrapper key, long delay) {
+    long expirationTime = this.clock.getAsLong() + delay;
+    this.expirationTimes.put(key, expirationTime);
+    synchronized (this) {
+      place(key, expirationTime);
+    }
+  }
+
+  /**
+   * Removes the expiration of a key
+   *
+   * @return true if the key had an expiration
+   */
+  public boolean remove(ByteArrayWrapper key) {
+    return this.expirationTimes.remove(key) != null;
+  }
+
+  public boolean hasExpiration(ByteArrayWrapper key) {
+    return this.expirationTimes.containsKey(key);
+  }
+
+  /**
+   * @return the milliseconds left until the key expires, at least 1, or 0 if it has no expiration
+   */
+  public long getDelayMillis(ByteArrayWrapper key) {
+    Long expirationTime = this.expirationTimes.get(key);
+    if (expirationTime == null) {
+      return 0L;
+    }
+    return Math.max(expirationTime - this.clock.getAsLong(), 1L);
+  }
+
+  /**
+   * @return the number of keys that are due but were not removed yet
+   */
+  public synchronized long getBacklog() {
+    return this.dueKeys.size();
+  }
+
+  private void place(ByteArrayWrapper key, long expirationTime) {
+    long tick = expirationTime / TICK_MILLIS;
+    long ticksLeft = tick - this.currentTick;
+    if (ticksLeft <= 0) {
+      this.dueKeys.add(key);
+      return;
+    }
+    if (ticksLeft >= WHEEL_TICKS) {
+      // parked in the slot of the highest level that comes around last
+      tick = this.currentTick + WHEEL_TICKS - 1;
+      ticksLeft = WHEEL_TICKS - 1;
+    }
+    int level = 0;
+    while (ticksLeft >= 1L << (SLOT_BITS * (level + 1))) {
+      level++;
+    }
+    int slot = (int) (tick >>> (SLOT_BITS * level)) & SLOT_MASK;
+    Set<ByteArrayWrapper> keys = this.wheel[level][slot];
+    if (keys == null) {
+      keys = new HashSet<>();
+      this.wheel[level][slot] = keys;
+    }
+    keys.add(key);
+  }
+
+  /**
+   * Advances the wheel to the current time and moves the keys of the slots passed to the due keys
+   */
+  private synchronized void advance(long now) {
+    long nowTick = now / TICK_MILLIS;
+    while (this.currentTick < nowTick) {
+      long tick = ++this.currentTick;
+      // spread the keys of each higher level slot that was reached
+      for (int level = 1; level < LEVELS; level++) {
+        if ((tick & ((1L << (SLOT_BITS * level)) - 1)) != 0) {
+          break;
+        }
+        int slot = (int) (tick >>> (SLOT_BITS * level)) & SLOT_MASK;
+        Set<ByteArrayWrapper> keys = this.wheel[level][slot];
+        if (keys != null) {
+          this.wheel[level][slot] = null;
+          for (ByteArrayWrapper key : keys) {
+            Long expirationTime = this.expirationTimes.get(key);
+            if (expirationTime != null) {
+              place(key, expirationTime);
+            }
+          }
+        }
+      }
+      int slot = (int) tick & SLOT_MASK;
+      Set<ByteArrayWrapper> keys = this.wheel[0][slot];
+      if (keys != null) {
+        this.wheel[0][slot] = null;
+        this.dueKeys.addAll(keys);
+      }
+    }
+  }
+
+  private synchronized ByteArrayWrapper nextDueKey() {
+    return this.dueKeys.poll();
+  }
+
+  /**
+   * Advances the wheel and removes the keys that expired, until the backlog is empty or a quarter
+   * of a tick has passed. Never throws, since an exception would cancel all later runs.
+   */
+  void runExpirationCycle() {
+    long start = System.nanoTime();
+    int expired = 0;
+    try {
+      long now = this.clock.getAsLong();
+      advance(now);
+      int checked = 0;
+      ByteArrayWrapper key;
+      while ((key = nextDueKey()) != null) {
+        Long expirationTime = this.expirationTimes.get(key);
+        if (expirationTime != null) {
+          if (expirationTime > now) {
+            synchronized (this) {
+              place(key, expirationTime);
+            }
+          } else {
+            if (expire(key)) {
+              expired++;
+            }
+            // the expiration is normally removed along with the key, and is not retried if that
+            // failed
+            this.expirationTimes.remove(key, expirationTime);
+          }
+        }
+        if (++checked % KEYS_PER_TIME_CHECK == 0 && System.nanoTime() - start > MAX_CYCLE_NANOS) {
+          break;
+        }
+      }
+    } catch (RuntimeException e) {
+      logger.warn("Redis key expiration cycle failed", e);
+    }
+    this.stats.endExpirationCycle(start, expired);
+  }
+
+  /**
+   * @return true if the key was removed, false if removing it failed
+   */
+  private boolean expire(ByteArrayWrapper key) {
+    try {
+      this.expireKey.accept(key);
+      return true;
+    } catch (RuntimeException e) {
+      logger.warn("Failed to remove expired Redis key {}", key, e);
+      return false;
+    }
+  }
+}
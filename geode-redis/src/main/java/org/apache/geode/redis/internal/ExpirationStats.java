@@ -0,0 +1,90 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.internal;
+
+import java.util.function.LongSupplier;
+
+import org.apache.geode.StatisticDescriptor;
+import org.apache.geode.Statistics;
+import org.apache.geode.StatisticsFactory;
+import org.apache.geode.StatisticsType;
+import org.apache.geode.StatisticsTypeFactory;
+import org.apache.geode.internal.statistics.StatisticsTypeFactoryImpl;
+
+/**
+ * Statistics of the expiration of Redis keys by the {@link ExpirationScheduler}
+ */
+public class ExpirationStats {
+  private static final StatisticsType statsType;
+  private static final String statsTypeName = "RedisExpirationStats";
+  private static final String statsTypeDescription =
+      "Statistics about the expiration of keys by the Redis adapter";
+
+  private final Statistics stats;
+
+  private static final int expiredKeysId;
+  private static final int expirationCyclesId;
+  private static final int expirationCycleTimeId;
+  private static final int keysWithExpirationId;
+  private static final int expirationBacklogId;
+
+  static {
+    final StatisticsTypeFactory f = StatisticsTypeFactoryImpl.singleton();
+    statsType = f.createType(statsTypeName, statsTypeDescription,
+        new StatisticDescriptor[] {
+            f.createLongCounter("expiredKeys", "Number of keys removed because they expired",
+                "keys"),
+            f.createLongCounter("expirationCycles", "Number of active expiration cycles run",
+                "operations"),
+            f.createLongCounter("expirationCycleTime",
+                "Total time spent running active expiration cycles", "nanoseconds", false),
+            f.createLongGauge("keysWithExpiration",
+                "Number of keys on this member that have an expiration set", "keys"),
+            f.createLongGauge("expirationBacklog",
+                "Number of keys that are due to expire but were not removed yet", "keys"),});
+
+    expiredKeysId = statsType.nameToId("expiredKeys");
+    expirationCyclesId = statsType.nameToId("expirationCycles");
+    expirationCycleTimeId = statsType.nameToId("expirationCycleTime");
+    keysWithExpirationId = statsType.nameToId("keysWithExpiration");
+    expirationBacklogId = statsType.nameToId("expirationBacklog");
+  }
+
+  public ExpirationStats(StatisticsFactory f, String name) {
+    this.stats = f.createAtomicStatistics(statsType, name);
+  }
+
+  public void endExpirationCycle(long start, int expiredKeys) {
+    stats.incLong(expirationCyclesId, 1);
+    stats.incLong(expirationCycleTimeId, System.nanoTime() - start);
+    stats.incLong(expiredKeysId, expiredKeys);
+  }
+
+  public long getExpiredKeys() {
+    return stats.getLong(expiredKeysId);
+  }
+
+  public void setKeysWithExpirationSupplier(LongSupplier supplier) {
+    stats.setLongSupplier(keysWithExpirationId, supplier);
+  }
+
+  public void setExpirationBacklogSupplier(LongSupplier supplier) {
+    stats.setLongSupplier(expirationBacklogId, supplier);
+  }
+
+  public void close() {
+    stats.close();
+  }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.internal;
+
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+
+/**
+ * A member local index of the Redis keys in the
+ * {@link org.apache.geode.redis.GeodeRedisServer#REDIS_META_DATA_REGION}, ordered by a hash of the
+ * key so that SCAN can resume where a page ended without walking the keys before it.
+ * <p>
+ * A cursor is the position in the hash space where the next page starts, plus one so that 0 is
+ * left to mean both the start and the end of a scan as in Redis. Unlike a count of keys to skip a
+ * cursor stays valid while keys are added and removed, so a key that exists for the whole scan is
+ * returned exactly once. A page always ends between two different hashes, which may make it a
+ * little longer than asked for when hashes collide.
+ */
+public class KeyScanIndex {
+
+  /**
+   * The largest cursor a scan can return
+   */
+  public static final long MAX_CURSOR = 1L << 32;
+
+  private final NavigableSet<IndexedKey> keys = new ConcurrentSkipListSet<>();
+
+  public void add(String key) {
+    this.keys.add(new IndexedKey(key));
+  }
+
+  public void remove(String key) {
+    this.keys.remove(new IndexedKey(key));
+  }
+
+  public int size() {
+    return this.keys.size();
+  }
+
+  /**
+   * Passes at least count keys, or all of the remaining keys, starting at the cursor to the action
+   *
+   * @param cursor 0 to start a scan, or a cursor returned by an earlier call
+   * @param count The number of keys to visit, less than 1 is taken as 1
+   * @return The cursor to continue the scan with, or 0 if all keys were visited
+   */
+  public long scan(long cursor, int count, Consumer<String> action) {
+    if (cursor < 0 || cursor > MAX_CURSOR) {
+      throw new IllegalArgumentException("Invalid cursor " + cursor);
+    }
+    Iterator<IndexedKey> iterator;
+    if (cursor == 0) {
+      iterator = this.keys.iterator();
+    } else {
+      iterator = this.keys.tailSet(new IndexedKey((int) (cursor - 1), null)).iterator();
+    }
+    int visited = 0;
+    int lastHash = 0;
+    while (iterator.hasNext()) {
+      IndexedKey next = iterator.next();
+      if (visited >= count && visited > 0 && next.hash != lastHash) {
+        return Integer.toUnsignedLong(next.hash) + 1;
+      }
+      action.accept(next.key);
+      lastHash = next.hash;
+      visited++;
+    }
+    return 0L;
+  }
+
+  /**
+   * Spreads the bits of the String hash code so that keys sharing a prefix, which often differ only
+   * in the last few characters, are not all next to each other
+   */
+  static int hash(String key) {
+    int h = key.hashCode() * 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  private static class IndexedKey implements Comparable<IndexedKey> {
+    private final int hash;
+
+    /**
+     * The key, or null for a probe that sorts before all keys with the same hash
+     */
+    private final String key;
+
+    IndexedKey(String key) {
+      this(hash(key), key);
+    }
+
+    IndexedKey(int hash, String key) {
+      this.hash = hash;
+      this.key = key;
+    }
+
+    @Override
+    public int compareTo(IndexedKey other) {
+      int result = Integer.compareUnsigned(this.hash, other.hash);
+      if (result != 0) {
+        return result;
+      }
+      if (this.key == null) {
+        return other.key == null ? 0 : -1;
+      }
+      if (other.key == null) {
+        return 1;
+      }
+      return this.key.compareTo(other.key);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      return other instanceof IndexedKey && compareTo((IndexedKey) other) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hash;
+    }
+  }
+}
@@ -0,0 +1,312 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.internal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.apache.geode.DataSerializable;
+import org.apache.geode.DataSerializer;
+import org.apache.geode.Delta;
+import org.apache.geode.InvalidDeltaException;
+
+/**
+ * A Redis hash stored as a single value of the
+ * {@link org.apache.geode.redis.GeodeRedisServer#HASH_REGION}. Fields and values are kept as raw
+ * byte arrays in an open addressed table with linear probing, so a small hash costs a few arrays
+ * instead of a region with its entries.
+ * <p>
+ * Every modified field is remembered until {@link #resetDelta()} is called so that a put of this
+ * value only ships the current value of the changed fields to the other members of the distributed
+ * system. All methods are synchronized as a region may hand out the same instance to concurrent
+ * callers.
+ */
+public class RedisHash implements DataSerializable, Delta {
+
+  private static final long serialVersionUID = 2956357407405581379L;
+
+  private static final int MINIMUM_CAPACITY = 4;
+
+  private byte[][] fields;
+
+  private byte[][] values;
+
+  /**
+   * Cached hash codes of {@link #fields}, only meaningful where a field is present
+   */
+  private int[] hashes;
+
+  private int size;
+
+  /**
+   * Fields changed since the last {@link #resetDelta()}
+   */
+  private transient LinkedHashSet<ByteArrayWrapper> changes = new LinkedHashSet<>();
+
+  public RedisHash() {
+    allocate(MINIMUM_CAPACITY);
+  }
+
+  public synchronized int size() {
+    return this.size;
+  }
+
+  public synchronized boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  /**
+   * @return the value of the field or null if it does not exist
+   */
+  public synchronized ByteArrayWrapper get(ByteArrayWrapper field) {
+    int slot = find(field.toBytes(), field.hashCode());
+    return slot < 0 ? null : new ByteArrayWrapper(this.values[slot]);
+  }
+
+  public synchronized boolean containsField(ByteArrayWrapper field) {
+    return find(field.toBytes(), field.hashCode()) >= 0;
+  }
+
+  /**
+   * Sets the value of a field, replacing any existing value
+   *
+   * @return true if the field did not exist before
+   */
+  public synchronized boolean put(ByteArrayWrapper field, ByteArrayWrapper value) {
+    this.changes.add(field);
+    return applyPut(field.toBytes(), field.hashCode(), value.toBytes());
+  }
+
+  /**
+   * Sets the value of a field only if the field does not exist
+   *
+   * @return true if the field was set
+   */
+  public synchronized boolean putIfAbsent(ByteArrayWrapper field, ByteArrayWrapper value) {
+    if (find(field.toBytes(), field.hashCode()) >= 0) {
+      return false;
+    }
+    return put(field, value);
+  }
+
+  /**
+   * @return true if the field existed and was removed
+   */
+  public synchronized boolean remove(ByteArrayWrapper field) {
+    boolean removed = applyRemove(field.toBytes(), field.hashCode());
+    if (removed) {
+      this.changes.add(field);
+    }
+    return removed;
+  }
+
+  public synchronized List<ByteArrayWrapper> fields() {
+    List<ByteArrayWrapper> result = new ArrayList<>(this.size);
+    for (byte[] field : this.fields) {
+      if (field != null) {
+        result.add(new ByteArrayWrapper(field));
+      }
+    }
+    return result;
+  }
+
+  public synchronized List<ByteArrayWrapper> values() {
+    List<ByteArrayWrapper> result = new ArrayList<>(this.size);
+    for (int i = 0; i < this.fields.length; i++) {
+      if (this.fields[i] != null) {
+        result.add(new ByteArrayWrapper(this.values[i]));
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return a copy of the field to value entries of this hash
+   */
+  public synchronized List<Entry<ByteArrayWrapper, ByteArrayWrapper>> entries() {
+    List<Entry<ByteArrayWrapper, ByteArrayWrapper>> result = new ArrayList<>(this.size);
+    for (int i = 0; i < this.fields.length; i++) {
+      if (this.fields[i] != null) {
+        result.add(new AbstractMap.SimpleImmutableEntry<>(new ByteArrayWrapper(this.fields[i]),
+            new ByteArrayWrapper(this.values[i])));
+      }
+    }
+    return result;
+  }
+
+  private void allocate(int capacity) {
+    this.fields = new byte[capacity][];
+    this.values = new byte[capacity][];
+    this.hashes = new int[capacity];
+  }
+
+  private static int spread(int hash) {
+    return hash ^ (hash >>> 16);
+  }
+
+  /**
+   * @return the slot holding the field or -1 if it is not in this hash
+   */
+  private int find(byte[] field, int hash) {
+    int mask = this.fields.length - 1;
+    for (int slot = spread(hash) & mask; this.fields[slot] != null; slot = (slot + 1) & mask) {
+      if (this.hashes[slot] == hash && Arrays.equals(this.fields[slot], field)) {
+        return slot;
+      }
+    }
+    return -1;
+  }
+
+  private boolean applyPut(byte[] field, int hash, byte[] value) {
+    int mask = this.fields.length - 1;
+    int slot = spread(hash) & mask;
+    for (; this.fields[slot] != null; slot = (slot + 1) & mask) {
+      if (this.hashes[slot] == hash && Arrays.equals(this.fields[slot], field)) {
+        this.values[slot] = value;
+        return false;
+      }
+    }
+    this.fields[slot] = field;
+    this.values[slot] = value;
+    this.hashes[slot] = hash;
+    this.size++;
+    // keep the table at most three quarters full so probe sequences stay short
+    if (this.size * 4 > this.fields.length * 3) {
+      resize(this.fields.length * 2);
+    }
+    return true;
+  }
+
+  /**
+   * Removes the field and shifts back the fields probed past it, so no tombstones are needed
+   */
+  private boolean applyRemove(byte[] field, int hash) {
+    int slot = find(field, hash);
+    if (slot < 0) {
+      return false;
+    }
+    int mask = this.fields.length - 1;
+    int hole = slot;
+    for (int next = (hole + 1) & mask; this.fields[next] != null; next = (next + 1) & mask) {
+      int home = spread(this.hashes[next]) & mask;
+      // move the field into the hole unless its home slot lies cyclically in (hole, next]
+      boolean homeAfterHole = hole <= next ? (hole < home && home <= next)
+          : (hole < home || home <= next);
+      if (!homeAfterHole) {
+        this.fields[hole] = this.fields[next];
+        this.values[hole] = this.values[next];
+        this.hashes[hole] = this.hashes[next];
+        hole = next;
+      }
+    }
+    this.fields[hole] = null;
+    this.values[hole] = null;
+    this.size--;
+    if (this.fields.length > MINIMUM_CAPACITY && this.size * 8 < this.fields.length) {
+      resize(this.fields.length / 2);
+    }
+    return true;
+  }
+
+  private void resize(int capacity) {
+    byte[][] oldFields = this.fields;
+    byte[][] oldValues = this.values;
+    int[] oldHashes = this.hashes;
+    allocate(capacity);
+    int mask = capacity - 1;
+    for (int i = 0; i < oldFields.length; i++) {
+      if (oldFields[i] != null) {
+        int slot = spread(oldHashes[i]) & mask;
+        while (this.fields[slot] != null) {
+          slot = (slot + 1) & mask;
+        }
+        this.fields[slot] = oldFields[i];
+        this.values[slot] = oldValues[i];
+        this.hashes[slot] = oldHashes[i];
+      }
+    }
+  }
+
+  /**
+   * Forgets the changes recorded so far, to be called once this value has been put in its region
+   */
+  public synchronized void resetDelta() {
+    this.changes.clear();
+  }
+
+  @Override
+  public synchronized boolean hasDelta() {
+    return !this.changes.isEmpty();
+  }
+
+  @Override
+  public synchronized void toDelta(DataOutput out) throws IOException {
+    DataSerializer.writePrimitiveInt(this.changes.size(), out);
+    for (ByteArrayWrapper field : this.changes) {
+      int slot = find(field.toBytes(), field.hashCode());
+      DataSerializer.writeByteArray(field.toBytes(), out);
+      // a null value means the field was removed
+      DataSerializer.writeByteArray(slot < 0 ? null : this.values[slot], out);
+    }
+  }
+
+  @Override
+  public synchronized void fromDelta(DataInput in) throws IOException, InvalidDeltaException {
+    int numChanges = DataSerializer.readPrimitiveInt(in);
+    for (int i = 0; i < numChanges; i++) {
+      byte[] field = DataSerializer.readByteArray(in);
+      byte[] value = DataSerializer.readByteArray(in);
+      if (value == null) {
+        applyRemove(field, Arrays.hashCode(field));
+      } else {
+        applyPut(field, Arrays.hashCode(field), value);
+      }
+    }
+  }
+
+  @Override
+  public synchronized void toData(DataOutput out) throws IOException {
+    DataSerializer.writePrimitiveInt(this.size, out);
+    for (int i = 0; i < this.fields.length; i++) {
+      if (this.fields[i] != null) {
+        DataSerializer.writeByteArray(this.fields[i], out);
+        DataSerializer.writeByteArray(this.values[i], out);
+      }
+    }
+  }
+
+  @Override
+  public synchronized void fromData(DataInput in) throws IOException, ClassNotFoundException {
+    int size = DataSerializer.readPrimitiveInt(in);
+    int capacity = MINIMUM_CAPACITY;
+    while (size * 4 > capacity * 3) {
+      capacity *= 2;
+    }
+    allocate(capacity);
+    this.size = 0;
+    this.changes = new LinkedHashSet<>();
+    for (int i = 0; i < size; i++) {
+      byte[] field = DataSerializer.readByteArray(in);
+      applyPut(field, Arrays.hashCode(field), DataSerializer.readByteArray(in));
+    }
+  }
+}
@@ -0,0 +1,458 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.internal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.geode.DataSerializable;
+import org.apache.geode.DataSerializer;
+import org.apache.geode.Delta;
+import org.apache.geode.InvalidDeltaException;
+
+/**
+ * A Redis list stored as a single value of the
+ * {@link org.apache.geode.redis.GeodeRedisServer#LIST_REGION}. The elements are kept in a circular
+ * array so that pushes and pops on either end, as well as access by index, take constant time.
+ * <p>
+ * Every modification is logged as an operation until {@link #resetDelta()} is called, so a put of
+ * this value only ships the pushed, popped or otherwise changed elements. Every delta carries the
+ * version of the list it was made against. A copy that has since been changed concurrently applies
+ * the operations to its newer version, as running the commands again would, rather than being
+ * overwritten by the full value of the sender. Only a copy that is missing changes the sender had
+ * refuses the delta with an {@link InvalidDeltaException} to get the full value.
+ * <p>
+ * Unlike a sorted set change, replaying a push twice is not harmless, therefore every delta also
+ * carries a random id. A copy remembers the ids of the last {@link #RECENT_DELTAS} deltas made or
+ * applied to it, also across a transfer of the full value, and ignores a delta it already has.
+ */
+public class RedisList implements DataSerializable, Delta {
+
+  private static final long serialVersionUID = 4471207585536208781L;
+
+  private static final int INITIAL_CAPACITY = 8;
+
+  private static final byte PUSH_LEFT = 0;
+  private static final byte PUSH_RIGHT = 1;
+  private static final byte POP_LEFT = 2;
+  private static final byte POP_RIGHT = 3;
+  private static final byte SET = 4;
+  private static final byte TRIM = 5;
+  private static final byte REMOVE = 6;
+
+  /**
+   * Number of delta ids remembered to recognize a delta that is delivered again
+   */
+  static final int RECENT_DELTAS = 32;
+
+  private ByteArrayWrapper[] elements = new ByteArrayWrapper[INITIAL_CAPACITY];
+
+  private int head;
+
+  private int size;
+
+  /**
+   * Number of operations applied to this list since it was created
+   */
+  private long version;
+
+  /**
+   * The {@link #version} the recorded changes were made against
+   */
+  private transient long deltaBaseVersion;
+
+  private transient List<Change> changes = new ArrayList<>();
+
+  /**
+   * The id of the delta of the recorded changes
+   */
+  private transient long deltaId;
+
+  /**
+   * Ids of the last deltas made or applied to this list, oldest first
+   */
+  private ArrayDeque<Long> recentDeltaIds = new ArrayDeque<>();
+
+  private static class Change {
+    final byte operation;
+    final int first;
+    final int second;
+    final ByteArrayWrapper element;
+
+    Change(byte operation, int first, int second, ByteArrayWrapper element) {
+      this.operation = operation;
+      this.first = first;
+      this.second = second;
+      this.element = element;
+    }
+  }
+
+  public RedisList() {}
+
+  public synchronized int size() {
+    return this.size;
+  }
+
+  public synchronized boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  /**
+   * @return the size of the list after the push
+   */
+  public synchronized int pushLeft(ByteArrayWrapper element) {
+    record(PUSH_LEFT, 0, 0, element);
+    applyPushLeft(element);
+    return this.size;
+  }
+
+  /**
+   * @return the size of the list after the push
+   */
+  public synchronized int pushRight(ByteArrayWrapper element) {
+    record(PUSH_RIGHT, 0, 0, element);
+    applyPushRight(element);
+    return this.size;
+  }
+
+  /**
+   * @return the removed first element or null if the list is empty
+   */
+  public synchronized ByteArrayWrapper popLeft() {
+    if (this.size == 0) {
+      return null;
+    }
+    record(POP_LEFT, 0, 0, null);
+    return applyPopLeft();
+  }
+
+  /**
+   * @return the removed last element or null if the list is empty
+   */
+  public synchronized ByteArrayWrapper popRight() {
+    if (this.size == 0) {
+      return null;
+    }
+    record(POP_RIGHT, 0, 0, null);
+    return applyPopRight();
+  }
+
+  /**
+   * @param index 0-based index from the head of the list
+   * @return the element or null if the index is out of range
+   */
+  public synchronized ByteArrayWrapper get(int index) {
+    if (index < 0 || index >= this.size) {
+      return null;
+    }
+    return this.elements[physicalIndex(index)];
+  }
+
+  /**
+   * @param index 0-based index from the head of the list
+   * @return false if the index is out of range
+   */
+  public synchronized boolean set(int index, ByteArrayWrapper element) {
+    if (index < 0 || index >= this.size) {
+      return false;
+    }
+    record(SET, index, 0, element);
+    applySet(index, element);
+    return true;
+  }
+
+  /**
+   * @param start 0-based start index, already bounded to the size of this list
+   * @param stop 0-based inclusive stop index, already bounded to the size of this list
+   */
+  public synchronized List<ByteArrayWrapper> range(int start, int stop) {
+    List<ByteArrayWrapper> result = new ArrayList<>(Math.max(0, stop - start + 1));
+    for (int i = Math.max(0, start); i <= stop && i < this.size; i++) {
+      result.add(this.elements[physicalIndex(i)]);
+    }
+    return result;
+  }
+
+  /**
+   * Keeps only the elements between start and stop, both inclusive. The list is emptied if the
+   * range is empty.
+   */
+  public synchronized void trim(int start, int stop) {
+    record(TRIM, start, stop, null);
+    applyTrim(start, stop);
+  }
+
+  /**
+   * Removes occurrences of an element following the semantics of LREM, a positive count removes
+   * from the head, a negative count from the tail and zero removes all occurrences
+   *
+   * @return the number of elements removed
+   */
+  public synchronized int remove(ByteArrayWrapper element, int count) {
+    int removed = applyRemove(element, count);
+    if (removed > 0) {
+      record(REMOVE, count, 0, element);
+    }
+    return removed;
+  }
+
+  private void record(byte operation, int first, int second, ByteArrayWrapper element) {
+    if (this.changes.isEmpty()) {
+      this.deltaId = ThreadLocalRandom.current().nextLong();
+      rememberDelta(this.deltaId);
+    }
+    this.changes.add(new Change(operation, first, second, element));
+    this.version++;
+  }
+
+  private void rememberDelta(long id) {
+    if (this.recentDeltaIds.size() == RECENT_DELTAS) {
+      this.recentDeltaIds.removeFirst();
+    }
+    this.recentDeltaIds.addLast(id);
+  }
+
+  private int physicalIndex(int index) {
+    int physical = this.head + index;
+    return physical >= this.elements.length ? physical - this.elements.length : physical;
+  }
+
+  private void ensureCapacity(int capacity) {
+    if (capacity <= this.elements.length) {
+      return;
+    }
+    resize(Math.max(capacity, this.elements.length * 2));
+  }
+
+  private void resize(int capacity) {
+    ByteArrayWrapper[] resized = new ByteArrayWrapper[capacity];
+    for (int i = 0; i < this.size; i++) {
+      resized[i] = this.elements[physicalIndex(i)];
+    }
+    this.elements = resized;
+    this.head = 0;
+  }
+
+  private void applyPushLeft(ByteArrayWrapper element) {
+    ensureCapacity(this.size + 1);
+    this.head = this.head == 0 ? this.elements.length - 1 : this.head - 1;
+    this.elements[this.head] = element;
+    this.size++;
+  }
+
+  private void applyPushRight(ByteArrayWrapper element) {
+    ensureCapacity(this.size + 1);
+    this.elements[physicalIndex(this.size)] = element;
+    this.size++;
+  }
+
+  private ByteArrayWrapper applyPopLeft() {
+    if (this.size == 0) {
+      return null;
+    }
+    ByteArrayWrapper element = this.elements[this.head];
+    this.elements[this.head] = null;
+    this.head = this.head + 1 == this.elements.length ? 0 : this.head + 1;
+    this.size--;
+    return element;
+  }
+
+  private ByteArrayWrapper applyPopRight() {
+    if (this.size == 0) {
+      return null;
+    }
+    int tail = physicalIndex(this.size - 1);
+    ByteArrayWrapper element = this.elements[tail];
+    this.elements[tail] = null;
+    this.size--;
+    return element;
+  }
+
+  private void applySet(int index, ByteArrayWrapper element) {
+    if (index >= 0 && index < this.size) {
+      this.elements[physicalIndex(index)] = element;
+    }
+  }
+
+  private void applyTrim(int start, int stop) {
+    start = Math.max(0, start);
+    stop = Math.min(stop, this.size - 1);
+    int newSize = start > stop ? 0 : stop - start + 1;
+    ByteArrayWrapper[] trimmed = new ByteArrayWrapper[Math.max(INITIAL_CAPACITY, newSize)];
+    for (int i = 0; i < newSize; i++) {
+      trimmed[i] = this.elements[physicalIndex(start + i)];
+    }
+    this.elements = trimmed;
+    this.head = 0;
+    this.size = newSize;
+  }
+
+  private int applyRemove(ByteArrayWrapper element, int count) {
+    int limit = count == 0 ? Integer.MAX_VALUE : Math.abs(count);
+    boolean[] removals = new boolean[this.size];
+    int removed = 0;
+    for (int i = 0; i < this.size && removed < limit; i++) {
+      int index = count < 0 ? this.size - 1 - i : i;
+      if (this.elements[physicalIndex(index)].equals(element)) {
+        removals[index] = true;
+        removed++;
+      }
+    }
+    if (removed == 0) {
+      return 0;
+    }
+    ByteArrayWrapper[] kept =
+        new ByteArrayWrapper[Math.max(INITIAL_CAPACITY, this.elements.length)];
+    int keptSize = 0;
+    for (int i = 0; i < this.size; i++) {
+      if (!removals[i]) {
+        kept[keptSize++] = this.elements[physicalIndex(i)];
+      }
+    }
+    this.elements = kept;
+    this.head = 0;
+    this.size = keptSize;
+    return removed;
+  }
+
+  /**
+   * Forgets the changes recorded so far, to be called once this value has been put in its region
+   */
+  public synchronized void resetDelta() {
+    this.changes.clear();
+    this.deltaBaseVersion = this.version;
+  }
+
+  @Override
+  public synchronized boolean hasDelta() {
+    return !this.changes.isEmpty();
+  }
+
+  @Override
+  public synchronized void toDelta(DataOutput out) throws IOException {
+    DataSerializer.writePrimitiveLong(this.deltaBaseVersion, out);
+    DataSerializer.writePrimitiveLong(this.deltaId, out);
+    DataSerializer.writePrimitiveInt(this.changes.size(), out);
+    for (Change change : this.changes) {
+      DataSerializer.writePrimitiveByte(change.operation, out);
+      switch (change.operation) {
+        case PUSH_LEFT:
+        case PUSH_RIGHT:
+          DataSerializer.writeByteArray(change.element.toBytes(), out);
+          break;
+        case SET:
+        case REMOVE:
+          DataSerializer.writePrimitiveInt(change.first, out);
+          DataSerializer.writeByteArray(change.element.toBytes(), out);
+          break;
+        case TRIM:
+          DataSerializer.writePrimitiveInt(change.first, out);
+          DataSerializer.writePrimitiveInt(change.second, out);
+          break;
+        default:
+          break;
+      }
+    }
+  }
+
+  @Override
+  public synchronized void fromDelta(DataInput in) throws IOException, InvalidDeltaException {
+    long baseVersion = DataSerializer.readPrimitiveLong(in);
+    long id = DataSerializer.readPrimitiveLong(in);
+    if (this.recentDeltaIds.contains(id)) {
+      // delivered again, the changes are already in this list
+      return;
+    }
+    if (baseVersion > this.version) {
+      throw new InvalidDeltaException(
+          "List delta made against version " + baseVersion + " but found " + this.version);
+    }
+    // a lower base version means this list was changed concurrently, the operations are applied
+    // to it as it is now
+    rememberDelta(id);
+    int numChanges = DataSerializer.readPrimitiveInt(in);
+    for (int i = 0; i < numChanges; i++) {
+      byte operation = DataSerializer.readPrimitiveByte(in);
+      switch (operation) {
+        case PUSH_LEFT:
+          applyPushLeft(new ByteArrayWrapper(DataSerializer.readByteArray(in)));
+          break;
+        case PUSH_RIGHT:
+          applyPushRight(new ByteArrayWrapper(DataSerializer.readByteArray(in)));
+          break;
+        case POP_LEFT:
+          applyPopLeft();
+          break;
+        case POP_RIGHT:
+          applyPopRight();
+          break;
+        case SET:
+          int index = DataSerializer.readPrimitiveInt(in);
+          applySet(index, new ByteArrayWrapper(DataSerializer.readByteArray(in)));
+          break;
+        case TRIM:
+          int start = DataSerializer.readPrimitiveInt(in);
+          applyTrim(start, DataSerializer.readPrimitiveInt(in));
+          break;
+        case REMOVE:
+          int count = DataSerializer.readPrimitiveInt(in);
+          applyRemove(new ByteArrayWrapper(DataSerializer.readByteArray(in)), count);
+          break;
+        default:
+          throw new InvalidDeltaException("Unknown list operation " + operation);
+      }
+      this.version++;
+    }
+    if (this.changes.isEmpty()) {
+      this.deltaBaseVersion = this.version;
+    }
+  }
+
+  @Override
+  public synchronized void toData(DataOutput out) throws IOException {
+    DataSerializer.writePrimitiveLong(this.version, out);
+    DataSerializer.writePrimitiveInt(this.recentDeltaIds.size(), out);
+    for (long id : this.recentDeltaIds) {
+      DataSerializer.writePrimitiveLong(id, out);
+    }
+    DataSerializer.writePrimitiveInt(this.size, out);
+    for (int i = 0; i < this.size; i++) {
+      DataSerializer.writeByteArray(this.elements[physicalIndex(i)].toBytes(), out);
+    }
+  }
+
+  @Override
+  public synchronized void fromData(DataInput in) throws IOException, ClassNotFoundException {
+    this.version = DataSerializer.readPrimitiveLong(in);
+    int numDeltaIds = DataSerializer.readPrimitiveInt(in);
+    this.recentDeltaIds = new ArrayDeque<>();
+    for (int i = 0; i < numDeltaIds; i++) {
+      this.recentDeltaIds.addLast(DataSerializer.readPrimitiveLong(in));
+    }
+    this.size = DataSerializer.readPrimitiveInt(in);
+    this.elements = new ByteArrayWrapper[Math.max(INITIAL_CAPACITY, this.size)];
+    this.head = 0;
+    for (int i = 0; i < this.size; i++) {
+      this.elements[i] = new ByteArrayWrapper(DataSerializer.readByteArray(in));
+    }
+    this.deltaBaseVersion = this.version;
+    this.changes = new ArrayList<>();
+  }
+}
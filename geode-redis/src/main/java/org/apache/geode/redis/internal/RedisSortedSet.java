@@ -0,0 +1,348 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.internal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.apache.geode.DataSerializable;
+import org.apache.geode.DataSerializer;
+import org.apache.geode.Delta;
+import org.apache.geode.InvalidDeltaException;
+import org.apache.geode.redis.internal.SortedSetSkipList.Node;
+
+/**
+ * A Redis sorted set stored as a single value of the
+ * {@link org.apache.geode.redis.GeodeRedisServer#SORTED_SET_REGION}. Scores are looked up through
+ * a hash map and the members are ordered by score and then member in a {@link SortedSetSkipList},
+ * so ranks, index ranges and score ranges are all found in logarithmic time.
+ * <p>
+ * Every modification is remembered until {@link #resetDelta()} is called so that a put of this
+ * value only ships the changed members to the other members of the distributed system. All
+ * methods are synchronized as a region may hand out the same instance to concurrent callers.
+ */
+public class RedisSortedSet implements DataSerializable, Delta {
+
+  private static final long serialVersionUID = -6287617826437470297L;
+
+  private HashMap<ByteArrayWrapper, Double> scores = new HashMap<>();
+
+  private SortedSetSkipList skipList = new SortedSetSkipList();
+
+  /**
+   * Members changed since the last {@link #resetDelta()}, a null score means the member was removed
+   */
+  private transient LinkedHashMap<ByteArrayWrapper, Double> changes = new LinkedHashMap<>();
+
+  public RedisSortedSet() {}
+
+  public synchronized int size() {
+    return this.scores.size();
+  }
+
+  public synchronized boolean isEmpty() {
+    return this.scores.isEmpty();
+  }
+
+  public synchronized Double getScore(ByteArrayWrapper member) {
+    return this.scores.get(member);
+  }
+
+  /**
+   * Adds a member or updates the score of an existing member
+   *
+   * @return true if the member was not already in this sorted set
+   */
+  public synchronized boolean add(ByteArrayWrapper member, double score) {
+    this.changes.put(member, score);
+    return applyAdd(member, score);
+  }
+
+  /**
+   * @return true if the member was removed
+   */
+  public synchronized boolean remove(ByteArrayWrapper member) {
+    boolean removed = applyRemove(member);
+    if (removed) {
+      this.changes.put(member, null);
+    }
+    return removed;
+  }
+
+  /**
+   * @return the 0-based rank of the member or -1 if it does not exist
+   */
+  public synchronized int rank(ByteArrayWrapper member, boolean reverse) {
+    Double score = this.scores.get(member);
+    if (score == null) {
+      return -1;
+    }
+    int rank = this.skipList.getRank(score, member);
+    return reverse ? this.skipList.size() - rank : rank - 1;
+  }
+
+  /**
+   * @param start 0-based start index, already bounded to the size of this set
+   * @param stop 0-based inclusive stop index, already bounded to the size of this set
+   * @param reverse whether ranks are counted from the highest score
+   * @return entries of member to {@link DoubleWrapper} score in rank order
+   */
+  public synchronized List<Entry<ByteArrayWrapper, DoubleWrapper>> range(int start, int stop,
+      boolean reverse) {
+    List<Entry<ByteArrayWrapper, DoubleWrapper>> result = new ArrayList<>();
+    if (start > stop || start >= this.skipList.size()) {
+      return result;
+    }
+    Node node = reverse ? this.skipList.getByRank(this.skipList.size() - start)
+        : this.skipList.getByRank(start + 1);
+    for (int i = start; i <= stop && node != null; i++) {
+      result.add(toEntry(node));
+      node = reverse ? node.previous() : node.next();
+    }
+    return result;
+  }
+
+  public synchronized int count(double min, boolean minInclusive, double max,
+      boolean maxInclusive) {
+    Node first = this.skipList.firstInScoreRange(min, minInclusive, max, maxInclusive);
+    if (first == null) {
+      return 0;
+    }
+    Node last = this.skipList.lastInScoreRange(min, minInclusive, max, maxInclusive);
+    return this.skipList.getRank(last.score, last.member)
+        - this.skipList.getRank(first.score, first.member) + 1;
+  }
+
+  /**
+   * @param offset number of matching entries to skip
+   * @param limit maximum number of entries to return, non positive means no limit
+   * @param reverse whether to return the entries from the highest score down
+   * @return entries of member to {@link DoubleWrapper} score in rank order
+   */
+  public synchronized List<Entry<ByteArrayWrapper, DoubleWrapper>> rangeByScore(double min,
+      boolean minInclusive, double max, boolean maxInclusive, int offset, int limit,
+      boolean reverse) {
+    Node first = this.skipList.firstInScoreRange(min, minInclusive, max, maxInclusive);
+    if (first == null) {
+      return new ArrayList<>();
+    }
+    Node last = this.skipList.lastInScoreRange(min, minInclusive, max, maxInclusive);
+    return rangeByRank(first, last, offset, limit, reverse);
+  }
+
+  /**
+   * Lexicographical operations expect every member to have the same score, otherwise the result is
+   * unspecified just as it is in Redis. A null bound is unbounded.
+   */
+  public synchronized int lexCount(ByteArrayWrapper min, boolean minInclusive,
+      ByteArrayWrapper max, boolean maxInclusive) {
+    Node first = this.skipList.firstInLexRange(min, minInclusive, max, maxInclusive);
+    if (first == null) {
+      return 0;
+    }
+    Node last = this.skipList.lastInLexRange(min, minInclusive, max, maxInclusive);
+    return this.skipList.getRank(last.score, last.member)
+        - this.skipList.getRank(first.score, first.member) + 1;
+  }
+
+  /**
+   * @param limit maximum number of members to return, non positive means no limit
+   * @see #lexCount(ByteArrayWrapper, boolean, ByteArrayWrapper, boolean)
+   */
+  public synchronized List<ByteArrayWrapper> rangeByLex(ByteArrayWrapper min,
+      boolean minInclusive, ByteArrayWrapper max, boolean maxInclusive, int offset, int limit) {
+    List<ByteArrayWrapper> result = new ArrayList<>();
+    Node first = this.skipList.firstInLexRange(min, minInclusive, max, maxInclusive);
+    if (first == null) {
+      return result;
+    }
+    Node last = this.skipList.lastInLexRange(min, minInclusive, max, maxInclusive);
+    for (Entry<ByteArrayWrapper, DoubleWrapper> entry : rangeByRank(first, last, offset, limit,
+        false)) {
+      result.add(entry.getKey());
+    }
+    return result;
+  }
+
+  /**
+   * @param start 0-based start index, already bounded to the size of this set
+   * @param stop 0-based inclusive stop index, already bounded to the size of this set
+   * @return the number of members removed
+   */
+  public synchronized int removeRangeByRank(int start, int stop) {
+    List<ByteArrayWrapper> toRemove = new ArrayList<>();
+    for (Entry<ByteArrayWrapper, DoubleWrapper> entry : range(start, stop, false)) {
+      toRemove.add(entry.getKey());
+    }
+    return removeAll(toRemove);
+  }
+
+  /**
+   * @return the number of members removed
+   */
+  public synchronized int removeRangeByScore(double min, boolean minInclusive, double max,
+      boolean maxInclusive) {
+    List<ByteArrayWrapper> toRemove = new ArrayList<>();
+    for (Entry<ByteArrayWrapper, DoubleWrapper> entry : rangeByScore(min, minInclusive, max,
+        maxInclusive, 0, 0, false)) {
+      toRemove.add(entry.getKey());
+    }
+    return removeAll(toRemove);
+  }
+
+  /**
+   * @return the number of members removed
+   * @see #lexCount(ByteArrayWrapper, boolean, ByteArrayWrapper, boolean)
+   */
+  public synchronized int removeRangeByLex(ByteArrayWrapper min, boolean minInclusive,
+      ByteArrayWrapper max, boolean maxInclusive) {
+    return removeAll(rangeByLex(min, minInclusive, max, maxInclusive, 0, 0));
+  }
+
+  /**
+   * @return all entries of member to {@link DoubleWrapper} score in rank order
+   */
+  public synchronized List<Entry<ByteArrayWrapper, DoubleWrapper>> entries() {
+    List<Entry<ByteArrayWrapper, DoubleWrapper>> result = new ArrayList<>(this.skipList.size());
+    for (Node node = this.skipList.first(); node != null; node = node.next()) {
+      result.add(toEntry(node));
+    }
+    return result;
+  }
+
+  private int removeAll(List<ByteArrayWrapper> members) {
+    int removed = 0;
+    for (ByteArrayWrapper member : members) {
+      if (remove(member)) {
+        removed++;
+      }
+    }
+    return removed;
+  }
+
+  private boolean applyAdd(ByteArrayWrapper member, double score) {
+    Double oldScore = this.scores.put(member, score);
+    if (oldScore != null) {
+      if (oldScore == score) {
+        return false;
+      }
+      this.skipList.delete(oldScore, member);
+    }
+    this.skipList.insert(score, member);
+    return oldScore == null;
+  }
+
+  private boolean applyRemove(ByteArrayWrapper member) {
+    Double oldScore = this.scores.remove(member);
+    if (oldScore == null) {
+      return false;
+    }
+    this.skipList.delete(oldScore, member);
+    return true;
+  }
+
+  /**
+   * Collects the nodes between first and last, both inclusive, after skipping offset nodes from
+   * the first one, or from the last one if reverse is set
+   */
+  private List<Entry<ByteArrayWrapper, DoubleWrapper>> rangeByRank(Node first, Node last,
+      int offset, int limit, boolean reverse) {
+    List<Entry<ByteArrayWrapper, DoubleWrapper>> result = new ArrayList<>();
+    int firstRank = this.skipList.getRank(first.score, first.member);
+    int lastRank = this.skipList.getRank(last.score, last.member);
+    int available = lastRank - firstRank + 1 - offset;
+    if (available <= 0) {
+      return result;
+    }
+    int count = limit > 0 ? Math.min(limit, available) : available;
+    Node node = this.skipList.getByRank(reverse ? lastRank - offset : firstRank + offset);
+    for (int i = 0; i < count && node != null; i++) {
+      result.add(toEntry(node));
+      node = reverse ? node.previous() : node.next();
+    }
+    return result;
+  }
+
+  private static Entry<ByteArrayWrapper, DoubleWrapper> toEntry(Node node) {
+    return new AbstractMap.SimpleImmutableEntry<>(node.member, new DoubleWrapper(node.score));
+  }
+
+  /**
+   * Forgets the changes recorded so far, to be called once this value has been put in its region
+   */
+  public synchronized void resetDelta() {
+    this.changes.clear();
+  }
+
+  @Override
+  public synchronized boolean hasDelta() {
+    return !this.changes.isEmpty();
+  }
+
+  @Override
+  public synchronized void toDelta(DataOutput out) throws IOException {
+    DataSerializer.writePrimitiveInt(this.changes.size(), out);
+    for (Map.Entry<ByteArrayWrapper, Double> change : this.changes.entrySet()) {
+      Double score = change.getValue();
+      DataSerializer.writeByteArray(change.getKey().toBytes(), out);
+      DataSerializer.writePrimitiveBoolean(score != null, out);
+      if (score != null) {
+        DataSerializer.writePrimitiveDouble(score, out);
+      }
+    }
+  }
+
+  @Override
+  public synchronized void fromDelta(DataInput in) throws IOException, InvalidDeltaException {
+    int numChanges = DataSerializer.readPrimitiveInt(in);
+    for (int i = 0; i < numChanges; i++) {
+      ByteArrayWrapper member = new ByteArrayWrapper(DataSerializer.readByteArray(in));
+      if (DataSerializer.readPrimitiveBoolean(in)) {
+        applyAdd(member, DataSerializer.readPrimitiveDouble(in));
+      } else {
+        applyRemove(member);
+      }
+    }
+  }
+
+  @Override
+  public synchronized void toData(DataOutput out) throws IOException {
+    DataSerializer.writePrimitiveInt(this.skipList.size(), out);
+    for (Node node = this.skipList.first(); node != null; node = node.next()) {
+      DataSerializer.writeByteArray(node.member.toBytes(), out);
+      DataSerializer.writePrimitiveDouble(node.score, out);
+    }
+  }
+
+  @Override
+  public synchronized void fromData(DataInput in) throws IOException, ClassNotFoundException {
+    int size = DataSerializer.readPrimitiveInt(in);
+    this.scores = new HashMap<>();
+    this.skipList = new SortedSetSkipList();
+    this.changes = new LinkedHashMap<>();
+    for (int i = 0; i < size; i++) {
+      applyAdd(new ByteArrayWrapper(DataSerializer.readByteArray(in)),
+          DataSerializer.readPrimitiveDouble(in));
+    }
+  }
+}
@@ -22,10 +22,9 @@ import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ScheduledExecutorService;
-import java.util.concurrent.ScheduledFuture;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 import org.apache.geode.annotations.Immutable;
 import org.apache.geode.cache.Cache;
@@ -33,21 +32,15 @@ import org.apache.geode.cache.CacheTransactionManager;
 import org.apache.geode.cache.Region;
 import org.apache.geode.cache.RegionShortcut;
 import org.apache.geode.cache.TransactionId;
-import org.apache.geode.cache.query.IndexExistsException;
-import org.apache.geode.cache.query.IndexInvalidException;
-import org.apache.geode.cache.query.IndexNameConflictException;
 import org.apache.geode.cache.query.Query;
 import org.apache.geode.cache.query.QueryInvalidException;
 import org.apache.geode.cache.query.QueryService;
 import org.apache.geode.cache.query.RegionNotFoundException;
 import org.apache.geode.internal.cache.GemFireCacheImpl;
-import org.apache.geode.internal.hll.HyperLogLogPlus;
 import org.apache.geode.management.cli.Result.Status;
 import org.apache.geode.management.internal.cli.commands.CreateRegionCommand;
 import org.apache.geode.management.internal.cli.result.model.ResultModel;
 import org.apache.geode.redis.GeodeRedisServer;
-import org.apache.geode.redis.internal.executor.ExpirationExecutor;
-import org.apache.geode.redis.internal.executor.ListQuery;
 import org.apache.geode.redis.internal.executor.SortedSetQuery;
 
 /**
@@ -76,36 +69,70 @@ public class RegionProvider implements Closeable {
    * This is the {@link RedisDataType#REDIS_HLL} {@link Region}. This is the Region that stores all
    * HyperLogLog contents
    */
-  private final Region<ByteArrayWrapper, HyperLogLogPlus> hLLRegion;
+  private final Region<ByteArrayWrapper, RedisHyperLogLog> hLLRegion;
+
+  /**
+   * This is the {@link RedisDataType#REDIS_LIST} {@link Region}. This is the Region that stores all
+   * list contents
+   */
+  private final Region<ByteArrayWrapper, RedisList> listRegion;
+
+  /**
+   * This is the {@link RedisDataType#REDIS_SORTEDSET} {@link Region}. This is the Region that stores
+   * all sorted set contents
+   */
+  private final Region<ByteArrayWrapper, RedisSortedSet> sortedSetRegion;
+
+  /**
+   * This is the {@link RedisDataType#REDIS_HASH} {@link Region}. This is the Region that stores all
+   * hash contents
+   */
+  private final Region<ByteArrayWrapper, RedisHash> hashRegion;
 
   private final Cache cache;
   private final QueryService queryService;
   private final ConcurrentMap<ByteArrayWrapper, Map<Enum<?>, Query>> preparedQueries =
       new ConcurrentHashMap<>();
-  private final ConcurrentMap<ByteArrayWrapper, ScheduledFuture<?>> expirationsMap;
-  private final ScheduledExecutorService expirationExecutor;
+  private final ExpirationScheduler expirationScheduler;
+  private final KeyScanIndex keyIndex;
   private final RegionShortcut defaultRegionType;
   @Immutable
   private static final CreateRegionCommand createRegionCmd = new CreateRegionCommand();
   private final ConcurrentHashMap<String, Lock> locks;
 
   public RegionProvider(Region<ByteArrayWrapper, ByteArrayWrapper> stringsRegion,
-      Region<ByteArrayWrapper, HyperLogLogPlus> hLLRegion,
-      Region<String, RedisDataType> redisMetaRegion,
-      ConcurrentMap<ByteArrayWrapper, ScheduledFuture<?>> expirationsMap,
-      ScheduledExecutorService expirationExecutor, RegionShortcut defaultShortcut) {
-    if (stringsRegion == null || hLLRegion == null || redisMetaRegion == null)
+      Region<ByteArrayWrapper, RedisHyperLogLog> hLLRegion,
+      Region<ByteArrayWrapper, RedisList> listRegion,
+      Region<ByteArrayWrapper, RedisSortedSet> sortedSetRegion,
+      Region<ByteArrayWrapper, RedisHash> hashRegion,
+      Region<String, RedisDataType> redisMetaRegion, KeyScanIndex keyIndex,
+      ScheduledExecutorService expirationExecutor, ExpirationStats expirationStats,
+      RegionShortcut defaultShortcut) {
+    if (stringsRegion == null || hLLRegion == null || listRegion == null
+        || sortedSetRegion == null || hashRegion == null || redisMetaRegion == null
+        || keyIndex == null)
       throw new NullPointerException();
     this.regions = new ConcurrentHashMap<>();
     this.stringsRegion = stringsRegion;
     this.hLLRegion = hLLRegion;
+    this.listRegion = listRegion;
+    this.sortedSetRegion = sortedSetRegion;
+    this.hashRegion = hashRegion;
     this.redisMetaRegion = redisMetaRegion;
+    this.keyIndex = keyIndex;
+    // Keys received before the meta data listener was added, adding one twice is harmless
+    for (Map.Entry<String, RedisDataType> entry : redisMetaRegion.entrySet()) {
+      if (entry.getValue() != RedisDataType.REDIS_PROTECTED) {
+        keyIndex.add(entry.getKey());
+      }
+    }
     this.cache = GemFireCacheImpl.getInstance();
     this.queryService = cache.getQueryService();
-    this.expirationsMap = expirationsMap;
-    this.expirationExecutor = expirationExecutor;
     this.defaultRegionType = defaultShortcut;
     this.locks = new ConcurrentHashMap<>();
+    this.expirationScheduler =
+        new ExpirationScheduler(key -> removeKey(key, getRedisDataType(key)), expirationStats);
+    this.expirationScheduler.start(expirationExecutor);
   }
 
   public boolean existsKey(ByteArrayWrapper key) {
@@ -120,6 +147,24 @@ public class RegionProvider implements Closeable {
     return this.redisMetaRegion.entrySet();
   }
 
+  /**
+   * Visits a page of the Redis keys, see {@link KeyScanIndex#scan}
+   */
+  public long scanKeys(long cursor, int count, Consumer<String> action) {
+    return this.keyIndex.scan(cursor, count, key -> {
+      if (this.redisMetaRegion.containsKey(key)) {
+        action.accept(key);
+      } else {
+        // destroyed while the index was being filled
+        this.keyIndex.remove(key);
+        if (this.redisMetaRegion.containsKey(key)) {
+          // created again since, and its listener may have found it still indexed
+          this.keyIndex.add(key);
+        }
+      }
+    });
+  }
+
   public int getMetaSize() {
     return this.redisMetaRegion.size() - RedisConstants.NUM_DEFAULT_KEYS;
   }
@@ -168,10 +213,6 @@ public class RegionProvider implements Closeable {
   }
 
   public boolean removeKey(ByteArrayWrapper key, RedisDataType type) {
-    return removeKey(key, type, true);
-  }
-
-  public boolean removeKey(ByteArrayWrapper key, RedisDataType type, boolean cancelExpiration) {
     if (type == null || type == RedisDataType.REDIS_PROTECTED)
       return false;
     Lock lock = this.locks.get(key.toString());
@@ -185,16 +226,25 @@ public class RegionProvider implements Closeable {
           return this.stringsRegion.remove(key) != null;
         } else if (type == RedisDataType.REDIS_HLL) {
           return this.hLLRegion.remove(key) != null;
+        } else if (type == RedisDataType.REDIS_LIST) {
+          return this.listRegion.remove(key) != null;
+        } else if (type == RedisDataType.REDIS_SORTEDSET) {
+          // Geospatial indexes are still kept in a Region of their own, and ZADD on the same key
+          // writes the sorted set value, so both are removed
+          boolean removed = this.sortedSetRegion.remove(key) != null;
+          if (this.regions.containsKey(key)) {
+            removed |= destroyRegion(key, type);
+          }
+          return removed;
+        } else if (type == RedisDataType.REDIS_HASH) {
+          return this.hashRegion.remove(key) != null;
         } else {
           return destroyRegion(key, type);
         }
       } catch (Exception exc) {
         return false;
       } finally {
-        if (cancelExpiration)
-          cancelKeyExpiration(key);
-        else
-          removeKeyExpiration(key);
+        cancelKeyExpiration(key);
         if (lock != null)
           this.locks.remove(key.toString());
       }
@@ -211,7 +261,8 @@ public class RegionProvider implements Closeable {
   }
 
   public void createRemoteRegionReferenceLocally(ByteArrayWrapper key, RedisDataType type) {
-    if (type == null || type == RedisDataType.REDIS_STRING || type == RedisDataType.REDIS_HLL)
+    if (type == null || type == RedisDataType.REDIS_STRING || type == RedisDataType.REDIS_HLL
+        || type == RedisDataType.REDIS_LIST || type == RedisDataType.REDIS_HASH)
       return;
     Region<?, ?> r = this.regions.get(key);
     if (r != null)
@@ -236,14 +287,8 @@ public class RegionProvider implements Closeable {
           if (r == null)
             return;
 
-          if (type == RedisDataType.REDIS_LIST) {
-            doInitializeList(key, r);
-          } else if (type == RedisDataType.REDIS_SORTEDSET) {
-            try {
-              doInitializeSortedSet(key, r);
-            } catch (RegionNotFoundException | IndexInvalidException e) {
-              // ignore
-            }
+          if (type == RedisDataType.REDIS_SORTEDSET) {
+            doInitializeSortedSet(key, r);
           }
           this.regions.put(key, r);
         }
@@ -289,14 +334,8 @@ public class RegionProvider implements Closeable {
               concurrentCreateDestroyException = null;
               r = createRegionGlobally(stringKey);
               try {
-                if (type == RedisDataType.REDIS_LIST) {
-                  doInitializeList(key, r);
-                } else if (type == RedisDataType.REDIS_SORTEDSET) {
-                  try {
-                    doInitializeSortedSet(key, r);
-                  } catch (RegionNotFoundException | IndexInvalidException e) {
-                    concurrentCreateDestroyException = e;
-                  }
+                if (type == RedisDataType.REDIS_SORTEDSET) {
+                  doInitializeSortedSet(key, r);
                 }
               } catch (QueryInvalidException e) {
                 if (e.getCause() instanceof RegionNotFoundException) {
@@ -355,16 +394,8 @@ public class RegionProvider implements Closeable {
     this.regions.remove(key);
   }
 
-  private void doInitializeSortedSet(ByteArrayWrapper key, Region<?, ?> r)
-      throws RegionNotFoundException, IndexInvalidException {
+  private void doInitializeSortedSet(ByteArrayWrapper key, Region<?, ?> r) {
     String fullpath = r.getFullPath();
-    try {
-      queryService.createIndex("scoreIndex", "entry.value.score",
-          r.getFullPath() + ".entrySet entry");
-      queryService.createIndex("scoreIndex2", "value.score", r.getFullPath() + ".values value");
-    } catch (IndexNameConflictException | IndexExistsException | UnsupportedOperationException e) {
-      // ignore, these indexes already exist or unsupported but make sure prepared queries are made
-    }
     HashMap<Enum<?>, Query> queryList = new HashMap<>();
     for (SortedSetQuery lq : SortedSetQuery.values()) {
       String queryString = lq.getQueryString(fullpath);
@@ -374,19 +405,6 @@ public class RegionProvider implements Closeable {
     this.preparedQueries.put(key, queryList);
   }
 
-  private void doInitializeList(ByteArrayWrapper key, Region r) {
-    r.put("head", 0);
-    r.put("tail", 0);
-    String fullpath = r.getFullPath();
-    HashMap<Enum<?>, Query> queryList = new HashMap<>();
-    for (ListQuery lq : ListQuery.values()) {
-      String queryString = lq.getQueryString(fullpath);
-      Query query = this.queryService.newQuery(queryString);
-      queryList.put(lq, query);
-    }
-    this.preparedQueries.put(key, queryList);
-  }
-
   /**
    * This method creates a Region globally with the given name. If there is an error in the
    * creation, a runtime exception will be thrown.
@@ -450,10 +468,22 @@ public class RegionProvider implements Closeable {
     return this.stringsRegion;
   }
 
-  public Region<ByteArrayWrapper, HyperLogLogPlus> gethLLRegion() {
+  public Region<ByteArrayWrapper, RedisHyperLogLog> gethLLRegion() {
     return this.hLLRegion;
   }
 
+  public Region<ByteArrayWrapper, RedisList> getListRegion() {
+    return this.listRegion;
+  }
+
+  public Region<ByteArrayWrapper, RedisSortedSet> getSortedSetRegion() {
+    return this.sortedSetRegion;
+  }
+
+  public Region<ByteArrayWrapper, RedisHash> getHashRegion() {
+    return this.hashRegion;
+  }
+
   private RedisDataType getRedisDataType(String key) {
     return this.redisMetaRegion.get(key);
   }
@@ -476,9 +506,7 @@ public class RegionProvider implements Closeable {
     RedisDataType type = getRedisDataType(key);
     if (type == null)
       return false;
-    ScheduledFuture<?> future = this.expirationExecutor
-        .schedule(new ExpirationExecutor(key, type, this), delay, TimeUnit.MILLISECONDS);
-    this.expirationsMap.put(key, future);
+    this.expirationScheduler.schedule(key, delay);
     return true;
   }
 
@@ -490,9 +518,6 @@ public class RegionProvider implements Closeable {
    * @return True if reset, false if not
    */
   public boolean modifyExpiration(ByteArrayWrapper key, long delay) {
-    /*
-     * Attempt to cancel future task
-     */
     boolean canceled = cancelKeyExpiration(key);
 
     if (!canceled)
@@ -502,9 +527,7 @@ public class RegionProvider implements Closeable {
     if (type == null)
       return false;
 
-    ScheduledFuture<?> future = this.expirationExecutor
-        .schedule(new ExpirationExecutor(key, type, this), delay, TimeUnit.MILLISECONDS);
-    this.expirationsMap.put(key, future);
+    this.expirationScheduler.schedule(key, delay);
     return true;
   }
 
@@ -515,14 +538,7 @@ public class RegionProvider implements Closeable {
    * @return True is expiration cancelled on the key, false otherwise
    */
   public boolean cancelKeyExpiration(ByteArrayWrapper key) {
-    ScheduledFuture<?> future = expirationsMap.remove(key);
-    if (future == null)
-      return false;
-    return future.cancel(false);
-  }
-
-  private boolean removeKeyExpiration(ByteArrayWrapper key) {
-    return expirationsMap.remove(key) != null;
+    return this.expirationScheduler.remove(key);
   }
 
   /**
@@ -532,7 +548,7 @@ public class RegionProvider implements Closeable {
    * @return True if key has expiration, false otherwise
    */
   public boolean hasExpiration(ByteArrayWrapper key) {
-    return this.expirationsMap.containsKey(key);
+    return this.expirationScheduler.hasExpiration(key);
   }
 
   /**
@@ -542,12 +558,12 @@ public class RegionProvider implements Closeable {
    * @return Remaining time in milliseconds or 0 if no delay or key doesn't exist
    */
   public long getExpirationDelayMillis(ByteArrayWrapper key) {
-    ScheduledFuture<?> future = this.expirationsMap.get(key);
-    return future != null ? future.getDelay(TimeUnit.MILLISECONDS) : 0L;
+    return this.expirationScheduler.getDelayMillis(key);
   }
 
   @Override
   public void close() {
+    this.expirationScheduler.stop();
     this.preparedQueries.clear();
   }
 
@@ -0,0 +1,342 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.internal;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * An indexable skip list ordering the members of a {@link RedisSortedSet} by score and then by
+ * member. Every forward link records the number of nodes it jumps over so that the rank of a
+ * member, and the member at a given rank, can be found in logarithmic time. This follows the
+ * zskiplist used by Redis itself.
+ * <p>
+ * This class is not thread safe, all access is guarded by the owning {@link RedisSortedSet}.
+ */
+class SortedSetSkipList {
+
+  private static final int MAX_LEVEL = 32;
+
+  private static final int LEVEL_PROBABILITY = 4;
+
+  static class Node {
+    final ByteArrayWrapper member;
+    final double score;
+    Node backward;
+    final Node[] forward;
+    final int[] span;
+
+    private Node(int level, double score, ByteArrayWrapper member) {
+      this.member = member;
+      this.score = score;
+      this.forward = new Node[level];
+      this.span = new int[level];
+    }
+
+    Node next() {
+      return forward[0];
+    }
+
+    Node previous() {
+      return backward;
+    }
+  }
+
+  private final Node header = new Node(MAX_LEVEL, 0, null);
+
+  private Node tail;
+
+  private int length;
+
+  private int level = 1;
+
+  int size() {
+    return this.length;
+  }
+
+  Node first() {
+    return this.header.forward[0];
+  }
+
+  Node last() {
+    return this.tail;
+  }
+
+  /**
+   * Inserts a new node, the member must not already be present in the list
+   */
+  void insert(double score, ByteArrayWrapper member) {
+    Node[] update = new Node[MAX_LEVEL];
+    int[] rank = new int[MAX_LEVEL];
+    Node x = this.header;
+    for (int i = this.level - 1; i >= 0; i--) {
+      rank[i] = i == this.level - 1 ? 0 : rank[i + 1];
+      while (x.forward[i] != null && compare(x.forward[i], score, member) < 0) {
+        rank[i] += x.span[i];
+        x = x.forward[i];
+      }
+      update[i] = x;
+    }
+
+    int newLevel = randomLevel();
+    if (newLevel > this.level) {
+      for (int i = this.level; i < newLevel; i++) {
+        rank[i] = 0;
+        update[i] = this.header;
+        update[i].span[i] = this.length;
+      }
+      this.level = newLevel;
+    }
+
+    x = new Node(newLevel, score, member);
+    for (int i = 0; i < newLevel; i++) {
+      x.forward[i] = update[i].forward[i];
+      update[i].forward[i] = x;
+      x.span[i] = update[i].span[i] - (rank[0] - rank[i]);
+      update[i].span[i] = (rank[0] - rank[i]) + 1;
+    }
+    for (int i = newLevel; i < this.level; i++) {
+      update[i].span[i]++;
+    }
+
+    x.backward = update[0] == this.header ? null : update[0];
+    if (x.forward[0] != null) {
+      x.forward[0].backward = x;
+    } else {
+      this.tail = x;
+    }
+    this.length++;
+  }
+
+  /**
+   * Removes the node with the given score and member
+   *
+   * @return true if the node was found and removed
+   */
+  boolean delete(double score, ByteArrayWrapper member) {
+    Node[] update = new Node[MAX_LEVEL];
+    Node x = this.header;
+    for (int i = this.level - 1; i >= 0; i--) {
+      while (x.forward[i] != null && compare(x.forward[i], score, member) < 0) {
+        x = x.forward[i];
+      }
+      update[i] = x;
+    }
+    x = x.forward[0];
+    if (x != null && x.score == score && x.member.equals(member)) {
+      deleteNode(x, update);
+      return true;
+    }
+    return false;
+  }
+
+  private void deleteNode(Node x, Node[] update) {
+    for (int i = 0; i < this.level; i++) {
+      if (update[i].forward[i] == x) {
+        update[i].span[i] += x.span[i] - 1;
+        update[i].forward[i] = x.forward[i];
+      } else {
+        update[i].span[i] -= 1;
+      }
+    }
+    if (x.forward[0] != null) {
+      x.forward[0].backward = x.backward;
+    } else {
+      this.tail = x.backward;
+    }
+    while (this.level > 1 && this.header.forward[this.level - 1] == null) {
+      this.level--;
+    }
+    this.length--;
+  }
+
+  /**
+   * @return the 1-based rank of the given score and member or 0 if it is not in the list
+   */
+  int getRank(double score, ByteArrayWrapper member) {
+    int rank = 0;
+    Node x = this.header;
+    for (int i = this.level - 1; i >= 0; i--) {
+      while (x.forward[i] != null && compare(x.forward[i], score, member) <= 0) {
+        rank += x.span[i];
+        x = x.forward[i];
+      }
+      if (x != this.header && x.score == score && x.member.equals(member)) {
+        return rank;
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * @param rank 1-based rank
+   * @return the node at the given rank or null if the rank is out of range
+   */
+  Node getByRank(int rank) {
+    int traversed = 0;
+    Node x = this.header;
+    for (int i = this.level - 1; i >= 0; i--) {
+      while (x.forward[i] != null && traversed + x.span[i] <= rank) {
+        traversed += x.span[i];
+        x = x.forward[i];
+      }
+      if (traversed == rank) {
+        return x == this.header ? null : x;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return the first node with a score inside the given range or null if there is none
+   */
+  Node firstInScoreRange(double min, boolean minInclusive, double max, boolean maxInclusive) {
+    if (!isScoreRangeNonEmpty(min, minInclusive, max, maxInclusive)) {
+      return null;
+    }
+    Node x = this.header;
+    for (int i = this.level - 1; i >= 0; i--) {
+      while (x.forward[i] != null && !aboveMin(x.forward[i].score, min, minInclusive)) {
+        x = x.forward[i];
+      }
+    }
+    x = x.forward[0];
+    if (x == null || !belowMax(x.score, max, maxInclusive)) {
+      return null;
+    }
+    return x;
+  }
+
+  /**
+   * @return the last node with a score inside the given range or null if there is none
+   */
+  Node lastInScoreRange(double min, boolean minInclusive, double max, boolean maxInclusive) {
+    if (!isScoreRangeNonEmpty(min, minInclusive, max, maxInclusive)) {
+      return null;
+    }
+    Node x = this.header;
+    for (int i = this.level - 1; i >= 0; i--) {
+      while (x.forward[i] != null && belowMax(x.forward[i].score, max, maxInclusive)) {
+        x = x.forward[i];
+      }
+    }
+    if (x == this.header || !aboveMin(x.score, min, minInclusive)) {
+      return null;
+    }
+    return x;
+  }
+
+  /**
+   * Lexicographical ranges assume that all members share the same score, just like in Redis. A
+   * null bound is unbounded.
+   *
+   * @return the first node with a member inside the given range or null if there is none
+   */
+  Node firstInLexRange(ByteArrayWrapper min, boolean minInclusive, ByteArrayWrapper max,
+      boolean maxInclusive) {
+    if (!isLexRangeNonEmpty(min, minInclusive, max, maxInclusive)) {
+      return null;
+    }
+    Node x = this.header;
+    for (int i = this.level - 1; i >= 0; i--) {
+      while (x.forward[i] != null && !aboveLexMin(x.forward[i].member, min, minInclusive)) {
+        x = x.forward[i];
+      }
+    }
+    x = x.forward[0];
+    if (x == null || !belowLexMax(x.member, max, maxInclusive)) {
+      return null;
+    }
+    return x;
+  }
+
+  /**
+   * @return the last node with a member inside the given range or null if there is none
+   * @see #firstInLexRange(ByteArrayWrapper, boolean, ByteArrayWrapper, boolean)
+   */
+  Node lastInLexRange(ByteArrayWrapper min, boolean minInclusive, ByteArrayWrapper max,
+      boolean maxInclusive) {
+    if (!isLexRangeNonEmpty(min, minInclusive, max, maxInclusive)) {
+      return null;
+    }
+    Node x = this.header;
+    for (int i = this.level - 1; i >= 0; i--) {
+      while (x.forward[i] != null && belowLexMax(x.forward[i].member, max, maxInclusive)) {
+        x = x.forward[i];
+      }
+    }
+    if (x == this.header || !aboveLexMin(x.member, min, minInclusive)) {
+      return null;
+    }
+    return x;
+  }
+
+  private static boolean isScoreRangeNonEmpty(double min, boolean minInclusive, double max,
+      boolean maxInclusive) {
+    return min < max || (min == max && minInclusive && maxInclusive);
+  }
+
+  private static boolean aboveMin(double score, double min, boolean minInclusive) {
+    return minInclusive ? score >= min : score > min;
+  }
+
+  private static boolean belowMax(double score, double max, boolean maxInclusive) {
+    return maxInclusive ? score <= max : score < max;
+  }
+
+  private static boolean isLexRangeNonEmpty(ByteArrayWrapper min, boolean minInclusive,
+      ByteArrayWrapper max, boolean maxInclusive) {
+    if (min == null || max == null) {
+      return true;
+    }
+    int cmp = min.compareTo(max);
+    return cmp < 0 || (cmp == 0 && minInclusive && maxInclusive);
+  }
+
+  private static boolean aboveLexMin(ByteArrayWrapper member, ByteArrayWrapper min,
+      boolean minInclusive) {
+    if (min == null) {
+      return true;
+    }
+    int cmp = member.compareTo(min);
+    return minInclusive ? cmp >= 0 : cmp > 0;
+  }
+
+  private static boolean belowLexMax(ByteArrayWrapper member, ByteArrayWrapper max,
+      boolean maxInclusive) {
+    if (max == null) {
+      return true;
+    }
+    int cmp = member.compareTo(max);
+    return maxInclusive ? cmp <= 0 : cmp < 0;
+  }
+
+  private static int compare(Node node, double score, ByteArrayWrapper member) {
+    if (node.score < score) {
+      return -1;
+    } else if (node.score > score) {
+      return 1;
+    }
+    return node.member.compareTo(member);
+  }
+
+  private static int randomLevel() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    int newLevel = 1;
+    while (newLevel < MAX_LEVEL && random.nextInt(LEVEL_PROBABILITY) == 0) {
+      newLevel++;
+    }
+    return newLevel;
+  }
+}
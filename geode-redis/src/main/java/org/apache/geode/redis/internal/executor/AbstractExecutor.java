@@ -15,6 +15,7 @@
 package org.apache.geode.redis.internal.executor;
 
 import java.util.Collection;
+import java.util.function.Supplier;
 
 import io.netty.buffer.ByteBuf;
 
@@ -42,7 +43,7 @@ public abstract class AbstractExecutor implements Executor {
   /**
    * Number of Regions used by GeodeRedisServer internally
    */
-  public static final int NUM_DEFAULT_REGIONS = 3;
+  public static final int NUM_DEFAULT_REGIONS = 6;
 
   /**
    * Max length of a list
@@ -96,6 +97,45 @@ public abstract class AbstractExecutor implements Executor {
           "The key name \"" + key + "\" is already used by a " + currentType.toString());
   }
 
+  /**
+   * Associates the given key with the passed data type if it has none yet. If the key is already
+   * associated with another data type, a {@link RuntimeException} is thrown
+   *
+   * @param key Key to check
+   * @param type Type to set
+   * @param context context
+   */
+  protected void checkAndSetDataType(ByteArrayWrapper key, RedisDataType type,
+      ExecutionHandlerContext context) {
+    Object oldVal = context.getRegionProvider().metaPutIfAbsent(key, type);
+    if (oldVal == RedisDataType.REDIS_PROTECTED)
+      throw new RedisDataTypeMismatchException("The key name \"" + key + "\" is protected");
+    if (oldVal != null && oldVal != type)
+      throw new RedisDataTypeMismatchException(
+          "The key name \"" + key + "\" is already used by a " + oldVal.toString());
+  }
+
+  /**
+   * Gets the value stored at the key in the given region, creating it with the factory if there is
+   * none. The key is first associated with the passed data type as by
+   * {@link #checkAndSetDataType(ByteArrayWrapper, RedisDataType, ExecutionHandlerContext)}
+   *
+   * @return the existing value, or the created one if it was the first to be stored
+   */
+  protected <V> V getOrCreateValue(ExecutionHandlerContext context, ByteArrayWrapper key,
+      RedisDataType type, Region<ByteArrayWrapper, V> region, Supplier<V> factory) {
+    checkAndSetDataType(key, type, context);
+    V value = region.get(key);
+    if (value == null) {
+      V newValue = factory.get();
+      value = region.putIfAbsent(key, newValue);
+      if (value == null) {
+        value = newValue;
+      }
+    }
+    return value;
+  }
+
   protected Query getQuery(ByteArrayWrapper key, Enum<?> type, ExecutionHandlerContext context) {
     return context.getRegionProvider().getQuery(key, type);
   }
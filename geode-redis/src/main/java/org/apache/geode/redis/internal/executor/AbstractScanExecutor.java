@@ -14,8 +14,6 @@
  */
 package org.apache.geode.redis.internal.executor;
 
-import java.util.Collection;
-import java.util.List;
 import java.util.regex.Pattern;
 
 import org.apache.geode.redis.internal.org.apache.hadoop.fs.GlobPattern;
@@ -31,9 +29,6 @@ public abstract class AbstractScanExecutor extends AbstractExecutor {
 
   protected final int DEFUALT_COUNT = 10;
 
-  protected abstract List<?> getIteration(Collection<?> list, Pattern matchPatter, int count,
-      int cursor);
-
   /**
    * @param pattern A glob pattern.
    * @return A regex pattern to recognize the given glob pattern.
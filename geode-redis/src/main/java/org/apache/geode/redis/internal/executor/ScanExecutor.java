@@ -15,15 +15,14 @@
 package org.apache.geode.redis.internal.executor;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
-import org.apache.geode.redis.GeodeRedisServer;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
+import org.apache.geode.redis.internal.KeyScanIndex;
 import org.apache.geode.redis.internal.RedisConstants;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
 
@@ -39,17 +38,16 @@ public class ScanExecutor extends AbstractScanExecutor {
     }
 
     String cursorString = command.getStringKey();
-    int cursor = 0;
-    Pattern matchPattern = null;
+    long cursor = 0;
     String globMatchString = null;
     int count = DEFUALT_COUNT;
     try {
-      cursor = Integer.parseInt(cursorString);
+      cursor = Long.parseLong(cursorString);
     } catch (NumberFormatException e) {
       command.setResponse(Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_CURSOR));
       return;
     }
-    if (cursor < 0) {
+    if (cursor < 0 || cursor > KeyScanIndex.MAX_CURSOR) {
       command.setResponse(Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_CURSOR));
       return;
     }
@@ -90,6 +88,7 @@ public class ScanExecutor extends AbstractScanExecutor {
       return;
     }
 
+    Pattern matchPattern;
     try {
       matchPattern = convertGlobToRegex(globMatchString);
     } catch (PatternSyntaxException e) {
@@ -98,48 +97,16 @@ public class ScanExecutor extends AbstractScanExecutor {
       return;
     }
 
-    @SuppressWarnings("unchecked")
-    List<String> returnList = (List<String>) getIteration(context.getRegionProvider().metaKeySet(),
-        matchPattern, count, cursor);
-
-    command.setResponse(Coder.getScanResponse(context.getByteBufAllocator(), returnList));
-  }
-
-  @SuppressWarnings("unchecked")
-  @Override
-  protected List<?> getIteration(Collection<?> list, Pattern matchPattern, int count, int cursor) {
     List<String> returnList = new ArrayList<String>();
-    int size = list.size();
-    int beforeCursor = 0;
-    int numElements = 0;
-    int i = -1;
-    for (String key : (Collection<String>) list) {
-      if (key.equals(GeodeRedisServer.REDIS_META_DATA_REGION)
-          || key.equals(GeodeRedisServer.STRING_REGION) || key.equals(GeodeRedisServer.HLL_REGION))
-        continue;
-      i++;
-      if (beforeCursor < cursor) {
-        beforeCursor++;
-        continue;
-      } else if (numElements < count) {
-        if (matchPattern != null) {
-          if (matchPattern.matcher(key).matches()) {
-            returnList.add(key);
-            numElements++;
-          }
-        } else {
-          returnList.add(key);
-          numElements++;
-        }
-      } else
-        break;
-    }
+    returnList.add(null);
+    long nextCursor = context.getRegionProvider().scanKeys(cursor, count, key -> {
+      if (matchPattern == null || matchPattern.matcher(key).matches()) {
+        returnList.add(key);
+      }
+    });
+    returnList.set(0, String.valueOf(nextCursor));
 
-    if (i == size - (NUM_DEFAULT_REGIONS + 1))
-      returnList.add(0, String.valueOf(0));
-    else
-      returnList.add(0, String.valueOf(i));
-    return returnList;
+    command.setResponse(Coder.getScanResponse(context.getByteBufAllocator(), returnList));
   }
 
 }
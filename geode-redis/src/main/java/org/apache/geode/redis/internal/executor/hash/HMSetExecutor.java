@@ -14,17 +14,14 @@
  */
 package org.apache.geode.redis.internal.executor.hash;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
-import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
-import org.apache.geode.redis.internal.RedisDataType;
+import org.apache.geode.redis.internal.RedisHash;
 
 public class HMSetExecutor extends HashExecutor {
 
@@ -41,18 +38,16 @@ public class HMSetExecutor extends HashExecutor {
 
     ByteArrayWrapper key = command.getKey();
 
-    Region<ByteArrayWrapper, ByteArrayWrapper> keyRegion =
-        getOrCreateRegion(context, key, RedisDataType.REDIS_HASH);
+    RedisHash hash = getOrCreateHash(context, key);
 
-    Map<ByteArrayWrapper, ByteArrayWrapper> map = new HashMap<ByteArrayWrapper, ByteArrayWrapper>();
     for (int i = 2; i < commandElems.size(); i += 2) {
       byte[] fieldArray = commandElems.get(i);
       ByteArrayWrapper field = new ByteArrayWrapper(fieldArray);
       byte[] value = commandElems.get(i + 1);
-      map.put(field, new ByteArrayWrapper(value));
+      hash.put(field, new ByteArrayWrapper(value));
     }
 
-    keyRegion.putAll(map);
+    updateHash(context, key, hash);
 
     command.setResponse(Coder.getSimpleStringResponse(context.getByteBufAllocator(), SUCCESS));
 
@@ -16,14 +16,13 @@ package org.apache.geode.redis.internal.executor.hash;
 
 import java.util.List;
 
-import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.Extendable;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
-import org.apache.geode.redis.internal.RedisDataType;
+import org.apache.geode.redis.internal.RedisHash;
 
 public class HSetExecutor extends HashExecutor implements Extendable {
 
@@ -44,22 +43,27 @@ public class HSetExecutor extends HashExecutor implements Extendable {
 
     ByteArrayWrapper key = command.getKey();
 
-    Region<ByteArrayWrapper, ByteArrayWrapper> keyRegion =
-        getOrCreateRegion(context, key, RedisDataType.REDIS_HASH);
+    RedisHash hash = getOrCreateHash(context, key);
 
     byte[] byteField = commandElems.get(FIELD_INDEX);
     ByteArrayWrapper field = new ByteArrayWrapper(byteField);
 
     byte[] value = commandElems.get(VALUE_INDEX);
 
-    Object oldValue;
+    boolean newField;
 
-    if (onlySetOnAbsent())
-      oldValue = keyRegion.putIfAbsent(field, new ByteArrayWrapper(value));
-    else
-      oldValue = keyRegion.put(field, new ByteArrayWrapper(value));
+    if (onlySetOnAbsent()) {
+      newField = hash.putIfAbsent(field, new ByteArrayWrapper(value));
+    } else {
+      newField = hash.put(field, new ByteArrayWrapper(value));
+    }
+
+    // an HSETNX of an existing field changed nothing, so there is nothing to store
+    if (newField || !onlySetOnAbsent()) {
+      updateHash(context, key, hash);
+    }
 
-    if (oldValue == null)
+    if (newField)
       command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), NEW_FIELD));
     else
       command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), EXISTING_FIELD));
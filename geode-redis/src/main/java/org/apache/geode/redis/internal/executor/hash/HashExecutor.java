@@ -18,24 +18,52 @@ import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisDataType;
+import org.apache.geode.redis.internal.RedisHash;
 import org.apache.geode.redis.internal.executor.AbstractExecutor;
 
 public abstract class HashExecutor extends AbstractExecutor {
 
   protected final int FIELD_INDEX = 2;
 
-  @Override
-  @SuppressWarnings("unchecked")
-  protected Region<ByteArrayWrapper, ByteArrayWrapper> getOrCreateRegion(
-      ExecutionHandlerContext context, ByteArrayWrapper key, RedisDataType type) {
-    return (Region<ByteArrayWrapper, ByteArrayWrapper>) context.getRegionProvider()
-        .getOrCreateRegion(key, type, context);
+  protected void checkAndSetDataType(ByteArrayWrapper key, ExecutionHandlerContext context) {
+    checkAndSetDataType(key, RedisDataType.REDIS_HASH, context);
   }
 
-  @SuppressWarnings("unchecked")
-  protected Region<ByteArrayWrapper, ByteArrayWrapper> getRegion(ExecutionHandlerContext context,
-      ByteArrayWrapper key) {
-    return (Region<ByteArrayWrapper, ByteArrayWrapper>) context.getRegionProvider().getRegion(key);
+  protected Region<ByteArrayWrapper, RedisHash> getHashRegion(ExecutionHandlerContext context) {
+    return context.getRegionProvider().getHashRegion();
+  }
+
+  /**
+   * @return the hash stored at the key or null if there is none
+   */
+  protected RedisHash getHash(ExecutionHandlerContext context, ByteArrayWrapper key) {
+    return getHashRegion(context).get(key);
+  }
+
+  /**
+   * Gets the hash stored at the key, creating an empty one if there is none. Changes made to the
+   * returned hash must be stored by {@link #updateHash}
+   */
+  protected RedisHash getOrCreateHash(ExecutionHandlerContext context, ByteArrayWrapper key) {
+    return getOrCreateValue(context, key, RedisDataType.REDIS_HASH, getHashRegion(context),
+        RedisHash::new);
+  }
+
+  /**
+   * Stores the changes made to a hash, only the set or removed fields are distributed. An empty
+   * hash is removed along with its key.
+   */
+  protected void updateHash(ExecutionHandlerContext context, ByteArrayWrapper key,
+      RedisHash hash) {
+    try {
+      if (hash.isEmpty()) {
+        context.getRegionProvider().removeKey(key, RedisDataType.REDIS_HASH);
+      } else {
+        getHashRegion(context).put(key, hash);
+      }
+    } finally {
+      hash.resetDelta();
+    }
   }
 
 }
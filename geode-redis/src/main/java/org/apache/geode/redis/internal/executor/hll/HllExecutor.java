@@ -14,10 +14,11 @@
  */
 package org.apache.geode.redis.internal.executor.hll;
 
+import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisDataType;
-import org.apache.geode.redis.internal.RedisDataTypeMismatchException;
+import org.apache.geode.redis.internal.RedisHyperLogLog;
 import org.apache.geode.redis.internal.executor.AbstractExecutor;
 
 public abstract class HllExecutor extends AbstractExecutor {
@@ -27,11 +28,33 @@ public abstract class HllExecutor extends AbstractExecutor {
   public static final Integer DEFAULT_HLL_SPARSE = 32;
 
   protected void checkAndSetDataType(ByteArrayWrapper key, ExecutionHandlerContext context) {
-    Object oldVal = context.getRegionProvider().metaPutIfAbsent(key, RedisDataType.REDIS_HLL);
-    if (oldVal == RedisDataType.REDIS_PROTECTED)
-      throw new RedisDataTypeMismatchException("The key name \"" + key + "\" is protected");
-    if (oldVal != null && oldVal != RedisDataType.REDIS_HLL)
-      throw new RedisDataTypeMismatchException(
-          "The key name \"" + key + "\" is already used by a " + oldVal.toString());
+    checkAndSetDataType(key, RedisDataType.REDIS_HLL, context);
+  }
+
+  protected Region<ByteArrayWrapper, RedisHyperLogLog> getHllRegion(
+      ExecutionHandlerContext context) {
+    return context.getRegionProvider().gethLLRegion();
+  }
+
+  /**
+   * Gets the HyperLogLog stored at the key, creating an empty one if there is none. Changes made to
+   * the returned HyperLogLog must be stored by {@link #updateHll}
+   */
+  protected RedisHyperLogLog getOrCreateHll(ExecutionHandlerContext context,
+      ByteArrayWrapper key) {
+    return getOrCreateValue(context, key, RedisDataType.REDIS_HLL, getHllRegion(context),
+        RedisHyperLogLog::new);
+  }
+
+  /**
+   * Stores the changes made to a HyperLogLog, only the changed registers are distributed
+   */
+  protected void updateHll(ExecutionHandlerContext context, ByteArrayWrapper key,
+      RedisHyperLogLog hll) {
+    try {
+      getHllRegion(context).put(key, hll);
+    } finally {
+      hll.resetDelta();
+    }
   }
 }
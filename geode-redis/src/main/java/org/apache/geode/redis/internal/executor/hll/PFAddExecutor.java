@@ -16,13 +16,12 @@ package org.apache.geode.redis.internal.executor.hll;
 
 import java.util.List;
 
-import org.apache.geode.cache.Region;
-import org.apache.geode.internal.hll.HyperLogLogPlus;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
+import org.apache.geode.redis.internal.RedisHyperLogLog;
 
 public class PFAddExecutor extends HllExecutor {
 
@@ -36,25 +35,19 @@ public class PFAddExecutor extends HllExecutor {
     }
 
     ByteArrayWrapper key = command.getKey();
-    checkAndSetDataType(key, context);
-    Region<ByteArrayWrapper, HyperLogLogPlus> keyRegion =
-        context.getRegionProvider().gethLLRegion();
-
-    HyperLogLogPlus hll = keyRegion.get(key);
+    RedisHyperLogLog hll = getOrCreateHll(context, key);
 
     boolean changed = false;
 
-    if (hll == null)
-      hll = new HyperLogLogPlus(DEFAULT_HLL_DENSE);
-
     for (int i = 2; i < commandElems.size(); i++) {
       byte[] bytes = commandElems.get(i);
-      boolean offerChange = hll.offer(bytes);
+      boolean offerChange = hll.add(bytes);
       if (offerChange)
         changed = true;
     }
 
-    keyRegion.put(key, hll);
+    if (changed)
+      updateHll(context, key, hll);
 
     if (changed)
       command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), 1));
@@ -17,15 +17,13 @@ package org.apache.geode.redis.internal.executor.hll;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.apache.geode.cache.Region;
-import org.apache.geode.internal.hll.CardinalityMergeException;
-import org.apache.geode.internal.hll.HyperLogLogPlus;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
 import org.apache.geode.redis.internal.RedisDataType;
+import org.apache.geode.redis.internal.RedisHyperLogLog;
 
 public class PFCountExecutor extends HllExecutor {
 
@@ -38,15 +36,12 @@ public class PFCountExecutor extends HllExecutor {
       return;
     }
 
-    Region<ByteArrayWrapper, HyperLogLogPlus> keyRegion =
-        context.getRegionProvider().gethLLRegion();
-
-    List<HyperLogLogPlus> hlls = new ArrayList<HyperLogLogPlus>();
+    List<RedisHyperLogLog> hlls = new ArrayList<RedisHyperLogLog>();
 
     for (int i = 1; i < commandElems.size(); i++) {
       ByteArrayWrapper k = new ByteArrayWrapper(commandElems.get(i));
       checkDataType(k, RedisDataType.REDIS_HLL, context);
-      HyperLogLogPlus h = keyRegion.get(k);
+      RedisHyperLogLog h = getHllRegion(context).get(k);
       if (h != null)
         hlls.add(h);
     }
@@ -55,12 +50,11 @@ public class PFCountExecutor extends HllExecutor {
       return;
     }
 
-    HyperLogLogPlus tmp = hlls.remove(0);
-    HyperLogLogPlus[] estimators = hlls.toArray(new HyperLogLogPlus[hlls.size()]);
-    try {
-      tmp = (HyperLogLogPlus) tmp.merge(estimators);
-    } catch (CardinalityMergeException e) {
-      throw new RuntimeException(e);
+    RedisHyperLogLog tmp = hlls.remove(0);
+    if (!hlls.isEmpty()) {
+      tmp = tmp.copy();
+      for (RedisHyperLogLog h : hlls)
+        tmp.merge(h);
     }
     long cardinality = tmp.cardinality();
     command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), cardinality));
@@ -16,17 +16,13 @@ package org.apache.geode.redis.internal.executor.list;
 
 import java.util.List;
 
-import org.apache.geode.cache.Region;
-import org.apache.geode.cache.query.Query;
-import org.apache.geode.cache.query.SelectResults;
-import org.apache.geode.cache.query.Struct;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
 import org.apache.geode.redis.internal.RedisDataType;
-import org.apache.geode.redis.internal.executor.ListQuery;
+import org.apache.geode.redis.internal.RedisList;
 
 public class LIndexExecutor extends ListExecutor {
 
@@ -45,14 +41,14 @@ public class LIndexExecutor extends ListExecutor {
     byte[] indexArray = commandElems.get(2);
 
     checkDataType(key, RedisDataType.REDIS_LIST, context);
-    Region<Integer, ByteArrayWrapper> keyRegion = getRegion(context, key);
+    RedisList list = getList(context, key);
 
-    if (keyRegion == null) {
+    if (list == null) {
       command.setResponse(Coder.getNilResponse(context.getByteBufAllocator()));
       return;
     }
 
-    int listSize = keyRegion.size() - LIST_EMPTY_SIZE;
+    int listSize = list.size();
 
     int redisIndex;
 
@@ -64,8 +60,7 @@ public class LIndexExecutor extends ListExecutor {
     }
 
     /*
-     * Now the fun part, converting the redis index into our index. The redis index is 0 based but
-     * negative values count from the tail
+     * The redis index is 0 based but negative values count from the tail
      */
 
     if (redisIndex < 0)
@@ -73,45 +68,15 @@ public class LIndexExecutor extends ListExecutor {
       redisIndex = listSize + redisIndex;
 
     /*
-     * If the index is still less than 0 that means the index has shot off back past the beginning,
-     * which means the index isn't real and a nil is returned
+     * If the index is still less than 0 or past the end that means the index isn't real and a nil
+     * is returned
      */
-    if (redisIndex < 0) {
+    ByteArrayWrapper valueWrapper = list.get(redisIndex);
+    if (valueWrapper == null) {
       command.setResponse(Coder.getNilResponse(context.getByteBufAllocator()));
       return;
     }
 
-    /*
-     * Now we must get that element from the region
-     */
-    Struct entry;
-    try {
-      entry = getEntryAtIndex(context, key, redisIndex);
-    } catch (Exception e) {
-      throw new RuntimeException(e);
-    }
-    if (entry == null) {
-      command.setResponse(Coder.getNilResponse(context.getByteBufAllocator()));
-      return;
-    }
-
-    Object[] entryArray = entry.getFieldValues();
-    ByteArrayWrapper valueWrapper = (ByteArrayWrapper) entryArray[1];
     respondBulkStrings(command, context, valueWrapper);
   }
-
-  private Struct getEntryAtIndex(ExecutionHandlerContext context, ByteArrayWrapper key, int index)
-      throws Exception {
-
-    Query query = getQuery(key, ListQuery.LINDEX, context);
-
-    Object[] params = {Integer.valueOf(index + 1)};
-
-    SelectResults<?> results = (SelectResults<?>) query.execute(params);
-
-    if (results == null || results.size() == 0 || results.size() <= index)
-      return null;
-    else
-      return (Struct) results.asList().get(index);
-  }
 }
@@ -121,7 +121,6 @@ public class SScanExecutor extends AbstractScanExecutor {
   }
 
   @SuppressWarnings("unchecked")
-  @Override
   protected List<?> getIteration(Collection<?> list, Pattern matchPattern, int count, int cursor) {
     List<Object> returnList = new ArrayList<Object>();
     int size = list.size();
@@ -17,9 +17,9 @@ package org.apache.geode.redis.internal.executor.sortedset;
 import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
-import org.apache.geode.redis.internal.DoubleWrapper;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisDataType;
+import org.apache.geode.redis.internal.RedisSortedSet;
 import org.apache.geode.redis.internal.executor.AbstractExecutor;
 
 public abstract class SortedSetExecutor extends AbstractExecutor {
@@ -27,21 +27,47 @@ public abstract class SortedSetExecutor extends AbstractExecutor {
   final ByteArrayWrapper minus = new ByteArrayWrapper(Coder.stringToBytes("-"));
   final ByteArrayWrapper plus = new ByteArrayWrapper(Coder.stringToBytes("+"));
 
-  @Override
-  protected Region<ByteArrayWrapper, DoubleWrapper> getOrCreateRegion(
-      ExecutionHandlerContext context, ByteArrayWrapper key, RedisDataType type) {
-    @SuppressWarnings("unchecked")
-    Region<ByteArrayWrapper, DoubleWrapper> r = (Region<ByteArrayWrapper, DoubleWrapper>) context
-        .getRegionProvider().getOrCreateRegion(key, type, context);
-    return r;
+  protected void checkAndSetDataType(ByteArrayWrapper key, ExecutionHandlerContext context) {
+    checkAndSetDataType(key, RedisDataType.REDIS_SORTEDSET, context);
   }
 
-  protected Region<ByteArrayWrapper, DoubleWrapper> getRegion(ExecutionHandlerContext context,
+  protected Region<ByteArrayWrapper, RedisSortedSet> getSortedSetRegion(
+      ExecutionHandlerContext context) {
+    return context.getRegionProvider().getSortedSetRegion();
+  }
+
+  /**
+   * @return the sorted set stored at the key or null if there is none
+   */
+  protected RedisSortedSet getSortedSet(ExecutionHandlerContext context, ByteArrayWrapper key) {
+    return getSortedSetRegion(context).get(key);
+  }
+
+  /**
+   * Gets the sorted set stored at the key, creating an empty one if there is none. Changes made to
+   * the returned set must be stored by {@link #updateSortedSet}
+   */
+  protected RedisSortedSet getOrCreateSortedSet(ExecutionHandlerContext context,
       ByteArrayWrapper key) {
-    @SuppressWarnings("unchecked")
-    Region<ByteArrayWrapper, DoubleWrapper> r =
-        (Region<ByteArrayWrapper, DoubleWrapper>) context.getRegionProvider().getRegion(key);
-    return r;
+    return getOrCreateValue(context, key, RedisDataType.REDIS_SORTEDSET,
+        getSortedSetRegion(context), RedisSortedSet::new);
+  }
+
+  /**
+   * Stores the changes made to a sorted set, only the changed members are distributed. An empty
+   * sorted set is removed along with its key.
+   */
+  protected void updateSortedSet(ExecutionHandlerContext context, ByteArrayWrapper key,
+      RedisSortedSet sortedSet) {
+    try {
+      if (sortedSet.isEmpty()) {
+        context.getRegionProvider().removeKey(key, RedisDataType.REDIS_SORTEDSET);
+      } else {
+        getSortedSetRegion(context).put(key, sortedSet);
+      }
+    } finally {
+      sortedSet.resetDelta();
+    }
   }
 
 }
@@ -16,14 +16,12 @@ package org.apache.geode.redis.internal.executor.sortedset;
 
 import java.util.List;
 
-import org.apache.geode.cache.Region;
 import org.apache.geode.redis.internal.ByteArrayWrapper;
 import org.apache.geode.redis.internal.Coder;
 import org.apache.geode.redis.internal.Command;
-import org.apache.geode.redis.internal.DoubleWrapper;
 import org.apache.geode.redis.internal.ExecutionHandlerContext;
 import org.apache.geode.redis.internal.RedisConstants.ArityDef;
-import org.apache.geode.redis.internal.RedisDataType;
+import org.apache.geode.redis.internal.RedisSortedSet;
 
 public class ZIncrByExecutor extends SortedSetExecutor {
 
@@ -41,9 +39,6 @@ public class ZIncrByExecutor extends SortedSetExecutor {
 
     ByteArrayWrapper key = command.getKey();
 
-    Region<ByteArrayWrapper, DoubleWrapper> keyRegion =
-        getOrCreateRegion(context, key, RedisDataType.REDIS_SORTEDSET);
-
     ByteArrayWrapper member = new ByteArrayWrapper(commandElems.get(3));
 
     double incr;
@@ -56,21 +51,17 @@ public class ZIncrByExecutor extends SortedSetExecutor {
       return;
     }
 
-    DoubleWrapper score = keyRegion.get(member);
+    RedisSortedSet sortedSet = getOrCreateSortedSet(context, key);
+    Double score = sortedSet.getScore(member);
 
-    if (score == null) {
-      keyRegion.put(member, new DoubleWrapper(incr));
-      respondBulkStrings(command, context, incr);
-      return;
-    }
-    double result = score.score + incr;
+    double result = score == null ? incr : score + incr;
     if (Double.isNaN(result)) {
       command.setResponse(Coder.getErrorResponse(context.getByteBufAllocator(), ERROR_NAN));
       return;
     }
-    score.score = result;
-    keyRegion.put(member, score);
-    respondBulkStrings(command, context, score.score);
+    sortedSet.add(member, result);
+    updateSortedSet(context, key, sortedSet);
+    respondBulkStrings(command, context, result);
   }
 
 }
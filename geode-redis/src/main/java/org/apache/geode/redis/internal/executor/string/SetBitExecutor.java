@@ -14,6 +14,7 @@
  */
 package org.apache.geode.redis.internal.executor.string;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.geode.cache.Region;
@@ -88,17 +89,12 @@ public class SetBitExecutor extends StringExecutor {
       else
         returnBit = 0;
 
-      if (byteIndex < bytes.length) {
-        bytes[byteIndex] = value == 1 ? (byte) (bytes[byteIndex] | (0x80 >> offset))
-            : (byte) (bytes[byteIndex] & ~(0x80 >> offset));
-        r.put(key, new ByteArrayWrapper(bytes));
-      } else {
-        byte[] newBytes = new byte[byteIndex + 1];
-        System.arraycopy(bytes, 0, newBytes, 0, bytes.length);
-        newBytes[byteIndex] = value == 1 ? (byte) (newBytes[byteIndex] | (0x80 >> offset))
-            : (byte) (newBytes[byteIndex] & ~(0x80 >> offset));
-        r.put(key, new ByteArrayWrapper(newBytes));
-      }
+      // The stored array may be wrapped by a response that is still being written, so it is
+      // copied rather than modified in place
+      byte[] newBytes = Arrays.copyOf(bytes, Math.max(byteIndex + 1, bytes.length));
+      newBytes[byteIndex] = value == 1 ? (byte) (newBytes[byteIndex] | (0x80 >> offset))
+          : (byte) (newBytes[byteIndex] & ~(0x80 >> offset));
+      r.put(key, new ByteArrayWrapper(newBytes));
 
       command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), returnBit));
     }
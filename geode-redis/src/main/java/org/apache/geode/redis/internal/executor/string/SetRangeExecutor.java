@@ -14,6 +14,7 @@
  */
 package org.apache.geode.redis.internal.executor.string;
 
+import java.util.Arrays;
 import java.util.List;
 
 import org.apache.geode.cache.Region;
@@ -76,20 +77,13 @@ public class SetRangeExecutor extends StringExecutor {
     } else {
 
       byte[] bytes = wrapper.toBytes();
-      int returnLength;
-      if (totalLength < bytes.length) {
-        System.arraycopy(value, 0, bytes, offset, value.length);
-        r.put(key, new ByteArrayWrapper(bytes));
-        returnLength = bytes.length;
-      } else {
-        byte[] newBytes = new byte[totalLength];
-        System.arraycopy(bytes, 0, newBytes, 0, bytes.length);
-        System.arraycopy(value, 0, newBytes, offset, value.length);
-        returnLength = newBytes.length;
-        r.put(key, new ByteArrayWrapper(newBytes));
-      }
+      // The stored array may be wrapped by a response that is still being written, so it is
+      // copied rather than modified in place
+      byte[] newBytes = Arrays.copyOf(bytes, Math.max(totalLength, bytes.length));
+      System.arraycopy(value, 0, newBytes, offset, value.length);
+      r.put(key, new ByteArrayWrapper(newBytes));
 
-      command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), returnLength));
+      command.setResponse(Coder.getIntegerResponse(context.getByteBufAllocator(), newBytes.length));
     }
   }
 
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufAllocator;
+import io.netty.buffer.UnpooledByteBufAllocator;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.test.junit.categories.RedisTest;
+
+@Category({RedisTest.class})
+public class CoderTest {
+
+  private final ByteBufAllocator alloc = UnpooledByteBufAllocator.DEFAULT;
+
+  private static String decode(ByteBuf response) {
+    try {
+      return response.toString(StandardCharsets.UTF_8);
+    } finally {
+      response.release();
+    }
+  }
+
+  private static byte[] largeValue() {
+    byte[] value = new byte[Coder.MIN_WRAPPED_VALUE_LENGTH];
+    Arrays.fill(value, (byte) 'x');
+    return value;
+  }
+
+  @Test
+  public void bulkStringArrayMixesCopiedAndWrappedValues() throws Exception {
+    byte[] large = largeValue();
+    String largeString = new String(large, StandardCharsets.UTF_8);
+    List<Object> items = Arrays.asList(new ByteArrayWrapper(large), null, "ab",
+        Collections.singletonList(new ByteArrayWrapper(large)));
+
+    assertThat(decode(Coder.getBulkStringArrayResponse(alloc, items)))
+        .isEqualTo("*4\r\n$" + large.length + "\r\n" + largeString + "\r\n$-1\r\n$2\r\nab\r\n"
+            + "*1\r\n$" + large.length + "\r\n" + largeString + "\r\n");
+  }
+
+  @Test
+  public void wrappedValuesAreNotCopied() throws Exception {
+    byte[] large = largeValue();
+    ByteBuf response = Coder.getBulkStringResponse(alloc, new ByteArrayWrapper(large));
+
+    large[0] = 'y';
+
+    assertThat(decode(response)).startsWith("$" + large.length + "\r\ny");
+  }
+
+  @Test
+  public void keyValArrayHeaderCountsWrittenEntries() {
+    List<Entry<ByteArrayWrapper, ByteArrayWrapper>> entries = Arrays.asList(
+        new SimpleImmutableEntry<>(Coder.stringToByteArrayWrapper("k1"),
+            Coder.stringToByteArrayWrapper("v1")),
+        new SimpleImmutableEntry<>(Coder.stringToByteArrayWrapper("k2"),
+            Coder.stringToByteArrayWrapper("v22")));
+
+    assertThat(decode(Coder.getKeyValArrayResponse(alloc, entries)))
+        .isEqualTo("*4\r\n$2\r\nk1\r\n$2\r\nv1\r\n$2\r\nk2\r\n$3\r\nv22\r\n");
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.embedded.EmbeddedChannel;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.LogWriter;
+import org.apache.geode.cache.Cache;
+import org.apache.geode.redis.GeodeRedisServer;
+import org.apache.geode.test.junit.categories.RedisTest;
+
+@Category({RedisTest.class})
+public class ExecutionHandlerContextTest {
+
+  private final ManualExecutor executor = new ManualExecutor();
+
+  private EmbeddedChannel channel;
+
+  @Before
+  public void setUp() {
+    Cache cache = mock(Cache.class);
+    when(cache.getLogger()).thenReturn(mock(LogWriter.class));
+    channel = new EmbeddedChannel();
+    channel.pipeline().addLast(new ExecutionHandlerContext(channel, cache,
+        mock(RegionProvider.class), mock(GeodeRedisServer.class), null, executor));
+  }
+
+  @After
+  public void tearDown() {
+    channel.finishAndReleaseAll();
+  }
+
+  @Test
+  public void pipelinedCommandsPauseReadingUntilDrainedAndKeepTheirOrder() {
+    // a read decodes more commands than the limit before the pause takes effect
+    int commands = ExecutionHandlerContext.MAX_PENDING_COMMANDS + 100;
+    for (int i = 0; i < commands; i++) {
+      channel.writeInbound(echo(i));
+      assertThat(channel.config().isAutoRead())
+          .isEqualTo(i + 1 < ExecutionHandlerContext.MAX_PENDING_COMMANDS);
+    }
+    assertThat(channel.<Object>readOutbound()).isNull();
+
+    assertThat(executor.runNext()).isTrue();
+    channel.runPendingTasks();
+    assertThat(channel.config().isAutoRead()).isFalse();
+
+    while (executor.runNext()) {
+      channel.runPendingTasks();
+    }
+    assertThat(channel.config().isAutoRead()).isTrue();
+
+    StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < commands; i++) {
+      String message = String.valueOf(i);
+      expected.append('$').append(message.length()).append("\r\n").append(message).append("\r\n");
+    }
+    assertThat(readResponses()).isEqualTo(expected.toString());
+  }
+
+  @Test
+  public void commandsOfOneDrainAreExecutedInOrder() {
+    channel.writeInbound(echo(1));
+    channel.writeInbound(echo(2));
+
+    assertThat(executor.runNext()).isTrue();
+    assertThat(executor.runNext()).isFalse();
+    assertThat(readResponses()).isEqualTo("$1\r\n1\r\n$1\r\n2\r\n");
+  }
+
+  private static Command echo(int i) {
+    return new Command(Arrays.asList(Coder.stringToBytes("ECHO"),
+        Coder.stringToBytes(String.valueOf(i))));
+  }
+
+  private String readResponses() {
+    StringBuilder responses = new StringBuilder();
+    ByteBuf response;
+    while ((response = channel.readOutbound()) != null) {
+      responses.append(response.toString(StandardCharsets.UTF_8));
+      response.release();
+    }
+    return responses.toString();
+  }
+
+  /**
+   * Runs the submitted tasks only when asked to
+   */
+  private static class ManualExecutor extends AbstractExecutorService {
+
+    private final Queue<Runnable> tasks = new ArrayDeque<>();
+
+    boolean runNext() {
+      Runnable task = tasks.poll();
+      if (task == null) {
+        return false;
+      }
+      task.run();
+      return true;
+    }
+
+    @Override
+    public void execute(Runnable task) {
+      tasks.add(task);
+    }
+
+    @Override
+    public void shutdown() {}
+
+    @Override
+    public List<Runnable> shutdownNow() {
+      return Collections.emptyList();
+    }
+
+    @Override
+    public boolean isShutdown() {
+      return false;
+    }
+
+    @Override
+    public boolean isTerminated() {
+      return false;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) {
+      return false;
+    }
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.internal.statistics.DummyStatisticsFactory;
+import org.apache.geode.test.junit.categories.RedisTest;
+
+@Category({RedisTest.class})
+public class ExpirationSchedulerTest {
+
+  private final List<ByteArrayWrapper> expired = new ArrayList<>();
+
+  private long now = 1_000_000L;
+
+  private ExpirationStats stats;
+
+  private ExpirationScheduler scheduler;
+
+  @Before
+  public void setUp() {
+    stats = new ExpirationStats(new DummyStatisticsFactory(), "test");
+    scheduler = new ExpirationScheduler(key -> {
+      expired.add(key);
+      scheduler.remove(key);
+    }, stats, () -> now);
+  }
+
+  private void advanceTo(long time) {
+    while (now < time) {
+      now = Math.min(now + ExpirationScheduler.TICK_MILLIS, time);
+      scheduler.runExpirationCycle();
+    }
+  }
+
+  private static ByteArrayWrapper key(String key) {
+    return Coder.stringToByteArrayWrapper(key);
+  }
+
+  @Test
+  public void expiresKeysWhenTheirTimeHasCome() {
+    scheduler.schedule(key("soon"), 25);
+    scheduler.schedule(key("later"), TimeUnit.MINUTES.toMillis(5));
+    scheduler.schedule(key("tomorrow"), TimeUnit.DAYS.toMillis(1));
+    assertThat(scheduler.getDelayMillis(key("later"))).isEqualTo(TimeUnit.MINUTES.toMillis(5));
+
+    advanceTo(now + 20);
+    assertThat(expired).isEmpty();
+    advanceTo(now + 10);
+    assertThat(expired).containsExactly(key("soon"));
+    assertThat(scheduler.hasExpiration(key("soon"))).isFalse();
+
+    advanceTo(now + TimeUnit.MINUTES.toMillis(5) - 40);
+    assertThat(expired).containsExactly(key("soon"));
+    advanceTo(now + 20);
+    assertThat(expired).containsExactly(key("soon"), key("later"));
+
+    advanceTo(now + TimeUnit.DAYS.toMillis(1));
+    assertThat(expired).containsExactly(key("soon"), key("later"), key("tomorrow"));
+    assertThat(stats.getExpiredKeys()).isEqualTo(3);
+  }
+
+  @Test
+  public void removedAndChangedExpirationsAreHonored() {
+    scheduler.schedule(key("removed"), 100);
+    scheduler.schedule(key("extended"), 100);
+    scheduler.schedule(key("shortened"), TimeUnit.HOURS.toMillis(1));
+
+    assertThat(scheduler.remove(key("removed"))).isTrue();
+    assertThat(scheduler.remove(key("removed"))).isFalse();
+    scheduler.schedule(key("extended"), 1000);
+    scheduler.schedule(key("shortened"), 200);
+
+    advanceTo(now + 500);
+    assertThat(expired).containsExactly(key("shortened"));
+    advanceTo(now + 1000);
+    assertThat(expired).containsExactly(key("shortened"), key("extended"));
+    assertThat(scheduler.getDelayMillis(key("removed"))).isEqualTo(0);
+  }
+
+  @Test
+  public void expirationsInThePastAreDueAtTheNextCycle() {
+    scheduler.schedule(key("past"), -5);
+
+    scheduler.runExpirationCycle();
+
+    assertThat(expired).containsExactly(key("past"));
+    assertThat(scheduler.getBacklog()).isEqualTo(0);
+  }
+
+  @Test
+  public void aKeyThatFailsToExpireDoesNotStopLaterExpirations() {
+    scheduler = new ExpirationScheduler(key -> {
+      if (key.equals(key("bad"))) {
+        throw new IllegalStateException("region destroyed");
+      }
+      expired.add(key);
+      scheduler.remove(key);
+    }, stats, () -> now);
+    scheduler.schedule(key("bad"), 10);
+    scheduler.schedule(key("good"), 10);
+    scheduler.schedule(key("later"), 100);
+
+    advanceTo(now + 20);
+    assertThat(expired).containsExactly(key("good"));
+    assertThat(scheduler.hasExpiration(key("bad"))).isFalse();
+
+    advanceTo(now + 100);
+    assertThat(expired).containsExactly(key("good"), key("later"));
+    assertThat(stats.getExpiredKeys()).isEqualTo(2);
+  }
+}
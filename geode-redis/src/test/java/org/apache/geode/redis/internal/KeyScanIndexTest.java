@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.test.junit.categories.RedisTest;
+
+@Category({RedisTest.class})
+public class KeyScanIndexTest {
+
+  private final KeyScanIndex index = new KeyScanIndex();
+
+  @Test
+  public void scanVisitsEveryKeyOncePageByPage() {
+    for (int i = 0; i < 1000; i++) {
+      index.add("key" + i);
+    }
+    index.add("key0");
+    assertThat(index.size()).isEqualTo(1000);
+
+    List<String> visited = new ArrayList<>();
+    long cursor = 0;
+    do {
+      List<String> page = new ArrayList<>();
+      cursor = index.scan(cursor, 10, page::add);
+      assertThat(page.size()).isGreaterThanOrEqualTo(cursor == 0 ? 0 : 10);
+      visited.addAll(page);
+    } while (cursor != 0);
+
+    assertThat(visited).hasSize(1000).doesNotHaveDuplicates();
+  }
+
+  @Test
+  public void keysPresentForTheWholeScanAreVisitedDespiteChanges() {
+    Set<String> stable = new HashSet<>();
+    for (int i = 0; i < 500; i++) {
+      index.add("stable" + i);
+      stable.add("stable" + i);
+      index.add("removed" + i);
+    }
+
+    Set<String> visited = new HashSet<>();
+    long cursor = 0;
+    int round = 0;
+    do {
+      cursor = index.scan(cursor, 7, visited::add);
+      index.remove("removed" + round);
+      index.add("added" + round);
+      round++;
+    } while (cursor != 0);
+
+    assertThat(visited).containsAll(stable);
+  }
+
+  @Test
+  public void cursorMustBeInRange() {
+    assertThat(index.scan(KeyScanIndex.MAX_CURSOR, 10, key -> {
+    })).isEqualTo(0);
+    assertThatThrownBy(() -> index.scan(-1, 10, key -> {
+    })).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> index.scan(KeyScanIndex.MAX_CURSOR + 1, 10, key -> {
+    })).isInstanceOf(IllegalArgumentException.class);
+  }
+}
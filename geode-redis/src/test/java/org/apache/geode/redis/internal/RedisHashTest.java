@@ -0,0 +1,88 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.test.junit.categories.RedisTest;
+
+@Category({RedisTest.class})
+public class RedisHashTest {
+
+  private static ByteArrayWrapper bytes(String name) {
+    return Coder.stringToByteArrayWrapper(name);
+  }
+
+  @Test
+  public void fieldsSurviveGrowingAndShrinking() {
+    RedisHash hash = new RedisHash();
+    for (int i = 0; i < 1000; i++) {
+      assertThat(hash.put(bytes("f" + i), bytes("v" + i))).isTrue();
+    }
+    assertThat(hash.put(bytes("f7"), bytes("seven"))).isFalse();
+    assertThat(hash.putIfAbsent(bytes("f8"), bytes("eight"))).isFalse();
+
+    for (int i = 0; i < 1000; i += 2) {
+      assertThat(hash.remove(bytes("f" + i))).isTrue();
+    }
+    for (int i = 1; i < 990; i += 2) {
+      assertThat(hash.remove(bytes("f" + i))).isTrue();
+    }
+
+    assertThat(hash.size()).isEqualTo(5);
+    assertThat(hash.remove(bytes("f0"))).isFalse();
+    assertThat(hash.get(bytes("f999"))).isEqualTo(bytes("v999"));
+    assertThat(hash.containsField(bytes("f7"))).isFalse();
+    assertThat(hash.fields()).containsExactlyInAnyOrder(bytes("f991"), bytes("f993"),
+        bytes("f995"), bytes("f997"), bytes("f999"));
+  }
+
+  @Test
+  public void deltaOnlyCarriesChangedFields() throws Exception {
+    RedisHash original = new RedisHash();
+    original.put(bytes("a"), bytes("1"));
+    original.put(bytes("b"), bytes("2"));
+    original.resetDelta();
+
+    RedisHash copy = new RedisHash();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    original.toData(new DataOutputStream(out));
+    copy.fromData(new DataInputStream(new ByteArrayInputStream(out.toByteArray())));
+
+    assertThat(original.hasDelta()).isFalse();
+    original.put(bytes("c"), bytes("3"));
+    original.put(bytes("b"), bytes("two"));
+    original.remove(bytes("a"));
+    assertThat(original.hasDelta()).isTrue();
+
+    out = new ByteArrayOutputStream();
+    original.toDelta(new DataOutputStream(out));
+    copy.fromDelta(new DataInputStream(new ByteArrayInputStream(out.toByteArray())));
+
+    assertThat(copy.size()).isEqualTo(2);
+    assertThat(copy.get(bytes("a"))).isNull();
+    assertThat(copy.get(bytes("b"))).isEqualTo(bytes("two"));
+    assertThat(copy.get(bytes("c"))).isEqualTo(bytes("3"));
+    assertThat(copy.hasDelta()).isFalse();
+  }
+}
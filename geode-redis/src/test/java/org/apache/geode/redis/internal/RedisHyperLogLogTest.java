@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.Random;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.test.junit.categories.RedisTest;
+
+@Category({RedisTest.class})
+public class RedisHyperLogLogTest {
+
+  private final Random random = new Random(42);
+
+  private void addRandomElements(RedisHyperLogLog hll, int count) {
+    for (int i = 0; i < count; i++) {
+      byte[] element = new byte[16];
+      random.nextBytes(element);
+      hll.add(element);
+    }
+  }
+
+  private static byte[] toDelta(RedisHyperLogLog hll) throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    hll.toDelta(new DataOutputStream(bytes));
+    return bytes.toByteArray();
+  }
+
+  private static void fromDelta(RedisHyperLogLog hll, byte[] delta) throws Exception {
+    hll.fromDelta(new DataInputStream(new ByteArrayInputStream(delta)));
+  }
+
+  @Test
+  public void estimatesCardinalityOfAddsAndMerges() {
+    RedisHyperLogLog first = new RedisHyperLogLog();
+    RedisHyperLogLog second = new RedisHyperLogLog();
+    assertThat(first.cardinality()).isEqualTo(0);
+    assertThat(first.add(new byte[] {1})).isTrue();
+    assertThat(first.add(new byte[] {1})).isFalse();
+    assertThat(first.cardinality()).isEqualTo(1);
+
+    addRandomElements(first, 50000);
+    addRandomElements(second, 50000);
+
+    assertThat((double) first.cardinality()).isCloseTo(50000, within(2000.0));
+    RedisHyperLogLog union = first.copy();
+    union.merge(second);
+    assertThat((double) union.cardinality()).isCloseTo(100000, within(4000.0));
+    assertThat((double) first.cardinality()).isCloseTo(50000, within(2000.0));
+  }
+
+  @Test
+  public void deltaCarriesChangedRegistersAndCanBeReplayed() throws Exception {
+    RedisHyperLogLog original = new RedisHyperLogLog();
+    addRandomElements(original, 100);
+    RedisHyperLogLog copy = original.copy();
+    original.resetDelta();
+    assertThat(original.hasDelta()).isFalse();
+
+    addRandomElements(original, 100);
+    byte[] delta = toDelta(original);
+    assertThat(delta.length).isLessThan(1000);
+    fromDelta(copy, delta);
+    fromDelta(copy, delta);
+    assertThat(copy.cardinality()).isEqualTo(original.cardinality());
+
+    original.resetDelta();
+    RedisHyperLogLog other = new RedisHyperLogLog();
+    addRandomElements(other, 10000);
+    original.merge(other);
+    fromDelta(copy, toDelta(original));
+    assertThat(copy.cardinality()).isEqualTo(original.cardinality());
+  }
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.InvalidDeltaException;
+import org.apache.geode.test.junit.categories.RedisTest;
+
+@Category({RedisTest.class})
+public class RedisListTest {
+
+  private static ByteArrayWrapper element(String name) {
+    return Coder.stringToByteArrayWrapper(name);
+  }
+
+  private static byte[] toDelta(RedisList list) throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    list.toDelta(new DataOutputStream(bytes));
+    return bytes.toByteArray();
+  }
+
+  private static byte[] toData(RedisList list) throws Exception {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    list.toData(new DataOutputStream(bytes));
+    return bytes.toByteArray();
+  }
+
+  private static void fromDelta(RedisList list, byte[] delta) throws Exception {
+    list.fromDelta(new DataInputStream(new ByteArrayInputStream(delta)));
+  }
+
+  @Test
+  public void pushesAndPopsWorkOnBothEnds() {
+    RedisList list = new RedisList();
+    for (int i = 0; i < 20; i++) {
+      list.pushLeft(element("l" + i));
+      list.pushRight(element("r" + i));
+    }
+
+    assertThat(list.size()).isEqualTo(40);
+    assertThat(list.get(0)).isEqualTo(element("l19"));
+    assertThat(list.get(39)).isEqualTo(element("r19"));
+    assertThat(list.popLeft()).isEqualTo(element("l19"));
+    assertThat(list.popRight()).isEqualTo(element("r19"));
+    assertThat(list.range(18, 19)).containsExactly(element("l0"), element("r0"));
+  }
+
+  @Test
+  public void deltaIsReplayedOnceOnly() throws Exception {
+    RedisList original = new RedisList();
+    RedisList copy = new RedisList();
+
+    original.pushRight(element("a"));
+    original.pushRight(element("b"));
+    original.pushLeft(element("c"));
+    original.remove(element("a"), 0);
+    byte[] delta = toDelta(original);
+    original.resetDelta();
+
+    fromDelta(copy, delta);
+    assertThat(copy.range(0, copy.size() - 1)).containsExactly(element("c"), element("b"));
+    fromDelta(copy, delta);
+    assertThat(copy.range(0, copy.size() - 1)).containsExactly(element("c"), element("b"));
+
+    RedisList transferred = new RedisList();
+    transferred.fromData(new DataInputStream(new ByteArrayInputStream(toData(copy))));
+    fromDelta(transferred, delta);
+    assertThat(transferred.range(0, transferred.size() - 1))
+        .containsExactly(element("c"), element("b"));
+  }
+
+  @Test
+  public void concurrentChangesAreBothKept() throws Exception {
+    RedisList first = new RedisList();
+    first.pushRight(element("a"));
+    first.resetDelta();
+    RedisList second = new RedisList();
+    second.fromData(new DataInputStream(new ByteArrayInputStream(toData(first))));
+
+    first.pushRight(element("b"));
+    second.pushLeft(element("c"));
+    byte[] firstDelta = toDelta(first);
+    byte[] secondDelta = toDelta(second);
+    first.resetDelta();
+    second.resetDelta();
+    fromDelta(first, secondDelta);
+    fromDelta(second, firstDelta);
+
+    assertThat(first.range(0, first.size() - 1))
+        .containsExactly(element("c"), element("a"), element("b"));
+    assertThat(second.range(0, second.size() - 1))
+        .containsExactly(element("c"), element("a"), element("b"));
+  }
+
+  @Test
+  public void deltaOfChangesACopyIsMissingIsRefused() throws Exception {
+    RedisList original = new RedisList();
+    RedisList copy = new RedisList();
+    original.pushRight(element("a"));
+    original.resetDelta();
+    original.pushRight(element("b"));
+
+    assertThatThrownBy(() -> fromDelta(copy, toDelta(original)))
+        .isInstanceOf(InvalidDeltaException.class);
+    assertThat(copy.size()).isEqualTo(0);
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to You under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance with the License. You may obtain a
+ * copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+package org.apache.geode.redis.internal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map.Entry;
+
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import org.apache.geode.test.junit.categories.RedisTest;
+
+@Category({RedisTest.class})
+public class RedisSortedSetTest {
+
+  private static ByteArrayWrapper member(String name) {
+    return Coder.stringToByteArrayWrapper(name);
+  }
+
+  private static List<String> members(List<Entry<ByteArrayWrapper, DoubleWrapper>> entries) {
+    List<String> result = new ArrayList<>();
+    for (Entry<ByteArrayWrapper, DoubleWrapper> entry : entries) {
+      result.add(entry.getKey().toString());
+    }
+    return result;
+  }
+
+  @Test
+  public void membersAreOrderedByScoreThenMember() {
+    RedisSortedSet sortedSet = new RedisSortedSet();
+    assertThat(sortedSet.add(member("c"), 2)).isTrue();
+    assertThat(sortedSet.add(member("b"), 1)).isTrue();
+    assertThat(sortedSet.add(member("a"), 1)).isTrue();
+    assertThat(sortedSet.add(member("c"), 0)).isFalse();
+
+    assertThat(members(sortedSet.entries())).containsExactly("c", "a", "b");
+    assertThat(sortedSet.rank(member("b"), false)).isEqualTo(2);
+    assertThat(sortedSet.rank(member("b"), true)).isEqualTo(0);
+    assertThat(sortedSet.rank(member("d"), false)).isEqualTo(-1);
+    assertThat(members(sortedSet.range(1, 2, true))).containsExactly("a", "c");
+  }
+
+  @Test
+  public void scoreRangesHonorExclusiveBoundsAndLimits() {
+    RedisSortedSet sortedSet = new RedisSortedSet();
+    for (int i = 0; i < 10; i++) {
+      sortedSet.add(member("m" + i), i);
+    }
+
+    assertThat(sortedSet.count(2, false, 5, true)).isEqualTo(3);
+    assertThat(members(sortedSet.rangeByScore(2, true, 8, true, 1, 2, false)))
+        .containsExactly("m3", "m4");
+    assertThat(members(sortedSet.rangeByScore(2, true, 8, true, 1, 2, true)))
+        .containsExactly("m7", "m6");
+    assertThat(sortedSet.removeRangeByScore(Double.NEGATIVE_INFINITY, true, 4, false))
+        .isEqualTo(4);
+    assertThat(sortedSet.size()).isEqualTo(6);
+  }
+
+  @Test
+  public void deltaOnlyCarriesChangedMembers() throws Exception {
+    RedisSortedSet original = new RedisSortedSet();
+    original.add(member("a"), 1);
+    original.add(member("b"), 2);
+    original.resetDelta();
+
+    RedisSortedSet copy = new RedisSortedSet();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    original.toData(new DataOutputStream(bytes));
+    copy.fromData(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+    assertThat(original.hasDelta()).isFalse();
+    original.add(member("c"), 0);
+    original.remove(member("a"));
+    assertThat(original.hasDelta()).isTrue();
+
+    bytes = new ByteArrayOutputStream();
+    original.toDelta(new DataOutputStream(bytes));
+    copy.fromDelta(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+    assertThat(members(copy.entries())).containsExactly("c", "b");
+    assertThat(copy.hasDelta()).isFalse();
+  }
+}